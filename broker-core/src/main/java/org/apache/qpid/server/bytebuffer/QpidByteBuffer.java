@@ -157,6 +157,16 @@ public class QpidByteBuffer implements AutoCloseable
         }
     }
 
+    /**
+     * Returns a view of the remaining content of this buffer for passing to I/O APIs which do not accept
+     * QpidByteBuffers.  Unlike {@link #asByteBuffer()} this buffer is not disposed, and must not be disposed
+     * whilst the view is in use.
+     */
+    public final ByteBuffer asByteBufferView()
+    {
+        return getUnderlyingBuffer().slice();
+    }
+
     public final CharBuffer decode(Charset charset)
     {
         return charset.decode(getUnderlyingBuffer());
@@ -0,0 +1,178 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.configuration.store;
+
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.apache.qpid.server.store.ConfiguredObjectRecord;
+import org.apache.qpid.server.store.DurableConfigurationStore;
+
+/**
+ * Collects the configuration store writes made by {@link StoreConfigurationChangeListener}s on the current thread
+ * so that they are applied with one update and one remove call per store when the batch ends.
+ * <p>
+ * Only the latest record of each object is kept, so an object changed many times within a batch (e.g. an
+ * exchange acquiring thousands of bindings) is written once.
+ */
+public final class ConfigurationStoreBatch
+{
+    private static final ThreadLocal<ConfigurationStoreBatch> CURRENT = new ThreadLocal<>();
+
+    private final Map<DurableConfigurationStore, PendingWrites> _pendingWrites = new IdentityHashMap<>();
+
+    private ConfigurationStoreBatch()
+    {
+    }
+
+    /**
+     * Performs the given action batching the configuration store writes it causes.  If a batch is already in
+     * progress on this thread, the writes join it.
+     * <p>
+     * The result of the action is only returned once the writes have been applied; if they cannot be applied the
+     * store's exception is thrown instead.  The writes are also applied if the action fails, as the corresponding
+     * changes have already been made to the in-memory model, in which case a failure to apply them is added to the
+     * action's exception as suppressed.
+     */
+    public static <T> T perform(final Supplier<T> action)
+    {
+        if (CURRENT.get() != null)
+        {
+            return action.get();
+        }
+
+        final ConfigurationStoreBatch batch = new ConfigurationStoreBatch();
+        CURRENT.set(batch);
+        final T result;
+        try
+        {
+            result = action.get();
+        }
+        catch (RuntimeException | Error e)
+        {
+            CURRENT.remove();
+            try
+            {
+                batch.flush();
+            }
+            catch (RuntimeException flushException)
+            {
+                e.addSuppressed(flushException);
+            }
+            throw e;
+        }
+
+        CURRENT.remove();
+        batch.flush();
+        return result;
+    }
+
+    static ConfigurationStoreBatch current()
+    {
+        return CURRENT.get();
+    }
+
+    void update(final DurableConfigurationStore store,
+                final boolean createIfNecessary,
+                final ConfiguredObjectRecord record)
+    {
+        getPendingWrites(store).update(createIfNecessary, record);
+    }
+
+    void remove(final DurableConfigurationStore store, final ConfiguredObjectRecord record)
+    {
+        getPendingWrites(store).remove(record);
+    }
+
+    private PendingWrites getPendingWrites(final DurableConfigurationStore store)
+    {
+        PendingWrites pendingWrites = _pendingWrites.get(store);
+        if (pendingWrites == null)
+        {
+            pendingWrites = new PendingWrites();
+            _pendingWrites.put(store, pendingWrites);
+        }
+        return pendingWrites;
+    }
+
+    private void flush()
+    {
+        for (Map.Entry<DurableConfigurationStore, PendingWrites> entry : _pendingWrites.entrySet())
+        {
+            entry.getValue().flush(entry.getKey());
+        }
+    }
+
+    private static final class PendingWrites
+    {
+        private final Map<UUID, ConfiguredObjectRecord> _creates = new LinkedHashMap<>();
+        private final Map<UUID, ConfiguredObjectRecord> _updates = new LinkedHashMap<>();
+        private final Map<UUID, ConfiguredObjectRecord> _removals = new LinkedHashMap<>();
+
+        private void update(final boolean createIfNecessary, final ConfiguredObjectRecord record)
+        {
+            final UUID id = record.getId();
+            _removals.remove(id);
+            if (createIfNecessary || _creates.containsKey(id))
+            {
+                _updates.remove(id);
+                _creates.put(id, record);
+            }
+            else
+            {
+                _updates.put(id, record);
+            }
+        }
+
+        private void remove(final ConfiguredObjectRecord record)
+        {
+            final UUID id = record.getId();
+            _creates.remove(id);
+            _updates.remove(id);
+            _removals.put(id, record);
+        }
+
+        private void flush(final DurableConfigurationStore store)
+        {
+            if (!_removals.isEmpty())
+            {
+                store.remove(toArray(_removals.values()));
+            }
+            if (!_creates.isEmpty())
+            {
+                store.update(true, toArray(_creates.values()));
+            }
+            if (!_updates.isEmpty())
+            {
+                store.update(false, toArray(_updates.values()));
+            }
+        }
+
+        private static ConfiguredObjectRecord[] toArray(final Collection<ConfiguredObjectRecord> records)
+        {
+            return records.toArray(new ConfiguredObjectRecord[records.size()]);
+        }
+    }
+}
@@ -26,6 +26,7 @@ import org.apache.qpid.server.model.ConfigurationChangeListener;
 import org.apache.qpid.server.model.ConfiguredObject;
 import org.apache.qpid.server.model.Model;
 import org.apache.qpid.server.model.State;
+import org.apache.qpid.server.store.ConfiguredObjectRecord;
 import org.apache.qpid.server.store.DurableConfigurationStore;
 
 public class StoreConfigurationChangeListener implements ConfigurationChangeListener
@@ -46,7 +47,7 @@ public class StoreConfigurationChangeListener implements ConfigurationChangeList
         {
             if(object.isDurable())
             {
-                _store.remove(object.asObjectRecord());
+                remove(object.asObjectRecord());
             }
             object.removeChangeListener(this);
         }
@@ -65,7 +66,7 @@ public class StoreConfigurationChangeListener implements ConfigurationChangeList
                 if(parentType.equals(object.getCategoryClass()))
                 {
                     child.addChangeListener(this);
-                    _store.update(true, child.asObjectRecord());
+                    update(true, child.asObjectRecord());
 
                     Class<? extends ConfiguredObject> categoryClass = child.getCategoryClass();
                     Collection<Class<? extends ConfiguredObject>> childTypes =
@@ -95,7 +96,7 @@ public class StoreConfigurationChangeListener implements ConfigurationChangeList
     {
         if (object.isDurable() && _bulkChanges)
         {
-            _store.update(false, object.asObjectRecord());
+            update(false, object.asObjectRecord());
         }
         _bulkChanges = false;
     }
@@ -107,7 +108,7 @@ public class StoreConfigurationChangeListener implements ConfigurationChangeList
         {
             if (child.isDurable())
             {
-                _store.remove(child.asObjectRecord());
+                remove(child.asObjectRecord());
             }
             child.removeChangeListener(this);
         }
@@ -118,7 +119,33 @@ public class StoreConfigurationChangeListener implements ConfigurationChangeList
     {
         if (object.isDurable() && !_bulkChanges)
         {
-            _store.update(false, object.asObjectRecord());
+            update(false, object.asObjectRecord());
+        }
+    }
+
+    private void update(final boolean createIfNecessary, final ConfiguredObjectRecord record)
+    {
+        final ConfigurationStoreBatch batch = ConfigurationStoreBatch.current();
+        if (batch == null)
+        {
+            _store.update(createIfNecessary, record);
+        }
+        else
+        {
+            batch.update(_store, createIfNecessary, record);
+        }
+    }
+
+    private void remove(final ConfiguredObjectRecord record)
+    {
+        final ConfigurationStoreBatch batch = ConfigurationStoreBatch.current();
+        if (batch == null)
+        {
+            _store.remove(record);
+        }
+        else
+        {
+            batch.remove(_store, record);
         }
     }
 
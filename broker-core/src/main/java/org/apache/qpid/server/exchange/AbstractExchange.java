@@ -92,7 +92,8 @@ public abstract class AbstractExchange<T extends AbstractExchange<T>>
 {
     private static final Logger _logger = LoggerFactory.getLogger(AbstractExchange.class);
 
-    private static final ThreadLocal<Map<AbstractExchange<?>, Set<String>>> CURRENT_ROUTING = new ThreadLocal<>();
+    private static final ThreadLocal<Map<AbstractExchange<?>, Set<String>>> CURRENT_ROUTING =
+            ThreadLocal.withInitial(HashMap::new);
 
     private static final FixedKeyMapCreator BIND_ARGUMENTS_CREATOR =
             new FixedKeyMapCreator("bindingKey", "destination", "arguments");
@@ -590,15 +591,11 @@ public abstract class AbstractExchange<T extends AbstractExchange<T>>
 
         final RoutingResult<M> routingResult = new RoutingResult<>(message);
 
-        Map<AbstractExchange<?>, Set<String>> currentThreadMap = CURRENT_ROUTING.get();
-        boolean topLevel = currentThreadMap == null;
+        // the map is reused by each top level routing on the thread
+        final Map<AbstractExchange<?>, Set<String>> currentThreadMap = CURRENT_ROUTING.get();
+        final boolean topLevel = currentThreadMap.isEmpty();
         try
         {
-            if (topLevel)
-            {
-                currentThreadMap = new HashMap<>();
-                CURRENT_ROUTING.set(currentThreadMap);
-            }
             Set<String> existingRoutes = currentThreadMap.get(this);
             if (existingRoutes == null)
             {
@@ -646,7 +643,7 @@ public abstract class AbstractExchange<T extends AbstractExchange<T>>
         {
             if(topLevel)
             {
-                CURRENT_ROUTING.set(null);
+                currentThreadMap.clear();
             }
         }
     }
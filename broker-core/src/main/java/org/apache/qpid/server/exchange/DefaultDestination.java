@@ -97,15 +97,13 @@ public class DefaultDestination implements MessageDestination, PermissionedObjec
                                                                                                String routingAddress,
                                                                                                InstanceProperties instanceProperties)
     {
-        RoutingResult<M> result = new RoutingResult<>(message);
-
         DestinationAddress destinationAddress = new DestinationAddress(_virtualHost, routingAddress);
         MessageDestination messageDestination = destinationAddress.getMessageDestination();
         if (messageDestination != null)
         {
-            result.add(messageDestination.route(message,destinationAddress.getRoutingKey(), instanceProperties));
+            return messageDestination.route(message, destinationAddress.getRoutingKey(), instanceProperties);
         }
-        return result;
+        return new RoutingResult<>(message);
     }
 
     @Override
@@ -53,10 +53,15 @@ public class DirectExchangeImpl extends AbstractExchange<DirectExchangeImpl> imp
         private final Map<MessageDestination, String> _unfilteredDestinations;
         private final Map<MessageDestination, FilterManagerReplacementRoutingKeyTuple> _filteredDestinations;
 
+        // snapshots of the maps above, so that routing a message iterates arrays rather than maps
+        private final MessageDestination[] _unfilteredDestinationArray;
+        private final String[] _unfilteredReplacementRoutingKeys;
+        private final MessageDestination[] _filteredDestinationArray;
+        private final FilterManagerReplacementRoutingKeyTuple[] _filteredTuples;
+
         BindingSet()
         {
-            _unfilteredDestinations = Collections.emptyMap();
-            _filteredDestinations = Collections.emptyMap();
+            this(Collections.emptyMap(), Collections.emptyMap());
         }
 
         private BindingSet(final Map<MessageDestination, String> unfilteredDestinations,
@@ -64,16 +69,24 @@ public class DirectExchangeImpl extends AbstractExchange<DirectExchangeImpl> imp
         {
             _unfilteredDestinations = unfilteredDestinations;
             _filteredDestinations = filteredDestinations;
-        }
 
-        Map<MessageDestination, String> getUnfilteredDestinations()
-        {
-            return _unfilteredDestinations;
-        }
+            _unfilteredDestinationArray = new MessageDestination[unfilteredDestinations.size()];
+            _unfilteredReplacementRoutingKeys = new String[unfilteredDestinations.size()];
+            int i = 0;
+            for (Map.Entry<MessageDestination, String> entry : unfilteredDestinations.entrySet())
+            {
+                _unfilteredDestinationArray[i] = entry.getKey();
+                _unfilteredReplacementRoutingKeys[i++] = entry.getValue();
+            }
 
-        boolean hasFilteredQueues()
-        {
-            return !_filteredDestinations.isEmpty();
+            _filteredDestinationArray = new MessageDestination[filteredDestinations.size()];
+            _filteredTuples = new FilterManagerReplacementRoutingKeyTuple[filteredDestinations.size()];
+            i = 0;
+            for (Map.Entry<MessageDestination, FilterManagerReplacementRoutingKeyTuple> entry : filteredDestinations.entrySet())
+            {
+                _filteredDestinationArray[i] = entry.getKey();
+                _filteredTuples[i++] = entry.getValue();
+            }
         }
 
         boolean isEmpty()
@@ -81,11 +94,6 @@ public class DirectExchangeImpl extends AbstractExchange<DirectExchangeImpl> imp
             return _unfilteredDestinations.isEmpty() && _filteredDestinations.isEmpty();
         }
 
-        Map<MessageDestination, FilterManagerReplacementRoutingKeyTuple> getFilteredDestinations()
-        {
-            return _filteredDestinations;
-        }
-
         BindingSet putBinding(MessageDestination destination, Map<String, Object> arguments, boolean force)
         {
             if (!force && (_unfilteredDestinations.containsKey(destination) || _filteredDestinations.containsKey(
@@ -198,32 +206,32 @@ public class DirectExchangeImpl extends AbstractExchange<DirectExchangeImpl> imp
         BindingSet bindings = _bindingsByKey.get(routingKey == null ? "" : routingKey);
         if (bindings != null)
         {
-            final Map<MessageDestination, String> unfilteredDestinations = bindings.getUnfilteredDestinations();
-            for (MessageDestination destination : unfilteredDestinations.keySet())
+            final MessageDestination[] unfilteredDestinations = bindings._unfilteredDestinationArray;
+            final String[] unfilteredReplacementRoutingKeys = bindings._unfilteredReplacementRoutingKeys;
+            for (int i = 0; i < unfilteredDestinations.length; i++)
             {
-                String actualRoutingKey = unfilteredDestinations.get(destination) == null
+                String actualRoutingKey = unfilteredReplacementRoutingKeys[i] == null
                         ? routingKey
-                        : unfilteredDestinations.get(destination);
-                result.add(destination.route(payload, actualRoutingKey, instanceProperties));
+                        : unfilteredReplacementRoutingKeys[i];
+                result.add(unfilteredDestinations[i].route(payload, actualRoutingKey, instanceProperties));
             }
 
-            if (bindings.hasFilteredQueues())
+            final MessageDestination[] filteredDestinations = bindings._filteredDestinationArray;
+            if (filteredDestinations.length != 0)
             {
                 Filterable filterable = Filterable.Factory.newInstance(payload, instanceProperties);
 
-                Map<MessageDestination, FilterManagerReplacementRoutingKeyTuple> filteredDestinations =
-                        bindings.getFilteredDestinations();
-                for (Map.Entry<MessageDestination, FilterManagerReplacementRoutingKeyTuple> entry : filteredDestinations
-                        .entrySet())
+                final FilterManagerReplacementRoutingKeyTuple[] filteredTuples = bindings._filteredTuples;
+                for (int i = 0; i < filteredDestinations.length; i++)
                 {
-                    FilterManagerReplacementRoutingKeyTuple tuple = entry.getValue();
+                    FilterManagerReplacementRoutingKeyTuple tuple = filteredTuples[i];
                     String actualRoutingKey = tuple.getReplacementRoutingKey() == null
                             ? routingKey
                             : tuple.getReplacementRoutingKey();
 
                     if (tuple.getFilterManager().allAllow(filterable))
                     {
-                        result.add(entry.getKey().route(payload, actualRoutingKey, instanceProperties));
+                        result.add(filteredDestinations[i].route(payload, actualRoutingKey, instanceProperties));
                     }
                 }
             }
@@ -22,11 +22,12 @@ package org.apache.qpid.server.exchange;
 
 import static org.apache.qpid.server.model.Binding.BINDING_ARGUMENT_REPLACEMENT_ROUTING_KEY;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -53,17 +54,53 @@ class FanoutExchangeImpl extends AbstractExchange<FanoutExchangeImpl> implements
         private final Map<MessageDestination, Map<BindingIdentifier, FilterManagerReplacementRoutingKeyTuple>>
                 _filteredDestinations;
 
+        // snapshots of the maps above, holding each destination once per distinct replacement routing key (unfiltered)
+        // or per binding (filtered), so that routing a message iterates arrays rather than maps
+        private final MessageDestination[] _unfilteredDestinationArray;
+        private final String[] _unfilteredReplacementRoutingKeys;
+        private final MessageDestination[] _filteredDestinationArray;
+        private final FilterManagerReplacementRoutingKeyTuple[] _filteredTuples;
+
         BindingSet(final Map<MessageDestination, Map<BindingIdentifier, String>> unfilteredDestinations,
                    final Map<MessageDestination, Map<BindingIdentifier, FilterManagerReplacementRoutingKeyTuple>> filteredDestinations)
         {
             _unfilteredDestinations = unfilteredDestinations;
             _filteredDestinations = filteredDestinations;
+
+            final List<MessageDestination> unfilteredDestinationList = new ArrayList<>();
+            final List<String> unfilteredReplacementRoutingKeys = new ArrayList<>();
+            for (Map.Entry<MessageDestination, Map<BindingIdentifier, String>> entry : unfilteredDestinations.entrySet())
+            {
+                for (String replacementRoutingKey : new HashSet<>(entry.getValue().values()))
+                {
+                    unfilteredDestinationList.add(entry.getKey());
+                    unfilteredReplacementRoutingKeys.add(replacementRoutingKey);
+                }
+            }
+            _unfilteredDestinationArray =
+                    unfilteredDestinationList.toArray(new MessageDestination[unfilteredDestinationList.size()]);
+            _unfilteredReplacementRoutingKeys =
+                    unfilteredReplacementRoutingKeys.toArray(new String[unfilteredReplacementRoutingKeys.size()]);
+
+            final List<MessageDestination> filteredDestinationList = new ArrayList<>();
+            final List<FilterManagerReplacementRoutingKeyTuple> filteredTuples = new ArrayList<>();
+            for (Map.Entry<MessageDestination, Map<BindingIdentifier, FilterManagerReplacementRoutingKeyTuple>> entry :
+                    filteredDestinations.entrySet())
+            {
+                for (FilterManagerReplacementRoutingKeyTuple tuple : entry.getValue().values())
+                {
+                    filteredDestinationList.add(entry.getKey());
+                    filteredTuples.add(tuple);
+                }
+            }
+            _filteredDestinationArray =
+                    filteredDestinationList.toArray(new MessageDestination[filteredDestinationList.size()]);
+            _filteredTuples = filteredTuples.toArray(new FilterManagerReplacementRoutingKeyTuple[filteredTuples.size()]);
         }
 
         BindingSet()
         {
-            _unfilteredDestinations = Collections.emptyMap();
-            _filteredDestinations = Collections.emptyMap();
+            this(Collections.emptyMap(), Collections.emptyMap());
         }
 
         BindingSet addBinding(final BindingIdentifier binding, final Map<String, Object> arguments)
@@ -188,43 +225,31 @@ class FanoutExchangeImpl extends AbstractExchange<FanoutExchangeImpl> implements
     {
         BindingSet bindingSet = _bindingSet;
 
-        if (!bindingSet._unfilteredDestinations.isEmpty())
+        final MessageDestination[] unfilteredDestinations = bindingSet._unfilteredDestinationArray;
+        final String[] unfilteredReplacementRoutingKeys = bindingSet._unfilteredReplacementRoutingKeys;
+        for (int i = 0; i < unfilteredDestinations.length; i++)
         {
-            for (MessageDestination destination : bindingSet._unfilteredDestinations.keySet())
-            {
-                Set<String> replacementRoutingKeys =
-                        new HashSet<>(bindingSet._unfilteredDestinations.get(destination).values());
-
-                replacementRoutingKeys.forEach(
-                        replacementRoutingKey -> result.add(destination.route(message,
-                                                                              replacementRoutingKey == null
-                                                                                      ? routingAddress
-                                                                                      : replacementRoutingKey,
-                                                                              instanceProperties)));
-            }
+            String routingKey = unfilteredReplacementRoutingKeys[i] == null
+                    ? routingAddress
+                    : unfilteredReplacementRoutingKeys[i];
+            result.add(unfilteredDestinations[i].route(message, routingKey, instanceProperties));
         }
 
-        final Map<MessageDestination, Map<BindingIdentifier, FilterManagerReplacementRoutingKeyTuple>>
-                filteredDestinations = bindingSet._filteredDestinations;
-        if (!filteredDestinations.isEmpty())
+        final MessageDestination[] filteredDestinations = bindingSet._filteredDestinationArray;
+        if (filteredDestinations.length != 0)
         {
-            for (Map.Entry<MessageDestination, Map<BindingIdentifier, FilterManagerReplacementRoutingKeyTuple>> entry :
-                    filteredDestinations.entrySet())
+            Filterable filterable = Filterable.Factory.newInstance(message, instanceProperties);
+
+            final FilterManagerReplacementRoutingKeyTuple[] filteredTuples = bindingSet._filteredTuples;
+            for (int i = 0; i < filteredDestinations.length; i++)
             {
-                MessageDestination destination = entry.getKey();
-                final Map<BindingIdentifier, FilterManagerReplacementRoutingKeyTuple> bindingMessageFilterMap =
-                        entry.getValue();
-                for (FilterManagerReplacementRoutingKeyTuple tuple : bindingMessageFilterMap.values())
+                FilterManagerReplacementRoutingKeyTuple tuple = filteredTuples[i];
+                if (tuple.getFilterManager().allAllow(filterable))
                 {
-
-                    FilterManager filter = tuple.getFilterManager();
-                    if (filter.allAllow(Filterable.Factory.newInstance(message, instanceProperties)))
-                    {
-                        String routingKey = tuple.getReplacementRoutingKey() == null
-                                ? routingAddress
-                                : tuple.getReplacementRoutingKey();
-                        result.add(destination.route(message, routingKey, instanceProperties));
-                    }
+                    String routingKey = tuple.getReplacementRoutingKey() == null
+                            ? routingAddress
+                            : tuple.getReplacementRoutingKey();
+                    result.add(filteredDestinations[i].route(message, routingKey, instanceProperties));
                 }
             }
         }
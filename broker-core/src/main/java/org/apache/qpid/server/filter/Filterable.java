@@ -45,6 +45,19 @@ public interface Filterable extends FilterableMessage
     {
 
         public static Filterable newInstance(final ServerMessage message, final InstanceProperties properties)
+        {
+            return newInstance(message, null, properties);
+        }
+
+        /**
+         * Creates a Filterable answering header queries from the given header rather than the message's own, e.g. a
+         * summary retained in memory whilst the message's metadata is held only in the store.
+         *
+         * @param header the header to use, or null to use the message's header
+         */
+        public static Filterable newInstance(final ServerMessage message,
+                                             final AMQMessageHeader header,
+                                             final InstanceProperties properties)
         {
             return new Filterable()
             {
@@ -52,7 +65,7 @@ public interface Filterable extends FilterableMessage
                 @Override
                 public AMQMessageHeader getMessageHeader()
                 {
-                    return message.getMessageHeader();
+                    return header == null ? message.getMessageHeader() : header;
                 }
 
                 @Override
@@ -88,49 +101,49 @@ public interface Filterable extends FilterableMessage
                 @Override
                 public String getReplyTo()
                 {
-                    return message.getMessageHeader().getReplyTo();
+                    return getMessageHeader().getReplyTo();
                 }
 
                 @Override
                 public String getType()
                 {
-                    return message.getMessageHeader().getType();
+                    return getMessageHeader().getType();
                 }
 
                 @Override
                 public byte getPriority()
                 {
-                    return message.getMessageHeader().getPriority();
+                    return getMessageHeader().getPriority();
                 }
 
                 @Override
                 public String getMessageId()
                 {
-                    return message.getMessageHeader().getMessageId();
+                    return getMessageHeader().getMessageId();
                 }
 
                 @Override
                 public long getTimestamp()
                 {
-                    return message.getMessageHeader().getTimestamp();
+                    return getMessageHeader().getTimestamp();
                 }
 
                 @Override
                 public String getCorrelationId()
                 {
-                    return message.getMessageHeader().getCorrelationId();
+                    return getMessageHeader().getCorrelationId();
                 }
 
                 @Override
                 public long getExpiration()
                 {
-                    return message.getMessageHeader().getExpiration();
+                    return getMessageHeader().getExpiration();
                 }
 
                 @Override
                 public Object getHeader(String name)
                 {
-                    return message.getMessageHeader().getHeader(name);
+                    return getMessageHeader().getHeader(name);
                 }
 
                 @Override
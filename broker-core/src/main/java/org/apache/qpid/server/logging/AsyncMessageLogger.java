@@ -0,0 +1,307 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.logging;
+
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.security.auth.Subject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A MessageLogger which hands the messages to a background thread for formatting and logging by the delegate.
+ * <p>
+ * Messages are held in a bounded lock-free ring buffer together with the {@link Subject} of the thread logging them,
+ * so that the actor is resolved as if logged synchronously, and the string of their {@link LogSubject} as it was
+ * when the message was logged.  If the buffer is full the message is dropped and counted
+ * rather than blocking the logging thread.  Once stopped, messages are logged synchronously.
+ */
+public class AsyncMessageLogger implements MessageLogger
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncMessageLogger.class);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final MessageLogger _delegate;
+    private final int _mask;
+    private final AtomicReferenceArray<Event> _events;
+    /** Slot sequence numbers, as in Vyukov's bounded queue: a slot is free for position p when its sequence is p */
+    private final AtomicLongArray _sequences;
+    private final AtomicLong _tail = new AtomicLong();
+    private final AtomicLong _droppedCount = new AtomicLong();
+    private final Thread _consumer;
+
+    /** Accessed only by the consumer thread, or by the stopping thread once the consumer has terminated */
+    private volatile long _head;
+    private volatile boolean _consumerParked;
+    private volatile boolean _stopped;
+
+    public AsyncMessageLogger(final MessageLogger delegate, final int capacity)
+    {
+        if (capacity <= 0)
+        {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        _delegate = delegate;
+        final int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        _mask = size - 1;
+        _events = new AtomicReferenceArray<>(size);
+        _sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++)
+        {
+            _sequences.set(i, i);
+        }
+        _consumer = new Thread(this::consume, "Operational-Logging");
+        _consumer.setDaemon(true);
+    }
+
+    public void start()
+    {
+        _consumer.start();
+    }
+
+    /**
+     * Stops the background thread, logging any messages still buffered.
+     */
+    public void stop()
+    {
+        _stopped = true;
+        LockSupport.unpark(_consumer);
+        try
+        {
+            _consumer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        if (!_consumer.isAlive())
+        {
+            drain();
+        }
+        else
+        {
+            LOGGER.warn("Operational logging thread did not terminate, {} message(s) may not be logged",
+                        getPendingCount());
+        }
+    }
+
+    public MessageLogger getDelegate()
+    {
+        return _delegate;
+    }
+
+    public long getDroppedCount()
+    {
+        return _droppedCount.get();
+    }
+
+    public long getPendingCount()
+    {
+        return Math.max(0L, _tail.get() - _head);
+    }
+
+    @Override
+    public boolean isEnabled()
+    {
+        return _delegate.isEnabled();
+    }
+
+    @Override
+    public boolean isMessageEnabled(final String logHierarchy)
+    {
+        return _delegate.isMessageEnabled(logHierarchy);
+    }
+
+    @Override
+    public void message(final LogMessage message)
+    {
+        message(null, message);
+    }
+
+    @Override
+    public void message(final LogSubject subject, final LogMessage message)
+    {
+        if (!_delegate.isMessageEnabled(message.getLogHierarchy()))
+        {
+            return;
+        }
+
+        // the string of a log subject can change after the event (e.g. as a connection is established), so it is
+        // taken now rather than when the message is logged
+        final LogSubject logSubject;
+        if (subject == null)
+        {
+            logSubject = null;
+        }
+        else
+        {
+            final String logString = subject.toLogString();
+            logSubject = () -> logString;
+        }
+
+        final Event event = new Event(Subject.getSubject(AccessController.getContext()), logSubject, message);
+        if (_stopped)
+        {
+            log(event);
+        }
+        else if (offer(event))
+        {
+            if (_consumerParked)
+            {
+                LockSupport.unpark(_consumer);
+            }
+        }
+        else
+        {
+            _droppedCount.incrementAndGet();
+        }
+    }
+
+    private boolean offer(final Event event)
+    {
+        long position = _tail.get();
+        while (true)
+        {
+            final int index = (int) (position & _mask);
+            final long difference = _sequences.get(index) - position;
+            if (difference == 0)
+            {
+                if (_tail.compareAndSet(position, position + 1))
+                {
+                    _events.lazySet(index, event);
+                    _sequences.set(index, position + 1);
+                    return true;
+                }
+                position = _tail.get();
+            }
+            else if (difference < 0)
+            {
+                // the slot has not yet been consumed since the previous lap, so the buffer is full
+                return false;
+            }
+            else
+            {
+                position = _tail.get();
+            }
+        }
+    }
+
+    private Event poll()
+    {
+        final int index = (int) (_head & _mask);
+        if (_sequences.get(index) != _head + 1)
+        {
+            return null;
+        }
+        final Event event = _events.get(index);
+        _events.lazySet(index, null);
+        _sequences.set(index, _head + _mask + 1);
+        _head++;
+        return event;
+    }
+
+    private void consume()
+    {
+        while (!_stopped)
+        {
+            final Event event = poll();
+            if (event != null)
+            {
+                log(event);
+            }
+            else
+            {
+                _consumerParked = true;
+                if (getPendingCount() == 0 && !_stopped)
+                {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                _consumerParked = false;
+            }
+        }
+    }
+
+    private void drain()
+    {
+        Event event;
+        while ((event = poll()) != null)
+        {
+            log(event);
+        }
+    }
+
+    private void log(final Event event)
+    {
+        try
+        {
+            if (event._subject == null)
+            {
+                event.log(_delegate);
+            }
+            else
+            {
+                Subject.doAs(event._subject, (PrivilegedAction<Void>) () ->
+                {
+                    event.log(_delegate);
+                    return null;
+                });
+            }
+        }
+        catch (RuntimeException e)
+        {
+            LOGGER.warn("Failed to log operational message", e);
+        }
+    }
+
+    private static final class Event
+    {
+        private final Subject _subject;
+        private final LogSubject _logSubject;
+        private final LogMessage _message;
+
+        private Event(final Subject subject, final LogSubject logSubject, final LogMessage message)
+        {
+            _subject = subject;
+            _logSubject = logSubject;
+            _message = message;
+        }
+
+        private void log(final MessageLogger messageLogger)
+        {
+            if (_logSubject == null)
+            {
+                messageLogger.message(_message);
+            }
+            else
+            {
+                messageLogger.message(_logSubject, _message);
+            }
+        }
+    }
+}
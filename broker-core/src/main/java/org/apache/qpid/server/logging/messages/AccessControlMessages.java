@@ -98,18 +98,26 @@ public class AccessControlMessages
     {
         String rawMessage = _messages.getString("ALLOWED");
 
+        final String messagePattern = rawMessage;
         final Object[] messageArguments = {param1, param2, param3};
-        // Create a new MessageFormat to ensure thread safety.
-        // Sharing a MessageFormat and using applyPattern is not thread safe
-        MessageFormat formatter = new MessageFormat(rawMessage, _currentLocale);
-
-        final String message = formatter.format(messageArguments);
 
         return new LogMessage()
         {
+            private volatile String _message;
+
             @Override
             public String toString()
             {
+                // Formatted on first use, which may be on a different thread from the one creating the message
+                String message = _message;
+                if (message == null)
+                {
+                    // Create a new MessageFormat to ensure thread safety.
+                    // Sharing a MessageFormat and using applyPattern is not thread safe
+                    MessageFormat formatter = new MessageFormat(messagePattern, _currentLocale);
+                    message = formatter.format(messageArguments);
+                    _message = message;
+                }
                 return message;
             }
 
@@ -213,18 +221,26 @@ public class AccessControlMessages
     {
         String rawMessage = _messages.getString("CREATE");
 
+        final String messagePattern = rawMessage;
         final Object[] messageArguments = {param1};
-        // Create a new MessageFormat to ensure thread safety.
-        // Sharing a MessageFormat and using applyPattern is not thread safe
-        MessageFormat formatter = new MessageFormat(rawMessage, _currentLocale);
-
-        final String message = formatter.format(messageArguments);
 
         return new LogMessage()
         {
+            private volatile String _message;
+
             @Override
             public String toString()
             {
+                // Formatted on first use, which may be on a different thread from the one creating the message
+                String message = _message;
+                if (message == null)
+                {
+                    // Create a new MessageFormat to ensure thread safety.
+                    // Sharing a MessageFormat and using applyPattern is not thread safe
+                    MessageFormat formatter = new MessageFormat(messagePattern, _currentLocale);
+                    message = formatter.format(messageArguments);
+                    _message = message;
+                }
                 return message;
             }
 
@@ -273,18 +289,26 @@ public class AccessControlMessages
     {
         String rawMessage = _messages.getString("DELETE");
 
+        final String messagePattern = rawMessage;
         final Object[] messageArguments = {param1};
-        // Create a new MessageFormat to ensure thread safety.
-        // Sharing a MessageFormat and using applyPattern is not thread safe
-        MessageFormat formatter = new MessageFormat(rawMessage, _currentLocale);
-
-        final String message = formatter.format(messageArguments);
 
         return new LogMessage()
         {
+            private volatile String _message;
+
             @Override
             public String toString()
             {
+                // Formatted on first use, which may be on a different thread from the one creating the message
+                String message = _message;
+                if (message == null)
+                {
+                    // Create a new MessageFormat to ensure thread safety.
+                    // Sharing a MessageFormat and using applyPattern is not thread safe
+                    MessageFormat formatter = new MessageFormat(messagePattern, _currentLocale);
+                    message = formatter.format(messageArguments);
+                    _message = message;
+                }
                 return message;
             }
 
@@ -333,18 +357,26 @@ public class AccessControlMessages
     {
         String rawMessage = _messages.getString("DENIED");
 
+        final String messagePattern = rawMessage;
         final Object[] messageArguments = {param1, param2, param3};
-        // Create a new MessageFormat to ensure thread safety.
-        // Sharing a MessageFormat and using applyPattern is not thread safe
-        MessageFormat formatter = new MessageFormat(rawMessage, _currentLocale);
-
-        final String message = formatter.format(messageArguments);
 
         return new LogMessage()
         {
+            private volatile String _message;
+
             @Override
             public String toString()
             {
+                // Formatted on first use, which may be on a different thread from the one creating the message
+                String message = _message;
+                if (message == null)
+                {
+                    // Create a new MessageFormat to ensure thread safety.
+                    // Sharing a MessageFormat and using applyPattern is not thread safe
+                    MessageFormat formatter = new MessageFormat(messagePattern, _currentLocale);
+                    message = formatter.format(messageArguments);
+                    _message = message;
+                }
                 return message;
             }
 
@@ -393,18 +425,26 @@ public class AccessControlMessages
     {
         String rawMessage = _messages.getString("LOADED");
 
+        final String messagePattern = rawMessage;
         final Object[] messageArguments = {param1};
-        // Create a new MessageFormat to ensure thread safety.
-        // Sharing a MessageFormat and using applyPattern is not thread safe
-        MessageFormat formatter = new MessageFormat(rawMessage, _currentLocale);
-
-        final String message = formatter.format(messageArguments);
 
         return new LogMessage()
         {
+            private volatile String _message;
+
             @Override
             public String toString()
             {
+                // Formatted on first use, which may be on a different thread from the one creating the message
+                String message = _message;
+                if (message == null)
+                {
+                    // Create a new MessageFormat to ensure thread safety.
+                    // Sharing a MessageFormat and using applyPattern is not thread safe
+                    MessageFormat formatter = new MessageFormat(messagePattern, _currentLocale);
+                    message = formatter.format(messageArguments);
+                    _message = message;
+                }
                 return message;
             }
 
@@ -508,18 +548,26 @@ public class AccessControlMessages
     {
         String rawMessage = _messages.getString("OPERATION");
 
+        final String messagePattern = rawMessage;
         final Object[] messageArguments = {param1};
-        // Create a new MessageFormat to ensure thread safety.
-        // Sharing a MessageFormat and using applyPattern is not thread safe
-        MessageFormat formatter = new MessageFormat(rawMessage, _currentLocale);
-
-        final String message = formatter.format(messageArguments);
 
         return new LogMessage()
         {
+            private volatile String _message;
+
             @Override
             public String toString()
             {
+                // Formatted on first use, which may be on a different thread from the one creating the message
+                String message = _message;
+                if (message == null)
+                {
+                    // Create a new MessageFormat to ensure thread safety.
+                    // Sharing a MessageFormat and using applyPattern is not thread safe
+                    MessageFormat formatter = new MessageFormat(messagePattern, _currentLocale);
+                    message = formatter.format(messageArguments);
+                    _message = message;
+                }
                 return message;
             }
 
@@ -117,18 +117,26 @@ public class AuthenticationProviderMessages
 
         rawMessage = msg.toString();
 
+        final String messagePattern = rawMessage;
         final Object[] messageArguments = {param1};
-        // Create a new MessageFormat to ensure thread safety.
-        // Sharing a MessageFormat and using applyPattern is not thread safe
-        MessageFormat formatter = new MessageFormat(rawMessage, _currentLocale);
-
-        final String message = formatter.format(messageArguments);
 
         return new LogMessage()
         {
+            private volatile String _message;
+
             @Override
             public String toString()
             {
+                // Formatted on first use, which may be on a different thread from the one creating the message
+                String message = _message;
+                if (message == null)
+                {
+                    // Create a new MessageFormat to ensure thread safety.
+                    // Sharing a MessageFormat and using applyPattern is not thread safe
+                    MessageFormat formatter = new MessageFormat(messagePattern, _currentLocale);
+                    message = formatter.format(messageArguments);
+                    _message = message;
+                }
                 return message;
             }
 
@@ -232,18 +240,26 @@ public class AuthenticationProviderMessages
     {
         String rawMessage = _messages.getString("CREATE");
 
+        final String messagePattern = rawMessage;
         final Object[] messageArguments = {param1};
-        // Create a new MessageFormat to ensure thread safety.
-        // Sharing a MessageFormat and using applyPattern is not thread safe
-        MessageFormat formatter = new MessageFormat(rawMessage, _currentLocale);
-
-        final String message = formatter.format(messageArguments);
 
         return new LogMessage()
         {
+            private volatile String _message;
+
             @Override
             public String toString()
             {
+                // Formatted on first use, which may be on a different thread from the one creating the message
+                String message = _message;
+                if (message == null)
+                {
+                    // Create a new MessageFormat to ensure thread safety.
+                    // Sharing a MessageFormat and using applyPattern is not thread safe
+                    MessageFormat formatter = new MessageFormat(messagePattern, _currentLocale);
+                    message = formatter.format(messageArguments);
+                    _message = message;
+                }
                 return message;
             }
 
@@ -292,18 +308,26 @@ public class AuthenticationProviderMessages
     {
         String rawMessage = _messages.getString("DELETE");
 
+        final String messagePattern = rawMessage;
         final Object[] messageArguments = {param1};
-        // Create a new MessageFormat to ensure thread safety.
-        // Sharing a MessageFormat and using applyPattern is not thread safe
-        MessageFormat formatter = new MessageFormat(rawMessage, _currentLocale);
-
-        final String message = formatter.format(messageArguments);
 
         return new LogMessage()
         {
+            private volatile String _message;
+
             @Override
             public String toString()
             {
+                // Formatted on first use, which may be on a different thread from the one creating the message
+                String message = _message;
+                if (message == null)
+                {
+                    // Create a new MessageFormat to ensure thread safety.
+                    // Sharing a MessageFormat and using applyPattern is not thread safe
+                    MessageFormat formatter = new MessageFormat(messagePattern, _currentLocale);
+                    message = formatter.format(messageArguments);
+                    _message = message;
+                }
                 return message;
             }
 
@@ -407,18 +431,26 @@ public class AuthenticationProviderMessages
     {
         String rawMessage = _messages.getString("OPERATION");
 
+        final String messagePattern = rawMessage;
         final Object[] messageArguments = {param1};
-        // Create a new MessageFormat to ensure thread safety.
-        // Sharing a MessageFormat and using applyPattern is not thread safe
-        MessageFormat formatter = new MessageFormat(rawMessage, _currentLocale);
-
-        final String message = formatter.format(messageArguments);
 
         return new LogMessage()
         {
+            private volatile String _message;
+
             @Override
             public String toString()
             {
+                // Formatted on first use, which may be on a different thread from the one creating the message
+                String message = _message;
+                if (message == null)
+                {
+                    // Create a new MessageFormat to ensure thread safety.
+                    // Sharing a MessageFormat and using applyPattern is not thread safe
+                    MessageFormat formatter = new MessageFormat(messagePattern, _currentLocale);
+                    message = formatter.format(messageArguments);
+                    _message = message;
+                }
                 return message;
             }
 
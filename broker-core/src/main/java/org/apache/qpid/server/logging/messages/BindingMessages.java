@@ -88,18 +88,26 @@ public class BindingMessages
     {
         String rawMessage = _messages.getString("CREATED");
 
+        final String messagePattern = rawMessage;
         final Object[] messageArguments = {param1};
-        // Create a new MessageFormat to ensure thread safety.
-        // Sharing a MessageFormat and using applyPattern is not thread safe
-        MessageFormat formatter = new MessageFormat(rawMessage, _currentLocale);
-
-        final String message = formatter.format(messageArguments);
 
         return new LogMessage()
         {
+            private volatile String _message;
+
             @Override
             public String toString()
             {
+                // Formatted on first use, which may be on a different thread from the one creating the message
+                String message = _message;
+                if (message == null)
+                {
+                    // Create a new MessageFormat to ensure thread safety.
+                    // Sharing a MessageFormat and using applyPattern is not thread safe
+                    MessageFormat formatter = new MessageFormat(messagePattern, _currentLocale);
+                    message = formatter.format(messageArguments);
+                    _message = message;
+                }
                 return message;
             }
 
@@ -148,18 +156,26 @@ public class BindingMessages
     {
         String rawMessage = _messages.getString("DELETED");
 
+        final String messagePattern = rawMessage;
         final Object[] messageArguments = {param1};
-        // Create a new MessageFormat to ensure thread safety.
-        // Sharing a MessageFormat and using applyPattern is not thread safe
-        MessageFormat formatter = new MessageFormat(rawMessage, _currentLocale);
-
-        final String message = formatter.format(messageArguments);
 
         return new LogMessage()
         {
+            private volatile String _message;
+
             @Override
             public String toString()
             {
+                // Formatted on first use, which may be on a different thread from the one creating the message
+                String message = _message;
+                if (message == null)
+                {
+                    // Create a new MessageFormat to ensure thread safety.
+                    // Sharing a MessageFormat and using applyPattern is not thread safe
+                    MessageFormat formatter = new MessageFormat(messagePattern, _currentLocale);
+                    message = formatter.format(messageArguments);
+                    _message = message;
+                }
                 return message;
             }
 
@@ -208,18 +224,26 @@ public class BindingMessages
     {
         String rawMessage = _messages.getString("OPERATION");
 
+        final String messagePattern = rawMessage;
         final Object[] messageArguments = {param1};
-        // Create a new MessageFormat to ensure thread safety.
-        // Sharing a MessageFormat and using applyPattern is not thread safe
-        MessageFormat formatter = new MessageFormat(rawMessage, _currentLocale);
-
-        final String message = formatter.format(messageArguments);
 
         return new LogMessage()
         {
+            private volatile String _message;
+
             @Override
             public String toString()
             {
+                // Formatted on first use, which may be on a different thread from the one creating the message
+                String message = _message;
+                if (message == null)
+                {
+                    // Create a new MessageFormat to ensure thread safety.
+                    // Sharing a MessageFormat and using applyPattern is not thread safe
+                    MessageFormat formatter = new MessageFormat(messagePattern, _currentLocale);
+                    message = formatter.format(messageArguments);
+                    _message = message;
+                }
                 return message;
             }
 
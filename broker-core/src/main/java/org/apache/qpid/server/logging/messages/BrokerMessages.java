@@ -112,18 +112,26 @@ public class BrokerMessages
     {
         String rawMessage = _messages.getString("CONFIG");
 
+        final String messagePattern = rawMessage;
         final Object[] messageArguments = {param1};
-        // Create a new MessageFormat to ensure thread safety.
-        // Sharing a MessageFormat and using applyPattern is not thread safe
-        MessageFormat formatter = new MessageFormat(rawMessage, _currentLocale);
-
-        final String message = formatter.format(messageArguments);
 
         return new LogMessage()
         {
+            private volatile String _message;
+
             @Override
             public String toString()
             {
+                // Formatted on first use, which may be on a different thread from the one creating the message
+                String message = _message;
+                if (message == null)
+                {
+                    // Create a new MessageFormat to ensure thread safety.
+                    // Sharing a MessageFormat and using applyPattern is not thread safe
+                    MessageFormat formatter = new MessageFormat(messagePattern, _currentLocale);
+                    message = formatter.format(messageArguments);
+                    _message = message;
+                }
                 return message;
             }
 
@@ -172,18 +180,26 @@ public class BrokerMessages
     {
         String rawMessage = _messages.getString("FAILED_CHILDREN");
 
+        final String messagePattern = rawMessage;
         final Object[] messageArguments = {param1};
-        // Create a new MessageFormat to ensure thread safety.
-        // Sharing a MessageFormat and using applyPattern is not thread safe
-        MessageFormat formatter = new MessageFormat(rawMessage, _currentLocale);
-
-        final String message = formatter.format(messageArguments);
 
         return new LogMessage()
         {
+            private volatile String _message;
+
             @Override
             public String toString()
             {
+                // Formatted on first use, which may be on a different thread from the one creating the message
+                String message = _message;
+                if (message == null)
+                {
+                    // Create a new MessageFormat to ensure thread safety.
+                    // Sharing a MessageFormat and using applyPattern is not thread safe
+                    MessageFormat formatter = new MessageFormat(messagePattern, _currentLocale);
+                    message = formatter.format(messageArguments);
+                    _message = message;
+                }
                 return message;
             }
 
@@ -232,18 +248,26 @@ public class BrokerMessages
     {
         String rawMessage = _messages.getString("FATAL_ERROR");
 
+        final String messagePattern = rawMessage;
         final Object[] messageArguments = {param1};
-        // Create a new MessageFormat to ensure thread safety.
-        // Sharing a MessageFormat and using applyPattern is not thread safe
-        MessageFormat formatter = new MessageFormat(rawMessage, _currentLocale);
-
-        final String message = formatter.format(messageArguments);
 
         return new LogMessage()
         {
+            private volatile String _message;
+
             @Override
             public String toString()
             {
+                // Formatted on first use, which may be on a different thread from the one creating the message
+                String message = _message;
+                if (message == null)
+                {
+                    // Create a new MessageFormat to ensure thread safety.
+                    // Sharing a MessageFormat and using applyPattern is not thread safe
+                    MessageFormat formatter = new MessageFormat(messagePattern, _currentLocale);
+                    message = formatter.format(messageArguments);
+                    _message = message;
+                }
                 return message;
             }
 
@@ -352,18 +376,26 @@ public class BrokerMessages
     {
         String rawMessage = _messages.getString("MANAGEMENT_MODE");
 
+        final String messagePattern = rawMessage;
         final Object[] messageArguments = {param1, param2};
-        // Create a new MessageFormat to ensure thread safety.
-        // Sharing a MessageFormat and using applyPattern is not thread safe
-        MessageFormat formatter = new MessageFormat(rawMessage, _currentLocale);
-
-        final String message = formatter.format(messageArguments);
 
         return new LogMessage()
         {
+            private volatile String _message;
+
             @Override
             public String toString()
             {
+                // Formatted on first use, which may be on a different thread from the one creating the message
+                String message = _message;
+                if (message == null)
+                {
+                    // Create a new MessageFormat to ensure thread safety.
+                    // Sharing a MessageFormat and using applyPattern is not thread safe
+                    MessageFormat formatter = new MessageFormat(messagePattern, _currentLocale);
+                    message = formatter.format(messageArguments);
+                    _message = message;
+                }
                 return message;
             }
 
@@ -472,18 +504,26 @@ public class BrokerMessages
     {
         String rawMessage = _messages.getString("OPERATION");
 
+        final String messagePattern = rawMessage;
         final Object[] messageArguments = {param1};
-        // Create a new MessageFormat to ensure thread safety.
-        // Sharing a MessageFormat and using applyPattern is not thread safe
-        MessageFormat formatter = new MessageFormat(rawMessage, _currentLocale);
-
-        final String message = formatter.format(messageArguments);
 
         return new LogMessage()
         {
+            private volatile String _message;
+
             @Override
             public String toString()
             {
+                // Formatted on first use, which may be on a different thread from the one creating the message
+                String message = _message;
+                if (message == null)
+                {
+                    // Create a new MessageFormat to ensure thread safety.
+                    // Sharing a MessageFormat and using applyPattern is not thread safe
+                    MessageFormat formatter = new MessageFormat(messagePattern, _currentLocale);
+                    message = formatter.format(messageArguments);
+                    _message = message;
+                }
                 return message;
             }
 
@@ -532,18 +572,26 @@ public class BrokerMessages
     {
         String rawMessage = _messages.getString("PLATFORM");
 
+        final String messagePattern = rawMessage;
         final Object[] messageArguments = {param1, param2, param3, param4, param5, param6};
-        // Create a new MessageFormat to ensure thread safety.
-        // Sharing a MessageFormat and using applyPattern is not thread safe
-        MessageFormat formatter = new MessageFormat(rawMessage, _currentLocale);
-
-        final String message = formatter.format(messageArguments);
 
         return new LogMessage()
         {
+            private volatile String _message;
+
             @Override
             public String toString()
             {
+                // Formatted on first use, which may be on a different thread from the one creating the message
+                String message = _message;
+                if (message == null)
+                {
+                    // Create a new MessageFormat to ensure thread safety.
+                    // Sharing a MessageFormat and using applyPattern is not thread safe
+                    MessageFormat formatter = new MessageFormat(messagePattern, _currentLocale);
+                    message = formatter.format(messageArguments);
+                    _message = message;
+                }
                 return message;
             }
 
@@ -592,18 +640,26 @@ public class BrokerMessages
     {
         String rawMessage = _messages.getString("PROCESS");
 
+        final String messagePattern = rawMessage;
         final Object[] messageArguments = {param1};
-        // Create a new MessageFormat to ensure thread safety.
-        // Sharing a MessageFormat and using applyPattern is not thread safe
-        MessageFormat formatter = new MessageFormat(rawMessage, _currentLocale);
-
-        final String message = formatter.format(messageArguments);
 
         return new LogMessage()
         {
+            private volatile String _message;
+
             @Override
             public String toString()
             {
+                // Formatted on first use, which may be on a different thread from the one creating the message
+                String message = _message;
+                if (message == null)
+                {
+                    // Create a new MessageFormat to ensure thread safety.
+                    // Sharing a MessageFormat and using applyPattern is not thread safe
+                    MessageFormat formatter = new MessageFormat(messagePattern, _currentLocale);
+                    message = formatter.format(messageArguments);
+                    _message = message;
+                }
                 return message;
             }
 
@@ -767,18 +823,26 @@ public class BrokerMessages
     {
         String rawMessage = _messages.getString("STARTUP");
 
+        final String messagePattern = rawMessage;
         final Object[] messageArguments = {param1, param2};
-        // Create a new MessageFormat to ensure thread safety.
-        // Sharing a MessageFormat and using applyPattern is not thread safe
-        MessageFormat formatter = new MessageFormat(rawMessage, _currentLocale);
-
-        final String message = formatter.format(messageArguments);
 
         return new LogMessage()
         {
+            private volatile String _message;
+
             @Override
             public String toString()
             {
+                // Formatted on first use, which may be on a different thread from the one creating the message
+                String message = _message;
+                if (message == null)
+                {
+                    // Create a new MessageFormat to ensure thread safety.
+                    // Sharing a MessageFormat and using applyPattern is not thread safe
+                    MessageFormat formatter = new MessageFormat(messagePattern, _currentLocale);
+                    message = formatter.format(messageArguments);
+                    _message = message;
+                }
                 return message;
             }
 
@@ -460,18 +460,26 @@ public class ChannelMessages
     {
         String rawMessage = _messages.getString("FLOW");
 
+        final String messagePattern = rawMessage;
         final Object[] messageArguments = {param1};
-        // Create a new MessageFormat to ensure thread safety.
-        // Sharing a MessageFormat and using applyPattern is not thread safe
-        MessageFormat formatter = new MessageFormat(rawMessage, _currentLocale);
-
-        final String message = formatter.format(messageArguments);
 
         return new LogMessage()
         {
+            private volatile String _message;
+
             @Override
             public String toString()
             {
+                // Formatted on first use, which may be on a different thread from the one creating the message
+                String message = _message;
+                if (message == null)
+                {
+                    // Create a new MessageFormat to ensure thread safety.
+                    // Sharing a MessageFormat and using applyPattern is not thread safe
+                    MessageFormat formatter = new MessageFormat(messagePattern, _currentLocale);
+                    message = formatter.format(messageArguments);
+                    _message = message;
+                }
                 return message;
             }
 
@@ -575,18 +583,26 @@ public class ChannelMessages
     {
         String rawMessage = _messages.getString("FLOW_ENFORCED");
 
+        final String messagePattern = rawMessage;
         final Object[] messageArguments = {param1};
-        // Create a new MessageFormat to ensure thread safety.
-        // Sharing a MessageFormat and using applyPattern is not thread safe
-        MessageFormat formatter = new MessageFormat(rawMessage, _currentLocale);
-
-        final String message = formatter.format(messageArguments);
 
         return new LogMessage()
         {
+            private volatile String _message;
+
             @Override
             public String toString()
             {
+                // Formatted on first use, which may be on a different thread from the one creating the message
+                String message = _message;
+                if (message == null)
+                {
+                    // Create a new MessageFormat to ensure thread safety.
+                    // Sharing a MessageFormat and using applyPattern is not thread safe
+                    MessageFormat formatter = new MessageFormat(messagePattern, _currentLocale);
+                    message = formatter.format(messageArguments);
+                    _message = message;
+                }
                 return message;
             }
 
@@ -810,18 +826,26 @@ public class ChannelMessages
     {
         String rawMessage = _messages.getString("OPERATION");
 
+        final String messagePattern = rawMessage;
         final Object[] messageArguments = {param1};
-        // Create a new MessageFormat to ensure thread safety.
-        // Sharing a MessageFormat and using applyPattern is not thread safe
-        MessageFormat formatter = new MessageFormat(rawMessage, _currentLocale);
-
-        final String message = formatter.format(messageArguments);
 
         return new LogMessage()
         {
+            private volatile String _message;
+
             @Override
             public String toString()
             {
+                // Formatted on first use, which may be on a different thread from the one creating the message
+                String message = _message;
+                if (message == null)
+                {
+                    // Create a new MessageFormat to ensure thread safety.
+                    // Sharing a MessageFormat and using applyPattern is not thread safe
+                    MessageFormat formatter = new MessageFormat(messagePattern, _currentLocale);
+                    message = formatter.format(messageArguments);
+                    _message = message;
+                }
                 return message;
             }
 
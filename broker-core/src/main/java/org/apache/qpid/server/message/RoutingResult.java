@@ -20,7 +20,6 @@
  */
 package org.apache.qpid.server.message;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -43,8 +42,9 @@ public class RoutingResult<M extends ServerMessage<? extends StorableMessageMeta
 
     private final M _message;
 
-    private final Set<BaseQueue> _queues = new HashSet<>();
-    private final Map<BaseQueue, RejectReason> _rejectingRoutableQueues = new HashMap<>();
+    // allocated on demand, as most messages are routed to a single queue and rejected by none
+    private Set<BaseQueue> _queues = Collections.emptySet();
+    private Map<BaseQueue, RejectReason> _rejectingRoutableQueues = Collections.emptyMap();
 
     public RoutingResult(final M message)
     {
@@ -59,39 +59,42 @@ public class RoutingResult<M extends ServerMessage<? extends StorableMessageMeta
         }
         else
         {
-            _queues.add(q);
+            addRoute(q);
         }
     }
 
-    private void addQueues(Collection<? extends BaseQueue> queues)
+    private void addRoute(final BaseQueue q)
     {
-        boolean deletedQueues = false;
-        for(BaseQueue q : queues)
+        if (_queues.isEmpty())
+        {
+            _queues = Collections.singleton(q);
+        }
+        else if (!_queues.contains(q))
         {
-            if(q.isDeleted())
+            if (!(_queues instanceof HashSet))
             {
-                if(!deletedQueues)
-                {
-                    deletedQueues = true;
-                    queues = new ArrayList<>(queues);
-                }
-                _logger.debug("Attempt to enqueue message onto deleted queue {}",  q.getName());
-
-                queues.remove(q);
+                _queues = new HashSet<>(_queues);
             }
+            _queues.add(q);
         }
-
-        _queues.addAll(queues);
     }
 
     public void add(RoutingResult<M> result)
     {
-        addQueues(result._queues);
+        if (result._queues.isEmpty() && result._rejectingRoutableQueues.isEmpty())
+        {
+            return;
+        }
+
+        for (BaseQueue q : result._queues)
+        {
+            addQueue(q);
+        }
         for (Map.Entry<BaseQueue, RejectReason> e : result._rejectingRoutableQueues.entrySet())
         {
             if (!e.getKey().isDeleted())
             {
-                _rejectingRoutableQueues.put(e.getKey(), e.getValue());
+                addRejectReason(e.getKey(), e.getValue());
             }
         }
     }
@@ -141,7 +144,16 @@ public class RoutingResult<M extends ServerMessage<? extends StorableMessageMeta
 
     public void addRejectReason(BaseQueue q, final RejectType rejectType, String reason)
     {
-        _rejectingRoutableQueues.put(q, new RejectReason(rejectType, reason));
+        addRejectReason(q, new RejectReason(rejectType, reason));
+    }
+
+    private void addRejectReason(final BaseQueue q, final RejectReason reason)
+    {
+        if (_rejectingRoutableQueues.isEmpty())
+        {
+            _rejectingRoutableQueues = new HashMap<>();
+        }
+        _rejectingRoutableQueues.put(q, reason);
     }
 
     public boolean isRejected()
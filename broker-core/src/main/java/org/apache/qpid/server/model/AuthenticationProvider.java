@@ -52,4 +52,29 @@ public interface AuthenticationProvider<X extends AuthenticationProvider<X>> ext
 
     List<String> getAvailableMechanisms(boolean secure);
 
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.COUNT,
+                      label = "Queued Authentications",
+                      description = "Current number of authentication steps awaiting an authentication thread.")
+    int getAuthenticationQueueLength();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.COUNT,
+                      label = "Authentications",
+                      description = "Total number of authentication steps performed.")
+    long getAuthenticationCount();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.TIME_DURATION,
+                      label = "Authentication Time",
+                      description = "Total time (in milliseconds) taken by authentication steps, including any time"
+                                    + " spent awaiting an authentication thread.")
+    long getTotalAuthenticationTime();
+
+    void incrementAuthenticationQueueLength();
+
+    void decrementAuthenticationQueueLength();
+
+    void registerAuthentication(long durationInMillis);
+
 }
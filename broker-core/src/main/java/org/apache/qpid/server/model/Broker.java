@@ -33,6 +33,7 @@ import org.apache.qpid.server.logging.EventLogger;
 import org.apache.qpid.server.logging.EventLoggerProvider;
 import org.apache.qpid.server.security.auth.SocketConnectionMetaData;
 import org.apache.qpid.server.stats.StatisticsGatherer;
+import org.apache.qpid.server.stats.StatisticsHistory;
 import org.apache.qpid.server.store.preferences.UserPreferencesCreator;
 
 @ManagedObject( defaultType = Broker.BROKER_TYPE, amqpName = "org.apache.qpid.Broker")
@@ -120,6 +121,34 @@ public interface Broker<X extends Broker<X>> extends ConfiguredObject<X>, EventL
     @ManagedContextDefault(name = BROKER_STATISTICS_REPORING_PERIOD)
     int DEFAULT_STATISTICS_REPORTING_PERIOD = 0;
 
+    String BROKER_STATISTICS_HISTORY_ENABLED = "broker.statisticsHistoryEnabled";
+    @ManagedContextDefault(name = BROKER_STATISTICS_HISTORY_ENABLED,
+            description = "If true, the integral statistics of all objects are sampled every second into a bounded"
+                          + " in-memory history available from the management interface.")
+    boolean DEFAULT_STATISTICS_HISTORY_ENABLED = false;
+
+    String BROKER_STATISTICS_HISTORY_SECONDS = "broker.statisticsHistorySeconds";
+    @ManagedContextDefault(name = BROKER_STATISTICS_HISTORY_SECONDS,
+            description = "Number of per-second samples kept for each statistic in the statistics history.")
+    int DEFAULT_STATISTICS_HISTORY_SECONDS = 120;
+
+    String BROKER_STATISTICS_HISTORY_MINUTES = "broker.statisticsHistoryMinutes";
+    @ManagedContextDefault(name = BROKER_STATISTICS_HISTORY_MINUTES,
+            description = "Number of per-minute samples kept for each statistic in the statistics history.")
+    int DEFAULT_STATISTICS_HISTORY_MINUTES = 60;
+
+    String BROKER_ASYNC_OPERATIONAL_LOGGING_ENABLED = "broker.asyncOperationalLoggingEnabled";
+    @ManagedContextDefault(name = BROKER_ASYNC_OPERATIONAL_LOGGING_ENABLED,
+            description = "If true, operational log messages are formatted and logged by a background thread rather"
+                          + " than by the thread generating them.")
+    boolean DEFAULT_ASYNC_OPERATIONAL_LOGGING_ENABLED = false;
+
+    String BROKER_ASYNC_OPERATIONAL_LOGGING_CAPACITY = "broker.asyncOperationalLoggingCapacity";
+    @ManagedContextDefault(name = BROKER_ASYNC_OPERATIONAL_LOGGING_CAPACITY,
+            description = "Number of operational log messages which can await the background logging thread. Further"
+                          + " messages are dropped until there is space.")
+    int DEFAULT_ASYNC_OPERATIONAL_LOGGING_CAPACITY = 65536;
+
     String PROPERTY_DISABLED_FEATURES = "qpid.broker_disabled_features";
 
     @DerivedAttribute
@@ -277,6 +306,20 @@ public interface Broker<X extends Broker<X>> extends ConfiguredObject<X>, EventL
             description = "Number of pooled buffers.")
     long getNumberOfPooledBuffers();
 
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE,
+            units = StatisticUnit.COUNT,
+            label = "Dropped Operational Log Messages",
+            description = "Number of operational log messages dropped because the asynchronous logging buffer was full.")
+    long getOperationalLogMessagesDropped();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME,
+            units = StatisticUnit.COUNT,
+            label = "Pending Operational Log Messages",
+            description = "Number of operational log messages awaiting the asynchronous logging thread.")
+    long getOperationalLogMessagesPending();
+
     @ManagedOperation(nonModifying = true,
             description = "Restart the broker within the same JVM",
             changesConfiguredObjectState = false,
@@ -370,6 +413,11 @@ public interface Broker<X extends Broker<X>> extends ConfiguredObject<X>, EventL
 
     ScheduledFuture<?> scheduleTask(long delay, final TimeUnit unit, Runnable task);
 
+    /**
+     * Returns the sampled statistics history, or null if the history is not enabled.
+     */
+    StatisticsHistory getStatisticsHistory();
+
     @DerivedAttribute(description = "Threshold direct memory size (in bytes) at which the Broker will start flowing incoming messages to disk.")
     long getFlowToDiskThreshold();
 
@@ -60,6 +60,8 @@ import org.apache.qpid.server.configuration.CommonProperties;
 import org.apache.qpid.server.configuration.IllegalConfigurationException;
 import org.apache.qpid.server.configuration.updater.TaskExecutor;
 import org.apache.qpid.server.configuration.updater.TaskExecutorImpl;
+import org.apache.qpid.server.logging.AsyncMessageLogger;
+import org.apache.qpid.server.logging.EventLogger;
 import org.apache.qpid.server.logging.messages.BrokerMessages;
 import org.apache.qpid.server.model.preferences.Preference;
 import org.apache.qpid.server.model.preferences.UserPreferences;
@@ -78,6 +80,8 @@ import org.apache.qpid.server.security.auth.SocketConnectionPrincipal;
 import org.apache.qpid.server.security.auth.UsernamePrincipal;
 import org.apache.qpid.server.security.auth.manager.SimpleAuthenticationManager;
 import org.apache.qpid.server.security.group.GroupPrincipal;
+import org.apache.qpid.server.stats.StatisticsHistory;
+import org.apache.qpid.server.stats.StatisticsHistorySamplingTask;
 import org.apache.qpid.server.stats.StatisticsReportingTask;
 import org.apache.qpid.server.store.FileBasedSettings;
 import org.apache.qpid.server.store.preferences.PreferenceRecord;
@@ -138,6 +142,8 @@ public class BrokerImpl extends AbstractContainer<BrokerImpl> implements Broker<
     private long _lastDisposalCounter;
     private ScheduledFuture<?> _assignTargetSizeSchedulingFuture;
     private volatile ScheduledFuture<?> _statisticsReportingFuture;
+    private volatile StatisticsHistory _statisticsHistory;
+    private volatile AsyncMessageLogger _asyncMessageLogger;
     private long _housekeepingCheckPeriod;
 
     @ManagedObjectFactoryConstructor
@@ -399,6 +405,8 @@ public class BrokerImpl extends AbstractContainer<BrokerImpl> implements Broker<
                                                              getHousekeepingThreadCount(),
                                                              getSystemTaskSubject("Housekeeping", _principal));
         initialiseStatisticsReporting();
+        initialiseStatisticsHistory();
+        initialiseAsyncOperationalLogging();
 
         scheduleDirectMemoryCheck();
         _assignTargetSizeSchedulingFuture = scheduleHouseKeepingTask(getHousekeepingCheckPeriod(),
@@ -486,6 +494,73 @@ public class BrokerImpl extends AbstractContainer<BrokerImpl> implements Broker<
         }
     }
 
+    private void initialiseStatisticsHistory()
+    {
+        if (getContextValue(Boolean.class, BROKER_STATISTICS_HISTORY_ENABLED))
+        {
+            final StatisticsHistory history =
+                    new StatisticsHistory(getContextValue(Integer.class, BROKER_STATISTICS_HISTORY_SECONDS),
+                                          getContextValue(Integer.class, BROKER_STATISTICS_HISTORY_MINUTES));
+            _houseKeepingTaskExecutor.scheduleAtFixedRate(new StatisticsHistorySamplingTask(this,
+                                                                                            getSystemTaskSubject("Statistics History"),
+                                                                                            history),
+                                                          StatisticsHistory.Resolution.SECOND.getIntervalMillis(),
+                                                          StatisticsHistory.Resolution.SECOND.getIntervalMillis(),
+                                                          TimeUnit.MILLISECONDS);
+            _statisticsHistory = history;
+        }
+    }
+
+    private void initialiseAsyncOperationalLogging()
+    {
+        if (getContextValue(Boolean.class, BROKER_ASYNC_OPERATIONAL_LOGGING_ENABLED))
+        {
+            // the system logger is the one used once the broker has started
+            final EventLogger systemEventLogger = _parent.getEventLogger();
+            final AsyncMessageLogger asyncMessageLogger =
+                    new AsyncMessageLogger(systemEventLogger.getMessageLogger(),
+                                           getContextValue(Integer.class, BROKER_ASYNC_OPERATIONAL_LOGGING_CAPACITY));
+            asyncMessageLogger.start();
+            systemEventLogger.setMessageLogger(asyncMessageLogger);
+            _asyncMessageLogger = asyncMessageLogger;
+        }
+    }
+
+    private void stopAsyncOperationalLogging()
+    {
+        final AsyncMessageLogger asyncMessageLogger = _asyncMessageLogger;
+        if (asyncMessageLogger != null)
+        {
+            _asyncMessageLogger = null;
+            final EventLogger systemEventLogger = _parent.getEventLogger();
+            if (systemEventLogger.getMessageLogger() == asyncMessageLogger)
+            {
+                systemEventLogger.setMessageLogger(asyncMessageLogger.getDelegate());
+            }
+            asyncMessageLogger.stop();
+        }
+    }
+
+    @Override
+    public long getOperationalLogMessagesDropped()
+    {
+        final AsyncMessageLogger asyncMessageLogger = _asyncMessageLogger;
+        return asyncMessageLogger == null ? 0L : asyncMessageLogger.getDroppedCount();
+    }
+
+    @Override
+    public long getOperationalLogMessagesPending()
+    {
+        final AsyncMessageLogger asyncMessageLogger = _asyncMessageLogger;
+        return asyncMessageLogger == null ? 0L : asyncMessageLogger.getPendingCount();
+    }
+
+    @Override
+    public StatisticsHistory getStatisticsHistory()
+    {
+        return _statisticsHistory;
+    }
+
     @Override
     public int getStatisticsReportingPeriod()
     {
@@ -676,6 +751,7 @@ public class BrokerImpl extends AbstractContainer<BrokerImpl> implements Broker<
         closePreferenceStore();
 
         _eventLogger.message(BrokerMessages.STOPPED());
+        stopAsyncOperationalLogging();
 
         try
         {
@@ -20,19 +20,30 @@
  */
 package org.apache.qpid.server.model;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import org.apache.qpid.server.util.ServerScopedRuntimeException;
 
 abstract class ConfiguredObjectMethodAttributeOrStatistic<C extends ConfiguredObject, T>
         implements ConfiguredObjectAttributeOrStatistic<C,T>
 {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConfiguredObjectMethodAttributeOrStatistic.class);
 
     private final String _name;
     private final Class<T> _type;
     private final Method _getter;
+    private final Function<Object, Object> _accessor;
 
     ConfiguredObjectMethodAttributeOrStatistic(final Method getter)
     {
@@ -40,6 +51,42 @@ abstract class ConfiguredObjectMethodAttributeOrStatistic<C extends ConfiguredOb
         _getter = getter;
         _type = (Class<T>) AttributeValueConverter.getTypeFromMethod(getter);
         _name = AttributeValueConverter.getNameFromMethod(getter, getType());
+        _accessor = createAccessor(getter, _name);
+    }
+
+    /**
+     * Creates a function invoking the getter directly, avoiding the cost of reflective invocation on every read
+     * of the attribute or statistic.  If the getter cannot be linked this way, for example because it is not
+     * accessible or its declaring class is not visible to our class loader, the returned function invokes it
+     * reflectively.
+     */
+    static Function<Object, Object> createAccessor(final Method getter, final String name)
+    {
+        final Class<?> declaringClass = getter.getDeclaringClass();
+        try
+        {
+            // the generated class is defined by our class loader and so must be able to resolve the declaring class
+            if (Class.forName(declaringClass.getName(), false, ConfiguredObjectMethodAttributeOrStatistic.class.getClassLoader())
+                != declaringClass)
+            {
+                return new ReflectiveAccessor(getter, name);
+            }
+
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            final MethodHandle handle = lookup.unreflect(getter);
+            final CallSite callSite = LambdaMetafactory.metafactory(lookup,
+                                                                    "apply",
+                                                                    MethodType.methodType(Function.class),
+                                                                    MethodType.methodType(Object.class, Object.class),
+                                                                    handle,
+                                                                    handle.type().wrap());
+            return (Function<Object, Object>) callSite.getTarget().invokeExact();
+        }
+        catch (Throwable e)
+        {
+            LOGGER.debug("Unable to create direct accessor for {}, falling back to reflection", getter, e);
+            return new ReflectiveAccessor(getter, name);
+        }
     }
 
     @Override
@@ -63,42 +110,64 @@ abstract class ConfiguredObjectMethodAttributeOrStatistic<C extends ConfiguredOb
     @Override
     public T getValue(C configuredObject)
     {
-        try
-        {
-            return (T) getGetter().invoke(configuredObject);
-        }
-        catch (IllegalAccessException e)
+        return (T) _accessor.apply(configuredObject);
+    }
+
+    public Method getGetter()
+    {
+        return _getter;
+    }
+
+    static final class ReflectiveAccessor implements Function<Object, Object>
+    {
+        private final Method _getter;
+        private final String _name;
+
+        private ReflectiveAccessor(final Method getter, final String name)
         {
-            // This should never happen as it would imply a getter which is not public
-            throw new ServerScopedRuntimeException("Unable to get value for '"+getName()
-                                                   +"' from configured object of category "
-                                                   + configuredObject.getCategoryClass().getSimpleName(), e);
+            _getter = getter;
+            _name = name;
         }
-        catch (InvocationTargetException e)
+
+        @Override
+        public Object apply(final Object object)
         {
-            Throwable targetException = e.getTargetException();
-            if(targetException instanceof RuntimeException)
+            try
             {
-                throw (RuntimeException)targetException;
+                return _getter.invoke(object);
             }
-            else if(targetException instanceof Error)
+            catch (IllegalAccessException e)
             {
-                throw (Error)targetException;
+                // This should never happen as it would imply a getter which is not public
+                throw new ServerScopedRuntimeException("Unable to get value for '" + _name
+                                                       + "' from " + getDescription(object), e);
             }
-            else
+            catch (InvocationTargetException e)
             {
-                // This should never happen as it would imply a getter which is declaring a checked exception
-                throw new ServerScopedRuntimeException("Unable to get value for '"+getName()
-                                                       +"' from configured object of category "
-                                                       + configuredObject.getCategoryClass().getSimpleName(), e);
+                Throwable targetException = e.getTargetException();
+                if(targetException instanceof RuntimeException)
+                {
+                    throw (RuntimeException)targetException;
+                }
+                else if(targetException instanceof Error)
+                {
+                    throw (Error)targetException;
+                }
+                else
+                {
+                    // This should never happen as it would imply a getter which is declaring a checked exception
+                    throw new ServerScopedRuntimeException("Unable to get value for '" + _name
+                                                           + "' from " + getDescription(object), e);
+                }
             }
         }
 
+        private String getDescription(final Object object)
+        {
+            return object instanceof ConfiguredObject
+                    ? "configured object of category "
+                      + ((ConfiguredObject<?>) object).getCategoryClass().getSimpleName()
+                    : String.valueOf(object);
+        }
     }
-
-    public Method getGetter()
-    {
-        return _getter;
-    }
-
 }
@@ -54,6 +54,21 @@ public interface Connection<X extends Connection<X>> extends ConfiguredObject<X>
                           + " after breaching the limit.")
     long DEFAULT_MAX_UNCOMMITTED_IN_MEMORY_SIZE = 10l * 1024l * 1024l;
 
+    String ENQUEUE_BATCH_MAXIMUM_SIZE = "connection.enqueueBatchMaximumSize";
+    @SuppressWarnings("unused")
+    @ManagedContextDefault(name = ENQUEUE_BATCH_MAXIMUM_SIZE,
+            description = "The maximum number of persistent messages, published outside of a transaction and"
+                          + " received in one network read, which are enqueued within a single store transaction."
+                          + " A value of zero or less commits each message in a store transaction of its own.")
+    int DEFAULT_ENQUEUE_BATCH_MAXIMUM_SIZE = 256;
+
+    String ENQUEUE_BATCH_MAXIMUM_LATENCY = "connection.enqueueBatchMaximumLatency";
+    @SuppressWarnings("unused")
+    @ManagedContextDefault(name = ENQUEUE_BATCH_MAXIMUM_LATENCY,
+            description = "The maximum time (in milliseconds) for which the first message of an enqueue batch"
+                          + " awaits the commit of the batch's store transaction.")
+    long DEFAULT_ENQUEUE_BATCH_MAXIMUM_LATENCY = 10L;
+
 
     String CLOSE_RESPONSE_TIMEOUT = "connection.closeResponseTimeout";
     @ManagedContextDefault(name = CLOSE_RESPONSE_TIMEOUT)
@@ -147,6 +162,17 @@ public interface Connection<X extends Connection<X>> extends ConfiguredObject<X>
                       description = "Current number of sessions belonging to this connection.")
     int getSessionCount();
 
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.COUNT, label = "Publisher Pressure",
+                      description = "Pressure (as a percentage) from the queues and virtual host memory last used to"
+                                    + " pace publishing on this connection. Zero if publisher pacing is not in use.")
+    int getPublisherPressure();
+
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.TIME_DURATION, label = "Publisher Pacing Delay",
+                      description = "Total time for which reading from this connection has been delayed to pace publishers.")
+    long getPublisherPacingDelay();
+
     //children
     Collection<Session> getSessions();
 
@@ -94,6 +94,30 @@ public interface Queue<X extends Queue<X>> extends ConfiguredObject<X>,
     int DEFAULT_QUEUE_SCAVANGE_COUNT = 100;
 
 
+    String QUEUE_STATISTICS_SNAPSHOT_MAX_AGE = "queue.statisticsSnapshotMaxAge";
+    @SuppressWarnings("unused")
+    @ManagedContextDefault( name = QUEUE_STATISTICS_SNAPSHOT_MAX_AGE,
+            description = "The maximum age (in milliseconds) of the statistics snapshot served to management and"
+                          + " statistics reporting. Within this period repeated reads return the same consistent"
+                          + " snapshot. If zero or negative the statistics are read live.")
+    long DEFAULT_QUEUE_STATISTICS_SNAPSHOT_MAX_AGE = 0L;
+
+    String QUEUE_ENTRY_PROCESSING_BATCH_SIZE = "queue.entryProcessingBatchSize";
+    @SuppressWarnings("unused")
+    @ManagedContextDefault( name = QUEUE_ENTRY_PROCESSING_BATCH_SIZE,
+            description = "The maximum number of entries routed to the alternate binding or dequeued within a single"
+                          + " store transaction when the queue is deleted or its expired entries are removed.")
+    int DEFAULT_QUEUE_ENTRY_PROCESSING_BATCH_SIZE = 1000;
+
+    String QUEUE_RETAINED_HEADER_PROPERTIES = "queue.retainedHeaderProperties";
+    @SuppressWarnings("unused")
+    @ManagedContextDefault( name = QUEUE_RETAINED_HEADER_PROPERTIES,
+            description = "A JSON list of the names of the application properties held in memory for each message on"
+                          + " the queue, together with its group id, priority and expiration, so that selectors and"
+                          + " message grouping need not reload the header of a message flowed to disk. If empty no"
+                          + " header summary is held.")
+    String DEFAULT_QUEUE_RETAINED_HEADER_PROPERTIES = "[]";
+
     String MIME_TYPE_TO_FILE_EXTENSION = "qpid.mimeTypeToFileExtension";
     @SuppressWarnings("unused")
     @ManagedContextDefault(name = MIME_TYPE_TO_FILE_EXTENSION, description = "A mapping of MIME types to file extensions.")
@@ -458,6 +482,12 @@ public interface Queue<X extends Queue<X>> extends ConfiguredObject<X>,
                       description = "Current age of oldest message on the queue.")
     long getOldestMessageAge();
 
+    @SuppressWarnings("unused")
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.COUNT, label = "Publisher Pressure",
+                      description = "Current queue depth as a percentage of the maximum queue depth (the greater of"
+                                    + " the byte and message percentages). Zero if the queue is unbounded.")
+    int getPublisherPressure();
+
     @ManagedOperation(description = "move messages from this queue to another", changesConfiguredObjectState = false)
     List<Long> moveMessages(@Param(name = "destination", description = "The queue to which the messages should be moved", mandatory = true) Queue<?> destination,
                             @Param(name = "messageIds", description = "If provided, only messages in the queue whose (internal) message-id is supplied will be considered for moving") List<Long> messageIds,
@@ -548,6 +578,13 @@ public interface Queue<X extends Queue<X>> extends ConfiguredObject<X>,
 
     void deleteEntry(QueueEntry entry);
 
+    /**
+     * Deletes the given acquired entries of this queue, whose dequeue has already been committed, updating the
+     * statistics of the queue, scavenging its entry list and checking its capacity once for the whole collection
+     * rather than once per entry.
+     */
+    void deleteEntries(Collection<? extends QueueEntry> entries);
+
     QueueEntry getLeastSignificantOldestEntry();
 
     QueueEntryIterator queueEntryIterator();
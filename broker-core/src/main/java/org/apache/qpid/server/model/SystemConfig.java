@@ -66,6 +66,18 @@ public interface SystemConfig<X extends SystemConfig<X>> extends ConfiguredObjec
     @ManagedContextDefault(name = SystemConfig.POSIX_FILE_PERMISSIONS)
     String DEFAULT_POSIX_FILE_PERMISSIONS = "rw-r-----";
 
+    String JSON_CONFIG_STORE_JOURNAL_ENABLED = "qpid.jsonConfigStore.journalEnabled";
+    @ManagedContextDefault(name = SystemConfig.JSON_CONFIG_STORE_JOURNAL_ENABLED,
+            description = "If true, JSON configuration stores append changes to a journal file which is periodically"
+                          + " compacted into the configuration file, rather than rewriting the file on every change.")
+    boolean DEFAULT_JSON_CONFIG_STORE_JOURNAL_ENABLED = false;
+
+    String JSON_CONFIG_STORE_JOURNAL_COMPACTION_THRESHOLD = "qpid.jsonConfigStore.journalCompactionThreshold";
+    @ManagedContextDefault(name = SystemConfig.JSON_CONFIG_STORE_JOURNAL_COMPACTION_THRESHOLD,
+            description = "Number of journal entries after which a JSON configuration store compacts its journal"
+                          + " into the configuration file in the background.")
+    int DEFAULT_JSON_CONFIG_STORE_JOURNAL_COMPACTION_THRESHOLD = 1000;
+
 
     String MANAGEMENT_MODE_USER_NAME = "mm_admin";
 
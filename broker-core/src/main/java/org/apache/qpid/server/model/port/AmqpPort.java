@@ -23,6 +23,7 @@ package org.apache.qpid.server.model.port;
 import java.net.SocketAddress;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 import javax.net.ssl.SSLContext;
 
@@ -82,6 +83,23 @@ public interface AmqpPort<X extends AmqpPort<X>> extends Port<X>
     @ManagedContextDefault(name = PORT_AMQP_ACCEPT_BACKLOG)
     int DEFAULT_PORT_AMQP_ACCEPT_BACKLOG = 1024;
 
+    String PORT_AMQP_AUTHENTICATION_THREAD_POOL_SIZE = "qpid.port.amqp.authenticationThreadPool.size";
+    @SuppressWarnings("unused")
+    @ManagedContextDefault(name = PORT_AMQP_AUTHENTICATION_THREAD_POOL_SIZE,
+                           description = "The number of threads performing SASL authentication for connections made"
+                                         + " through this port, so that slow authentication (such as an LDAP bind or"
+                                         + " password hashing) does not occupy the IO threads. If zero, connections"
+                                         + " are authenticated on their IO thread.")
+    int DEFAULT_PORT_AMQP_AUTHENTICATION_THREAD_POOL_SIZE = 4;
+
+    String PORT_AMQP_AUTHENTICATION_QUEUE_SIZE = "qpid.port.amqp.authenticationThreadPool.queueSize";
+    @SuppressWarnings("unused")
+    @ManagedContextDefault(name = PORT_AMQP_AUTHENTICATION_QUEUE_SIZE,
+                           description = "The maximum number of authentication steps awaiting an authentication"
+                                         + " thread on this port. Once reached, further steps are performed on the"
+                                         + " connection's IO thread.")
+    int DEFAULT_PORT_AMQP_AUTHENTICATION_QUEUE_SIZE = 1024;
+
     String OPEN_CONNECTIONS_WARN_PERCENT = "qpid.port.open_connections_warn_percent";
 
     @ManagedContextDefault(name = OPEN_CONNECTIONS_WARN_PERCENT)
@@ -196,6 +214,13 @@ public interface AmqpPort<X extends AmqpPort<X>> extends Port<X>
 
     boolean canAcceptNewConnection(final SocketAddress remoteSocketAddress);
 
+    /**
+     * Returns the executor performing SASL authentication for connections made through this port.
+     *
+     * @return the executor, or null if connections are to be authenticated on their IO thread
+     */
+    Executor getAuthenticationExecutor();
+
     int incrementConnectionCount();
 
     int decrementConnectionCount();
@@ -31,6 +31,10 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -66,6 +70,7 @@ import org.apache.qpid.server.plugin.ConnectionPropertyEnricher;
 import org.apache.qpid.server.plugin.ProtocolEngineCreator;
 import org.apache.qpid.server.plugin.QpidServiceLoader;
 import org.apache.qpid.server.plugin.TransportProviderFactory;
+import org.apache.qpid.server.pool.SuppressingInheritedAccessControlContextThreadFactory;
 import org.apache.qpid.server.transport.AcceptingTransport;
 import org.apache.qpid.server.transport.PortBindFailureException;
 import org.apache.qpid.server.transport.TransportProvider;
@@ -113,6 +118,7 @@ public class AmqpPortImpl extends AbstractPort<AmqpPortImpl> implements AmqpPort
     private volatile int _tlsSessionTimeout;
     private volatile int _tlsSessionCacheSize;
     private volatile List<ConnectionPropertyEnricher> _connectionPropertyEnrichers;
+    private volatile ThreadPoolExecutor _authenticationExecutor;
 
     @ManagedObjectFactoryConstructor
     public AmqpPortImpl(Map<String, Object> attributes, Container<?> container)
@@ -257,6 +263,7 @@ public class AmqpPortImpl extends AbstractPort<AmqpPortImpl> implements AmqpPort
             {
                 _sslContext = createSslContext();
             }
+            _authenticationExecutor = createAuthenticationExecutor();
             Protocol defaultSupportedProtocolReply = getDefaultAmqpSupportedReply();
             try
             {
@@ -303,9 +310,37 @@ public class AmqpPortImpl extends AbstractPort<AmqpPortImpl> implements AmqpPort
 
             _transport.close();
         }
+        if (_authenticationExecutor != null)
+        {
+            _authenticationExecutor.shutdown();
+        }
         return Futures.immediateFuture(null);
     }
 
+    private ThreadPoolExecutor createAuthenticationExecutor()
+    {
+        final int poolSize = getContextValue(Integer.class, PORT_AMQP_AUTHENTICATION_THREAD_POOL_SIZE);
+        if (poolSize <= 0)
+        {
+            return null;
+        }
+        final int queueSize = getContextValue(Integer.class, PORT_AMQP_AUTHENTICATION_QUEUE_SIZE);
+        final ThreadPoolExecutor executor =
+                new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                                       new LinkedBlockingQueue<Runnable>(Math.max(queueSize, 1)),
+                                       new SuppressingInheritedAccessControlContextThreadFactory(
+                                               "Port-" + getName() + "-Authentication",
+                                               getSystemTaskSubject("Authentication")));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @Override
+    public Executor getAuthenticationExecutor()
+    {
+        return _authenticationExecutor;
+    }
+
     @Override
     public int getNetworkBufferSize()
     {
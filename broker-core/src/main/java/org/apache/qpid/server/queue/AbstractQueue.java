@@ -19,6 +19,7 @@
 package org.apache.qpid.server.queue;
 
 import static org.apache.qpid.server.util.GZIPUtils.GZIP_CONTENT_ENCODING;
+import static org.apache.qpid.server.util.ParameterizedTypes.LIST_OF_STRINGS;
 import static org.apache.qpid.server.util.ParameterizedTypes.MAP_OF_STRING_STRING;
 
 import java.io.IOException;
@@ -35,6 +36,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -49,6 +51,7 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
@@ -144,6 +147,7 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
 
     private static final String UTF8 = StandardCharsets.UTF_8.name();
     private static final Operation PUBLISH_ACTION = Operation.PERFORM_ACTION("publish");
+    private static final int MAXIMUM_OUTSTANDING_ENTRY_PROCESSING_COMMITS = 4;
 
     private final QueueManagingVirtualHost<?> _virtualHost;
     private final DeletedChildListener _deletedChildListener = new DeletedChildListener();
@@ -257,6 +261,12 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
     private final ConcurrentLinkedQueue<EnqueueRequest> _postRecoveryQueue = new ConcurrentLinkedQueue<>();
     private final ConcurrentMap<String, Callable<MessageFilter>> _defaultFiltersMap = new ConcurrentHashMap<>();
     private final List<HoldMethod> _holdMethods = new CopyOnWriteArrayList<>();
+    private volatile DeliveryTimeIndex _deliveryTimeIndex;
+    private final AtomicReference<OldestEntry> _oldestEntry = new AtomicReference<>();
+    private volatile long _statisticsSnapshotMaxAge;
+    private volatile int _entryProcessingBatchSize;
+    private volatile Set<String> _retainedHeaderProperties;
+    private volatile StatisticsSnapshot _statisticsSnapshot;
     private final Set<DestinationReferrer> _referrers = Collections.newSetFromMap(new ConcurrentHashMap<DestinationReferrer,Boolean>());
 
     private boolean _closing;
@@ -274,6 +284,50 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
         boolean isHeld(MessageReference<?> message, long evalutaionTime);
     }
 
+    private static final class OldestEntry
+    {
+        private final QueueEntry _entry;
+        private final long _arrivalTime;
+
+        private OldestEntry(final QueueEntry entry, final long arrivalTime)
+        {
+            _entry = entry;
+            _arrivalTime = arrivalTime;
+        }
+
+        QueueEntry getEntry()
+        {
+            return _entry;
+        }
+
+        long getArrivalTime()
+        {
+            return _arrivalTime;
+        }
+    }
+
+    private static final class StatisticsSnapshot
+    {
+        private final long _time;
+        private final Map<String, Object> _values;
+
+        private StatisticsSnapshot(final long time, final Map<String, Object> values)
+        {
+            _time = time;
+            _values = values;
+        }
+
+        long getTime()
+        {
+            return _time;
+        }
+
+        Map<String, Object> getValues()
+        {
+            return _values;
+        }
+    }
+
     protected AbstractQueue(Map<String, Object> attributes, QueueManagingVirtualHost<?> virtualHost)
     {
         super(virtualHost, attributes);
@@ -502,6 +556,9 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
 
         _mimeTypeToFileExtension = getContextValue(Map.class, MAP_OF_STRING_STRING, MIME_TYPE_TO_FILE_EXTENSION);
         _messageConversionExceptionHandlingPolicy = getContextValue(MessageConversionExceptionHandlingPolicy.class, MESSAGE_CONVERSION_EXCEPTION_HANDLING_POLICY);
+        _statisticsSnapshotMaxAge = getContextValue(Long.class, QUEUE_STATISTICS_SNAPSHOT_MAX_AGE);
+        _entryProcessingBatchSize = getContextValue(Integer.class, QUEUE_ENTRY_PROCESSING_BATCH_SIZE);
+        _retainedHeaderProperties = getRetainedHeaderProperties();
 
         _flowToDiskThreshold = getAncestor(Broker.class).getFlowToDiskThreshold();
 
@@ -557,6 +614,7 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
                                     return messageReference.getMessage().getMessageHeader().getNotValidBefore() >= evaluationTime;
                                 }
                             });
+            _deliveryTimeIndex = new DeliveryTimeIndex(_virtualHost);
         }
 
         if (getAlternateBinding() != null)
@@ -1253,11 +1311,17 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
     protected void doEnqueue(final ServerMessage message, final Action<? super MessageInstance> action, MessageEnqueueRecord enqueueRecord)
     {
         final QueueEntry entry = getEntries().add(message, enqueueRecord);
+        final Set<String> retainedHeaderProperties = _retainedHeaderProperties;
+        if (retainedHeaderProperties != null)
+        {
+            entry.retainHeaderSummary(retainedHeaderProperties);
+        }
         updateExpiration(entry);
+        updateOldestEntry(entry, message.getArrivalTime());
 
         try
         {
-            if (entry.isAvailable())
+            if (!delayIfNotYetDeliverable(entry) && entry.isAvailable())
             {
                 checkConsumersNotAheadOfDelivery(entry);
                 notifyConsumers(entry);
@@ -1282,6 +1346,36 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
 
     }
 
+    private boolean delayIfNotYetDeliverable(final QueueEntry entry)
+    {
+        final DeliveryTimeIndex deliveryTimeIndex = _deliveryTimeIndex;
+        if (deliveryTimeIndex != null)
+        {
+            final long notValidBefore = entry.getMessageHeader().getNotValidBefore();
+            if (notValidBefore != 0L && notValidBefore >= System.currentTimeMillis())
+            {
+                return deliveryTimeIndex.delay(entry, notValidBefore);
+            }
+        }
+        return false;
+    }
+
+    private Set<String> getRetainedHeaderProperties()
+    {
+        @SuppressWarnings("unchecked")
+        final List<String> names = getContextValue(List.class, LIST_OF_STRINGS, QUEUE_RETAINED_HEADER_PROPERTIES);
+        if (names == null || names.isEmpty())
+        {
+            return null;
+        }
+        final Set<String> retained = new HashSet<>(names);
+        if (getMessageGroupKeyOverride() != null)
+        {
+            retained.add(getMessageGroupKeyOverride());
+        }
+        return Collections.unmodifiableSet(retained);
+    }
+
     private void updateExpiration(final QueueEntry entry)
     {
         long expiration = entry.getMessage().getExpiration();
@@ -1490,6 +1584,12 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
     @Override
     public long getOldestMessageArrivalTime()
     {
+        final OldestEntry cachedOldestEntry = _oldestEntry.get();
+        if (cachedOldestEntry != null && !cachedOldestEntry.getEntry().isDeleted())
+        {
+            return cachedOldestEntry.getArrivalTime();
+        }
+
         long oldestMessageArrivalTime = -1L;
 
         while(oldestMessageArrivalTime == -1L)
@@ -1505,6 +1605,7 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
                     try(MessageReference reference = message.newReference())
                     {
                         oldestMessageArrivalTime = reference.getMessage().getArrivalTime();
+                        _oldestEntry.compareAndSet(cachedOldestEntry, new OldestEntry(entry, oldestMessageArrivalTime));
                     }
                     catch (MessageDeletedException e)
                     {
@@ -1520,6 +1621,22 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
         return oldestMessageArrivalTime;
     }
 
+    private void updateOldestEntry(final QueueEntry entry, final long arrivalTime)
+    {
+        // the cached oldest entry is only replaced on enqueue by an entry which arrived earlier (e.g. a moved message);
+        // once the cached entry is deleted the next read looks the oldest entry up from the head of the list
+        OldestEntry cachedOldestEntry;
+        while ((cachedOldestEntry = _oldestEntry.get()) != null
+               && !cachedOldestEntry.getEntry().isDeleted()
+               && arrivalTime < cachedOldestEntry.getArrivalTime())
+        {
+            if (_oldestEntry.compareAndSet(cachedOldestEntry, new OldestEntry(entry, arrivalTime)))
+            {
+                break;
+            }
+        }
+    }
+
     @Override
     public long getOldestMessageAge()
     {
@@ -1527,12 +1644,57 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
         return oldestMessageArrivalTime == 0 ? 0 : System.currentTimeMillis() - oldestMessageArrivalTime;
     }
 
+    @Override
+    public int getPublisherPressure()
+    {
+        return Math.max(getPressure(getQueueDepthBytes(), getMaximumQueueDepthBytes()),
+                        getPressure(getQueueDepthMessages(), getMaximumQueueDepthMessages()));
+    }
+
+    private static int getPressure(final long depth, final long maximumDepth)
+    {
+        if (maximumDepth < 0)
+        {
+            return 0;
+        }
+        else if (depth >= maximumDepth)
+        {
+            return depth == 0 ? 0 : 100;
+        }
+        return (int) (depth * 100 / maximumDepth);
+    }
+
     @Override
     public boolean isDeleted()
     {
         return _deleted.get();
     }
 
+    @Override
+    public Map<String, Object> getStatistics(final List<String> statistics)
+    {
+        final long maxAge = _statisticsSnapshotMaxAge;
+        if (maxAge <= 0L)
+        {
+            return super.getStatistics(statistics);
+        }
+
+        final long currentTime = System.currentTimeMillis();
+        StatisticsSnapshot snapshot = _statisticsSnapshot;
+        if (snapshot == null || currentTime - snapshot.getTime() > maxAge)
+        {
+            snapshot = new StatisticsSnapshot(currentTime, super.getStatistics(Collections.<String>emptyList()));
+            _statisticsSnapshot = snapshot;
+        }
+
+        final Map<String, Object> values = new HashMap<>(snapshot.getValues());
+        if (statistics != null && !statistics.isEmpty())
+        {
+            values.keySet().retainAll(statistics);
+        }
+        return values;
+    }
+
     @Override
     public List<QueueEntry> getMessagesOnTheQueue()
     {
@@ -1743,6 +1905,35 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
         deleteEntry(entry, null);
     }
 
+    @Override
+    public void deleteEntries(final Collection<? extends QueueEntry> entries)
+    {
+        final Map<QueueEntryList, List<QueueEntryImpl>> entriesByList = new LinkedHashMap<>();
+        for (QueueEntry entry : entries)
+        {
+            if (entry instanceof QueueEntryImpl && entry.getQueue() == this)
+            {
+                final QueueEntryImpl queueEntry = (QueueEntryImpl) entry;
+                entriesByList.computeIfAbsent(queueEntry.getQueueEntryList(), list -> new ArrayList<>())
+                             .add(queueEntry);
+            }
+            else
+            {
+                entry.delete();
+            }
+        }
+
+        int deleted = 0;
+        for (Map.Entry<QueueEntryList, List<QueueEntryImpl>> listEntries : entriesByList.entrySet())
+        {
+            deleted += listEntries.getKey().deleteEntries(listEntries.getValue());
+        }
+        if (deleted != 0)
+        {
+            checkCapacity();
+        }
+    }
+
     private void deleteEntry(final QueueEntry entry, final Runnable postDequeueTask)
     {
         boolean acquiredForDequeueing = entry.acquireOrSteal(() ->
@@ -1818,6 +2009,12 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
                     }
                 }
 
+                final DeliveryTimeIndex deliveryTimeIndex = _deliveryTimeIndex;
+                if (deliveryTimeIndex != null)
+                {
+                    deliveryTimeIndex.releaseAll();
+                }
+
                 final List<QueueEntry> entries = getMessagesOnTheQueue(new AcquireAllQueueEntryFilter());
 
                 routeToAlternate(entries);
@@ -1827,6 +2024,7 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
 
                 _stopped.set(true);
                 _queueHouseKeepingTask.cancel();
+                closeDeliveryTimeIndex();
 
                 performQueueDeleteTasks();
                 deleted();
@@ -1848,12 +2046,12 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
 
     private void routeToAlternate(List<QueueEntry> entries)
     {
-        ServerTransaction txn = new LocalTransaction(getVirtualHost().getMessageStore());
+        final BatchedQueueEntryProcessor processor = createBatchedQueueEntryProcessor("Deletion");
 
         for(final QueueEntry entry : entries)
         {
             // TODO log requeues with a post enqueue action
-            int requeues = entry.routeToAlternate(null, txn);
+            int requeues = processor.routeToAlternate(entry);
 
             if(requeues == 0)
             {
@@ -1861,7 +2059,32 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
             }
         }
 
-        txn.commit();
+        processor.complete();
+    }
+
+    private BatchedQueueEntryProcessor createBatchedQueueEntryProcessor(final String operation)
+    {
+        return new BatchedQueueEntryProcessor(getVirtualHost().getMessageStore(),
+                                              String.format("%s of queue '%s'", operation, getName()),
+                                              _entryProcessingBatchSize,
+                                              MAXIMUM_OUTSTANDING_ENTRY_PROCESSING_COMMITS);
+    }
+
+    private void expireEntry(final QueueEntry entry, final BatchedQueueEntryProcessor processor)
+    {
+        final Runnable postDequeueTask = () -> _queueStatistics.addToExpired(entry.getSizeWithHeader());
+        boolean acquiredForDequeueing = entry.acquireOrSteal(() ->
+                                                             {
+                                                                 _logger.debug("Dequeuing stolen node {}", entry);
+                                                                 dequeueEntry(entry);
+                                                                 postDequeueTask.run();
+                                                             });
+
+        if (acquiredForDequeueing)
+        {
+            _logger.debug("Dequeuing expired node {}", entry);
+            processor.dequeue(entry, postDequeueTask);
+        }
     }
 
     private void performQueueDeleteTasks()
@@ -1880,9 +2103,19 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
         _stopped.set(true);
         _closing = false;
         _queueHouseKeepingTask.cancel();
+        closeDeliveryTimeIndex();
         return Futures.immediateFuture(null);
     }
 
+    private void closeDeliveryTimeIndex()
+    {
+        final DeliveryTimeIndex deliveryTimeIndex = _deliveryTimeIndex;
+        if (deliveryTimeIndex != null)
+        {
+            deliveryTimeIndex.close();
+        }
+    }
+
     @Override
     public void checkCapacity()
     {
@@ -2170,6 +2403,7 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
         final long currentTime = System.currentTimeMillis();
         final long thresholdTime = currentTime - getAlertRepeatGap();
 
+        BatchedQueueEntryProcessor expiredEntryProcessor = null;
         while (!_stopped.get() && queueListIterator.advance())
         {
             final QueueEntry node = queueListIterator.getNode();
@@ -2179,11 +2413,20 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
                 // If the node has expired then acquire it
                 if (node.expired())
                 {
-                    deleteEntry(node, () -> _queueStatistics.addToExpired(node.getSizeWithHeader()));
+                    if (expiredEntryProcessor == null)
+                    {
+                        expiredEntryProcessor = createBatchedQueueEntryProcessor("Expiry");
+                    }
+                    expireEntry(node, expiredEntryProcessor);
                 }
                 else
                 {
-                    node.checkHeld(currentTime);
+                    if (node.checkHeld(currentTime) && _deliveryTimeIndex != null && !isHeld(node, currentTime))
+                    {
+                        // the delivery time of a delayed entry is re-evaluated here in case its hold conditions
+                        // have changed since it was indexed
+                        node.releaseDelayed();
+                    }
 
                     // There is a chance that the node could be deleted by
                     // the time the check actually occurs. So verify we
@@ -2207,6 +2450,11 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
             }
         }
 
+        if (expiredEntryProcessor != null)
+        {
+            expiredEntryProcessor.complete();
+        }
+
         for(NotificationCheck check : queueLevelChecks)
         {
             checkForNotification(null, listener, currentTime, thresholdTime, check);
@@ -2966,6 +3214,11 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
     private ListenableFuture<Void> activate()
     {
         _virtualHost.scheduleHouseKeepingTask(_virtualHost.getHousekeepingCheckPeriod(), _queueHouseKeepingTask);
+        final DeliveryTimeIndex deliveryTimeIndex = _deliveryTimeIndex;
+        if (deliveryTimeIndex != null)
+        {
+            deliveryTimeIndex.start();
+        }
         setState(State.ACTIVE);
         return Futures.immediateFuture(null);
     }
@@ -3080,6 +3333,12 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
             _postEnqueueOverflowPolicyHandler.checkOverflow(null);
         }
 
+        if (attributes.containsKey(CONTEXT))
+        {
+            _statisticsSnapshotMaxAge = getContextValue(Long.class, QUEUE_STATISTICS_SNAPSHOT_MAX_AGE);
+            _statisticsSnapshot = null;
+        }
+
         if (attributes.containsKey(EXCLUSIVE) && existingExclusivePolicy != _exclusive)
         {
             ExclusivityPolicy newPolicy = _exclusive;
@@ -20,6 +20,10 @@
  */
 package org.apache.qpid.server.queue;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 import org.apache.qpid.server.message.MessageInstance;
 import org.apache.qpid.server.model.Queue;
 import org.apache.qpid.server.store.MessageDurability;
@@ -29,14 +33,12 @@ abstract class AbstractQueueEntryList implements QueueEntryList
 
     private final boolean _forcePersistent;
     private final boolean _respectPersistent;
-    private final Queue<?> _queue;
     private final QueueStatistics _queueStatistics;
 
     protected AbstractQueueEntryList(final Queue<?> queue, final QueueStatistics queueStatistics)
     {
 
         final MessageDurability messageDurability = queue.getMessageDurability();
-        _queue = queue;
         _queueStatistics = queueStatistics;
         _forcePersistent = messageDurability == MessageDurability.ALWAYS;
         _respectPersistent = messageDurability == MessageDurability.DEFAULT;
@@ -95,9 +97,67 @@ abstract class AbstractQueueEntryList implements QueueEntryList
                 {
                     queueStatistics.addToPersistentDequeued(sizeWithHeader);
                 }
-                _queue.checkCapacity();
 
         }
     }
 
+    @Override
+    public int deleteEntries(final Collection<? extends QueueEntryImpl> entries)
+    {
+        final List<QueueEntry> deletedEntries = new ArrayList<>(entries.size());
+        int unacknowledgedCount = 0;
+        long unacknowledgedSize = 0L;
+        long deletedSize = 0L;
+        int persistentCount = 0;
+        long persistentSize = 0L;
+
+        for (QueueEntryImpl entry : entries)
+        {
+            final long sizeWithHeader = entry.getSizeWithHeader();
+            final QueueEntry.EntryState acquiredState = entry.deleteWithoutUpdatingList();
+            if (acquiredState != null)
+            {
+                deletedEntries.add(entry);
+                deletedSize += sizeWithHeader;
+                if (acquiredState instanceof MessageInstance.ConsumerAcquiredState)
+                {
+                    unacknowledgedCount++;
+                    unacknowledgedSize += sizeWithHeader;
+                }
+                if (_forcePersistent || (_respectPersistent && entry.isPersistent()))
+                {
+                    persistentCount++;
+                    persistentSize += sizeWithHeader;
+                }
+            }
+        }
+
+        if (!deletedEntries.isEmpty())
+        {
+            final QueueStatistics queueStatistics = _queueStatistics;
+            if (unacknowledgedCount != 0)
+            {
+                queueStatistics.removeFromUnacknowledged(unacknowledgedCount, unacknowledgedSize);
+            }
+            queueStatistics.removeFromQueue(deletedEntries.size(), deletedSize);
+            queueStatistics.addToDequeued(deletedEntries.size(), deletedSize);
+            if (persistentCount != 0)
+            {
+                queueStatistics.addToPersistentDequeued(persistentCount, persistentSize);
+            }
+            entriesDeleted(deletedEntries);
+        }
+        return deletedEntries.size();
+    }
+
+    /**
+     * Tidies the list once the given entries of it have been deleted together.
+     */
+    protected void entriesDeleted(final List<QueueEntry> queueEntries)
+    {
+        for (QueueEntry queueEntry : queueEntries)
+        {
+            entryDeleted(queueEntry);
+        }
+    }
 }
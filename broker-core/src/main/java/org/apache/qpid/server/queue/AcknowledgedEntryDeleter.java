@@ -0,0 +1,194 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.queue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.qpid.server.message.MessageInstance;
+import org.apache.qpid.server.model.Queue;
+import org.apache.qpid.server.txn.ServerTransaction;
+
+/**
+ * Dequeues and deletes the acquired message instances acknowledged by a session.
+ * Between {@link #beginBatch()} and {@link #endBatch()} the dequeues of consecutive acknowledgements in the same
+ * transaction are held back and made together with
+ * {@link ServerTransaction#dequeue(java.util.Collection, ServerTransaction.Action)}, so that they share one store
+ * transaction, and the actions of the acknowledgements are run together once it commits.  Deleted queue entries are
+ * held back likewise, and consecutive entries of the same queue are deleted together with
+ * {@link Queue#deleteEntries(java.util.Collection)} so that the statistics, entry list and capacity of the queue are
+ * updated once for them.  Outside a batch, and for a batch of a single entry, dequeues and deletions are made
+ * immediately.
+ * <p>
+ * Not thread safe: an instance is owned by a session and used only by its thread.
+ */
+public class AcknowledgedEntryDeleter
+{
+    private final List<MessageInstance> _dequeuedInstances = new ArrayList<>();
+    private final List<ServerTransaction.Action> _dequeueActions = new ArrayList<>();
+    private ServerTransaction _transaction;
+    private final List<QueueEntry> _entries = new ArrayList<>();
+    private Queue<?> _queue;
+    private int _batchDepth;
+
+    public void beginBatch()
+    {
+        _batchDepth++;
+    }
+
+    public void endBatch()
+    {
+        if (--_batchDepth == 0)
+        {
+            try
+            {
+                dequeueHeldInstances();
+            }
+            finally
+            {
+                deleteHeldEntries();
+            }
+        }
+    }
+
+    /**
+     * Dequeues the acknowledged message instance in the given transaction, running the action once the dequeue has
+     * been committed or rolled back.  The action is expected to delete the instance with {@link #delete}.
+     */
+    public void dequeue(final ServerTransaction transaction,
+                        final MessageInstance messageInstance,
+                        final ServerTransaction.Action action)
+    {
+        if (_batchDepth == 0)
+        {
+            transaction.dequeue(messageInstance.getEnqueueRecord(), action);
+        }
+        else
+        {
+            if (transaction != _transaction)
+            {
+                dequeueHeldInstances();
+                _transaction = transaction;
+            }
+            _dequeuedInstances.add(messageInstance);
+            _dequeueActions.add(action);
+        }
+    }
+
+    public void delete(final MessageInstance messageInstance)
+    {
+        if (_batchDepth == 0 || !(messageInstance instanceof QueueEntry))
+        {
+            messageInstance.delete();
+        }
+        else
+        {
+            final QueueEntry entry = (QueueEntry) messageInstance;
+            if (entry.getQueue() != _queue)
+            {
+                deleteHeldEntries();
+                _queue = entry.getQueue();
+            }
+            _entries.add(entry);
+        }
+    }
+
+    private void dequeueHeldInstances()
+    {
+        if (_dequeuedInstances.isEmpty())
+        {
+            return;
+        }
+
+        // the transaction may run the actions immediately, which may in turn acknowledge further instances
+        final ServerTransaction transaction = _transaction;
+        final List<MessageInstance> instances = new ArrayList<>(_dequeuedInstances);
+        final List<ServerTransaction.Action> actions = new ArrayList<>(_dequeueActions);
+        _dequeuedInstances.clear();
+        _dequeueActions.clear();
+        _transaction = null;
+
+        if (instances.size() == 1)
+        {
+            transaction.dequeue(instances.get(0).getEnqueueRecord(), actions.get(0));
+        }
+        else
+        {
+            transaction.dequeue(instances, new BatchedDequeueAction(actions));
+        }
+    }
+
+    private void deleteHeldEntries()
+    {
+        try
+        {
+            if (_entries.size() == 1)
+            {
+                _entries.get(0).delete();
+            }
+            else if (!_entries.isEmpty())
+            {
+                _queue.deleteEntries(_entries);
+            }
+        }
+        finally
+        {
+            _entries.clear();
+            _queue = null;
+        }
+    }
+
+    private class BatchedDequeueAction implements ServerTransaction.Action
+    {
+        private final List<ServerTransaction.Action> _actions;
+
+        private BatchedDequeueAction(final List<ServerTransaction.Action> actions)
+        {
+            _actions = actions;
+        }
+
+        @Override
+        public void postCommit()
+        {
+            beginBatch();
+            try
+            {
+                for (ServerTransaction.Action action : _actions)
+                {
+                    action.postCommit();
+                }
+            }
+            finally
+            {
+                endBatch();
+            }
+        }
+
+        @Override
+        public void onRollback()
+        {
+            for (ServerTransaction.Action action : _actions)
+            {
+                action.onRollback();
+            }
+        }
+    }
+}
@@ -79,7 +79,7 @@ public class AssignedConsumerMessageGroupManager implements MessageGroupManager
 
     private Object getGroupValue(final QueueEntry entry)
     {
-        final AMQMessageHeader messageHeader = entry.getMessage().getMessageHeader();
+        final AMQMessageHeader messageHeader = entry.getMessageHeader();
         return _groupId == null ? messageHeader.getGroupId() : messageHeader.getHeader(_groupId);
     }
 
@@ -0,0 +1,170 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.queue;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.qpid.server.store.MessageStore;
+import org.apache.qpid.server.txn.LocalTransaction;
+import org.apache.qpid.server.txn.ServerTransaction;
+
+/**
+ * Routes acquired queue entries to the alternate binding of their queue, or dequeues them, in bounded batches each
+ * committed in its own store transaction.  The commit of a batch overlaps the processing of the following batches,
+ * up to a bounded number of outstanding commits, so that large numbers of entries are neither commit bound nor held
+ * in a single transaction.
+ * <p>
+ * Not thread safe.  {@link #complete()} must be called once all the entries have been added.
+ */
+class BatchedQueueEntryProcessor
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchedQueueEntryProcessor.class);
+    private static final Runnable NO_OP = () -> {};
+
+    private final MessageStore _messageStore;
+    private final String _description;
+    private final int _batchSize;
+    private final int _maximumOutstandingCommits;
+    private final Deque<LocalTransaction> _outstandingCommits = new ArrayDeque<>();
+
+    private LocalTransaction _transaction;
+    private int _transactionSize;
+    private long _routed;
+    private long _discarded;
+    private long _dequeued;
+
+    BatchedQueueEntryProcessor(final MessageStore messageStore,
+                               final String description,
+                               final int batchSize,
+                               final int maximumOutstandingCommits)
+    {
+        _messageStore = messageStore;
+        _description = description;
+        _batchSize = Math.max(1, batchSize);
+        _maximumOutstandingCommits = Math.max(0, maximumOutstandingCommits);
+    }
+
+    /**
+     * Routes the given acquired entry to the alternate binding of its queue, discarding it if there is no route.
+     *
+     * @return the number of queues to which the entry is routed
+     */
+    int routeToAlternate(final QueueEntry entry)
+    {
+        final int enqueues = entry.routeToAlternate(null, getTransaction());
+        if (enqueues == 0)
+        {
+            _discarded++;
+        }
+        else
+        {
+            _routed++;
+        }
+        entryAdded();
+        return enqueues;
+    }
+
+    /**
+     * Dequeues the given acquired entry, running the given task once the dequeue is committed.
+     */
+    void dequeue(final QueueEntry entry, final Runnable postCommitTask)
+    {
+        getTransaction().dequeue(entry.getEnqueueRecord(), new ServerTransaction.Action()
+        {
+            @Override
+            public void postCommit()
+            {
+                entry.delete();
+                postCommitTask.run();
+            }
+
+            @Override
+            public void onRollback()
+            {
+            }
+        });
+        _dequeued++;
+        entryAdded();
+    }
+
+    /**
+     * Commits the current batch and waits for all the outstanding commits to complete.
+     */
+    void complete()
+    {
+        if (_transaction != null)
+        {
+            commitBatch();
+        }
+        while (!_outstandingCommits.isEmpty())
+        {
+            _outstandingCommits.poll().sync();
+        }
+
+        if (_routed + _discarded + _dequeued > _batchSize)
+        {
+            LOGGER.info("{}: {} entries routed to alternate, {} discarded, {} dequeued",
+                        _description, _routed, _discarded, _dequeued);
+        }
+    }
+
+    long getProcessedCount()
+    {
+        return _routed + _discarded + _dequeued;
+    }
+
+    private LocalTransaction getTransaction()
+    {
+        if (_transaction == null)
+        {
+            _transaction = new LocalTransaction(_messageStore);
+        }
+        return _transaction;
+    }
+
+    private void entryAdded()
+    {
+        if (++_transactionSize >= _batchSize)
+        {
+            commitBatch();
+        }
+    }
+
+    private void commitBatch()
+    {
+        final LocalTransaction transaction = _transaction;
+        _transaction = null;
+        _transactionSize = 0;
+
+        transaction.commitAsync(NO_OP);
+        _outstandingCommits.add(transaction);
+        while (_outstandingCommits.size() > _maximumOutstandingCommits)
+        {
+            _outstandingCommits.poll().sync();
+        }
+
+        LOGGER.debug("{}: {} entries processed", _description, getProcessedCount());
+    }
+}
@@ -20,10 +20,13 @@
  */
 package org.apache.qpid.server.queue;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,31 +35,43 @@ import org.apache.qpid.server.message.AMQMessageHeader;
 import org.apache.qpid.server.message.MessageInstance;
 import org.apache.qpid.server.message.MessageInstance.ConsumerAcquiredState;
 import org.apache.qpid.server.message.MessageInstance.EntryState;
-import org.apache.qpid.server.message.ServerMessage;
 import org.apache.qpid.server.util.StateChangeListener;
 
+/**
+ * Message group manager for shared groups.
+ * <p>
+ * Groups are held in a concurrent map and each group guards its own state, so delivery attempts for different groups
+ * do not contend with each other. The groups assigned to each consumer are indexed, and each group records the
+ * entries other consumers have passed over because the group is assigned, so that the earliest such entry of a
+ * consumer removed from the queue can be found without visiting the queue.  An entry no other consumer has passed
+ * over needs no consumer to be moved back to it.
+ * <p>
+ * An entry is acquired whilst its group's lock is held, so that the group cannot be removed or reassigned between
+ * the check of its consumer and the acquisition.
+ */
 public class DefinedGroupMessageGroupManager implements MessageGroupManager
 {
     private static final Logger LOGGER = LoggerFactory.getLogger(DefinedGroupMessageGroupManager.class);
     private final String _groupId;
     private final String _defaultGroup;
-    private final Map<Object, Group> _groupMap = new HashMap<>();
+    private final ConcurrentMap<Object, Group> _groupMap = new ConcurrentHashMap<>();
+    private final ConcurrentMap<QueueConsumer<?,?>, Set<Group>> _groupsByConsumer = new ConcurrentHashMap<>();
     private final ConsumerResetHelper _resetHelper;
 
     private final class Group
     {
         private final Object _group;
         private final SortedSet<QueueEntry> _skippedEntries = new TreeSet<>();
-        private QueueConsumer<?,?> _consumer;
-        private int _activeCount;
+        private volatile QueueConsumer<?,?> _consumer;
+        private volatile int _activeCount;
 
         private Group(final Object key, final QueueConsumer<?,?> consumer)
         {
             _group = key;
             _consumer = consumer;
         }
-        
-        public boolean add()
+
+        public synchronized boolean add()
         {
             if(_consumer != null)
             {
@@ -68,8 +83,8 @@ public class DefinedGroupMessageGroupManager implements MessageGroupManager
                 return false;
             }
         }
-        
-        void subtract(final QueueEntry entry, final boolean released)
+
+        synchronized void subtract(final QueueEntry entry, final boolean released)
         {
             if(!released)
             {
@@ -77,42 +92,42 @@ public class DefinedGroupMessageGroupManager implements MessageGroupManager
             }
             if(--_activeCount == 0)
             {
-                _groupMap.remove(_group);
-                if(!_skippedEntries.isEmpty())
-                {
-                    _resetHelper.resetSubPointersForGroups(_skippedEntries.first());
-                    _skippedEntries.clear();
-                }
-                _consumer = null;
+                remove();
             }
         }
 
-        @Override
-        public boolean equals(final Object o)
+        private void remove()
         {
-            if (this == o)
+            _groupMap.remove(_group, this);
+            final QueueConsumer<?, ?> consumer = _consumer;
+            if (consumer != null)
             {
-                return true;
+                final Set<Group> consumerGroups = _groupsByConsumer.get(consumer);
+                if (consumerGroups != null)
+                {
+                    consumerGroups.remove(this);
+                }
             }
-            if (o == null || getClass() != o.getClass())
+            if(!_skippedEntries.isEmpty())
             {
-                return false;
+                _resetHelper.resetSubPointersForGroups(_skippedEntries.first());
+                _skippedEntries.clear();
             }
-
-            Group group = (Group) o;
-
-            return _group.equals(group._group);
+            _consumer = null;
         }
 
-        @Override
-        public int hashCode()
+        synchronized void removeIfIdle()
         {
-            return _group.hashCode();
+            if (_activeCount == 0 && _consumer != null)
+            {
+                remove();
+            }
         }
 
         public boolean isValid()
         {
-            return !(_consumer == null || (_activeCount == 0 && _consumer.isClosed()));
+            final QueueConsumer<?, ?> consumer = _consumer;
+            return !(consumer == null || (_activeCount == 0 && consumer.isClosed()));
         }
 
         public QueueConsumer<?,?> getConsumer()
@@ -130,9 +145,35 @@ public class DefinedGroupMessageGroupManager implements MessageGroupManager
                     '}';
         }
 
-        void addSkippedEntry(final QueueEntry entry)
+        synchronized void addSkippedEntry(final QueueEntry entry)
         {
-            _skippedEntries.add(entry);
+            if (_consumer != null)
+            {
+                // entries deleted without being acquired by the group's consumer are not removed on subtract
+                while (!_skippedEntries.isEmpty() && _skippedEntries.first().isDeleted())
+                {
+                    _skippedEntries.remove(_skippedEntries.first());
+                }
+                _skippedEntries.add(entry);
+            }
+        }
+
+        synchronized QueueEntry getEarliestAvailableSkippedEntry()
+        {
+            final Iterator<QueueEntry> iterator = _skippedEntries.iterator();
+            while (iterator.hasNext())
+            {
+                final QueueEntry entry = iterator.next();
+                if (entry.isAvailable())
+                {
+                    return entry;
+                }
+                else if (entry.isDeleted())
+                {
+                    iterator.remove();
+                }
+            }
+            return null;
         }
     }
 
@@ -142,9 +183,9 @@ public class DefinedGroupMessageGroupManager implements MessageGroupManager
         _defaultGroup = defaultGroup;
         _resetHelper = resetHelper;
     }
-    
+
     @Override
-    public synchronized boolean mightAssign(final QueueEntry entry, final QueueConsumer sub)
+    public boolean mightAssign(final QueueEntry entry, final QueueConsumer sub)
     {
         Object groupId = getKey(entry);
 
@@ -158,101 +199,115 @@ public class DefinedGroupMessageGroupManager implements MessageGroupManager
     }
 
     @Override
-    public synchronized boolean acceptMessage(final QueueConsumer<?,?> sub, final QueueEntry entry)
+    public boolean acceptMessage(final QueueConsumer<?,?> sub, final QueueEntry entry)
     {
-        return assignMessage(sub, entry) && entry.acquire(sub);
-    }
-
-    private boolean assignMessage(final QueueConsumer<?,?> sub, final QueueEntry entry)
-    {
-        Object groupId = getKey(entry);
-        Group group = _groupMap.get(groupId);
+        final Object groupId = getKey(entry);
 
-        if(group == null || !group.isValid())
+        while (true)
         {
-            group = new Group(groupId, sub);
-
-            _groupMap.put(groupId, group);
+            Group group = _groupMap.get(groupId);
+            boolean created = false;
 
-            // there's a small chance that the group became empty between the point at which getNextAvailable() was
-            // called on the consumer, and when accept message is called... in that case we want to avoid delivering
-            // out of order
-            if(_resetHelper.isEntryAheadOfConsumer(entry, sub))
+            if(group == null || !group.isValid())
             {
-                return false;
+                final Group newGroup = new Group(groupId, sub);
+                if (group == null ? _groupMap.putIfAbsent(groupId, newGroup) != null
+                                  : !_groupMap.replace(groupId, group, newGroup))
+                {
+                    // another consumer has assigned the group concurrently
+                    continue;
+                }
+                group = newGroup;
+                created = true;
+                getGroupsForConsumer(sub).add(group);
+
+                // there's a small chance that the group became empty between the point at which getNextAvailable() was
+                // called on the consumer, and when accept message is called... in that case we want to avoid delivering
+                // out of order
+                if(_resetHelper.isEntryAheadOfConsumer(entry, sub))
+                {
+                    return false;
+                }
             }
-        }
 
-        QueueConsumer<?,?> assignedSub = group.getConsumer();
+            synchronized (group)
+            {
+                if (!created && _groupMap.get(groupId) != group)
+                {
+                    // the group was removed or replaced since it was looked up
+                    continue;
+                }
 
-        if(assignedSub == sub)
-        {
-            entry.addStateChangeListener(new GroupStateChangeListener(group));
-            return true;
-        }
-        else
-        {
-            group.addSkippedEntry(entry);
-            return false;            
+                if(group.getConsumer() == sub)
+                {
+                    final GroupStateChangeListener listener = new GroupStateChangeListener(group);
+                    entry.addStateChangeListener(listener);
+                    if (entry.acquire(sub))
+                    {
+                        return true;
+                    }
+                    entry.removeStateChangeListener(listener);
+                    return false;
+                }
+                else
+                {
+                    group.addSkippedEntry(entry);
+                    return false;
+                }
+            }
         }
     }
 
     @Override
-    public synchronized QueueEntry findEarliestAssignedAvailableEntry(final QueueConsumer<?,?> sub)
-    {
-        EntryFinder visitor = new EntryFinder(sub);
-        sub.getQueue().visit(visitor);
-        return visitor.getEntry();
-    }
-
-    private class EntryFinder implements QueueEntryVisitor
+    public QueueEntry findEarliestAssignedAvailableEntry(final QueueConsumer<?,?> sub)
     {
-        private QueueEntry _entry;
-        private QueueConsumer<?,?> _sub;
-
-        EntryFinder(final QueueConsumer<?, ?> sub)
+        final Set<Group> groups = _groupsByConsumer.get(sub);
+        QueueEntry earliest = null;
+        if (groups != null)
         {
-            _sub = sub;
-        }
-
-        @Override
-        public boolean visit(final QueueEntry entry)
-        {
-            if(!entry.isAvailable())
+            for (Group group : groups)
             {
-                return false;
+                final QueueEntry entry = group.getEarliestAvailableSkippedEntry();
+                if (entry != null && (earliest == null || entry.compareTo(earliest) < 0))
+                {
+                    earliest = entry;
+                }
             }
+        }
+        return earliest;
+    }
 
-            Object groupId = getKey(entry);
-
-            Group group = _groupMap.get(groupId);
-            if(group != null && group.getConsumer() == _sub)
-            {
-                _entry = entry;
-                return true;
-            }
-            else
+    @Override
+    public void clearAssignments(final QueueConsumer<?,?> sub)
+    {
+        final Set<Group> groups = _groupsByConsumer.remove(sub);
+        if (groups != null)
+        {
+            for (Group group : groups)
             {
-                return false;
+                group.removeIfIdle();
             }
         }
+    }
 
-        public QueueEntry getEntry()
+    private Set<Group> getGroupsForConsumer(final QueueConsumer<?, ?> sub)
+    {
+        Set<Group> groups = _groupsByConsumer.get(sub);
+        if (groups == null)
         {
-            return _entry;
+            final Set<Group> newGroups = Collections.newSetFromMap(new ConcurrentHashMap<Group, Boolean>());
+            groups = _groupsByConsumer.putIfAbsent(sub, newGroups);
+            if (groups == null)
+            {
+                groups = newGroups;
+            }
         }
+        return groups;
     }
 
-    
-    @Override
-    public void clearAssignments(final QueueConsumer<?,?> sub)
-    {
-    }
-    
     private Object getKey(QueueEntry entry)
     {
-        ServerMessage message = entry.getMessage();
-        AMQMessageHeader messageHeader = message == null ? null : message.getMessageHeader();
+        AMQMessageHeader messageHeader = entry.getMessageHeader();
         Object groupVal = messageHeader == null
                 ? _defaultGroup
                 : _groupId == null
@@ -277,7 +332,7 @@ public class DefinedGroupMessageGroupManager implements MessageGroupManager
         @Override
         public void stateChanged(final MessageInstance entry, final EntryState oldState, final EntryState newState)
         {
-            synchronized (DefinedGroupMessageGroupManager.this)
+            synchronized (_group)
             {
                 if(_group.isValid())
                 {
@@ -0,0 +1,230 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.queue;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.qpid.server.virtualhost.QueueManagingVirtualHost;
+
+/**
+ * Time ordered index of queue entries whose delivery has been delayed until a given time.
+ * <p>
+ * Entries are put into the delayed state when they are indexed, so consumers skip them without evaluating the
+ * hold conditions of the message. A single one-shot task is scheduled on the virtual host for the earliest delivery
+ * time; when it fires all entries that have become due are released, which makes them visible to consumers again.
+ */
+class DeliveryTimeIndex
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeliveryTimeIndex.class);
+
+    private final QueueManagingVirtualHost<?> _virtualHost;
+    private final ConcurrentSkipListSet<DelayedEntry> _entries = new ConcurrentSkipListSet<>();
+
+    private volatile long _scheduledTime = Long.MAX_VALUE;
+    private ScheduledFuture<?> _releaseFuture;
+    private boolean _started;
+    private boolean _closed;
+
+    DeliveryTimeIndex(final QueueManagingVirtualHost<?> virtualHost)
+    {
+        _virtualHost = virtualHost;
+    }
+
+    /**
+     * Puts the given entry into the delayed state and indexes it.
+     *
+     * @return false if the entry could not be delayed (e.g. it was concurrently acquired or deleted)
+     */
+    boolean delay(final QueueEntry entry, final long deliveryTime)
+    {
+        if (entry.delayDelivery())
+        {
+            _entries.add(new DelayedEntry(deliveryTime, entry));
+            if (deliveryTime < _scheduledTime)
+            {
+                scheduleRelease(deliveryTime);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    synchronized void start()
+    {
+        _started = true;
+        scheduleNext();
+    }
+
+    synchronized void close()
+    {
+        _closed = true;
+        cancelScheduledRelease();
+        _entries.clear();
+    }
+
+    /**
+     * Releases all indexed entries regardless of their delivery time, e.g. so that they can be dealt with
+     * when the queue is deleted.
+     */
+    void releaseAll()
+    {
+        synchronized (this)
+        {
+            cancelScheduledRelease();
+        }
+        DelayedEntry delayedEntry;
+        while ((delayedEntry = _entries.pollFirst()) != null)
+        {
+            delayedEntry.getEntry().releaseDelayed();
+        }
+    }
+
+    int size()
+    {
+        return _entries.size();
+    }
+
+    void releaseDueEntries()
+    {
+        synchronized (this)
+        {
+            _releaseFuture = null;
+            _scheduledTime = Long.MAX_VALUE;
+        }
+
+        final long currentTime = System.currentTimeMillis();
+        DelayedEntry delayedEntry;
+        while ((delayedEntry = _entries.pollFirst()) != null)
+        {
+            // an entry remains held while its delivery time is not before the evaluation time
+            if (delayedEntry.getDeliveryTime() >= currentTime)
+            {
+                _entries.add(delayedEntry);
+                break;
+            }
+            delayedEntry.getEntry().releaseDelayed();
+        }
+
+        synchronized (this)
+        {
+            scheduleNext();
+        }
+    }
+
+    private synchronized void scheduleRelease(final long deliveryTime)
+    {
+        if (_started && !_closed && deliveryTime < _scheduledTime)
+        {
+            cancelScheduledRelease();
+            final long delay = Math.max(0L, deliveryTime - System.currentTimeMillis() + 1L);
+            try
+            {
+                _releaseFuture = _virtualHost.scheduleTask(delay, this::releaseDueEntries);
+                _scheduledTime = deliveryTime;
+            }
+            catch (RejectedExecutionException e)
+            {
+                LOGGER.debug("Could not schedule release of delayed entries", e);
+            }
+        }
+    }
+
+    private void scheduleNext()
+    {
+        if (!_entries.isEmpty())
+        {
+            try
+            {
+                scheduleRelease(_entries.first().getDeliveryTime());
+            }
+            catch (NoSuchElementException e)
+            {
+                // concurrently released
+            }
+        }
+    }
+
+    private void cancelScheduledRelease()
+    {
+        if (_releaseFuture != null)
+        {
+            _releaseFuture.cancel(false);
+            _releaseFuture = null;
+        }
+        _scheduledTime = Long.MAX_VALUE;
+    }
+
+    private static final class DelayedEntry implements Comparable<DelayedEntry>
+    {
+        private final long _deliveryTime;
+        private final QueueEntry _entry;
+
+        private DelayedEntry(final long deliveryTime, final QueueEntry entry)
+        {
+            _deliveryTime = deliveryTime;
+            _entry = entry;
+        }
+
+        long getDeliveryTime()
+        {
+            return _deliveryTime;
+        }
+
+        QueueEntry getEntry()
+        {
+            return _entry;
+        }
+
+        @Override
+        public int compareTo(final DelayedEntry other)
+        {
+            int result = Long.compare(_deliveryTime, other._deliveryTime);
+            return result == 0 ? _entry.compareTo(other._entry) : result;
+        }
+
+        @Override
+        public boolean equals(final Object o)
+        {
+            if (this == o)
+            {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass())
+            {
+                return false;
+            }
+            final DelayedEntry that = (DelayedEntry) o;
+            return _deliveryTime == that._deliveryTime && _entry.equals(that._entry);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * Long.hashCode(_deliveryTime) + _entry.hashCode();
+        }
+    }
+}
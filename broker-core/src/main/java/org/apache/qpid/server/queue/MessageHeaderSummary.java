@@ -0,0 +1,185 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.queue;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.qpid.server.message.AMQMessageHeader;
+import org.apache.qpid.server.message.ServerMessage;
+
+/**
+ * A compact copy of the parts of a message's header commonly consulted whilst the message is on a queue: the group
+ * id, priority, expiration, delivery time and a configured set of application properties.
+ * <p>
+ * Queries answered by the summary do not touch the message's metadata, so selectors and message grouping do not
+ * cause the metadata of a message that has been flowed to disk to be reloaded.  All other queries are delegated to
+ * the message's own header.
+ */
+final class MessageHeaderSummary implements AMQMessageHeader
+{
+    private final ServerMessage<?> _message;
+    private final Set<String> _retainedNames;
+    private final Map<String, Object> _headers;
+    private final String _groupId;
+    private final long _expiration;
+    private final long _notValidBefore;
+    private final byte _priority;
+
+    MessageHeaderSummary(final ServerMessage<?> message, final Set<String> retainedNames)
+    {
+        final AMQMessageHeader header = message.getMessageHeader();
+        _message = message;
+        _retainedNames = retainedNames;
+        _groupId = header.getGroupId();
+        _expiration = header.getExpiration();
+        _notValidBefore = header.getNotValidBefore();
+        _priority = header.getPriority();
+
+        Map<String, Object> headers = null;
+        for (String name : retainedNames)
+        {
+            if (header.containsHeader(name))
+            {
+                if (headers == null)
+                {
+                    headers = new HashMap<>();
+                }
+                headers.put(name, header.getHeader(name));
+            }
+        }
+        _headers = headers == null ? Collections.<String, Object>emptyMap() : headers;
+    }
+
+    @Override
+    public String getGroupId()
+    {
+        return _groupId;
+    }
+
+    @Override
+    public long getExpiration()
+    {
+        return _expiration;
+    }
+
+    @Override
+    public long getNotValidBefore()
+    {
+        return _notValidBefore;
+    }
+
+    @Override
+    public byte getPriority()
+    {
+        return _priority;
+    }
+
+    @Override
+    public Object getHeader(final String name)
+    {
+        return _retainedNames.contains(name) ? _headers.get(name) : getMessageHeader().getHeader(name);
+    }
+
+    @Override
+    public boolean containsHeader(final String name)
+    {
+        return _retainedNames.contains(name) ? _headers.containsKey(name) : getMessageHeader().containsHeader(name);
+    }
+
+    @Override
+    public boolean containsHeaders(final Set<String> names)
+    {
+        if (_retainedNames.containsAll(names))
+        {
+            return _headers.keySet().containsAll(names);
+        }
+        return getMessageHeader().containsHeaders(names);
+    }
+
+    @Override
+    public Collection<String> getHeaderNames()
+    {
+        return getMessageHeader().getHeaderNames();
+    }
+
+    @Override
+    public String getCorrelationId()
+    {
+        return getMessageHeader().getCorrelationId();
+    }
+
+    @Override
+    public String getUserId()
+    {
+        return getMessageHeader().getUserId();
+    }
+
+    @Override
+    public String getAppId()
+    {
+        return getMessageHeader().getAppId();
+    }
+
+    @Override
+    public String getMessageId()
+    {
+        return getMessageHeader().getMessageId();
+    }
+
+    @Override
+    public String getMimeType()
+    {
+        return getMessageHeader().getMimeType();
+    }
+
+    @Override
+    public String getEncoding()
+    {
+        return getMessageHeader().getEncoding();
+    }
+
+    @Override
+    public long getTimestamp()
+    {
+        return getMessageHeader().getTimestamp();
+    }
+
+    @Override
+    public String getType()
+    {
+        return getMessageHeader().getType();
+    }
+
+    @Override
+    public String getReplyTo()
+    {
+        return getMessageHeader().getReplyTo();
+    }
+
+    private AMQMessageHeader getMessageHeader()
+    {
+        return _message.getMessageHeader();
+    }
+}
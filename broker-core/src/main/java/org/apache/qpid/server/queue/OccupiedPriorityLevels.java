@@ -0,0 +1,114 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.queue;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free bitmap of the priority levels of a priority queue which may hold entries, allowing the highest or lowest
+ * occupied level to be found without visiting each empty level in turn.
+ * <p>
+ * A level is marked after an entry is added to it.  A level found to be empty may only be unmarked by a caller which
+ * then checks the level again, re-marking it if an entry has been added in the meantime.  As scans made between the
+ * unmark and the re-mark miss that entry, the caller must then also make the entry known to the consumers again.
+ */
+final class OccupiedPriorityLevels
+{
+    private final int _levels;
+    private final AtomicLongArray _words;
+
+    OccupiedPriorityLevels(final int levels)
+    {
+        _levels = levels;
+        _words = new AtomicLongArray((levels + 63) >>> 6);
+    }
+
+    void mark(final int level)
+    {
+        final int word = level >>> 6;
+        final long bit = 1L << level;
+        long bits;
+        while (((bits = _words.get(word)) & bit) == 0L && !_words.compareAndSet(word, bits, bits | bit))
+        {
+            // retry
+        }
+    }
+
+    void unmark(final int level)
+    {
+        final int word = level >>> 6;
+        final long bit = 1L << level;
+        long bits;
+        while (((bits = _words.get(word)) & bit) != 0L && !_words.compareAndSet(word, bits, bits & ~bit))
+        {
+            // retry
+        }
+    }
+
+    boolean isMarked(final int level)
+    {
+        return (_words.get(level >>> 6) & (1L << level)) != 0L;
+    }
+
+    /**
+     * Returns the highest marked level no greater than the given level, or -1 if there is none.
+     */
+    int highestAtOrBelow(final int level)
+    {
+        if (level < 0)
+        {
+            return -1;
+        }
+        int word = Math.min(level, _levels - 1) >>> 6;
+        long bits = _words.get(word) & (-1L >>> (63 - (Math.min(level, _levels - 1) & 63)));
+        while (bits == 0L)
+        {
+            if (--word < 0)
+            {
+                return -1;
+            }
+            bits = _words.get(word);
+        }
+        return (word << 6) + 63 - Long.numberOfLeadingZeros(bits);
+    }
+
+    /**
+     * Returns the lowest marked level no less than the given level, or -1 if there is none.
+     */
+    int lowestAtOrAbove(final int level)
+    {
+        if (level >= _levels)
+        {
+            return -1;
+        }
+        int word = Math.max(level, 0) >>> 6;
+        long bits = _words.get(word) & (-1L << (Math.max(level, 0) & 63));
+        while (bits == 0L)
+        {
+            if (++word == _words.length())
+            {
+                return -1;
+            }
+            bits = _words.get(word);
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(bits);
+    }
+}
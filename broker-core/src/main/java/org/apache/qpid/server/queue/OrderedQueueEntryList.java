@@ -22,6 +22,7 @@ package org.apache.qpid.server.queue;
 
 import static org.apache.qpid.server.model.Queue.QUEUE_SCAVANGE_COUNT;
 
+import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
@@ -185,20 +186,43 @@ public abstract class OrderedQueueEntryList extends AbstractQueueEntryList
 
     @Override
     public void entryDeleted(QueueEntry queueEntry)
+    {
+        entriesDeleted(queueEntry, 1);
+    }
+
+    /**
+     * Records the deletion of the entries together, scavenging the list at most once for them.
+     */
+    @Override
+    protected void entriesDeleted(final List<QueueEntry> queueEntries)
+    {
+        QueueEntry lastEntry = null;
+        for (QueueEntry queueEntry : queueEntries)
+        {
+            if (lastEntry == null || lastEntry.compareTo(queueEntry) < 0)
+            {
+                lastEntry = queueEntry;
+            }
+        }
+        entriesDeleted(lastEntry, queueEntries.size());
+    }
+
+    private void entriesDeleted(final QueueEntry lastEntry, final int count)
     {
         QueueEntry next = _head.getNextNode();
         QueueEntry newNext = _head.getNextValidEntry();
 
-        // the head of the queue has not been deleted, hence the deletion must have been mid queue.
-        if (next == newNext)
+        // the head of the queue has not been deleted, or deleted entries lie beyond it, hence there must have been
+        // deletions mid queue.
+        if (next == newNext || (newNext != null && newNext.compareTo(lastEntry) < 0))
         {
             QueueEntry unscavengedHWM = _unscavengedHWM.get();
-            while(unscavengedHWM == null || unscavengedHWM.compareTo(queueEntry)<0)
+            while(unscavengedHWM == null || unscavengedHWM.compareTo(lastEntry)<0)
             {
-                _unscavengedHWM.compareAndSet(unscavengedHWM, queueEntry);
+                _unscavengedHWM.compareAndSet(unscavengedHWM, lastEntry);
                 unscavengedHWM = _unscavengedHWM.get();
             }
-            if (_scavenges.incrementAndGet() > _scavengeCount)
+            if (_scavenges.addAndGet(count) > _scavengeCount)
             {
                 _scavenges.set(0L);
                 scavenge();
@@ -51,6 +51,7 @@ abstract public class PriorityQueueList extends OrderedQueueEntryList
                 };
         private final PriorityQueueImpl _queue;
         private final PriorityQueueEntrySubList[] _priorityLists;
+        private final OccupiedPriorityLevels _occupiedLevels;
         private final int _priorities;
         private final int _priorityOffset;
 
@@ -59,6 +60,7 @@ abstract public class PriorityQueueList extends OrderedQueueEntryList
             super(queue, DUMMY_HEAD_CREATOR);
             _queue = queue;
             _priorityLists = new PriorityQueueEntrySubList[priorities];
+            _occupiedLevels = new OccupiedPriorityLevels(priorities);
             _priorities = priorities;
             _priorityOffset = 5-((priorities + 1)/2);
             for(int i = 0; i < priorities; i++)
@@ -91,8 +93,9 @@ abstract public class PriorityQueueList extends OrderedQueueEntryList
             {
                 index = 0;
             }
-            return (PriorityQueueEntry) _priorityLists[index].add(message, enqueueRecord);
-
+            final PriorityQueueEntry entry = (PriorityQueueEntry) _priorityLists[index].add(message, enqueueRecord);
+            _occupiedLevels.mark(index);
+            return entry;
         }
 
         @Override
@@ -109,43 +112,63 @@ abstract public class PriorityQueueList extends OrderedQueueEntryList
 
             if(next == null)
             {
-                final PriorityQueueList nodeEntryList = (PriorityQueueList) ((PriorityQueueEntry)node).getQueueEntryList();
-                int index;
-                for(index = _priorityLists.length-1; _priorityLists[index] != nodeEntryList; index--)
+                int index = ((PriorityQueueEntrySubList) ((PriorityQueueEntry) node).getQueueEntryList()).getListPriority();
+                while(next == null && (index = _occupiedLevels.highestAtOrBelow(index - 1)) >= 0)
                 {
-                    // do nothing loop is just to find the index
+                    next = getFirstEntry(index);
                 }
+            }
+            return next;
+        }
 
-                while(next == null && index != 0)
+        /**
+         * Returns the first valid entry at the given level, unmarking the level if it is found to be empty.
+         */
+        private PriorityQueueEntry getFirstEntry(final int index)
+        {
+            final PriorityQueueEntrySubList subList = _priorityLists[index];
+            PriorityQueueEntry first = (PriorityQueueEntry) subList.getHead().getNextValidEntry();
+            if (first == null)
+            {
+                _occupiedLevels.unmark(index);
+                // an entry added since the check above may have marked the level before it was unmarked
+                first = (PriorityQueueEntry) subList.getHead().getNextValidEntry();
+                if (first != null)
                 {
-                    index--;
-                    next = (PriorityQueueEntry) _priorityLists[index].getHead().getNextValidEntry();
+                    _occupiedLevels.mark(index);
+                    if (first.isAvailable())
+                    {
+                        // consumers scanning whilst the level was unmarked may have passed over the entry
+                        _queue.checkConsumersNotAheadOfDelivery(first);
+                        _queue.notifyConsumers(first);
+                    }
                 }
-
             }
-            return next;
+            return first;
+        }
+
+        boolean isLevelOccupied(final int index)
+        {
+            return _occupiedLevels.isMarked(index);
         }
 
         private final class PriorityQueueEntryListIterator implements QueueEntryIterator
         {
+            // created on demand, as an iterator yet to be advanced is positioned at the head of its level
             private final QueueEntryIterator[] _iterators = new QueueEntryIterator[ _priorityLists.length ];
             private PriorityQueueEntry _lastNode;
 
             PriorityQueueEntryListIterator()
             {
-                for(int i = 0; i < _priorityLists.length; i++)
-                {
-                    _iterators[i] = _priorityLists[i].iterator();
-                }
-                _lastNode = (PriorityQueueEntry) _iterators[_iterators.length - 1].getNode();
+                _lastNode = (PriorityQueueEntry) _priorityLists[_priorityLists.length - 1].getHead();
             }
 
             @Override
             public boolean atTail()
             {
-                for(int i = 0; i < _iterators.length; i++)
+                for(int i = _occupiedLevels.highestAtOrBelow(_priorities - 1); i >= 0; i = _occupiedLevels.highestAtOrBelow(i - 1))
                 {
-                    if(!_iterators[i].atTail())
+                    if(!getIterator(i).atTail())
                     {
                         return false;
                     }
@@ -162,16 +185,28 @@ abstract public class PriorityQueueList extends OrderedQueueEntryList
             @Override
             public boolean advance()
             {
-                for(int i = _iterators.length-1; i >= 0; i--)
+                for(int i = _occupiedLevels.highestAtOrBelow(_priorities - 1); i >= 0; i = _occupiedLevels.highestAtOrBelow(i - 1))
                 {
-                    if(_iterators[i].advance())
+                    final QueueEntryIterator iterator = getIterator(i);
+                    if(iterator.advance())
                     {
-                        _lastNode = (PriorityQueueEntry) _iterators[i].getNode();
+                        _lastNode = (PriorityQueueEntry) iterator.getNode();
                         return true;
                     }
                 }
                 return false;
             }
+
+            private QueueEntryIterator getIterator(final int index)
+            {
+                QueueEntryIterator iterator = _iterators[index];
+                if(iterator == null)
+                {
+                    iterator = _priorityLists[index].iterator();
+                    _iterators[index] = iterator;
+                }
+                return iterator;
+            }
         }
 
         @Override
@@ -205,9 +240,9 @@ abstract public class PriorityQueueList extends OrderedQueueEntryList
         public QueueEntry getOldestEntry()
         {
             QueueEntry oldest = null;
-            for(PriorityQueueEntrySubList subList : _priorityLists)
+            for(int i = _occupiedLevels.highestAtOrBelow(_priorities - 1); i >= 0; i = _occupiedLevels.highestAtOrBelow(i - 1))
             {
-                QueueEntry subListOldest = subList.getOldestEntry();
+                QueueEntry subListOldest = getFirstEntry(i);
                 if(oldest == null || (subListOldest != null && subListOldest.getMessage().getMessageNumber() < oldest.getMessage().getMessageNumber()))
                 {
                     oldest = subListOldest;
@@ -219,9 +254,9 @@ abstract public class PriorityQueueList extends OrderedQueueEntryList
         @Override
         public QueueEntry getLeastSignificantOldestEntry()
         {
-            for(PriorityQueueEntrySubList subList : _priorityLists)
+            for(int i = _occupiedLevels.lowestAtOrAbove(0); i >= 0; i = _occupiedLevels.lowestAtOrAbove(i + 1))
             {
-                QueueEntry subListLast = subList.getLeastSignificantOldestEntry();
+                QueueEntry subListLast = getFirstEntry(i);
                 if(subListLast != null)
                 {
                     return subListLast;
@@ -20,6 +20,9 @@
 */
 package org.apache.qpid.server.queue;
 
+import java.util.Set;
+
+import org.apache.qpid.server.message.AMQMessageHeader;
 import org.apache.qpid.server.message.MessageInstance;
 import org.apache.qpid.server.message.MessageReference;
 import org.apache.qpid.server.model.Queue;
@@ -43,7 +46,31 @@ public interface QueueEntry extends MessageInstance, Comparable<QueueEntry>
 
     void setExpiration(long calculatedExpiration);
 
+    /**
+     * Returns the header of the entry's message, answered where possible from the summary retained by
+     * {@link #retainHeaderSummary(Set)} without consulting the message's metadata.
+     *
+     * @return the message header, or null if the entry has no message
+     */
+    AMQMessageHeader getMessageHeader();
+
+    /**
+     * Retains in memory the group id, priority, expiration and delivery time of the entry's message together with
+     * the named application properties, so that these can be read even after the message has been flowed to disk.
+     */
+    void retainHeaderSummary(Set<String> headerNames);
+
     MessageReference newMessageReference();
 
     boolean checkHeld(final long evaluationTime);
+
+    /**
+     * Puts an available (or held) entry into the delayed state. A delayed entry is reported as held without
+     * re-evaluating the queue's hold conditions until {@link #releaseDelayed()} is called.
+     *
+     * @return true if the entry is in the delayed state on return
+     */
+    boolean delayDelivery();
+
+    void releaseDelayed();
 }
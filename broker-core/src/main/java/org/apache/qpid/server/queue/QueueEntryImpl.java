@@ -32,6 +32,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.apache.qpid.server.filter.Filterable;
+import org.apache.qpid.server.message.AMQMessageHeader;
 import org.apache.qpid.server.message.InstanceProperties;
 import org.apache.qpid.server.message.MessageDeletedException;
 import org.apache.qpid.server.message.MessageDestination;
@@ -76,6 +77,21 @@ public abstract class QueueEntryImpl implements QueueEntry
         }
     };
 
+    private static final EntryState DELAYED_STATE = new EntryState()
+    {
+        @Override
+        public State getState()
+        {
+            return State.AVAILABLE;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "DELAYED";
+        }
+    };
+
     private volatile EntryState _state = AVAILABLE_STATE;
 
     private static final
@@ -118,6 +134,7 @@ public abstract class QueueEntryImpl implements QueueEntry
                     .newUpdater(QueueEntryImpl.class, "_deliveryCount");
 
     private final MessageEnqueueRecord _enqueueRecord;
+    private volatile MessageHeaderSummary _headerSummary;
 
 
     QueueEntryImpl(QueueEntryList queueEntryList)
@@ -169,6 +186,28 @@ public abstract class QueueEntryImpl implements QueueEntry
         _expiration = expiration;
     }
 
+    @Override
+    public AMQMessageHeader getMessageHeader()
+    {
+        final MessageHeaderSummary headerSummary = _headerSummary;
+        if (headerSummary != null)
+        {
+            return headerSummary;
+        }
+        final ServerMessage message = getMessage();
+        return message == null ? null : message.getMessageHeader();
+    }
+
+    @Override
+    public void retainHeaderSummary(final Set<String> headerNames)
+    {
+        final ServerMessage message = getMessage();
+        if (message != null)
+        {
+            _headerSummary = new MessageHeaderSummary(message, headerNames);
+        }
+    }
+
     @Override
     public InstanceProperties getInstanceProperties()
     {
@@ -467,6 +506,10 @@ public abstract class QueueEntryImpl implements QueueEntry
         EntryState state;
         while((state = _state).getState() == State.AVAILABLE)
         {
+            if(state == DELAYED_STATE)
+            {
+                return true;
+            }
             boolean isHeld = getQueue().isHeld(this, evaluationTime);
             if(state == AVAILABLE_STATE && isHeld)
             {
@@ -493,6 +536,29 @@ public abstract class QueueEntryImpl implements QueueEntry
         return false;
     }
 
+    @Override
+    public boolean delayDelivery()
+    {
+        EntryState state;
+        while((state = _state) == AVAILABLE_STATE || state == HELD_STATE)
+        {
+            if(_stateUpdater.compareAndSet(this, state, DELAYED_STATE))
+            {
+                return true;
+            }
+        }
+        return state == DELAYED_STATE;
+    }
+
+    @Override
+    public void releaseDelayed()
+    {
+        if(_stateUpdater.compareAndSet(this, DELAYED_STATE, AVAILABLE_STATE))
+        {
+            postRelease(DELAYED_STATE);
+        }
+    }
+
     @Override
     public void reject(final MessageInstanceConsumer<?> consumer)
     {
@@ -538,6 +604,11 @@ public abstract class QueueEntryImpl implements QueueEntry
     private void notifyStateChange(final EntryState oldState, final EntryState newState)
     {
         _queueEntryList.updateStatsOnStateChange(this, oldState, newState);
+        notifyListeners(oldState, newState);
+    }
+
+    private void notifyListeners(final EntryState oldState, final EntryState newState)
+    {
         StateChangeListenerEntry<? super QueueEntry, EntryState> entry = _listenersUpdater.get(this);
         while(entry != null)
         {
@@ -560,6 +631,7 @@ public abstract class QueueEntryImpl implements QueueEntry
             _queueEntryList.entryDeleted(this);
             onDelete();
             _message.release();
+            getQueue().checkCapacity();
 
             return true;
         }
@@ -578,6 +650,38 @@ public abstract class QueueEntryImpl implements QueueEntry
         }
     }
 
+    /**
+     * Deletes the entry if it is acquired, as one of the entries deleted together by
+     * {@link QueueEntryList#deleteEntries(java.util.Collection)}, which updates the statistics of the queue and tidies
+     * the entry list once for all of them rather than for each entry.
+     *
+     * @return the state in which the entry was acquired if it was deleted, otherwise null
+     */
+    EntryState deleteWithoutUpdatingList()
+    {
+        EntryState state = _state;
+
+        while(state.getState() == State.ACQUIRED && !_stateUpdater.compareAndSet(this, state, DEQUEUED_STATE))
+        {
+            state = _state;
+        }
+
+        if(state.getState() == State.ACQUIRED)
+        {
+            notifyListeners(state, DEQUEUED_STATE);
+            // only the thread that dequeued the entry disposes of it
+            _stateUpdater.set(this, DELETED_STATE);
+            notifyListeners(DEQUEUED_STATE, DELETED_STATE);
+            onDelete();
+            _message.release();
+            return state;
+        }
+        else
+        {
+            return null;
+        }
+    }
+
     @Override
     public int routeToAlternate(final Action<? super MessageInstance> action, ServerTransaction txn)
     {
@@ -707,7 +811,7 @@ public abstract class QueueEntryImpl implements QueueEntry
     @Override
     public Filterable asFilterable()
     {
-        return Filterable.Factory.newInstance(getMessage(), getInstanceProperties());
+        return Filterable.Factory.newInstance(getMessage(), _headerSummary, getInstanceProperties());
     }
 
     @Override
@@ -20,6 +20,8 @@
 */
 package org.apache.qpid.server.queue;
 
+import java.util.Collection;
+
 import org.apache.qpid.server.message.ServerMessage;
 import org.apache.qpid.server.model.Queue;
 import org.apache.qpid.server.store.MessageEnqueueRecord;
@@ -41,6 +43,14 @@ interface QueueEntryList
     QueueEntry getOldestEntry();
 
     void entryDeleted(QueueEntry queueEntry);
+
+    /**
+     * Deletes those of the given entries of this list which are acquired, updating the statistics of the queue and
+     * tidying the list once for all of them.
+     *
+     * @return the number of entries deleted
+     */
+    int deleteEntries(Collection<? extends QueueEntryImpl> entries);
     
     int getPriorities();
 
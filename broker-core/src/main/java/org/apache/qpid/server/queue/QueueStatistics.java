@@ -177,6 +177,12 @@ final class QueueStatistics
         _queueSize.addAndGet(-size);
     }
 
+    void removeFromQueue(int count, long size)
+    {
+        _queueCount.addAndGet(-count);
+        _queueSize.addAndGet(-size);
+    }
+
     void addToAvailable(long size)
     {
         int count = _availableCount.incrementAndGet();
@@ -211,6 +217,12 @@ final class QueueStatistics
         _unackedSize.addAndGet(-size);
     }
 
+    void removeFromUnacknowledged(int count, long size)
+    {
+        _unackedCount.addAndGet(-count);
+        _unackedSize.addAndGet(-size);
+    }
+
     void addToEnqueued(long size)
     {
         _enqueueCount.incrementAndGet();
@@ -223,6 +235,12 @@ final class QueueStatistics
         _dequeueSize.addAndGet(size);
     }
 
+    void addToDequeued(int count, long size)
+    {
+        _dequeueCount.addAndGet(count);
+        _dequeueSize.addAndGet(size);
+    }
+
     void addToPersistentEnqueued(long size)
     {
         _persistentEnqueueCount.incrementAndGet();
@@ -235,6 +253,12 @@ final class QueueStatistics
         _persistentDequeueSize.addAndGet(size);
     }
 
+    void addToPersistentDequeued(int count, long size)
+    {
+        _persistentDequeueCount.addAndGet(count);
+        _persistentDequeueSize.addAndGet(size);
+    }
+
     void addToExpired(final long size)
     {
         _expiredCount.incrementAndGet();
@@ -27,9 +27,15 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import javax.security.auth.Subject;
 
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+
 import org.apache.qpid.server.model.AuthenticationProvider;
 import org.apache.qpid.server.model.GroupProvider;
 import org.apache.qpid.server.model.NamedAddressSpace;
@@ -77,7 +83,49 @@ public class SubjectCreator
 
     public SubjectAuthenticationResult authenticate(SaslNegotiator saslNegotiator, byte[] response)
     {
-        AuthenticationResult authenticationResult = saslNegotiator.handleResponse(response);
+        return authenticate(saslNegotiator, response, System.nanoTime());
+    }
+
+    /**
+     * Performs the authentication step using the given executor, so that slow authentication (such as an LDAP bind
+     * or password hashing) does not occupy the calling thread.  If the executor cannot accept the step, it is
+     * performed on the calling thread.
+     */
+    public ListenableFuture<SubjectAuthenticationResult> authenticateAsync(final SaslNegotiator saslNegotiator,
+                                                                           final byte[] response,
+                                                                           final Executor executor)
+    {
+        final long queuedTime = System.nanoTime();
+        _authenticationProvider.incrementAuthenticationQueueLength();
+        final ListenableFutureTask<SubjectAuthenticationResult> task = ListenableFutureTask.create(() ->
+        {
+            _authenticationProvider.decrementAuthenticationQueueLength();
+            return authenticate(saslNegotiator, response, queuedTime);
+        });
+        try
+        {
+            executor.execute(task);
+        }
+        catch (RejectedExecutionException e)
+        {
+            task.run();
+        }
+        return task;
+    }
+
+    private SubjectAuthenticationResult authenticate(final SaslNegotiator saslNegotiator,
+                                                     final byte[] response,
+                                                     final long startTime)
+    {
+        final AuthenticationResult authenticationResult;
+        try
+        {
+            authenticationResult = saslNegotiator.handleResponse(response);
+        }
+        finally
+        {
+            _authenticationProvider.registerAuthentication(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        }
         if(authenticationResult.getStatus() == AuthenticationStatus.SUCCESS)
         {
             return createResultWithGroups(authenticationResult);
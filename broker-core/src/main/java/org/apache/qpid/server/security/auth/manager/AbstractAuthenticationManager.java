@@ -26,6 +26,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
@@ -54,6 +56,9 @@ public abstract class AbstractAuthenticationManager<T extends AbstractAuthentica
 
     private final Container<?> _container;
     private final EventLogger _eventLogger;
+    private final AtomicInteger _authenticationQueueLength = new AtomicInteger();
+    private final AtomicLong _authenticationCount = new AtomicLong();
+    private final AtomicLong _totalAuthenticationTime = new AtomicLong();
 
     @ManagedAttributeField
     private List<String> _secureOnlyMechanisms;
@@ -215,4 +220,41 @@ public abstract class AbstractAuthenticationManager<T extends AbstractAuthentica
     {
         return _eventLogger;
     }
+
+    @Override
+    public int getAuthenticationQueueLength()
+    {
+        return _authenticationQueueLength.get();
+    }
+
+    @Override
+    public long getAuthenticationCount()
+    {
+        return _authenticationCount.get();
+    }
+
+    @Override
+    public long getTotalAuthenticationTime()
+    {
+        return _totalAuthenticationTime.get();
+    }
+
+    @Override
+    public void incrementAuthenticationQueueLength()
+    {
+        _authenticationQueueLength.incrementAndGet();
+    }
+
+    @Override
+    public void decrementAuthenticationQueueLength()
+    {
+        _authenticationQueueLength.decrementAndGet();
+    }
+
+    @Override
+    public void registerAuthentication(final long durationInMillis)
+    {
+        _authenticationCount.incrementAndGet();
+        _totalAuthenticationTime.addAndGet(durationInMillis);
+    }
 }
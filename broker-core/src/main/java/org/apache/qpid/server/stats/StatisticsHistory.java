@@ -0,0 +1,390 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package org.apache.qpid.server.stats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.qpid.server.model.ConfiguredObject;
+import org.apache.qpid.server.model.ConfiguredObjectStatistic;
+import org.apache.qpid.server.model.StatisticType;
+
+/**
+ * Keeps a bounded history of the integral statistics of configured objects.
+ * <p>
+ * Samples are held in fixed size ring buffers of primitive longs, one at per-second and one at per-minute
+ * resolution, so the memory used per statistic does not grow with the broker uptime.  Recording is expected to
+ * be performed by a single sampling thread whereas the history can be read concurrently.
+ */
+public class StatisticsHistory
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(StatisticsHistory.class);
+
+    public enum Resolution
+    {
+        SECOND(1000L),
+        MINUTE(60000L);
+
+        private final long _intervalMillis;
+
+        Resolution(final long intervalMillis)
+        {
+            _intervalMillis = intervalMillis;
+        }
+
+        public long getIntervalMillis()
+        {
+            return _intervalMillis;
+        }
+    }
+
+    private final int _secondCapacity;
+    private final int _minuteCapacity;
+    private final Map<ConfiguredObject<?>, ObjectHistory> _histories = new ConcurrentHashMap<>();
+    private final Map<Class<? extends ConfiguredObject>, ConfiguredObjectStatistic<?, ?>[]> _sampledStatistics =
+            new ConcurrentHashMap<>();
+
+    public StatisticsHistory(final int secondCapacity, final int minuteCapacity)
+    {
+        if (secondCapacity < 2 || minuteCapacity < 2)
+        {
+            throw new IllegalArgumentException("Statistics history must keep at least two samples at each resolution");
+        }
+        _secondCapacity = secondCapacity;
+        _minuteCapacity = minuteCapacity;
+    }
+
+    public void record(final ConfiguredObject<?> object, final long timestamp)
+    {
+        ObjectHistory history = _histories.get(object);
+        if (history == null)
+        {
+            final ConfiguredObjectStatistic<?, ?>[] statistics =
+                    _sampledStatistics.computeIfAbsent(object.getTypeClass(), type -> getSampledStatistics(object, type));
+            if (statistics.length == 0)
+            {
+                return;
+            }
+            history = new ObjectHistory(object, statistics, _secondCapacity, _minuteCapacity);
+            _histories.put(object, history);
+        }
+        history.record(timestamp);
+    }
+
+    /**
+     * Removes the history of objects which have not been recorded since the given time, typically because they
+     * have been deleted since.
+     */
+    public void purgeNotRecordedSince(final long timestamp)
+    {
+        _histories.values().removeIf(history -> history.getLastRecorded() < timestamp);
+    }
+
+    public Collection<ObjectHistory> getHistories()
+    {
+        return Collections.unmodifiableCollection(_histories.values());
+    }
+
+    public ObjectHistory getHistory(final ConfiguredObject<?> object)
+    {
+        return _histories.get(object);
+    }
+
+    private static ConfiguredObjectStatistic<?, ?>[] getSampledStatistics(final ConfiguredObject<?> object,
+                                                                         final Class<? extends ConfiguredObject> type)
+    {
+        final List<ConfiguredObjectStatistic<?, ?>> sampled = new ArrayList<>();
+        for (ConfiguredObjectStatistic<?, ?> statistic : object.getModel().getTypeRegistry().getStatistics(type))
+        {
+            if (isIntegral(statistic.getType()))
+            {
+                sampled.add(statistic);
+            }
+        }
+        sampled.sort((left, right) -> left.getName().compareTo(right.getName()));
+        return sampled.toArray(new ConfiguredObjectStatistic<?, ?>[sampled.size()]);
+    }
+
+    private static boolean isIntegral(final Class<?> type)
+    {
+        return type == Long.class || type == Long.TYPE
+               || type == Integer.class || type == Integer.TYPE
+               || type == Short.class || type == Short.TYPE;
+    }
+
+    public static final class ObjectHistory
+    {
+        private final ConfiguredObject<?> _object;
+        private final ConfiguredObjectStatistic<?, ?>[] _statistics;
+        private final List<String> _statisticNames;
+        private final long[] _scratch;
+        private final RingBuffer _seconds;
+        private final RingBuffer _minutes;
+        private volatile long _lastRecorded = Long.MIN_VALUE;
+
+        private ObjectHistory(final ConfiguredObject<?> object,
+                              final ConfiguredObjectStatistic<?, ?>[] statistics,
+                              final int secondCapacity,
+                              final int minuteCapacity)
+        {
+            _object = object;
+            _statistics = statistics;
+            final String[] names = new String[statistics.length];
+            for (int i = 0; i < statistics.length; i++)
+            {
+                names[i] = statistics[i].getName();
+            }
+            _statisticNames = Collections.unmodifiableList(Arrays.asList(names));
+            _scratch = new long[statistics.length];
+            _seconds = new RingBuffer(secondCapacity, statistics.length);
+            _minutes = new RingBuffer(minuteCapacity, statistics.length);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void record(final long timestamp)
+        {
+            for (int i = 0; i < _statistics.length; i++)
+            {
+                try
+                {
+                    final Object value =
+                            ((ConfiguredObjectStatistic<ConfiguredObject<?>, ?>) _statistics[i]).getValue(_object);
+                    _scratch[i] = value == null ? 0L : ((Number) value).longValue();
+                }
+                catch (RuntimeException e)
+                {
+                    LOGGER.debug("Unable to sample statistic '{}' of {}", _statistics[i].getName(), _object, e);
+                    _scratch[i] = 0L;
+                }
+            }
+
+            synchronized (this)
+            {
+                _seconds.add(timestamp, _scratch);
+                if (_minutes.isEmpty()
+                    || _minutes.getLastTimestamp() / Resolution.MINUTE.getIntervalMillis()
+                       != timestamp / Resolution.MINUTE.getIntervalMillis())
+                {
+                    _minutes.add(timestamp, _scratch);
+                }
+            }
+            _lastRecorded = timestamp;
+        }
+
+        public ConfiguredObject<?> getConfiguredObject()
+        {
+            return _object;
+        }
+
+        public List<String> getStatisticNames()
+        {
+            return _statisticNames;
+        }
+
+        public StatisticType getStatisticType(final String name)
+        {
+            final int index = _statisticNames.indexOf(name);
+            return index < 0 ? null : _statistics[index].getStatisticType();
+        }
+
+        public long getLastRecorded()
+        {
+            return _lastRecorded;
+        }
+
+        /**
+         * Returns the samples of the named statistic taken at or after the given time, oldest first, or null if
+         * the statistic is not sampled for this object.
+         */
+        public Samples getSamples(final String name, final Resolution resolution, final long since)
+        {
+            final int index = _statisticNames.indexOf(name);
+            if (index < 0)
+            {
+                return null;
+            }
+            final RingBuffer buffer = resolution == Resolution.MINUTE ? _minutes : _seconds;
+            synchronized (this)
+            {
+                return buffer.copy(index, since);
+            }
+        }
+    }
+
+    public static final class Samples
+    {
+        private final long[] _timestamps;
+        private final long[] _values;
+
+        Samples(final long[] timestamps, final long[] values)
+        {
+            _timestamps = timestamps;
+            _values = values;
+        }
+
+        public int size()
+        {
+            return _values.length;
+        }
+
+        public long[] getTimestamps()
+        {
+            return _timestamps;
+        }
+
+        public long[] getValues()
+        {
+            return _values;
+        }
+
+        /**
+         * Average change per second between the first and the last sample, or NaN if fewer than two samples exist.
+         */
+        public double getRatePerSecond()
+        {
+            if (_values.length < 2 || _timestamps[_values.length - 1] == _timestamps[0])
+            {
+                return Double.NaN;
+            }
+            return (_values[_values.length - 1] - _values[0]) * 1000d
+                   / (_timestamps[_values.length - 1] - _timestamps[0]);
+        }
+
+        /**
+         * Change per second between each pair of adjacent samples.
+         */
+        public double[] getIntervalRates()
+        {
+            if (_values.length < 2)
+            {
+                return new double[0];
+            }
+            final double[] rates = new double[_values.length - 1];
+            int count = 0;
+            for (int i = 1; i < _values.length; i++)
+            {
+                final long interval = _timestamps[i] - _timestamps[i - 1];
+                if (interval > 0)
+                {
+                    rates[count++] = (_values[i] - _values[i - 1]) * 1000d / interval;
+                }
+            }
+            return count == rates.length ? rates : Arrays.copyOf(rates, count);
+        }
+
+        public double[] getValuesAsDoubles()
+        {
+            final double[] values = new double[_values.length];
+            for (int i = 0; i < _values.length; i++)
+            {
+                values[i] = _values[i];
+            }
+            return values;
+        }
+
+        /**
+         * Nearest-rank percentile of the given values, or NaN if there are none.  The array is sorted in place.
+         */
+        public static double percentile(final double[] values, final double percentile)
+        {
+            if (percentile < 0d || percentile > 100d)
+            {
+                throw new IllegalArgumentException("Percentile must be between 0 and 100 : " + percentile);
+            }
+            if (values.length == 0)
+            {
+                return Double.NaN;
+            }
+            Arrays.sort(values);
+            final int rank = (int) Math.ceil(percentile / 100d * values.length);
+            return values[Math.max(rank - 1, 0)];
+        }
+    }
+
+    private static final class RingBuffer
+    {
+        private final long[] _timestamps;
+        private final long[][] _values;
+        private int _next;
+        private int _size;
+
+        private RingBuffer(final int capacity, final int width)
+        {
+            _timestamps = new long[capacity];
+            _values = new long[width][capacity];
+        }
+
+        private boolean isEmpty()
+        {
+            return _size == 0;
+        }
+
+        private long getLastTimestamp()
+        {
+            return _timestamps[(_next - 1 + _timestamps.length) % _timestamps.length];
+        }
+
+        private void add(final long timestamp, final long[] values)
+        {
+            _timestamps[_next] = timestamp;
+            for (int i = 0; i < values.length; i++)
+            {
+                _values[i][_next] = values[i];
+            }
+            _next = (_next + 1) % _timestamps.length;
+            if (_size < _timestamps.length)
+            {
+                _size++;
+            }
+        }
+
+        private Samples copy(final int index, final long since)
+        {
+            final int capacity = _timestamps.length;
+            final int oldest = (_next - _size + capacity) % capacity;
+            int skip = 0;
+            while (skip < _size && _timestamps[(oldest + skip) % capacity] < since)
+            {
+                skip++;
+            }
+            final int count = _size - skip;
+            final long[] timestamps = new long[count];
+            final long[] values = new long[count];
+            final long[] series = _values[index];
+            for (int i = 0; i < count; i++)
+            {
+                final int position = (oldest + skip + i) % capacity;
+                timestamps[i] = _timestamps[position];
+                values[i] = series[position];
+            }
+            return new Samples(timestamps, values);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package org.apache.qpid.server.stats;
+
+import java.security.PrivilegedAction;
+import java.util.Collection;
+import java.util.TimerTask;
+
+import javax.security.auth.Subject;
+
+import org.apache.qpid.server.model.ConfiguredObject;
+
+public class StatisticsHistorySamplingTask extends TimerTask
+{
+    private final ConfiguredObject<?> _root;
+    private final Subject _subject;
+    private final StatisticsHistory _history;
+
+    public StatisticsHistorySamplingTask(final ConfiguredObject<?> root,
+                                         final Subject subject,
+                                         final StatisticsHistory history)
+    {
+        _root = root;
+        _subject = subject;
+        _history = history;
+    }
+
+    @Override
+    public void run()
+    {
+        Subject.doAs(_subject, (PrivilegedAction<Object>) () -> {
+            final long now = System.currentTimeMillis();
+            processChild(_root, now);
+            _history.purgeNotRecordedSince(now);
+            return null;
+        });
+    }
+
+    private void processChild(final ConfiguredObject<?> child, final long now)
+    {
+        _history.record(child, now);
+
+        // unlike statistics reporting, descend into objects managing their own children (e.g. virtual host nodes)
+        // so that a single task samples the whole hierarchy
+        Collection<Class<? extends ConfiguredObject>> childTypes =
+                child.getModel().getChildTypes(child.getCategoryClass());
+        for (Class<? extends ConfiguredObject> childClass : childTypes)
+        {
+            Collection<? extends ConfiguredObject> children = child.getChildren(childClass);
+            for (ConfiguredObject<?> grandChild : children)
+            {
+                processChild(grandChild, now);
+            }
+        }
+    }
+}
@@ -20,9 +20,15 @@
  */
 package org.apache.qpid.server.store;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -36,7 +42,12 @@ import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import org.slf4j.Logger;
@@ -50,11 +61,32 @@ import org.apache.qpid.server.model.Model;
 import org.apache.qpid.server.model.SystemConfig;
 import org.apache.qpid.server.plugin.QpidServiceLoader;
 import org.apache.qpid.server.store.handler.ConfiguredObjectRecordHandler;
-
+import org.apache.qpid.server.util.FileHelper;
+
+/**
+ * Durable configuration store keeping the whole configuration tree in a single JSON file.
+ * <p>
+ * By default the file is rewritten on every change.  If journaling is enabled (see
+ * {@link SystemConfig#JSON_CONFIG_STORE_JOURNAL_ENABLED}) changes are instead appended as single line entries to a
+ * journal file next to the configuration file.  Once the journal reaches
+ * {@link SystemConfig#JSON_CONFIG_STORE_JOURNAL_COMPACTION_THRESHOLD} entries, it is sealed and the configuration
+ * file is rewritten from a copy of the in-memory state on a background thread, after which the sealed journal is
+ * deleted.  Journal entries carry complete records, so replaying them over either the old or the new configuration
+ * file gives the same result; on open any journal left by an unclean shutdown is replayed and compacted.
+ */
 public class JsonFileConfigStore extends AbstractJsonFileStore implements DurableConfigurationStore
 {
     private static final Logger LOGGER = LoggerFactory.getLogger(JsonFileConfigStore.class);
 
+    static final String JOURNAL_SUFFIX = ".journal";
+    static final String COMPACTING_JOURNAL_SUFFIX = ".journal.compacting";
+
+    private static final String JOURNAL_OPERATION = "op";
+    private static final String JOURNAL_UPSERT = "upsert";
+    private static final String JOURNAL_REMOVE = "remove";
+    private static final String JOURNAL_RECORDS = "records";
+    private static final String JOURNAL_IDS = "ids";
+
     private static final Comparator<Class<? extends ConfiguredObject>> CATEGORY_CLASS_COMPARATOR =
             new Comparator<Class<? extends ConfiguredObject>>()
             {
@@ -81,8 +113,17 @@ public class JsonFileConfigStore extends AbstractJsonFileStore implements Durabl
     private final Map<String, List<UUID>> _idsByType = new HashMap<String, List<UUID>>();
     private volatile Class<? extends ConfiguredObject> _rootClass;
     private final ObjectMapper _objectMapper;
+    private final ObjectMapper _journalObjectMapper;
+    private final FileHelper _fileHelper = new FileHelper();
     private volatile Map<String,Class<? extends ConfiguredObject>> _classNameMapping;
 
+    private boolean _journalEnabled;
+    private int _journalCompactionThreshold;
+    private OutputStream _journal;
+    private int _journalEntries;
+    private ExecutorService _compactionExecutor;
+    private Future<?> _compaction;
+
     private ConfiguredObject<?> _parent;
 
     private enum State { CLOSED, CONFIGURED, OPEN };
@@ -93,6 +134,7 @@ public class JsonFileConfigStore extends AbstractJsonFileStore implements Durabl
     {
         super();
         _objectMapper = ConfiguredObjectJacksonModule.newObjectMapper(true).enable(SerializationFeature.INDENT_OUTPUT);
+        _journalObjectMapper = ConfiguredObjectJacksonModule.newObjectMapper(true);
         _rootClass = rootClass;
     }
 
@@ -114,6 +156,13 @@ public class JsonFileConfigStore extends AbstractJsonFileStore implements Durabl
               fileBasedSettings.getStorePath(),
               parent.getContextValue(String.class, SystemConfig.POSIX_FILE_PERMISSIONS),
               Collections.emptyMap());
+        _journalEnabled = Boolean.TRUE.equals(parent.getContextValue(Boolean.class,
+                                                                     SystemConfig.JSON_CONFIG_STORE_JOURNAL_ENABLED));
+        Integer compactionThreshold =
+                parent.getContextValue(Integer.class, SystemConfig.JSON_CONFIG_STORE_JOURNAL_COMPACTION_THRESHOLD);
+        _journalCompactionThreshold = compactionThreshold == null
+                ? SystemConfig.DEFAULT_JSON_CONFIG_STORE_JOURNAL_COMPACTION_THRESHOLD
+                : compactionThreshold;
         changeState(State.CLOSED, State.CONFIGURED);
 
     }
@@ -124,6 +173,10 @@ public class JsonFileConfigStore extends AbstractJsonFileStore implements Durabl
     {
         changeState(State.CONFIGURED, State.OPEN);
         boolean isNew = load(initialRecords);
+        if (_journalEnabled)
+        {
+            openJournal();
+        }
         List<ConfiguredObjectRecord> records = new ArrayList<ConfiguredObjectRecord>(_objectsById.values());
         for(ConfiguredObjectRecord record : records)
         {
@@ -136,10 +189,19 @@ public class JsonFileConfigStore extends AbstractJsonFileStore implements Durabl
     public void reload(ConfiguredObjectRecordHandler handler)
     {
         assertState(State.OPEN);
-        _idsByType.clear();
-        _objectsById.clear();
-        load();
-        List<ConfiguredObjectRecord> records = new ArrayList<ConfiguredObjectRecord>(_objectsById.values());
+        List<ConfiguredObjectRecord> records;
+        synchronized (this)
+        {
+            closeJournal(false);
+            _idsByType.clear();
+            _objectsById.clear();
+            load();
+            if (_journalEnabled)
+            {
+                openJournal();
+            }
+            records = new ArrayList<ConfiguredObjectRecord>(_objectsById.values());
+        }
         for(ConfiguredObjectRecord record : records)
         {
             handler.handle(record);
@@ -218,9 +280,13 @@ public class JsonFileConfigStore extends AbstractJsonFileStore implements Durabl
                 }
                 idsForType.add(record.getId());
             }
-            if(updated)
+
+            boolean journalReplayed = replayJournal(getCompactingJournalFile());
+            journalReplayed = replayJournal(getJournalFile()) || journalReplayed;
+            if(updated || journalReplayed)
             {
                 save();
+                deleteJournals();
             }
             return updated;
         }
@@ -272,7 +338,7 @@ public class JsonFileConfigStore extends AbstractJsonFileStore implements Durabl
 
             idsForType.add(record.getId());
 
-            save();
+            persistUpdates(Collections.singletonList(record));
         }
     }
 
@@ -291,19 +357,21 @@ public class JsonFileConfigStore extends AbstractJsonFileStore implements Durabl
     }
 
     private void save()
+    {
+        save(buildData());
+    }
+
+    private Map<String, Object> buildData()
     {
         UUID rootId = getRootId();
-        final Map<String, Object> data;
         if (rootId == null)
         {
-            data = Collections.emptyMap();
+            return Collections.emptyMap();
         }
         else
         {
-            data = build(_rootClass, rootId, createChildMap());
+            return build(_rootClass, rootId, createChildMap());
         }
-
-        save(data);
     }
 
     private Map<UUID, Map<String, SortedSet<ConfiguredObjectRecord>>> createChildMap()
@@ -406,7 +474,7 @@ public class JsonFileConfigStore extends AbstractJsonFileStore implements Durabl
                 _idsByType.get(record.getType()).remove(record.getId());
             }
         }
-        save();
+        persistRemovals(removedIds);
         return removedIds.toArray(new UUID[removedIds.size()]);
     }
 
@@ -453,9 +521,11 @@ public class JsonFileConfigStore extends AbstractJsonFileStore implements Durabl
                 throw new StoreException("Cannot update record of unknown type " + type);
             }
         }
+        List<ConfiguredObjectRecord> updatedRecords = new ArrayList<>(records.length);
         for(ConfiguredObjectRecord record : records)
         {
             record = new ConfiguredObjectRecordImpl(record);
+            updatedRecords.add(record);
             final UUID id = record.getId();
             final String type = record.getType();
             if(_objectsById.put(id, record) == null)
@@ -475,7 +545,342 @@ public class JsonFileConfigStore extends AbstractJsonFileStore implements Durabl
             }
         }
 
-        save();
+        persistUpdates(updatedRecords);
+    }
+
+    private void persistUpdates(final Collection<ConfiguredObjectRecord> records)
+    {
+        if (_journalEnabled)
+        {
+            List<Map<String, Object>> recordData = new ArrayList<>(records.size());
+            for (ConfiguredObjectRecord record : records)
+            {
+                recordData.add(toJournalRecord(record));
+            }
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put(JOURNAL_OPERATION, JOURNAL_UPSERT);
+            entry.put(JOURNAL_RECORDS, recordData);
+            appendToJournal(entry);
+        }
+        else
+        {
+            save();
+        }
+    }
+
+    private void persistRemovals(final Collection<UUID> ids)
+    {
+        if (_journalEnabled)
+        {
+            if (!ids.isEmpty())
+            {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put(JOURNAL_OPERATION, JOURNAL_REMOVE);
+                entry.put(JOURNAL_IDS, ids);
+                appendToJournal(entry);
+            }
+        }
+        else
+        {
+            save();
+        }
+    }
+
+    private void appendToJournal(final Map<String, Object> entry)
+    {
+        try
+        {
+            if (_journal == null)
+            {
+                openJournal();
+            }
+            byte[] serialisedEntry = _journalObjectMapper.writeValueAsBytes(entry);
+            byte[] line = Arrays.copyOf(serialisedEntry, serialisedEntry.length + 1);
+            line[serialisedEntry.length] = (byte) '\n';
+            _journal.write(line);
+            _journal.flush();
+        }
+        catch (IOException e)
+        {
+            throw new StoreException("Cannot append to journal " + getJournalFile(), e);
+        }
+
+        if (++_journalEntries >= _journalCompactionThreshold)
+        {
+            startCompaction();
+        }
+    }
+
+    private void startCompaction()
+    {
+        if (_compaction != null && !_compaction.isDone())
+        {
+            // the journal keeps growing until the running compaction completes
+            return;
+        }
+
+        final Map<String, Object> data = buildData();
+        final Path journal = getJournalFile().toPath();
+        final Path compactingJournal = getCompactingJournalFile().toPath();
+        try
+        {
+            _journal.close();
+            _journal = null;
+            if (Files.exists(compactingJournal))
+            {
+                // a previous compaction failed, its entries must stay ahead of the current ones
+                try (OutputStream out = Files.newOutputStream(compactingJournal, StandardOpenOption.APPEND))
+                {
+                    Files.copy(journal, out);
+                }
+                Files.delete(journal);
+            }
+            else
+            {
+                _fileHelper.atomicFileMoveOrReplace(journal, compactingJournal);
+            }
+            openJournal();
+        }
+        catch (IOException e)
+        {
+            throw new StoreException("Cannot seal journal " + journal, e);
+        }
+
+        _compaction = getCompactionExecutor().submit(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    save(data);
+                    Files.deleteIfExists(compactingJournal);
+                }
+                catch (IOException | RuntimeException e)
+                {
+                    LOGGER.warn("Failed to compact journal {} into configuration file {}",
+                                compactingJournal, getConfigFile(), e);
+                }
+            }
+        });
+    }
+
+    private ExecutorService getCompactionExecutor()
+    {
+        if (_compactionExecutor == null)
+        {
+            final String threadName = "JsonConfigStoreCompactor-" + _parent.getName();
+            _compactionExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, threadName);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return _compactionExecutor;
+    }
+
+    private void openJournal()
+    {
+        try
+        {
+            Path journal = getJournalFile().toPath();
+            _journal = Files.newOutputStream(journal, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            _journalEntries = 0;
+        }
+        catch (IOException e)
+        {
+            throw new StoreException("Cannot open journal " + getJournalFile(), e);
+        }
+    }
+
+    private void closeJournal(final boolean compact)
+    {
+        awaitCompaction();
+        if (_journal != null)
+        {
+            try
+            {
+                _journal.close();
+            }
+            catch (IOException e)
+            {
+                throw new StoreException("Cannot close journal " + getJournalFile(), e);
+            }
+            finally
+            {
+                _journal = null;
+            }
+
+            if (compact)
+            {
+                if (getJournalFile().length() > 0 || getCompactingJournalFile().exists())
+                {
+                    save();
+                }
+                deleteJournals();
+            }
+        }
+    }
+
+    private void awaitCompaction()
+    {
+        final Future<?> compaction = _compaction;
+        if (compaction != null)
+        {
+            try
+            {
+                compaction.get();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            catch (ExecutionException e)
+            {
+                LOGGER.warn("Journal compaction failed", e.getCause());
+            }
+            finally
+            {
+                _compaction = null;
+            }
+        }
+    }
+
+    private boolean replayJournal(final File journalFile) throws IOException
+    {
+        if (!journalFile.exists())
+        {
+            return false;
+        }
+
+        LOGGER.debug("Replaying journal {}", journalFile);
+        boolean replayed = false;
+        try (BufferedReader reader = Files.newBufferedReader(journalFile.toPath(), StandardCharsets.UTF_8))
+        {
+            int lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                lineNumber++;
+                if (line.trim().isEmpty())
+                {
+                    continue;
+                }
+
+                final Map<String, Object> entry;
+                try
+                {
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> parsedEntry = _journalObjectMapper.readValue(line, Map.class);
+                    entry = parsedEntry;
+                }
+                catch (JsonProcessingException e)
+                {
+                    if (reader.readLine() == null)
+                    {
+                        LOGGER.warn("Ignoring incomplete last entry of journal {}", journalFile);
+                        break;
+                    }
+                    throw new StoreException("Cannot parse entry at line " + lineNumber + " of journal " + journalFile, e);
+                }
+                applyJournalEntry(entry);
+                replayed = true;
+            }
+        }
+        return replayed;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void applyJournalEntry(final Map<String, Object> entry)
+    {
+        final Object operation = entry.get(JOURNAL_OPERATION);
+        if (JOURNAL_UPSERT.equals(operation))
+        {
+            for (Object recordData : (Collection<Object>) entry.get(JOURNAL_RECORDS))
+            {
+                ConfiguredObjectRecord record = fromJournalRecord((Map<String, Object>) recordData);
+                ConfiguredObjectRecord existing = _objectsById.put(record.getId(), record);
+                if (existing != null)
+                {
+                    _idsByType.get(existing.getType()).remove(existing.getId());
+                }
+                List<UUID> idsForType = _idsByType.get(record.getType());
+                if (idsForType == null)
+                {
+                    idsForType = new ArrayList<>();
+                    _idsByType.put(record.getType(), idsForType);
+                }
+                idsForType.add(record.getId());
+            }
+        }
+        else if (JOURNAL_REMOVE.equals(operation))
+        {
+            for (Object id : (Collection<Object>) entry.get(JOURNAL_IDS))
+            {
+                ConfiguredObjectRecord existing = _objectsById.remove(UUID.fromString(String.valueOf(id)));
+                if (existing != null)
+                {
+                    _idsByType.get(existing.getType()).remove(existing.getId());
+                }
+            }
+        }
+        else
+        {
+            throw new StoreException("Unknown journal operation '" + operation + "'");
+        }
+    }
+
+    private Map<String, Object> toJournalRecord(final ConfiguredObjectRecord record)
+    {
+        Map<String, Object> recordData = new LinkedHashMap<>();
+        recordData.put("id", record.getId());
+        recordData.put("type", record.getType());
+        recordData.put("parents", record.getParents());
+        recordData.put("attributes", record.getAttributes());
+        return recordData;
+    }
+
+    @SuppressWarnings("unchecked")
+    private ConfiguredObjectRecord fromJournalRecord(final Map<String, Object> recordData)
+    {
+        Map<String, UUID> parents = new HashMap<>();
+        Map<String, Object> parentData = (Map<String, Object>) recordData.get("parents");
+        if (parentData != null)
+        {
+            for (Map.Entry<String, Object> parent : parentData.entrySet())
+            {
+                parents.put(parent.getKey(), UUID.fromString(String.valueOf(parent.getValue())));
+            }
+        }
+        return new ConfiguredObjectRecordImpl(UUID.fromString(String.valueOf(recordData.get("id"))),
+                                              (String) recordData.get("type"),
+                                              (Map<String, Object>) recordData.get("attributes"),
+                                              parents);
+    }
+
+    private void deleteJournals() throws StoreException
+    {
+        try
+        {
+            Files.deleteIfExists(getCompactingJournalFile().toPath());
+            Files.deleteIfExists(getJournalFile().toPath());
+        }
+        catch (IOException e)
+        {
+            throw new StoreException("Cannot delete journal of configuration file " + getConfigFile(), e);
+        }
+    }
+
+    private File getJournalFile()
+    {
+        File configFile = getConfigFile();
+        return new File(configFile.getParentFile(), configFile.getName() + JOURNAL_SUFFIX);
+    }
+
+    private File getCompactingJournalFile()
+    {
+        File configFile = getConfigFile();
+        return new File(configFile.getParentFile(), configFile.getName() + COMPACTING_JOURNAL_SUFFIX);
     }
 
     @Override
@@ -484,12 +889,27 @@ public class JsonFileConfigStore extends AbstractJsonFileStore implements Durabl
 
         try
         {
-            cleanup();
+            synchronized (this)
+            {
+                try
+                {
+                    closeJournal(true);
+                }
+                finally
+                {
+                    cleanup();
+                }
+            }
         }
         finally
         {
             _idsByType.clear();
             _objectsById.clear();
+            if (_compactionExecutor != null)
+            {
+                _compactionExecutor.shutdown();
+                _compactionExecutor = null;
+            }
             synchronized (_lock)
             {
                 _state = State.CLOSED;
@@ -502,7 +922,13 @@ public class JsonFileConfigStore extends AbstractJsonFileStore implements Durabl
     {
         FileBasedSettings fileBasedSettings = (FileBasedSettings)parent;
 
-        delete(fileBasedSettings.getStorePath());
+        String storePath = fileBasedSettings.getStorePath();
+        if (storePath != null && new File(storePath).isFile())
+        {
+            new File(storePath + JOURNAL_SUFFIX).delete();
+            new File(storePath + COMPACTING_JOURNAL_SUFFIX).delete();
+        }
+        delete(storePath);
     }
 
     private static Map<String,Class<? extends ConfiguredObject>> generateClassNameMap(final Model model,
@@ -33,8 +33,13 @@ import org.apache.qpid.server.logging.EventLoggerProvider;
 import org.apache.qpid.server.model.Broker;
 import org.apache.qpid.server.model.Connection;
 import org.apache.qpid.server.model.port.AmqpPort;
+import org.apache.qpid.server.security.SubjectCreator;
+import org.apache.qpid.server.security.auth.SubjectAuthenticationResult;
+import org.apache.qpid.server.security.auth.sasl.SaslNegotiator;
 import org.apache.qpid.server.session.AMQPSession;
+import org.apache.qpid.server.txn.EnqueueBatch;
 import org.apache.qpid.server.txn.LocalTransaction;
+import org.apache.qpid.server.util.Action;
 import org.apache.qpid.server.util.Deletable;
 
 public interface AMQPConnection<C extends AMQPConnection<C>>
@@ -88,6 +93,12 @@ public interface AMQPConnection<C extends AMQPConnection<C>>
 
     LocalTransaction createLocalTransaction();
 
+    /**
+     * Returns the batch gathering the persistent enqueues of non-transactional publishes, or null if such enqueues are
+     * not batched.
+     */
+    EnqueueBatch getEnqueueBatch();
+
     enum CloseReason
     {
         MANAGEMENT,
@@ -99,6 +110,16 @@ public interface AMQPConnection<C extends AMQPConnection<C>>
     boolean isIOThread();
     ListenableFuture<Void> doOnIOThreadAsync(final Runnable task);
 
+    /**
+     * Performs the SASL authentication step on the port's authentication executor, if it has one, passing the result
+     * to the given action on this connection's IO thread.  The caller is expected to accept no further input from
+     * the peer until the action has been performed.
+     */
+    void authenticate(SubjectCreator subjectCreator,
+                      SaslNegotiator saslNegotiator,
+                      byte[] response,
+                      Action<SubjectAuthenticationResult> resultAction);
+
     void checkAuthorizedMessagePrincipal(String messageUserId);
 
     void stopConnection();
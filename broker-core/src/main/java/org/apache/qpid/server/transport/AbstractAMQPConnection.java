@@ -33,6 +33,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -41,6 +43,7 @@ import javax.security.auth.SubjectDomainCombiner;
 
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.SettableFuture;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -66,15 +69,21 @@ import org.apache.qpid.server.model.StateTransition;
 import org.apache.qpid.server.model.TaskExecutorProvider;
 import org.apache.qpid.server.model.Transport;
 import org.apache.qpid.server.model.port.AmqpPort;
+import org.apache.qpid.server.security.SubjectCreator;
 import org.apache.qpid.server.security.auth.AuthenticatedPrincipal;
+import org.apache.qpid.server.security.auth.AuthenticationResult;
+import org.apache.qpid.server.security.auth.SubjectAuthenticationResult;
+import org.apache.qpid.server.security.auth.sasl.SaslNegotiator;
 import org.apache.qpid.server.security.auth.sasl.SaslSettings;
 import org.apache.qpid.server.stats.StatisticsGatherer;
 import org.apache.qpid.server.transport.network.NetworkConnection;
 import org.apache.qpid.server.transport.network.Ticker;
+import org.apache.qpid.server.txn.EnqueueBatch;
 import org.apache.qpid.server.txn.FlowToDiskTransactionObserver;
 import org.apache.qpid.server.txn.LocalTransaction;
 import org.apache.qpid.server.txn.TransactionObserver;
 import org.apache.qpid.server.util.Action;
+import org.apache.qpid.server.util.ConnectionScopedRuntimeException;
 import org.apache.qpid.server.util.FixedKeyMapCreator;
 
 public abstract class AbstractAMQPConnection<C extends AbstractAMQPConnection<C,T>, T>
@@ -122,6 +131,13 @@ public abstract class AbstractAMQPConnection<C extends AbstractAMQPConnection<C,
     private volatile int _messageCompressionThreshold;
     private volatile TransactionObserver _transactionObserver;
     private long _maxUncommittedInMemorySize;
+    private volatile EnqueueBatch _enqueueBatch;
+
+    private final ReadResumeTicker _readResumeTicker = new ReadResumeTicker();
+    private boolean _readResumeTickerAdded;
+    private volatile long _readSuspendedUntil;
+    private volatile int _publisherPressure;
+    private final AtomicLong _publisherPacingDelay = new AtomicLong();
 
     public AbstractAMQPConnection(Broker<?> broker,
                                   ServerNetworkConnection network,
@@ -213,6 +229,12 @@ public abstract class AbstractAMQPConnection<C extends AbstractAMQPConnection<C,
         _lastReadTime = _lastWriteTime = getCreatedTime().getTime();
         _maxUncommittedInMemorySize = getContextValue(Long.class, Connection.MAX_UNCOMMITTED_IN_MEMORY_SIZE);
         _transactionObserver = _maxUncommittedInMemorySize < 0 ? FlowToDiskTransactionObserver.NOOP_TRANSACTION_OBSERVER : new FlowToDiskTransactionObserver(_maxUncommittedInMemorySize, _logSubject, _eventLoggerProvider.getEventLogger());
+        final int enqueueBatchMaximumSize = getContextValue(Integer.class, Connection.ENQUEUE_BATCH_MAXIMUM_SIZE);
+        if (enqueueBatchMaximumSize > 0)
+        {
+            _enqueueBatch = new EnqueueBatch(enqueueBatchMaximumSize,
+                                             getContextValue(Long.class, Connection.ENQUEUE_BATCH_MAXIMUM_LATENCY));
+        }
         logConnectionOpen();
     }
 
@@ -509,6 +531,46 @@ public abstract class AbstractAMQPConnection<C extends AbstractAMQPConnection<C,
         }
     }
 
+    @Override
+    public void authenticate(final SubjectCreator subjectCreator,
+                             final SaslNegotiator saslNegotiator,
+                             final byte[] response,
+                             final Action<SubjectAuthenticationResult> resultAction)
+    {
+        final Executor executor = getPort().getAuthenticationExecutor();
+        if (executor == null)
+        {
+            resultAction.performAction(subjectCreator.authenticate(saslNegotiator, response));
+        }
+        else
+        {
+            final ListenableFuture<SubjectAuthenticationResult> result =
+                    subjectCreator.authenticateAsync(saslNegotiator, response, executor);
+            result.addListener(() -> doOnIOThreadAsync(() -> resultAction.performAction(getAuthenticationResult(result))),
+                               MoreExecutors.directExecutor());
+        }
+    }
+
+    private SubjectAuthenticationResult getAuthenticationResult(final ListenableFuture<SubjectAuthenticationResult> result)
+    {
+        try
+        {
+            return result.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new ConnectionScopedRuntimeException("Interrupted whilst awaiting authentication result", e);
+        }
+        catch (ExecutionException e)
+        {
+            _logger.warn("Unexpected exception authenticating connection {}", this, e.getCause());
+            final Exception cause = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            return new SubjectAuthenticationResult(new AuthenticationResult(AuthenticationResult.AuthenticationStatus.ERROR,
+                                                                            cause));
+        }
+    }
+
     protected abstract void addAsyncTask(final Action<? super T> action);
 
     protected abstract boolean isOpeningInProgress();
@@ -734,6 +796,53 @@ public abstract class AbstractAMQPConnection<C extends AbstractAMQPConnection<C,
         return getSessionModels().size();
     }
 
+    @Override
+    public int getPublisherPressure()
+    {
+        return _publisherPressure;
+    }
+
+    protected void setPublisherPressure(final int publisherPressure)
+    {
+        _publisherPressure = publisherPressure;
+    }
+
+    @Override
+    public long getPublisherPacingDelay()
+    {
+        return _publisherPacingDelay.get();
+    }
+
+    @Override
+    public boolean isReadSuspended()
+    {
+        return _readSuspendedUntil != 0L;
+    }
+
+    @Override
+    public boolean hasUnprocessedInput()
+    {
+        return false;
+    }
+
+    /**
+     * Stops reading from the network for the given period so that publishers are paced.  Must be called on the IO
+     * thread.
+     */
+    protected void suspendReading(final long delay)
+    {
+        if (delay > 0L && _readSuspendedUntil == 0L)
+        {
+            _readSuspendedUntil = System.currentTimeMillis() + delay;
+            _publisherPacingDelay.addAndGet(delay);
+            if (!_readResumeTickerAdded)
+            {
+                _readResumeTickerAdded = true;
+                _aggregateTicker.addTicker(_readResumeTicker);
+            }
+        }
+    }
+
     protected void markTransportClosed()
     {
         _transportClosedFuture.set(null);
@@ -847,6 +956,37 @@ public abstract class AbstractAMQPConnection<C extends AbstractAMQPConnection<C,
 
     }
 
+    @Override
+    public EnqueueBatch getEnqueueBatch()
+    {
+        return _enqueueBatch;
+    }
+
+    /**
+     * Starts gathering the persistent enqueues of non-transactional publishes.  Called on the IO thread before the
+     * data from a network read is processed.
+     */
+    protected void openEnqueueBatch()
+    {
+        final EnqueueBatch enqueueBatch = _enqueueBatch;
+        if (enqueueBatch != null)
+        {
+            enqueueBatch.open();
+        }
+    }
+
+    /**
+     * Commits the enqueues gathered since {@link #openEnqueueBatch()}.
+     */
+    protected void closeEnqueueBatch()
+    {
+        final EnqueueBatch enqueueBatch = _enqueueBatch;
+        if (enqueueBatch != null)
+        {
+            enqueueBatch.close();
+        }
+    }
+
     @Override
     public LocalTransaction createLocalTransaction()
     {
@@ -905,6 +1045,28 @@ public abstract class AbstractAMQPConnection<C extends AbstractAMQPConnection<C,
     }
 
 
+    private class ReadResumeTicker implements Ticker
+    {
+        @Override
+        public int getTimeToNextTick(final long currentTime)
+        {
+            final long readSuspendedUntil = _readSuspendedUntil;
+            return readSuspendedUntil == 0L ? Integer.MAX_VALUE : (int) (readSuspendedUntil - currentTime);
+        }
+
+        @Override
+        public int tick(final long currentTime)
+        {
+            int nextTick = getTimeToNextTick(currentTime);
+            if (nextTick <= 0)
+            {
+                _readSuspendedUntil = 0L;
+                nextTick = Integer.MAX_VALUE;
+            }
+            return nextTick;
+        }
+    }
+
     @Override
     protected void logOperation(final String operation)
     {
@@ -164,6 +164,18 @@ public class MultiVersionProtocolEngine implements ProtocolEngine
         _delegate.setTransportBlockedForWriting(blocked);
     }
 
+    @Override
+    public boolean isReadSuspended()
+    {
+        return _delegate.isReadSuspended();
+    }
+
+    @Override
+    public boolean hasUnprocessedInput()
+    {
+        return _delegate.hasUnprocessedInput();
+    }
+
     public void setNetworkConnection(ServerNetworkConnection network)
     {
         _network = network;
@@ -332,6 +344,18 @@ public class MultiVersionProtocolEngine implements ProtocolEngine
         {
         }
 
+        @Override
+        public boolean isReadSuspended()
+        {
+            return false;
+        }
+
+        @Override
+        public boolean hasUnprocessedInput()
+        {
+            return false;
+        }
+
         @Override
         public AggregateTicker getAggregateTicker()
         {
@@ -532,6 +556,18 @@ public class MultiVersionProtocolEngine implements ProtocolEngine
         {
         }
 
+        @Override
+        public boolean isReadSuspended()
+        {
+            return false;
+        }
+
+        @Override
+        public boolean hasUnprocessedInput()
+        {
+            return false;
+        }
+
         @Override
         public void closed()
         {
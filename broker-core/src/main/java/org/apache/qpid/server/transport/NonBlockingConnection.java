@@ -216,7 +216,7 @@ public class NonBlockingConnection implements ServerNetworkConnection, ByteBuffe
 
     boolean wantsRead()
     {
-        return _fullyWritten;
+        return _fullyWritten && !_protocolEngine.isReadSuspended();
     }
 
     boolean wantsWrite()
@@ -267,10 +267,13 @@ public class NonBlockingConnection implements ServerNetworkConnection, ByteBuffe
                 {
                     _pendingIterator = null;
                     _protocolEngine.setTransportBlockedForWriting(false);
-                    boolean dataRead = doRead();
+                    // whilst reading is suspended the engine's ticker reschedules the connection
+                    final boolean readSuspended = _protocolEngine.isReadSuspended();
+                    boolean dataRead = !readSuspended && doRead();
                     _protocolEngine.setTransportBlockedForWriting(!doWrite());
 
-                    if (!_fullyWritten || dataRead || (_delegate.needsWork() && _delegate.getNetInputBuffer().position() != 0))
+                    if (!_fullyWritten || dataRead
+                        || (!readSuspended && _delegate.needsWork() && _delegate.getNetInputBuffer().position() != 0))
                     {
                         _protocolEngine.notifyWork();
                     }
@@ -478,7 +481,8 @@ public class NonBlockingConnection implements ServerNetworkConnection, ByteBuffe
         {
             int readData = readFromNetwork();
 
-            if (readData > 0)
+            // input left unread whilst the engine was waiting (e.g. for an authentication outcome) is offered again
+            if (readData > 0 || _protocolEngine.hasUnprocessedInput())
             {
                 return _delegate.processData();
             }
@@ -53,6 +53,12 @@ public interface ProtocolEngine extends TransportActivity
 
     void setTransportBlockedForWriting(boolean blocked);
 
+    // Whether the network should temporarily refrain from reading, for instance to pace publishers
+    boolean isReadSuspended();
+
+    // Whether input left unread by received() can now be processed without waiting for more data from the network
+    boolean hasUnprocessedInput();
+
     Iterator<Runnable> processPendingIterator();
 
     boolean hasWork();
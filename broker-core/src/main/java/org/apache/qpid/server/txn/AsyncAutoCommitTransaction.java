@@ -38,7 +38,8 @@ import org.apache.qpid.server.store.TransactionLogResource;
 
 /**
  * An implementation of ServerTransaction where each enqueue/dequeue
- * operation takes place within it own transaction.
+ * operation takes place within it own transaction, except for persistent
+ * enqueues gathered by an open {@link EnqueueBatch}.
  *
  * Since there is no long-lived transaction, the commit and rollback methods of
  * this implementation are empty.
@@ -51,6 +52,7 @@ public class AsyncAutoCommitTransaction implements ServerTransaction
 
     private final MessageStore _messageStore;
     private final FutureRecorder _futureRecorder;
+    private final EnqueueBatch _enqueueBatch;
 
     //Set true to ensure strict ordering when enqueuing messages with mixed delivery mode, i.e. disable async persistence
     private boolean _strictOrderWithMixedDeliveryMode = Boolean.getBoolean(QPID_STRICT_ORDER_WITH_MIXED_DELIVERY_MODE);
@@ -62,9 +64,24 @@ public class AsyncAutoCommitTransaction implements ServerTransaction
     }
 
     public AsyncAutoCommitTransaction(MessageStore transactionLog, FutureRecorder recorder)
+    {
+        this(transactionLog, recorder, null);
+    }
+
+    /**
+     * @param enqueueBatch if not null, persistent enqueues made whilst the batch is open are added to the batch's
+     *                     store transaction rather than each being committed in a transaction of its own
+     */
+    public AsyncAutoCommitTransaction(MessageStore transactionLog, FutureRecorder recorder, EnqueueBatch enqueueBatch)
     {
         _messageStore = transactionLog;
         _futureRecorder = recorder;
+        _enqueueBatch = enqueueBatch;
+    }
+
+    private boolean isBatching()
+    {
+        return _enqueueBatch != null && _enqueueBatch.isOpen();
     }
 
     @Override
@@ -210,10 +227,27 @@ public class AsyncAutoCommitTransaction implements ServerTransaction
             {
                 _logger.debug("Enqueue of message number {} to transaction log. Queue : {}", message.getMessageNumber(), queue.getName());
 
-                txn = _messageStore.newTransaction();
-                enqueueRecord = txn.enqueueMessage(queue, message);
-                future = txn.commitTranAsync((Void) null);
-                txn = null;
+                if (isBatching())
+                {
+                    try
+                    {
+                        enqueueRecord = _enqueueBatch.getTransaction(_messageStore).enqueueMessage(queue, message);
+                    }
+                    catch (RuntimeException e)
+                    {
+                        _enqueueBatch.abort(e);
+                        throw e;
+                    }
+                    future = _enqueueBatch.getFuture();
+                    _enqueueBatch.added();
+                }
+                else
+                {
+                    txn = _messageStore.newTransaction();
+                    enqueueRecord = txn.enqueueMessage(queue, message);
+                    future = txn.commitTranAsync((Void) null);
+                    txn = null;
+                }
             }
             else
             {
@@ -270,22 +304,44 @@ public class AsyncAutoCommitTransaction implements ServerTransaction
         try
         {
             final MessageEnqueueRecord[] records = new MessageEnqueueRecord[queues.size()];
-            int i = 0;
-            for(BaseQueue queue : queues)
+            final boolean batching = isBatching();
+            Transaction batchTxn = null;
+            try
             {
-                if (queue.getMessageDurability().persist(message.isPersistent()))
+                int i = 0;
+                for(BaseQueue queue : queues)
                 {
-                    _logger.debug("Enqueue of message number {} to transaction log. Queue : {}", message.getMessageNumber(), queue.getName());
-
-                    if (txn == null)
+                    if (queue.getMessageDurability().persist(message.isPersistent()))
                     {
-                        txn = _messageStore.newTransaction();
+                        _logger.debug("Enqueue of message number {} to transaction log. Queue : {}", message.getMessageNumber(), queue.getName());
+
+                        if (batching)
+                        {
+                            if (batchTxn == null)
+                            {
+                                batchTxn = _enqueueBatch.getTransaction(_messageStore);
+                            }
+                            records[i] = batchTxn.enqueueMessage(queue, message);
+                        }
+                        else
+                        {
+                            if (txn == null)
+                            {
+                                txn = _messageStore.newTransaction();
+                            }
+                            records[i] = txn.enqueueMessage(queue, message);
+                        }
                     }
-                    records[i] = txn.enqueueMessage(queue, message);
-
-
+                    i++;
                 }
-                i++;
+            }
+            catch (RuntimeException e)
+            {
+                if (batchTxn != null)
+                {
+                    _enqueueBatch.abort(e);
+                }
+                throw e;
             }
 
             ListenableFuture<Void> future;
@@ -294,6 +350,11 @@ public class AsyncAutoCommitTransaction implements ServerTransaction
                 future = txn.commitTranAsync((Void) null);
                 txn = null;
             }
+            else if (batchTxn != null)
+            {
+                future = _enqueueBatch.getFuture();
+                _enqueueBatch.added();
+            }
             else
             {
                 future = Futures.immediateFuture(null);
@@ -26,7 +26,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
+import com.google.common.util.concurrent.ListenableFuture;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,10 +43,12 @@ import org.apache.qpid.server.util.Action;
 public class DtxBranch
 {
     private static final Logger _logger = LoggerFactory.getLogger(DtxBranch.class);
+    private static final AtomicReferenceFieldUpdater<DtxBranch, State> _stateUpdater =
+            AtomicReferenceFieldUpdater.newUpdater(DtxBranch.class, State.class, "_state");
 
     private final Xid _xid;
     private final List<ServerTransaction.Action> _postTransactionActions = new ArrayList<ServerTransaction.Action>();
-    private       State                          _state = State.ACTIVE;
+    private volatile State                       _state = State.ACTIVE;
     private long _timeout;
     private Map<AMQPSession<?,?>, State> _associatedSessions = new HashMap<>();
     private final List<EnqueueRecord> _enqueueRecords = new ArrayList<>();
@@ -60,6 +64,7 @@ public class DtxBranch
     public enum State
     {
         ACTIVE,
+        PREPARING,
         PREPARED,
         TIMEDOUT,
         SUSPENDED,
@@ -211,15 +216,52 @@ public class DtxBranch
     {
         _logger.debug("Performing prepare for DtxBranch {}", _xid);
 
+        recordXid().commitTran();
+
+        prePrepareTransaction();
+    }
+
+    /**
+     * Prepares the branch without awaiting the store commit of the xid record.  The returned future completes once
+     * the prepare is durable, the caller then moving the branch from {@link State#PREPARING} to
+     * {@link State#PREPARED} with {@link #prepared()}.
+     */
+    public ListenableFuture<Void> prepareAsync() throws StoreException
+    {
+        _logger.debug("Performing asynchronous prepare for DtxBranch {}", _xid);
+
+        final ListenableFuture<Void> future = recordXid().commitTranAsync((Void) null);
+
+        prePrepareTransaction();
+        return future;
+    }
+
+    /**
+     * Marks the branch being prepared as prepared.  Called once the prepare is durable, possibly by the store's
+     * thread, so the branch is not locked.
+     */
+    void prepared()
+    {
+        _stateUpdater.compareAndSet(this, State.PREPARING, State.PREPARED);
+    }
+
+    /**
+     * Marks the branch being prepared as only able to roll back, the store having failed to record the prepare.
+     */
+    void prepareFailed()
+    {
+        _stateUpdater.compareAndSet(this, State.PREPARING, State.ROLLBACK_ONLY);
+    }
+
+    private Transaction recordXid()
+    {
         Transaction txn = _dtxRegistry.getMessageStore().newTransaction();
         _storedXidRecord = txn.recordXid(_xid.getFormat(),
                       _xid.getGlobalId(),
                       _xid.getBranchId(),
                       _enqueueRecords.toArray(new EnqueueRecord[_enqueueRecords.size()]),
                       _dequeueRecords.toArray(new DequeueRecord[_dequeueRecords.size()]));
-        txn.commitTran();
-
-        prePrepareTransaction();
+        return txn;
     }
 
     public synchronized void rollback() throws StoreException
@@ -258,6 +300,33 @@ public class DtxBranch
     {
         _logger.debug("Performing commit for DtxBranch {}", _xid);
 
+        startCommit().commitTran();
+
+        completeCommit();
+    }
+
+    /**
+     * Commits the branch without awaiting the store commit.  Once the returned future completes the caller must
+     * call {@link #completeCommit()} to perform the post transaction actions.
+     */
+    public ListenableFuture<Void> commitAsync() throws StoreException
+    {
+        _logger.debug("Performing asynchronous commit for DtxBranch {}", _xid);
+
+        return startCommit().commitTranAsync((Void) null);
+    }
+
+    public synchronized void completeCommit()
+    {
+        for(ServerTransaction.Action action : _postTransactionActions)
+        {
+            action.postCommit();
+        }
+        _postTransactionActions.clear();
+    }
+
+    private Transaction startCommit()
+    {
         if(_timeoutFuture != null)
         {
             _logger.debug("Attempting to cancel previous timeout task future for DtxBranch {}", _xid);
@@ -276,13 +345,7 @@ public class DtxBranch
         {
             _transaction.removeXid(_storedXidRecord);
         }
-        _transaction.commitTran();
-
-        for(ServerTransaction.Action action : _postTransactionActions)
-        {
-            action.postCommit();
-        }
-        _postTransactionActions.clear();
+        return _transaction;
     }
 
     public void prePrepareTransaction() throws StoreException
@@ -22,19 +22,28 @@
 package org.apache.qpid.server.txn;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ScheduledFuture;
 
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
 import org.apache.qpid.server.session.AMQPSession;
 import org.apache.qpid.server.store.MessageStore;
 import org.apache.qpid.server.store.StoreException;
 import org.apache.qpid.server.virtualhost.QueueManagingVirtualHost;
 
+/**
+ * The distributed transaction branches of a virtual host.  The registry itself is not locked, operations on a branch
+ * being serialised by the branch's own monitor, so that branches are prepared and committed concurrently.
+ */
 public class DtxRegistry
 {
-    private final Map<ComparableXid, DtxBranch> _branches = new HashMap<>();
+    private final ConcurrentMap<ComparableXid, DtxBranch> _branches = new ConcurrentHashMap<>();
     private final QueueManagingVirtualHost<?> _virtualHost;
 
     public DtxRegistry(final QueueManagingVirtualHost<?> virtualHost)
@@ -115,35 +124,41 @@ public class DtxRegistry
         }
     }
 
-    public synchronized DtxBranch getBranch(Xid xid)
+    public DtxBranch getBranch(Xid xid)
     {
         return _branches.get(new ComparableXid(xid));
     }
 
-    public synchronized boolean registerBranch(DtxBranch branch)
+    public boolean registerBranch(DtxBranch branch)
     {
-        ComparableXid xid = new ComparableXid(branch.getXid());
-        if(!_branches.containsKey(xid))
-        {
-            _branches.put(xid, branch);
-            return true;
-        }
-        return false;
+        return _branches.putIfAbsent(new ComparableXid(branch.getXid()), branch) == null;
     }
 
-    synchronized boolean unregisterBranch(DtxBranch branch)
+    boolean unregisterBranch(DtxBranch branch)
     {
         return (_branches.remove(new ComparableXid(branch.getXid())) != null);
     }
 
-    public synchronized void commit(Xid id, boolean onePhase)
+    /**
+     * Commits the branch.  The store commit is not awaited: the branch's post transaction actions and then the
+     * completion action are performed once it completes, via the given recorder.
+     */
+    public void commit(Xid id,
+                       boolean onePhase,
+                       AsyncAutoCommitTransaction.FutureRecorder futureRecorder,
+                       final ServerTransaction.Action completionAction)
             throws IncorrectDtxStateException, UnknownDtxBranchException, StoreException, RollbackOnlyDtxException, TimeoutDtxException
     {
-        DtxBranch branch = getBranch(id);
+        final DtxBranch branch = getBranch(id);
         if(branch != null)
         {
             synchronized (branch)
             {
+                if(branch.getState() == DtxBranch.State.FORGOTTEN)
+                {
+                    // completed by another session whilst awaiting the branch
+                    throw new UnknownDtxBranchException(id);
+                }
                 if(!branch.hasAssociatedActiveSessions())
                 {
                     branch.clearAssociations();
@@ -157,6 +172,10 @@ public class DtxRegistry
                     {
                         throw new RollbackOnlyDtxException(id);
                     }
+                    else if(branch.getState() == DtxBranch.State.PREPARING)
+                    {
+                        throw new IncorrectDtxStateException("Cannot commit a branch whilst it is being prepared", id);
+                    }
                     else if(onePhase && branch.getState() == DtxBranch.State.PREPARED)
                     {
                         throw new IncorrectDtxStateException("Cannot call one-phase commit on a prepared branch", id);
@@ -166,9 +185,24 @@ public class DtxRegistry
                         throw new IncorrectDtxStateException("Cannot call two-phase commit on a non-prepared branch",
                                                              id);
                     }
-                    branch.commit();
+                    final ListenableFuture<Void> future = branch.commitAsync();
                     branch.setState(DtxBranch.State.FORGOTTEN);
                     unregisterBranch(branch);
+                    futureRecorder.recordFuture(future, new ServerTransaction.Action()
+                    {
+                        @Override
+                        public void postCommit()
+                        {
+                            branch.completeCommit();
+                            completionAction.postCommit();
+                        }
+
+                        @Override
+                        public void onRollback()
+                        {
+                            completionAction.onRollback();
+                        }
+                    });
                 }
                 else
                 {
@@ -182,15 +216,27 @@ public class DtxRegistry
         }
     }
 
-    public synchronized void prepare(Xid id)
+    /**
+     * Prepares the branch.  The store commit of the prepare is not awaited: the completion action is performed once
+     * it completes, via the given recorder.  Until then the branch is {@link DtxBranch.State#PREPARING}, so is
+     * neither recovered nor committed.
+     */
+    public void prepare(Xid id,
+                        AsyncAutoCommitTransaction.FutureRecorder futureRecorder,
+                        ServerTransaction.Action completionAction)
             throws UnknownDtxBranchException,
             IncorrectDtxStateException, StoreException, RollbackOnlyDtxException, TimeoutDtxException
     {
-        DtxBranch branch = getBranch(id);
+        final DtxBranch branch = getBranch(id);
         if(branch != null)
         {
             synchronized (branch)
             {
+                if(branch.getState() == DtxBranch.State.FORGOTTEN)
+                {
+                    // completed by another session whilst awaiting the branch
+                    throw new UnknownDtxBranchException(id);
+                }
                 if(!branch.hasAssociatedActiveSessions())
                 {
                     branch.clearAssociations();
@@ -208,8 +254,39 @@ public class DtxRegistry
                     }
                     else
                     {
-                        branch.prepare();
-                        branch.setState(DtxBranch.State.PREPARED);
+                        final ListenableFuture<Void> future = branch.prepareAsync();
+                        branch.setState(DtxBranch.State.PREPARING);
+                        // the branch is also marked prepared by the completion action, as the recorder may complete
+                        // it before this callback has run
+                        Futures.addCallback(future, new FutureCallback<Void>()
+                        {
+                            @Override
+                            public void onSuccess(final Void result)
+                            {
+                                branch.prepared();
+                            }
+
+                            @Override
+                            public void onFailure(final Throwable t)
+                            {
+                                branch.prepareFailed();
+                            }
+                        }, MoreExecutors.directExecutor());
+                        futureRecorder.recordFuture(future, new ServerTransaction.Action()
+                        {
+                            @Override
+                            public void postCommit()
+                            {
+                                branch.prepared();
+                                completionAction.postCommit();
+                            }
+
+                            @Override
+                            public void onRollback()
+                            {
+                                completionAction.onRollback();
+                            }
+                        });
                     }
                 }
                 else
@@ -224,7 +301,7 @@ public class DtxRegistry
         }
     }
 
-    public synchronized void rollback(Xid id)
+    public void rollback(Xid id)
             throws IncorrectDtxStateException,
             UnknownDtxBranchException,
             StoreException, TimeoutDtxException
@@ -235,11 +312,19 @@ public class DtxRegistry
         {
             synchronized (branch)
             {
+                if(branch.getState() == DtxBranch.State.FORGOTTEN)
+                {
+                    throw new UnknownDtxBranchException(id);
+                }
                 if(branch.expired() || branch.getState() == DtxBranch.State.TIMEDOUT)
                 {
                     unregisterBranch(branch);
                     throw new TimeoutDtxException(id);
                 }
+                if(branch.getState() == DtxBranch.State.PREPARING)
+                {
+                    throw new IncorrectDtxStateException("Cannot rollback a branch whilst it is being prepared", id);
+                }
                 if(!branch.hasAssociatedActiveSessions())
                 {
                     branch.clearAssociations();
@@ -315,7 +400,7 @@ public class DtxRegistry
         }
     }
 
-    public synchronized List<Xid> recover()
+    public List<Xid> recover()
     {
         List<Xid> inDoubt = new ArrayList<>();
         for(DtxBranch branch : _branches.values())
@@ -328,21 +413,24 @@ public class DtxRegistry
         return inDoubt;
     }
 
-    public synchronized void endAssociations(AMQPSession<?,?> session)
+    public void endAssociations(AMQPSession<?,?> session)
     {
         for(DtxBranch branch : _branches.values())
         {
-            if(branch.isAssociated(session))
+            synchronized (branch)
             {
-                branch.setState(DtxBranch.State.ROLLBACK_ONLY);
-                branch.disassociateSession(session);
+                if(branch.isAssociated(session))
+                {
+                    branch.setState(DtxBranch.State.ROLLBACK_ONLY);
+                    branch.disassociateSession(session);
+                }
             }
         }
 
     }
 
 
-    public synchronized void close()
+    public void close()
     {
         for(DtxBranch branch : _branches.values())
         {
@@ -0,0 +1,195 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.txn;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.google.common.util.concurrent.AbstractFuture;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import org.apache.qpid.server.store.MessageStore;
+import org.apache.qpid.server.store.Transaction;
+
+/**
+ * Gathers the persistent enqueues made by {@link AsyncAutoCommitTransaction}s whilst the batch is open into a single
+ * store transaction, rather than committing a store transaction per message.
+ * <p>
+ * A connection opens the batch around the processing of the data from one network read, so the enqueues of all its
+ * sessions are gathered.  The batch is committed when it is closed, when it reaches its maximum size or age, or when
+ * its future is awaited, so that a session synchronising part way through a read cannot wait on an uncommitted batch.
+ * <p>
+ * A batch is confined to the connection's IO thread.
+ */
+public class EnqueueBatch
+{
+    private final int _maximumSize;
+    private final long _maximumLatencyNanos;
+
+    private boolean _open;
+    private Transaction _transaction;
+    private BatchFuture _future;
+    private int _size;
+    private long _startTime;
+
+    public EnqueueBatch(final int maximumSize, final long maximumLatencyMillis)
+    {
+        _maximumSize = maximumSize;
+        _maximumLatencyNanos = TimeUnit.MILLISECONDS.toNanos(maximumLatencyMillis);
+    }
+
+    public void open()
+    {
+        _open = true;
+    }
+
+    /**
+     * Commits any enqueues gathered and stops gathering further enqueues.
+     */
+    public void close()
+    {
+        _open = false;
+        commit();
+    }
+
+    boolean isOpen()
+    {
+        return _open;
+    }
+
+    /**
+     * Returns the store transaction to which an enqueue is to be added, starting it if necessary.
+     */
+    Transaction getTransaction(final MessageStore messageStore)
+    {
+        if (_transaction == null)
+        {
+            _transaction = messageStore.newTransaction();
+            _future = new BatchFuture();
+            _startTime = System.nanoTime();
+        }
+        return _transaction;
+    }
+
+    /**
+     * Returns the future which completes when the current store transaction is committed.
+     */
+    ListenableFuture<Void> getFuture()
+    {
+        return _future;
+    }
+
+    /**
+     * Records that a message has been added to the current store transaction, committing it if the batch is full or
+     * has reached its maximum age.
+     */
+    void added()
+    {
+        if (++_size >= _maximumSize || System.nanoTime() - _startTime >= _maximumLatencyNanos)
+        {
+            commit();
+        }
+    }
+
+    /**
+     * Abandons the current store transaction, failing the enqueues gathered so far.
+     */
+    void abort(final RuntimeException cause)
+    {
+        final Transaction transaction = _transaction;
+        final BatchFuture future = _future;
+        reset();
+        if (transaction != null)
+        {
+            try
+            {
+                transaction.abortTran();
+            }
+            finally
+            {
+                future.fail(cause);
+            }
+        }
+    }
+
+    private void commit()
+    {
+        final Transaction transaction = _transaction;
+        final BatchFuture future = _future;
+        if (transaction != null)
+        {
+            reset();
+            try
+            {
+                future.complete(transaction.commitTranAsync((Void) null));
+            }
+            catch (RuntimeException e)
+            {
+                future.fail(e);
+                throw e;
+            }
+        }
+    }
+
+    private void reset()
+    {
+        _transaction = null;
+        _future = null;
+        _size = 0;
+    }
+
+    private void commitIfPending(final BatchFuture future)
+    {
+        if (_future == future)
+        {
+            commit();
+        }
+    }
+
+    private final class BatchFuture extends AbstractFuture<Void>
+    {
+        @Override
+        public Void get() throws InterruptedException, ExecutionException
+        {
+            commitIfPending(this);
+            return super.get();
+        }
+
+        @Override
+        public Void get(final long timeout, final TimeUnit unit)
+                throws InterruptedException, TimeoutException, ExecutionException
+        {
+            commitIfPending(this);
+            return super.get(timeout, unit);
+        }
+
+        private void complete(final ListenableFuture<Void> commitFuture)
+        {
+            setFuture(commitFuture);
+        }
+
+        private void fail(final Throwable cause)
+        {
+            setException(cause);
+        }
+    }
+}
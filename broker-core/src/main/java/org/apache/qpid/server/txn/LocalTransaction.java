@@ -27,7 +27,10 @@ import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 
+import com.google.common.base.Functions;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -387,7 +390,14 @@ public class LocalTransaction implements ServerTransaction
         }
     }
 
-    public void commitAsync(final Runnable deferred)
+    /**
+     * Commits the transaction without waiting for the store.  The post transaction actions and the deferred task are
+     * run by the next call to {@link #sync()} (or any other operation on this transaction), which should be made
+     * on the thread owning this transaction.
+     *
+     * @return a future which completes once the store transaction is durable and {@link #sync()} will not block
+     */
+    public ListenableFuture<Void> commitAsync(final Runnable deferred)
     {
         if(_isRollbackOnly)
         {
@@ -415,7 +425,7 @@ public class LocalTransaction implements ServerTransaction
                                     }
                                 };
             _asyncTran = _transaction.commitTranAsync(action);
-
+            return Futures.transform(_asyncTran, Functions.<Void>constant(null), MoreExecutors.directExecutor());
         }
         else
         {
@@ -428,6 +438,7 @@ public class LocalTransaction implements ServerTransaction
                 {
                     resetDetails();
                 }
+                return Futures.immediateFuture(null);
         }
     }
 
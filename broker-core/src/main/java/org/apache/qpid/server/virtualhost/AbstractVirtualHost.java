@@ -1004,6 +1004,38 @@ public abstract class AbstractVirtualHost<X extends AbstractVirtualHost<X>> exte
 
     }
 
+    @Override
+    public List<Map<String, Object>> bulkConfigure(final List<Map<String, Object>> operations)
+    {
+        return doSync(doOnConfigThread(new Task<ListenableFuture<List<Map<String, Object>>>, RuntimeException>()
+        {
+            @Override
+            public ListenableFuture<List<Map<String, Object>>> execute() throws RuntimeException
+            {
+                final BulkConfigurator configurator = new BulkConfigurator(AbstractVirtualHost.this);
+                return Futures.immediateFuture(configurator.perform(operations));
+            }
+
+            @Override
+            public String getObject()
+            {
+                return AbstractVirtualHost.this.toString();
+            }
+
+            @Override
+            public String getAction()
+            {
+                return "bulkConfigure";
+            }
+
+            @Override
+            public String getArguments()
+            {
+                return "operations=" + operations.size();
+            }
+        }));
+    }
+
     @Override
     public void importMessageStore(final String source)
     {
@@ -0,0 +1,294 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.virtualhost;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.qpid.server.configuration.store.ConfigurationStoreBatch;
+import org.apache.qpid.server.model.ConfiguredObject;
+import org.apache.qpid.server.model.Exchange;
+import org.apache.qpid.server.util.ServerScopedRuntimeException;
+
+/**
+ * Performs the operations of {@link QueueManagingVirtualHost#bulkConfigure(List)} one after another, recording the
+ * outcome of each.  Expected to be run on the configuration thread.
+ * <p>
+ * The configuration store writes of the operations are made in one {@link ConfigurationStoreBatch}, which is
+ * applied before the outcomes are returned.  If the batch cannot be applied the store's exception is thrown in
+ * place of the outcomes, so no operation is reported as successful unless its changes have been stored.
+ */
+class BulkConfigurator
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(BulkConfigurator.class);
+
+    static final String ACTION = "action";
+    static final String CATEGORY = "category";
+    static final String ATTRIBUTES = "attributes";
+    static final String EXCHANGE = "exchange";
+    static final String DESTINATION = "destination";
+    static final String BINDING_KEY = "bindingKey";
+    static final String ARGUMENTS = "arguments";
+    static final String REPLACE_EXISTING_ARGUMENTS = "replaceExistingArguments";
+
+    static final String INDEX = "index";
+    static final String OUTCOME = "outcome";
+    static final String ERROR_MESSAGE = "errorMessage";
+
+    static final String SUCCESS = "success";
+    static final String FAILURE = "failure";
+    /** The operation has been started but completes asynchronously */
+    static final String PENDING = "pending";
+
+    private final QueueManagingVirtualHost<?> _virtualHost;
+
+    BulkConfigurator(final QueueManagingVirtualHost<?> virtualHost)
+    {
+        _virtualHost = virtualHost;
+    }
+
+    List<Map<String, Object>> perform(final List<Map<String, Object>> operations)
+    {
+        return ConfigurationStoreBatch.perform(() -> performOperations(operations));
+    }
+
+    private List<Map<String, Object>> performOperations(final List<Map<String, Object>> operations)
+    {
+        final List<Map<String, Object>> results = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++)
+        {
+            final Map<String, Object> operation = operations.get(i);
+            final Map<String, Object> result = new LinkedHashMap<>();
+            result.put(INDEX, i);
+            result.put(ACTION, operation.get(ACTION));
+            try
+            {
+                perform(operation, result);
+            }
+            catch (ServerScopedRuntimeException e)
+            {
+                throw e;
+            }
+            catch (RuntimeException e)
+            {
+                LOGGER.debug("Bulk configuration operation {} failed", operation, e);
+                result.put(OUTCOME, FAILURE);
+                result.put(ERROR_MESSAGE, e.getMessage() == null ? e.toString() : e.getMessage());
+            }
+            results.add(result);
+        }
+        return results;
+    }
+
+    private void perform(final Map<String, Object> operation, final Map<String, Object> result)
+    {
+        final String action = String.valueOf(operation.get(ACTION));
+        switch (action.toLowerCase())
+        {
+            case "create":
+                final ListenableFuture<? extends ConfiguredObject> child =
+                        _virtualHost.createChildAsync(getCategory(operation), getAttributes(operation));
+                complete(child, result);
+                break;
+            case "update":
+                final ConfiguredObject<?> updated = getObject(operation, result);
+                complete(updated.setAttributesAsync(getAttributes(operation)), result);
+                break;
+            case "delete":
+                final ConfiguredObject<?> deleted = getObject(operation, result);
+                complete(deleted.deleteAsync(), result);
+                break;
+            case "bind":
+                final boolean bound = getExchange(operation).bind(getString(operation, DESTINATION, true),
+                                                                  getString(operation, BINDING_KEY, false),
+                                                                  getArguments(operation),
+                                                                  Boolean.parseBoolean(String.valueOf(operation.get(REPLACE_EXISTING_ARGUMENTS))));
+                result.put(OUTCOME, SUCCESS);
+                result.put("modified", bound);
+                break;
+            case "unbind":
+                final boolean unbound = getExchange(operation).unbind(getString(operation, DESTINATION, true),
+                                                                      getString(operation, BINDING_KEY, false));
+                result.put(OUTCOME, SUCCESS);
+                result.put("modified", unbound);
+                break;
+            default:
+                throw new IllegalArgumentException(String.format("Unknown action '%s'", action));
+        }
+    }
+
+    private void complete(final ListenableFuture<?> future, final Map<String, Object> result)
+    {
+        if (future.isDone())
+        {
+            final Object value;
+            try
+            {
+                value = future.get();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted whilst completing operation", e);
+            }
+            catch (ExecutionException e)
+            {
+                final Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException)
+                {
+                    throw (RuntimeException) cause;
+                }
+                throw new IllegalStateException(cause);
+            }
+
+            if (value instanceof ConfiguredObject)
+            {
+                result.put(ConfiguredObject.ID, ((ConfiguredObject<?>) value).getId());
+                result.put(ConfiguredObject.NAME, ((ConfiguredObject<?>) value).getName());
+            }
+            result.put(OUTCOME, SUCCESS);
+        }
+        else
+        {
+            // must not block the configuration thread, the outcome will be logged
+            result.put(OUTCOME, PENDING);
+            Futures.addCallback(future, new FutureCallback<Object>()
+            {
+                @Override
+                public void onSuccess(final Object value)
+                {
+                }
+
+                @Override
+                public void onFailure(final Throwable t)
+                {
+                    LOGGER.warn("Bulk configuration operation {} on virtual host '{}' failed",
+                                result.get(INDEX), _virtualHost.getName(), t);
+                }
+            }, MoreExecutors.directExecutor());
+        }
+    }
+
+    private Class<? extends ConfiguredObject> getCategory(final Map<String, Object> operation)
+    {
+        final String category = getString(operation, CATEGORY, true);
+        for (Class<? extends ConfiguredObject> childClass : _virtualHost.getModel().getChildTypes(_virtualHost.getCategoryClass()))
+        {
+            if (childClass.getSimpleName().equalsIgnoreCase(category))
+            {
+                return childClass;
+            }
+        }
+        throw new IllegalArgumentException(String.format("Unknown category '%s'", category));
+    }
+
+    private ConfiguredObject<?> getObject(final Map<String, Object> operation, final Map<String, Object> result)
+    {
+        final Class<? extends ConfiguredObject> category = getCategory(operation);
+        final Object id = operation.get(ConfiguredObject.ID);
+        final ConfiguredObject<?> object;
+        if (id != null)
+        {
+            object = _virtualHost.getChildById(category, id instanceof UUID ? (UUID) id : UUID.fromString(String.valueOf(id)));
+        }
+        else
+        {
+            object = _virtualHost.getChildByName(category, getString(operation, ConfiguredObject.NAME, true));
+        }
+
+        if (object == null)
+        {
+            throw new IllegalArgumentException(String.format("%s '%s' not found",
+                                                             category.getSimpleName(),
+                                                             id != null ? id : operation.get(ConfiguredObject.NAME)));
+        }
+        result.put(ConfiguredObject.ID, object.getId());
+        result.put(ConfiguredObject.NAME, object.getName());
+        return object;
+    }
+
+    private Exchange<?> getExchange(final Map<String, Object> operation)
+    {
+        final String exchangeName = getString(operation, EXCHANGE, true);
+        final Exchange<?> exchange = _virtualHost.getChildByName(Exchange.class, exchangeName);
+        if (exchange == null)
+        {
+            throw new IllegalArgumentException(String.format("Exchange '%s' not found", exchangeName));
+        }
+        return exchange;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> getAttributes(final Map<String, Object> operation)
+    {
+        final Object attributes = operation.get(ATTRIBUTES);
+        if (attributes == null)
+        {
+            return Collections.emptyMap();
+        }
+        else if (attributes instanceof Map)
+        {
+            return (Map<String, Object>) attributes;
+        }
+        throw new IllegalArgumentException(String.format("'%s' must be a map", ATTRIBUTES));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> getArguments(final Map<String, Object> operation)
+    {
+        final Object arguments = operation.get(ARGUMENTS);
+        if (arguments == null)
+        {
+            return Collections.emptyMap();
+        }
+        else if (arguments instanceof Map)
+        {
+            return (Map<String, Object>) arguments;
+        }
+        throw new IllegalArgumentException(String.format("'%s' must be a map", ARGUMENTS));
+    }
+
+    private String getString(final Map<String, Object> operation, final String key, final boolean mandatory)
+    {
+        final Object value = operation.get(key);
+        if (value == null)
+        {
+            if (mandatory)
+            {
+                throw new IllegalArgumentException(String.format("'%s' is mandatory", key));
+            }
+            return null;
+        }
+        return String.valueOf(value);
+    }
+}
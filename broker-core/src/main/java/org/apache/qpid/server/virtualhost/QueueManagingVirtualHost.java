@@ -273,6 +273,18 @@ public interface QueueManagingVirtualHost<X extends QueueManagingVirtualHost<X>>
             changesConfiguredObjectState = false)
     void importMessageStore(@Param(name="source", description = "Extract file", mandatory = true)String source);
 
+    @ManagedOperation(description = "Performs many configuration changes within a single configuration task,"
+                                    + " writing them to the configuration store in one batch. Each operation is"
+                                    + " a map with an 'action' of 'create', 'update' or 'delete' (with a child"
+                                    + " 'category', the object 'name' or 'id', and 'attributes'), or of 'bind' or"
+                                    + " 'unbind' (with 'exchange', 'destination', 'bindingKey', 'arguments' and"
+                                    + " 'replaceExistingArguments'). A failed operation does not prevent the"
+                                    + " following ones. Returns the outcome of each operation in order.",
+            changesConfiguredObjectState = true)
+    List<Map<String, Object>> bulkConfigure(@Param(name = "operations",
+            description = "The operations to perform",
+            mandatory = true) List<Map<String, Object>> operations);
+
     @ManagedOperation(nonModifying = true,
             description = "Returns metadata concerning the current connection",
             changesConfiguredObjectState = false,
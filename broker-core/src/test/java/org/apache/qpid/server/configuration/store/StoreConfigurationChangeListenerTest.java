@@ -104,6 +104,39 @@ public class StoreConfigurationChangeListenerTest extends QpidTestCase
         verifyNoMoreInteractions(_store);
     }
 
+    public void testWritesBatched()
+    {
+        notifyBrokerStarted();
+        final ConfiguredObject updated = createDurableObject(UUID.randomUUID());
+        final ConfiguredObject removed = createDurableObject(UUID.randomUUID());
+        final ConfiguredObject updatedThenRemoved = createDurableObject(UUID.randomUUID());
+
+        ConfigurationStoreBatch.perform(() -> {
+            _listener.attributeSet(updated, ConfiguredObject.DESCRIPTION, null, "first");
+            _listener.attributeSet(updated, ConfiguredObject.DESCRIPTION, "first", "second");
+            _listener.attributeSet(updatedThenRemoved, ConfiguredObject.DESCRIPTION, null, "first");
+            _listener.stateChanged(removed, State.ACTIVE, State.DELETED);
+            _listener.stateChanged(updatedThenRemoved, State.ACTIVE, State.DELETED);
+            verifyNoMoreInteractions(_store);
+            return null;
+        });
+
+        verify(_store).remove(removed.asObjectRecord(), updatedThenRemoved.asObjectRecord());
+        verify(_store).update(false, updated.asObjectRecord());
+        verifyNoMoreInteractions(_store);
+    }
+
+    private ConfiguredObject createDurableObject(final UUID id)
+    {
+        ConfiguredObject object = mock(VirtualHost.class);
+        when(object.isDurable()).thenReturn(true);
+        when(object.getId()).thenReturn(id);
+        ConfiguredObjectRecord record = mock(ConfiguredObjectRecord.class);
+        when(record.getId()).thenReturn(id);
+        when(object.asObjectRecord()).thenReturn(record);
+        return object;
+    }
+
     private void notifyBrokerStarted()
     {
         Broker broker = mock(Broker.class);
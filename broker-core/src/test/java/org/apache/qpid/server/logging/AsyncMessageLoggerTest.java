@@ -0,0 +1,162 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.logging;
+
+import java.security.PrivilegedAction;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.security.auth.Subject;
+
+import org.apache.qpid.server.logging.messages.ChannelMessages;
+import org.apache.qpid.server.security.auth.TaskPrincipal;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class AsyncMessageLoggerTest extends QpidTestCase
+{
+    private UnitTestMessageLogger _delegate;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        _delegate = new UnitTestMessageLogger();
+    }
+
+    public void testMessagesLoggedInOrderWithActorOfLoggingThread()
+    {
+        final AsyncMessageLogger logger = new AsyncMessageLogger(_delegate, 16);
+        logger.start();
+
+        Subject subject = new Subject(false,
+                                      Collections.singleton(new TaskPrincipal("myTask")),
+                                      Collections.emptySet(),
+                                      Collections.emptySet());
+        Subject.doAs(subject, (PrivilegedAction<Void>) () ->
+        {
+            for (int i = 0; i < 10; i++)
+            {
+                logger.message(createMessage("message" + i));
+            }
+            return null;
+        });
+        logger.stop();
+
+        List<Object> messages = _delegate.getLogMessages();
+        assertEquals("Unexpected number of messages", 10, messages.size());
+        for (int i = 0; i < 10; i++)
+        {
+            assertTrue("Unexpected actor: " + messages.get(i), _delegate.messageContains(i, "[myTask]"));
+            assertTrue("Unexpected order: " + messages.get(i), _delegate.messageContains(i, "message" + i));
+        }
+        assertEquals("Unexpected dropped count", 0, logger.getDroppedCount());
+    }
+
+    public void testMessagesDroppedWhenFull()
+    {
+        // not started, so nothing is consumed until stopped
+        final AsyncMessageLogger logger = new AsyncMessageLogger(_delegate, 2);
+
+        logger.message(createMessage("message0"));
+        logger.message(createMessage("message1"));
+        logger.message(createMessage("message2"));
+
+        assertEquals("Unexpected dropped count", 1, logger.getDroppedCount());
+        assertEquals("Unexpected pending count", 2, logger.getPendingCount());
+        assertTrue("Message unexpectedly logged before stop", _delegate.getLogMessages().isEmpty());
+
+        logger.stop();
+
+        assertEquals("Unexpected number of messages", 2, _delegate.getLogMessages().size());
+        assertTrue(_delegate.messageContains(0, "message0"));
+        assertTrue(_delegate.messageContains(1, "message1"));
+        assertEquals("Unexpected pending count", 0, logger.getPendingCount());
+    }
+
+    public void testMessagesLoggedSynchronouslyOnceStopped()
+    {
+        final AsyncMessageLogger logger = new AsyncMessageLogger(_delegate, 2);
+        logger.stop();
+
+        logger.message(createMessage("message0"));
+
+        assertEquals("Unexpected number of messages", 1, _delegate.getLogMessages().size());
+    }
+
+    public void testDisabledMessagesNotQueued()
+    {
+        _delegate = new UnitTestMessageLogger(false);
+        final AsyncMessageLogger logger = new AsyncMessageLogger(_delegate, 2);
+
+        logger.message(createMessage("message0"));
+
+        assertEquals("Unexpected pending count", 0, logger.getPendingCount());
+    }
+
+    public void testLogSubjectTakenWhenMessageLogged()
+    {
+        // not started, so nothing is consumed until stopped
+        final AsyncMessageLogger logger = new AsyncMessageLogger(_delegate, 2);
+        final StringBuilder subjectString = new StringBuilder("[subject1] ");
+
+        logger.message(() -> subjectString.toString(), createMessage("message0"));
+        subjectString.replace(0, subjectString.length(), "[subject2] ");
+        logger.stop();
+
+        assertEquals("Unexpected number of messages", 1, _delegate.getLogMessages().size());
+        assertTrue("Unexpected subject: " + _delegate.getLogMessages().get(0),
+                   _delegate.messageContains(0, "[subject1]"));
+    }
+
+    public void testMutableArgumentsFormattedWhenMessageCreated()
+    {
+        // not started, so nothing is consumed until stopped
+        final AsyncMessageLogger logger = new AsyncMessageLogger(_delegate, 2);
+        final AtomicLong count = new AtomicLong(1);
+
+        logger.message(ChannelMessages.CLOSE_FORCED(count, "reason"));
+        count.set(2);
+        logger.stop();
+
+        assertEquals("Unexpected number of messages", 1, _delegate.getLogMessages().size());
+        assertTrue("Unexpected argument: " + _delegate.getLogMessages().get(0),
+                   _delegate.messageContains(0, ChannelMessages.CLOSE_FORCED(1, "reason").toString()));
+    }
+
+    private LogMessage createMessage(final String text)
+    {
+        return new LogMessage()
+        {
+            @Override
+            public String getLogHierarchy()
+            {
+                return "qpid.message.test";
+            }
+
+            @Override
+            public String toString()
+            {
+                return text;
+            }
+        };
+    }
+}
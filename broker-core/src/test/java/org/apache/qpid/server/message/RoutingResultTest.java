@@ -0,0 +1,88 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.message;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.apache.qpid.server.queue.BaseQueue;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class RoutingResultTest extends QpidTestCase
+{
+    private ServerMessage<?> _message;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        _message = mock(ServerMessage.class);
+    }
+
+    public void testAddQueues()
+    {
+        BaseQueue queue1 = mock(BaseQueue.class);
+        BaseQueue queue2 = mock(BaseQueue.class);
+        BaseQueue deletedQueue = mock(BaseQueue.class);
+        when(deletedQueue.isDeleted()).thenReturn(true);
+
+        RoutingResult<ServerMessage<?>> result = new RoutingResult<>(_message);
+        assertFalse("Unexpected routes", result.hasRoutes());
+
+        result.addQueue(queue1);
+        result.addQueue(queue1);
+        assertEquals("Unexpected number of routes", 1, result.getNumberOfRoutes());
+
+        result.addQueue(deletedQueue);
+        result.addQueue(queue2);
+        assertEquals("Unexpected number of routes", 2, result.getNumberOfRoutes());
+        assertTrue("Route missing", result.getRoutes().contains(queue1));
+        assertTrue("Route missing", result.getRoutes().contains(queue2));
+    }
+
+    public void testAddResult()
+    {
+        BaseQueue queue1 = mock(BaseQueue.class);
+        BaseQueue queue2 = mock(BaseQueue.class);
+        BaseQueue rejectingQueue = mock(BaseQueue.class);
+
+        RoutingResult<ServerMessage<?>> result = new RoutingResult<>(_message);
+        result.add(new RoutingResult<>(_message));
+        assertFalse("Unexpected routes", result.hasRoutes());
+        assertFalse("Unexpected rejection", result.isRejected());
+
+        RoutingResult<ServerMessage<?>> other = new RoutingResult<>(_message);
+        other.addQueue(queue1);
+        result.add(other);
+        assertEquals("Unexpected number of routes", 1, result.getNumberOfRoutes());
+
+        other = new RoutingResult<>(_message);
+        other.addQueue(queue1);
+        other.addQueue(queue2);
+        other.addRejectReason(rejectingQueue, RejectType.LIMIT_EXCEEDED, "full");
+        result.add(other);
+
+        assertEquals("Unexpected number of routes", 2, result.getNumberOfRoutes());
+        assertTrue("Rejection not added", result.isRejected());
+        assertTrue("Unexpected rejection type", result.containsReject(RejectType.LIMIT_EXCEEDED));
+        assertEquals("Unexpected reject reason", "full", result.getRejectReason());
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.model;
+
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.function.Function;
+
+import com.google.common.io.ByteStreams;
+
+import org.apache.qpid.server.util.ServerScopedRuntimeException;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class ConfiguredObjectMethodAttributeOrStatisticTest extends QpidTestCase
+{
+    public void testAccessorGeneratedForPublicGetter() throws Exception
+    {
+        final Function<Object, Object> accessor =
+                ConfiguredObjectMethodAttributeOrStatistic.createAccessor(TestBean.class.getMethod("getValue"), "value");
+
+        assertFalse("Reflective accessor created for public getter",
+                    accessor instanceof ConfiguredObjectMethodAttributeOrStatistic.ReflectiveAccessor);
+        assertEquals("value", accessor.apply(new TestBean()));
+    }
+
+    public void testGeneratedAccessorInvokesGetterWithoutReflection() throws Exception
+    {
+        final Function<Object, Object> accessor =
+                ConfiguredObjectMethodAttributeOrStatistic.createAccessor(TestBean.class.getMethod("getFailing"),
+                                                                          "failing");
+        try
+        {
+            accessor.apply(new TestBean());
+            fail("Exception not thrown");
+        }
+        catch (IllegalStateException e)
+        {
+            assertFalse("Getter invoked reflectively", isInvokedReflectively(e));
+        }
+    }
+
+    public void testReflectiveAccessorForClassNotVisibleToClassLoader() throws Exception
+    {
+        final Class<?> beanClass = loadInSeparateClassLoader(TestBean.class);
+        assertNotSame(TestBean.class, beanClass);
+
+        final Function<Object, Object> accessor =
+                ConfiguredObjectMethodAttributeOrStatistic.createAccessor(beanClass.getMethod("getValue"), "value");
+
+        assertTrue("Direct accessor created for class not visible to class loader",
+                   accessor instanceof ConfiguredObjectMethodAttributeOrStatistic.ReflectiveAccessor);
+        assertEquals("value", accessor.apply(beanClass.newInstance()));
+
+        final Function<Object, Object> failingAccessor =
+                ConfiguredObjectMethodAttributeOrStatistic.createAccessor(beanClass.getMethod("getFailing"), "failing");
+        try
+        {
+            failingAccessor.apply(beanClass.newInstance());
+            fail("Exception not thrown");
+        }
+        catch (IllegalStateException e)
+        {
+            assertTrue("Getter not invoked reflectively", isInvokedReflectively(e));
+        }
+    }
+
+    public void testReflectiveAccessorForNonPublicGetter() throws Exception
+    {
+        final Method getter = TestBean.class.getDeclaredMethod("getHidden");
+
+        final Function<Object, Object> accessor =
+                ConfiguredObjectMethodAttributeOrStatistic.createAccessor(getter, "hidden");
+
+        assertTrue("Direct accessor created for private getter",
+                   accessor instanceof ConfiguredObjectMethodAttributeOrStatistic.ReflectiveAccessor);
+        try
+        {
+            accessor.apply(new TestBean());
+            fail("Exception not thrown");
+        }
+        catch (ServerScopedRuntimeException e)
+        {
+            // pass
+        }
+    }
+
+    public void testAccessorForBridgeMethod() throws Exception
+    {
+        Method bridge = null;
+        for (Method method : StringHolder.class.getDeclaredMethods())
+        {
+            if (method.isBridge() && method.getName().equals("getHeld"))
+            {
+                bridge = method;
+            }
+        }
+        assertNotNull("Bridge method not found", bridge);
+
+        final Function<Object, Object> accessor =
+                ConfiguredObjectMethodAttributeOrStatistic.createAccessor(bridge, "held");
+
+        assertEquals("held", accessor.apply(new StringHolder()));
+    }
+
+    private static boolean isInvokedReflectively(final Throwable t)
+    {
+        for (StackTraceElement element : t.getStackTrace())
+        {
+            final String className = element.getClassName();
+            if (className.startsWith("java.lang.reflect.")
+                || className.startsWith("sun.reflect.")
+                || className.startsWith("jdk.internal.reflect."))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Class<?> loadInSeparateClassLoader(final Class<?> clazz) throws Exception
+    {
+        final byte[] bytes;
+        try (InputStream in = clazz.getClassLoader().getResourceAsStream(clazz.getName().replace('.', '/') + ".class"))
+        {
+            bytes = ByteStreams.toByteArray(in);
+        }
+        final ClassLoader classLoader = new ClassLoader(clazz.getClassLoader())
+        {
+            @Override
+            protected Class<?> loadClass(final String name, final boolean resolve) throws ClassNotFoundException
+            {
+                if (name.equals(clazz.getName()))
+                {
+                    synchronized (getClassLoadingLock(name))
+                    {
+                        final Class<?> loaded = findLoadedClass(name);
+                        return loaded == null ? defineClass(name, bytes, 0, bytes.length) : loaded;
+                    }
+                }
+                return super.loadClass(name, resolve);
+            }
+        };
+        return classLoader.loadClass(clazz.getName());
+    }
+
+    public static class TestBean
+    {
+        public String getValue()
+        {
+            return "value";
+        }
+
+        public String getFailing()
+        {
+            throw new IllegalStateException("Test getter failure");
+        }
+
+        private String getHidden()
+        {
+            return "hidden";
+        }
+    }
+
+    public interface Holder<V>
+    {
+        V getHeld();
+    }
+
+    public static class StringHolder implements Holder<String>
+    {
+        @Override
+        public String getHeld()
+        {
+            return "held";
+        }
+    }
+}
@@ -648,6 +648,9 @@ public class AbstractConfiguredObjectTest extends QpidTestCase
         TestSingleton object = _model.getObjectFactory().create(TestSingleton.class,
                                                                     attributes, null);
         assertEquals(TestSingletonImpl.DERIVED_VALUE, object.getDerivedValue());
+        assertEquals("Unexpected derived value read through the model",
+                     Long.valueOf(TestSingletonImpl.DERIVED_VALUE),
+                     object.getAttribute(TestSingleton.DERIVED_VALUE));
 
         // Check that update is ignored
         object.setAttributes(Collections.singletonMap(TestSingleton.DERIVED_VALUE, System.currentTimeMillis()));
@@ -848,6 +848,62 @@ abstract class AbstractQueueTestBase extends QpidTestCase
         assertEquals(10l,queue.getOldestMessageArrivalTime());
     }
 
+    public void testOldestMessageAfterOldestDeleted()
+    {
+        Queue<?> queue = getQueue();
+        queue.enqueue(createMessage(1l, (byte)1, Collections.singletonMap("sortKey", (Object) "Z"), 10l), null, null);
+        queue.enqueue(createMessage(2l, (byte)4, Collections.singletonMap("sortKey", (Object) "M"), 100l), null, null);
+
+        assertEquals(10l, queue.getOldestMessageArrivalTime());
+
+        for (QueueEntry entry : queue.getMessagesOnTheQueue())
+        {
+            if (entry.getMessage().getArrivalTime() == 10l)
+            {
+                assertTrue("Could not acquire entry", entry.acquire());
+                entry.delete();
+            }
+        }
+
+        assertEquals(100l, queue.getOldestMessageArrivalTime());
+    }
+
+    public void testStatisticsSnapshot()
+    {
+        Map<String,Object> attributes = new HashMap<>(_arguments);
+        attributes.put(Queue.NAME, getTestName());
+        attributes.put(Queue.CONTEXT, Collections.singletonMap(Queue.QUEUE_STATISTICS_SNAPSHOT_MAX_AGE, "60000"));
+        Queue<?> queue = _virtualHost.createChild(Queue.class, attributes);
+
+        assertEquals(0, queue.getStatistics().get("queueDepthMessages"));
+
+        queue.enqueue(createMessage(1l), null, null);
+
+        assertEquals("Snapshot statistics should not have changed",
+                     0, queue.getStatistics().get("queueDepthMessages"));
+        assertEquals("Unexpected live statistic", 1, queue.getQueueDepthMessages());
+        assertEquals("Unexpected statistics subset", Collections.singleton("queueDepthMessages"),
+                     queue.getStatistics(Collections.singletonList("queueDepthMessages")).keySet());
+    }
+
+    public void testStatisticsSnapshotMaxAgeChangedInContext()
+    {
+        Map<String,Object> attributes = new HashMap<>(_arguments);
+        attributes.put(Queue.NAME, getTestName());
+        attributes.put(Queue.CONTEXT, Collections.singletonMap(Queue.QUEUE_STATISTICS_SNAPSHOT_MAX_AGE, "60000"));
+        Queue<?> queue = _virtualHost.createChild(Queue.class, attributes);
+
+        assertEquals(0, queue.getStatistics().get("queueDepthMessages"));
+        queue.enqueue(createMessage(1l), null, null);
+        assertEquals(0, queue.getStatistics().get("queueDepthMessages"));
+
+        queue.setAttributes(Collections.<String, Object>singletonMap(Queue.CONTEXT,
+                                                                     Collections.singletonMap(Queue.QUEUE_STATISTICS_SNAPSHOT_MAX_AGE, "0")));
+
+        assertEquals("Statistics should be read live once the snapshot is disabled",
+                     1, queue.getStatistics().get("queueDepthMessages"));
+    }
+
     public void testNoneOverflowPolicy()
     {
         Map<String,Object> attributes = new HashMap<>(_arguments);
@@ -873,6 +929,47 @@ abstract class AbstractQueueTestBase extends QpidTestCase
                 ((AbstractQueue) queue).getEntries().getOldestEntry().getMessage().getArrivalTime());
     }
 
+    public void testPublisherPressure()
+    {
+        Queue<?> queue = getQueue();
+        queue.enqueue(createMessage(new Long(24), 50, 50), null, null);
+
+        assertEquals("Unbounded queue should exert no pressure", 0, queue.getPublisherPressure());
+
+        Map<String,Object> attributes = new HashMap<>(_arguments);
+        attributes.put(Queue.MAXIMUM_QUEUE_DEPTH_MESSAGES, 4);
+        attributes.put(Queue.MAXIMUM_QUEUE_DEPTH_BYTES, 200);
+        queue.setAttributes(attributes);
+
+        assertEquals("Unexpected pressure", 50, queue.getPublisherPressure());
+
+        queue.enqueue(createMessage(new Long(25), 50, 50), null, null);
+        queue.enqueue(createMessage(new Long(26), 50, 50), null, null);
+
+        assertEquals("Pressure should not exceed 100%", 100, queue.getPublisherPressure());
+    }
+
+    public void testDeleteEntries()
+    {
+        Queue<?> queue = getQueue();
+        queue.enqueue(createMessage(new Long(24), 50, 50), null, null);
+        queue.enqueue(createMessage(new Long(25), 50, 50), null, null);
+        queue.enqueue(createMessage(new Long(26), 50, 50), null, null);
+
+        List<QueueEntry> entries = new ArrayList<>(queue.getMessagesOnTheQueue());
+        assertEquals("Unexpected number of entries", 3, entries.size());
+        assertTrue("Could not acquire entry", entries.get(0).acquire());
+        assertTrue("Could not acquire entry", entries.get(1).acquire());
+
+        queue.deleteEntries(entries);
+
+        assertTrue("Acquired entry not deleted", entries.get(0).isDeleted());
+        assertTrue("Acquired entry not deleted", entries.get(1).isDeleted());
+        assertFalse("Available entry unexpectedly deleted", entries.get(2).isDeleted());
+        assertEquals("Unexpected queue depth", 1, queue.getQueueDepthMessages());
+        assertEquals("Unexpected dequeued count", 2, queue.getTotalDequeuedMessages());
+    }
+
     public void testRingOverflowPolicyMaxCount()
     {
         Map<String,Object> attributes = new HashMap<>(_arguments);
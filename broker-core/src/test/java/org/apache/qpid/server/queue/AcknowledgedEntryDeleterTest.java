@@ -0,0 +1,277 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.queue;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import org.apache.qpid.server.message.MessageInstance;
+import org.apache.qpid.server.model.Queue;
+import org.apache.qpid.server.store.MessageEnqueueRecord;
+import org.apache.qpid.server.txn.ServerTransaction;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class AcknowledgedEntryDeleterTest extends QpidTestCase
+{
+    private final List<List<QueueEntry>> _deletedBatches = new ArrayList<>();
+    private AcknowledgedEntryDeleter _deleter;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        _deleter = new AcknowledgedEntryDeleter();
+    }
+
+    public void testEntriesDeletedImmediatelyOutsideBatch()
+    {
+        final Queue<?> queue = createQueue();
+        final QueueEntry entry = createEntry(queue);
+
+        _deleter.delete(entry);
+
+        verify(entry).delete();
+        assertTrue("Unexpected batch deletion", _deletedBatches.isEmpty());
+    }
+
+    public void testEntriesOfQueueDeletedTogetherAtEndOfBatch()
+    {
+        final Queue<?> queue = createQueue();
+        final QueueEntry entry1 = createEntry(queue);
+        final QueueEntry entry2 = createEntry(queue);
+
+        _deleter.beginBatch();
+        _deleter.delete(entry1);
+        _deleter.delete(entry2);
+
+        assertTrue("Entries deleted before end of batch", _deletedBatches.isEmpty());
+
+        _deleter.endBatch();
+
+        assertEquals(Arrays.asList(Arrays.asList(entry1, entry2)), _deletedBatches);
+        verify(entry1, never()).delete();
+        verify(entry2, never()).delete();
+    }
+
+    public void testSingleEntryBatchDeletedDirectly()
+    {
+        final Queue<?> queue = createQueue();
+        final QueueEntry entry = createEntry(queue);
+
+        _deleter.beginBatch();
+        _deleter.delete(entry);
+        _deleter.endBatch();
+
+        verify(entry).delete();
+        verify(queue, never()).deleteEntries(anyCollectionOf(QueueEntry.class));
+    }
+
+    public void testEntriesGroupedByConsecutiveQueue()
+    {
+        final Queue<?> queue1 = createQueue();
+        final Queue<?> queue2 = createQueue();
+        final QueueEntry entry1 = createEntry(queue1);
+        final QueueEntry entry2 = createEntry(queue1);
+        final QueueEntry entry3 = createEntry(queue2);
+        final QueueEntry entry4 = createEntry(queue2);
+        final MessageInstance nonQueueEntry = mock(MessageInstance.class);
+
+        _deleter.beginBatch();
+        _deleter.delete(entry1);
+        _deleter.delete(entry2);
+        _deleter.delete(nonQueueEntry);
+        _deleter.delete(entry3);
+        _deleter.delete(entry4);
+        _deleter.endBatch();
+
+        verify(nonQueueEntry).delete();
+        assertEquals(Arrays.asList(Arrays.asList(entry1, entry2), Arrays.asList(entry3, entry4)), _deletedBatches);
+    }
+
+    public void testNestedBatchesDeletedAtOutermostEnd()
+    {
+        final Queue<?> queue = createQueue();
+        final QueueEntry entry1 = createEntry(queue);
+        final QueueEntry entry2 = createEntry(queue);
+
+        _deleter.beginBatch();
+        _deleter.delete(entry1);
+        _deleter.beginBatch();
+        _deleter.delete(entry2);
+        _deleter.endBatch();
+
+        assertTrue("Entries deleted before end of outermost batch", _deletedBatches.isEmpty());
+
+        _deleter.endBatch();
+
+        assertEquals(Arrays.asList(Arrays.asList(entry1, entry2)), _deletedBatches);
+    }
+
+    public void testDequeuedImmediatelyOutsideBatch()
+    {
+        final ServerTransaction transaction = mock(ServerTransaction.class);
+        final MessageInstance instance = createInstance();
+        final ServerTransaction.Action action = mock(ServerTransaction.Action.class);
+
+        _deleter.dequeue(transaction, instance, action);
+
+        final MessageEnqueueRecord enqueueRecord = instance.getEnqueueRecord();
+        verify(transaction).dequeue(enqueueRecord, action);
+    }
+
+    public void testDequeuesOfBatchMadeTogetherAtEndOfBatch()
+    {
+        final ServerTransaction transaction = mock(ServerTransaction.class);
+        final MessageInstance instance1 = createInstance();
+        final MessageInstance instance2 = createInstance();
+        final ServerTransaction.Action action1 = mock(ServerTransaction.Action.class);
+        final ServerTransaction.Action action2 = mock(ServerTransaction.Action.class);
+
+        _deleter.beginBatch();
+        _deleter.dequeue(transaction, instance1, action1);
+        _deleter.dequeue(transaction, instance2, action2);
+
+        verifyZeroInteractions(transaction);
+
+        _deleter.endBatch();
+
+        final ArgumentCaptor<ServerTransaction.Action> actionCaptor =
+                ArgumentCaptor.forClass(ServerTransaction.Action.class);
+        verify(transaction).dequeue(eq(Arrays.asList(instance1, instance2)), actionCaptor.capture());
+        verify(transaction, never()).dequeue(any(MessageEnqueueRecord.class), any(ServerTransaction.Action.class));
+
+        actionCaptor.getValue().postCommit();
+        verify(action1).postCommit();
+        verify(action2).postCommit();
+
+        actionCaptor.getValue().onRollback();
+        verify(action1).onRollback();
+        verify(action2).onRollback();
+    }
+
+    public void testDequeuesGroupedByConsecutiveTransaction()
+    {
+        final ServerTransaction transaction1 = mock(ServerTransaction.class);
+        final ServerTransaction transaction2 = mock(ServerTransaction.class);
+        final MessageInstance instance1 = createInstance();
+        final MessageInstance instance2 = createInstance();
+        final MessageInstance instance3 = createInstance();
+        final ServerTransaction.Action action3 = mock(ServerTransaction.Action.class);
+
+        _deleter.beginBatch();
+        _deleter.dequeue(transaction1, instance1, mock(ServerTransaction.Action.class));
+        _deleter.dequeue(transaction1, instance2, mock(ServerTransaction.Action.class));
+        _deleter.dequeue(transaction2, instance3, action3);
+        _deleter.endBatch();
+
+        final MessageEnqueueRecord enqueueRecord3 = instance3.getEnqueueRecord();
+        verify(transaction1).dequeue(eq(Arrays.asList(instance1, instance2)), any(ServerTransaction.Action.class));
+        verify(transaction2).dequeue(enqueueRecord3, action3);
+    }
+
+    public void testEntriesDeletedByCommittedBatchOfDequeuesDeletedTogether()
+    {
+        final ServerTransaction transaction = mock(ServerTransaction.class);
+        final Queue<?> queue = createQueue();
+        final QueueEntry entry1 = createEntry(queue);
+        final QueueEntry entry2 = createEntry(queue);
+        final ServerTransaction.Action action1 = createDeletingAction(entry1);
+        final ServerTransaction.Action action2 = createDeletingAction(entry2);
+
+        _deleter.beginBatch();
+        _deleter.dequeue(transaction, entry1, action1);
+        _deleter.dequeue(transaction, entry2, action2);
+        _deleter.endBatch();
+
+        final ArgumentCaptor<ServerTransaction.Action> actionCaptor =
+                ArgumentCaptor.forClass(ServerTransaction.Action.class);
+        verify(transaction).dequeue(eq(Arrays.<MessageInstance>asList(entry1, entry2)), actionCaptor.capture());
+
+        // the post commit action of an asynchronous dequeue runs outside the batch
+        actionCaptor.getValue().postCommit();
+
+        assertEquals(Arrays.asList(Arrays.asList(entry1, entry2)), _deletedBatches);
+    }
+
+    private ServerTransaction.Action createDeletingAction(final MessageInstance instance)
+    {
+        return new ServerTransaction.Action()
+        {
+            @Override
+            public void postCommit()
+            {
+                _deleter.delete(instance);
+            }
+
+            @Override
+            public void onRollback()
+            {
+            }
+        };
+    }
+
+    private MessageInstance createInstance()
+    {
+        final MessageInstance instance = mock(MessageInstance.class);
+        final MessageEnqueueRecord enqueueRecord = mock(MessageEnqueueRecord.class);
+        when(instance.getEnqueueRecord()).thenReturn(enqueueRecord);
+        return instance;
+    }
+
+    private Queue<?> createQueue()
+    {
+        final Queue<?> queue = mock(Queue.class);
+        doAnswer(new Answer<Void>()
+        {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Void answer(final InvocationOnMock invocation) throws Throwable
+            {
+                _deletedBatches.add(new ArrayList<>((Collection<QueueEntry>) invocation.getArguments()[0]));
+                return null;
+            }
+        }).when(queue).deleteEntries(anyCollectionOf(QueueEntry.class));
+        return queue;
+    }
+
+    private QueueEntry createEntry(final Queue<?> queue)
+    {
+        final QueueEntry entry = mock(QueueEntry.class);
+        when(entry.getQueue()).thenReturn((Queue) queue);
+        return entry;
+    }
+}
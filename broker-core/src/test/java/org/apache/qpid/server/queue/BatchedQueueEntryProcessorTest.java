@@ -0,0 +1,110 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.queue;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.util.concurrent.Futures;
+
+import org.apache.qpid.server.message.MessageInstance;
+import org.apache.qpid.server.store.MessageEnqueueRecord;
+import org.apache.qpid.server.store.MessageStore;
+import org.apache.qpid.server.store.Transaction;
+import org.apache.qpid.server.txn.ServerTransaction;
+import org.apache.qpid.server.util.Action;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class BatchedQueueEntryProcessorTest extends QpidTestCase
+{
+    private MessageStore _messageStore;
+    private List<Transaction> _transactions;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        _transactions = new ArrayList<>();
+        _messageStore = mock(MessageStore.class);
+        when(_messageStore.newTransaction()).thenAnswer(invocation ->
+                                                        {
+                                                            final Transaction transaction = mock(Transaction.class);
+                                                            when(transaction.commitTranAsync(any())).thenAnswer(
+                                                                    commit -> Futures.immediateFuture(commit.getArguments()[0]));
+                                                            _transactions.add(transaction);
+                                                            return transaction;
+                                                        });
+    }
+
+    public void testDequeuesCommittedInBatches()
+    {
+        final BatchedQueueEntryProcessor processor = new BatchedQueueEntryProcessor(_messageStore, "test", 2, 1);
+        final AtomicInteger postCommitTasks = new AtomicInteger();
+        final List<QueueEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 5; i++)
+        {
+            final QueueEntry entry = mock(QueueEntry.class);
+            when(entry.getEnqueueRecord()).thenReturn(mock(MessageEnqueueRecord.class));
+            entries.add(entry);
+            processor.dequeue(entry, postCommitTasks::incrementAndGet);
+        }
+        processor.complete();
+
+        assertEquals("Unexpected number of store transactions", 3, _transactions.size());
+        for (Transaction transaction : _transactions)
+        {
+            verify(transaction).commitTranAsync(any());
+        }
+        verify(_transactions.get(0), times(2)).dequeueMessage(any(MessageEnqueueRecord.class));
+        verify(_transactions.get(2), times(1)).dequeueMessage(any(MessageEnqueueRecord.class));
+        for (QueueEntry entry : entries)
+        {
+            verify(entry).delete();
+        }
+        assertEquals("Unexpected number of post commit tasks run", 5, postCommitTasks.get());
+        assertEquals("Unexpected processed count", 5, processor.getProcessedCount());
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testRouteToAlternateUsesBatchTransaction()
+    {
+        final BatchedQueueEntryProcessor processor = new BatchedQueueEntryProcessor(_messageStore, "test", 10, 1);
+        final QueueEntry routed = mock(QueueEntry.class);
+        when(routed.routeToAlternate((Action<? super MessageInstance>) isNull(), any(ServerTransaction.class))).thenReturn(1);
+        final QueueEntry discarded = mock(QueueEntry.class);
+
+        assertEquals(1, processor.routeToAlternate(routed));
+        assertEquals(0, processor.routeToAlternate(discarded));
+        processor.complete();
+
+        verify(routed).routeToAlternate((Action<? super MessageInstance>) isNull(), any(ServerTransaction.class));
+        verify(discarded).routeToAlternate((Action<? super MessageInstance>) isNull(), any(ServerTransaction.class));
+        assertEquals("Unexpected processed count", 2, processor.getProcessedCount());
+    }
+}
@@ -0,0 +1,319 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.queue;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import org.apache.qpid.server.message.AMQMessageHeader;
+import org.apache.qpid.server.message.MessageInstance;
+import org.apache.qpid.server.message.MessageInstance.EntryState;
+import org.apache.qpid.server.model.Queue;
+import org.apache.qpid.server.util.StateChangeListener;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class DefinedGroupMessageGroupManagerTest extends QpidTestCase
+{
+    private MessageGroupManager.ConsumerResetHelper _resetHelper;
+    private DefinedGroupMessageGroupManager _groupManager;
+    private QueueConsumer<?,?> _consumer1;
+    private QueueConsumer<?,?> _consumer2;
+    private Queue<?> _queue;
+    private final List<TestEntry> _entries = new ArrayList<>();
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        _resetHelper = mock(MessageGroupManager.ConsumerResetHelper.class);
+        _groupManager = new DefinedGroupMessageGroupManager(null, "default", _resetHelper);
+
+        _queue = mock(Queue.class);
+        _consumer1 = createConsumer(_queue);
+        _consumer2 = createConsumer(_queue);
+    }
+
+    public void testEntriesOfAGroupAreDeliveredToTheAssignedConsumerInOrder()
+    {
+        final TestEntry entry1 = createEntry("A");
+        final TestEntry entry2 = createEntry("A");
+        final TestEntry entry3 = createEntry("B");
+
+        assertTrue("First entry of group not accepted", _groupManager.acceptMessage(_consumer1, entry1.getEntry()));
+
+        assertFalse("Group entry unexpectedly assignable to other consumer",
+                    _groupManager.mightAssign(entry2.getEntry(), _consumer2));
+        assertFalse("Group entry unexpectedly accepted by other consumer",
+                    _groupManager.acceptMessage(_consumer2, entry2.getEntry()));
+        assertTrue("Entry of another group not accepted",
+                   _groupManager.acceptMessage(_consumer2, entry3.getEntry()));
+
+        assertTrue("Group entry not assignable to assigned consumer",
+                   _groupManager.mightAssign(entry2.getEntry(), _consumer1));
+        assertTrue("Second entry of group not accepted", _groupManager.acceptMessage(_consumer1, entry2.getEntry()));
+        assertEquals(_consumer1, entry2.getAcquiringConsumer());
+    }
+
+    public void testGroupReassignedAfterRelease()
+    {
+        final TestEntry entry1 = createEntry("A");
+        final TestEntry entry2 = createEntry("A");
+
+        assertTrue(_groupManager.acceptMessage(_consumer1, entry1.getEntry()));
+        assertFalse(_groupManager.acceptMessage(_consumer2, entry2.getEntry()));
+        verify(_resetHelper, never()).resetSubPointersForGroups(any(QueueEntry.class));
+
+        entry1.release();
+
+        verify(_resetHelper).resetSubPointersForGroups(entry2.getEntry());
+        assertTrue("Released entry not accepted by other consumer",
+                   _groupManager.acceptMessage(_consumer2, entry1.getEntry()));
+        assertFalse("Group entry accepted by previously assigned consumer",
+                    _groupManager.acceptMessage(_consumer1, entry2.getEntry()));
+        assertTrue(_groupManager.acceptMessage(_consumer2, entry2.getEntry()));
+    }
+
+    public void testConsumerClosingMidGroup()
+    {
+        final TestEntry entry1 = createEntry("A");
+        final TestEntry entry2 = createEntry("A");
+        final TestEntry entry3 = createEntry("B");
+
+        assertTrue(_groupManager.acceptMessage(_consumer1, entry1.getEntry()));
+        when(_consumer1.isClosed()).thenReturn(true);
+
+        assertFalse("Group with unacknowledged entry reassigned whilst consumer closing",
+                    _groupManager.acceptMessage(_consumer2, entry2.getEntry()));
+        assertEquals("Unexpected earliest entry for closing consumer",
+                     entry2.getEntry(), _groupManager.findEarliestAssignedAvailableEntry(_consumer1));
+
+        _groupManager.clearAssignments(_consumer1);
+        entry1.release();
+
+        assertTrue("Group not reassigned after closing consumer released its entry",
+                   _groupManager.acceptMessage(_consumer2, entry1.getEntry()));
+        assertTrue(_groupManager.acceptMessage(_consumer2, entry2.getEntry()));
+        assertTrue(_groupManager.acceptMessage(_consumer2, entry3.getEntry()));
+    }
+
+    public void testEarliestAssignedEntryFoundWithoutVisitingQueue()
+    {
+        final TestEntry entry1 = createEntry("A");
+        final TestEntry entry2 = createEntry("B");
+        final TestEntry entry3 = createEntry("A");
+        final TestEntry entry4 = createEntry("A");
+
+        assertNull(_groupManager.findEarliestAssignedAvailableEntry(_consumer1));
+        assertTrue(_groupManager.acceptMessage(_consumer1, entry1.getEntry()));
+        assertTrue(_groupManager.acceptMessage(_consumer2, entry2.getEntry()));
+        assertFalse(_groupManager.mightAssign(entry4.getEntry(), _consumer2));
+        assertFalse(_groupManager.acceptMessage(_consumer2, entry3.getEntry()));
+
+        assertEquals("Unexpected earliest entry",
+                     entry3.getEntry(), _groupManager.findEarliestAssignedAvailableEntry(_consumer1));
+        assertNull("Unexpected earliest entry for consumer without skipped entries",
+                   _groupManager.findEarliestAssignedAvailableEntry(_consumer2));
+
+        assertTrue(_groupManager.acceptMessage(_consumer1, entry3.getEntry()));
+        assertEquals("Acquired entry still earliest",
+                     entry4.getEntry(), _groupManager.findEarliestAssignedAvailableEntry(_consumer1));
+
+        verify(_queue, never()).visit(any(QueueEntryVisitor.class));
+    }
+
+    public void testEarliestAssignedEntryAfterDeletion()
+    {
+        final TestEntry entry1 = createEntry("A");
+        final TestEntry entry2 = createEntry("A");
+        final TestEntry entry3 = createEntry("A");
+
+        assertTrue(_groupManager.acceptMessage(_consumer1, entry1.getEntry()));
+        assertFalse(_groupManager.acceptMessage(_consumer2, entry2.getEntry()));
+        assertFalse(_groupManager.acceptMessage(_consumer2, entry3.getEntry()));
+
+        entry2.delete();
+        assertEquals("Deleted entry returned as earliest",
+                     entry3.getEntry(), _groupManager.findEarliestAssignedAvailableEntry(_consumer1));
+
+        entry3.delete();
+        assertNull("Deleted entry returned as earliest", _groupManager.findEarliestAssignedAvailableEntry(_consumer1));
+    }
+
+    public void testEarliestAssignedEntryFollowsReassignedGroup()
+    {
+        final TestEntry entry1 = createEntry("A");
+        final TestEntry entry2 = createEntry("A");
+        final TestEntry entry3 = createEntry("A");
+
+        assertTrue(_groupManager.acceptMessage(_consumer1, entry1.getEntry()));
+        assertFalse(_groupManager.acceptMessage(_consumer2, entry2.getEntry()));
+        assertEquals(entry2.getEntry(), _groupManager.findEarliestAssignedAvailableEntry(_consumer1));
+
+        entry1.delete();
+
+        assertNull("Entry of released group returned as earliest",
+                   _groupManager.findEarliestAssignedAvailableEntry(_consumer1));
+
+        assertTrue(_groupManager.acceptMessage(_consumer2, entry2.getEntry()));
+        assertFalse(_groupManager.acceptMessage(_consumer1, entry3.getEntry()));
+
+        assertNull("Entry of reassigned group returned for previous consumer",
+                   _groupManager.findEarliestAssignedAvailableEntry(_consumer1));
+        assertEquals("Unexpected earliest entry for consumer assigned group",
+                     entry3.getEntry(), _groupManager.findEarliestAssignedAvailableEntry(_consumer2));
+    }
+
+    private QueueConsumer<?,?> createConsumer(final Queue<?> queue)
+    {
+        final QueueConsumer<?,?> consumer = mock(QueueConsumer.class);
+        when(consumer.getQueue()).thenReturn((Queue) queue);
+        return consumer;
+    }
+
+    private TestEntry createEntry(final String groupId)
+    {
+        final TestEntry entry = new TestEntry(groupId, _entries.size());
+        _entries.add(entry);
+        return entry;
+    }
+
+    private final class TestEntry
+    {
+        private final QueueEntry _entry = mock(QueueEntry.class);
+        private final List<StateChangeListener<? super MessageInstance, EntryState>> _listeners = new ArrayList<>();
+        private final int _position;
+        private EntryState _state = MessageInstance.AVAILABLE_STATE;
+
+        @SuppressWarnings("unchecked")
+        private TestEntry(final String groupId, final int position)
+        {
+            _position = position;
+            final AMQMessageHeader header = mock(AMQMessageHeader.class);
+            when(header.getGroupId()).thenReturn(groupId);
+            when(_entry.getMessageHeader()).thenReturn(header);
+            when(_entry.isAvailable()).thenAnswer(new Answer<Boolean>()
+            {
+                @Override
+                public Boolean answer(final InvocationOnMock invocation) throws Throwable
+                {
+                    return _state == MessageInstance.AVAILABLE_STATE;
+                }
+            });
+            when(_entry.isDeleted()).thenAnswer(new Answer<Boolean>()
+            {
+                @Override
+                public Boolean answer(final InvocationOnMock invocation) throws Throwable
+                {
+                    return _state == MessageInstance.DELETED_STATE;
+                }
+            });
+            when(_entry.compareTo(any(QueueEntry.class))).thenAnswer(new Answer<Integer>()
+            {
+                @Override
+                public Integer answer(final InvocationOnMock invocation) throws Throwable
+                {
+                    final Object other = invocation.getArguments()[0];
+                    for (TestEntry entry : _entries)
+                    {
+                        if (entry.getEntry() == other)
+                        {
+                            return Integer.compare(_position, entry._position);
+                        }
+                    }
+                    throw new IllegalArgumentException("Unknown entry " + other);
+                }
+            });
+            doAnswer(new Answer<Void>()
+            {
+                @Override
+                public Void answer(final InvocationOnMock invocation) throws Throwable
+                {
+                    _listeners.add((StateChangeListener<? super MessageInstance, EntryState>) invocation.getArguments()[0]);
+                    return null;
+                }
+            }).when(_entry).addStateChangeListener(any(StateChangeListener.class));
+            when(_entry.removeStateChangeListener(any(StateChangeListener.class))).thenAnswer(new Answer<Boolean>()
+            {
+                @Override
+                public Boolean answer(final InvocationOnMock invocation) throws Throwable
+                {
+                    return _listeners.remove(invocation.getArguments()[0]);
+                }
+            });
+            when(_entry.acquire(any(QueueConsumer.class))).thenAnswer(new Answer<Boolean>()
+            {
+                @Override
+                public Boolean answer(final InvocationOnMock invocation) throws Throwable
+                {
+                    if (_state != MessageInstance.AVAILABLE_STATE)
+                    {
+                        return false;
+                    }
+                    final QueueConsumer<?,?> consumer = (QueueConsumer<?,?>) invocation.getArguments()[0];
+                    changeState(new MessageInstance.StealableConsumerAcquiredState<>(consumer));
+                    return true;
+                }
+            });
+        }
+
+        QueueEntry getEntry()
+        {
+            return _entry;
+        }
+
+        Object getAcquiringConsumer()
+        {
+            return _state instanceof MessageInstance.ConsumerAcquiredState
+                    ? ((MessageInstance.ConsumerAcquiredState) _state).getConsumer()
+                    : null;
+        }
+
+        void release()
+        {
+            changeState(MessageInstance.AVAILABLE_STATE);
+        }
+
+        void delete()
+        {
+            changeState(MessageInstance.DELETED_STATE);
+        }
+
+        private void changeState(final EntryState newState)
+        {
+            final EntryState oldState = _state;
+            _state = newState;
+            for (StateChangeListener<? super MessageInstance, EntryState> listener : new ArrayList<>(_listeners))
+            {
+                listener.stateChanged(_entry, oldState, newState);
+            }
+        }
+    }
+}
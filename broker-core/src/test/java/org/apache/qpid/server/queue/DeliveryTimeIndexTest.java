@@ -0,0 +1,104 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.apache.qpid.server.queue;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.ScheduledFuture;
+
+import org.apache.qpid.server.virtualhost.QueueManagingVirtualHost;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class DeliveryTimeIndexTest extends QpidTestCase
+{
+    private QueueManagingVirtualHost<?> _virtualHost;
+    private DeliveryTimeIndex _index;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        _virtualHost = mock(QueueManagingVirtualHost.class);
+        when(_virtualHost.scheduleTask(anyLong(), any(Runnable.class))).thenReturn(mock(ScheduledFuture.class));
+        _index = new DeliveryTimeIndex(_virtualHost);
+        _index.start();
+    }
+
+    public void testDueEntriesReleased()
+    {
+        final long now = System.currentTimeMillis();
+        final QueueEntry dueEntry = createEntry();
+        final QueueEntry futureEntry = createEntry();
+
+        assertTrue(_index.delay(futureEntry, now + 60000L));
+        assertTrue(_index.delay(dueEntry, now - 1000L));
+        assertEquals("Unexpected number of delayed entries", 2, _index.size());
+
+        _index.releaseDueEntries();
+
+        verify(dueEntry).releaseDelayed();
+        verify(futureEntry, never()).releaseDelayed();
+        assertEquals("Unexpected number of delayed entries", 1, _index.size());
+    }
+
+    public void testReleaseScheduledForEarliestEntryOnly()
+    {
+        final long now = System.currentTimeMillis();
+
+        _index.delay(createEntry(), now + 60000L);
+        _index.delay(createEntry(), now + 30000L);
+        _index.delay(createEntry(), now + 90000L);
+
+        verify(_virtualHost, times(2)).scheduleTask(anyLong(), any(Runnable.class));
+    }
+
+    public void testEntryNotIndexedIfItCannotBeDelayed()
+    {
+        final QueueEntry entry = mock(QueueEntry.class);
+        when(entry.delayDelivery()).thenReturn(false);
+
+        assertFalse(_index.delay(entry, System.currentTimeMillis() + 60000L));
+        assertEquals("Unexpected number of delayed entries", 0, _index.size());
+    }
+
+    public void testReleaseAll()
+    {
+        final QueueEntry entry = createEntry();
+        _index.delay(entry, System.currentTimeMillis() + 60000L);
+
+        _index.releaseAll();
+
+        verify(entry).releaseDelayed();
+        assertEquals("Unexpected number of delayed entries", 0, _index.size());
+    }
+
+    private QueueEntry createEntry()
+    {
+        final QueueEntry entry = mock(QueueEntry.class);
+        when(entry.delayDelivery()).thenReturn(true);
+        return entry;
+    }
+}
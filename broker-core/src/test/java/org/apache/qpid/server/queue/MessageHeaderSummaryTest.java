@@ -0,0 +1,92 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.queue;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.qpid.server.message.AMQMessageHeader;
+import org.apache.qpid.server.message.ServerMessage;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class MessageHeaderSummaryTest extends QpidTestCase
+{
+    private ServerMessage<?> _message;
+    private AMQMessageHeader _header;
+    private Set<String> _retainedNames;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        _message = mock(ServerMessage.class);
+        _header = mock(AMQMessageHeader.class);
+        when(_message.getMessageHeader()).thenReturn(_header);
+        when(_header.getGroupId()).thenReturn("group");
+        when(_header.getPriority()).thenReturn((byte) 7);
+        when(_header.getExpiration()).thenReturn(1000L);
+        when(_header.getNotValidBefore()).thenReturn(500L);
+        when(_header.containsHeader("colour")).thenReturn(true);
+        when(_header.getHeader("colour")).thenReturn("red");
+        when(_header.containsHeader("size")).thenReturn(false);
+        _retainedNames = new HashSet<>(Arrays.asList("colour", "size"));
+    }
+
+    public void testRetainedValuesAnsweredWithoutMessageHeader()
+    {
+        MessageHeaderSummary summary = new MessageHeaderSummary(_message, _retainedNames);
+        reset(_message);
+
+        assertEquals("group", summary.getGroupId());
+        assertEquals(7, summary.getPriority());
+        assertEquals(1000L, summary.getExpiration());
+        assertEquals(500L, summary.getNotValidBefore());
+        assertEquals("red", summary.getHeader("colour"));
+        assertTrue(summary.containsHeader("colour"));
+        assertNull(summary.getHeader("size"));
+        assertFalse(summary.containsHeader("size"));
+        assertTrue(summary.containsHeaders(Collections.singleton("colour")));
+        assertFalse(summary.containsHeaders(_retainedNames));
+
+        verify(_message, never()).getMessageHeader();
+    }
+
+    public void testOtherValuesDelegatedToMessageHeader()
+    {
+        when(_header.getHeader("shape")).thenReturn("square");
+        when(_header.containsHeader("shape")).thenReturn(true);
+        when(_header.getMessageId()).thenReturn("id");
+
+        MessageHeaderSummary summary = new MessageHeaderSummary(_message, _retainedNames);
+
+        assertEquals("square", summary.getHeader("shape"));
+        assertTrue(summary.containsHeader("shape"));
+        assertEquals("id", summary.getMessageId());
+    }
+}
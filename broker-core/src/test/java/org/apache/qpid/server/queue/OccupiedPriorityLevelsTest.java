@@ -0,0 +1,88 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.queue;
+
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class OccupiedPriorityLevelsTest extends QpidTestCase
+{
+    public void testEmpty()
+    {
+        OccupiedPriorityLevels levels = new OccupiedPriorityLevels(256);
+
+        assertEquals(-1, levels.highestAtOrBelow(255));
+        assertEquals(-1, levels.lowestAtOrAbove(0));
+        assertEquals(-1, levels.highestAtOrBelow(-1));
+        assertEquals(-1, levels.lowestAtOrAbove(256));
+    }
+
+    public void testMarkedLevelsFoundAcrossWords()
+    {
+        OccupiedPriorityLevels levels = new OccupiedPriorityLevels(256);
+        levels.mark(0);
+        levels.mark(63);
+        levels.mark(64);
+        levels.mark(200);
+        levels.mark(255);
+
+        assertEquals(255, levels.highestAtOrBelow(255));
+        assertEquals(200, levels.highestAtOrBelow(254));
+        assertEquals(64, levels.highestAtOrBelow(199));
+        assertEquals(63, levels.highestAtOrBelow(63));
+        assertEquals(0, levels.highestAtOrBelow(62));
+
+        assertEquals(0, levels.lowestAtOrAbove(0));
+        assertEquals(63, levels.lowestAtOrAbove(1));
+        assertEquals(64, levels.lowestAtOrAbove(64));
+        assertEquals(200, levels.lowestAtOrAbove(65));
+        assertEquals(255, levels.lowestAtOrAbove(201));
+    }
+
+    public void testMarkIdempotent()
+    {
+        OccupiedPriorityLevels levels = new OccupiedPriorityLevels(10);
+        levels.mark(3);
+        levels.mark(7);
+        levels.mark(7);
+
+        assertTrue(levels.isMarked(7));
+        assertFalse(levels.isMarked(6));
+        assertEquals(7, levels.highestAtOrBelow(9));
+        assertEquals(3, levels.highestAtOrBelow(6));
+        assertEquals(-1, levels.lowestAtOrAbove(8));
+    }
+
+    public void testUnmark()
+    {
+        OccupiedPriorityLevels levels = new OccupiedPriorityLevels(10);
+        levels.mark(3);
+        levels.mark(7);
+        assertTrue(levels.isMarked(7));
+
+        levels.unmark(7);
+        levels.unmark(7);
+
+        assertFalse(levels.isMarked(7));
+        assertTrue(levels.isMarked(3));
+        assertEquals(3, levels.highestAtOrBelow(9));
+        assertEquals(-1, levels.lowestAtOrAbove(4));
+    }
+}
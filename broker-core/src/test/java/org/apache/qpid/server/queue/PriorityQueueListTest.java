@@ -28,6 +28,7 @@ import java.security.Principal;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
 
 import org.apache.qpid.server.configuration.updater.CurrentThreadTaskExecutor;
 import org.apache.qpid.server.configuration.updater.TaskExecutor;
@@ -159,10 +160,106 @@ public class PriorityQueueListTest extends QpidTestCase
                 1, _priority4message2.compareTo(_priority5message2));
     }
 
+    public void testIterationInPriorityOrder()
+    {
+        QueueEntryIterator iterator = _list.iterator();
+
+        assertTrue(iterator.advance());
+        assertEquals(_priority5message1, iterator.getNode());
+        assertTrue(iterator.advance());
+        assertEquals(_priority5message2, iterator.getNode());
+        assertTrue(iterator.advance());
+        assertEquals(_priority4message1, iterator.getNode());
+        assertTrue(iterator.advance());
+        assertEquals(_priority4message2, iterator.getNode());
+        assertFalse(iterator.advance());
+        assertTrue(iterator.atTail());
+
+        assertEquals("Unexpected next entry", _priority4message1, _list.next(_priority5message2));
+        assertNull("Unexpected next entry", _list.next(_priority4message2));
+    }
+
+    public void testNextSkipsEmptiedLevel()
+    {
+        assertTrue(_priority5message1.acquire());
+        _priority5message1.delete();
+        assertTrue(_priority5message2.acquire());
+        _priority5message2.delete();
+
+        assertEquals("Unexpected first entry", _priority4message1, _list.next(_list.getHead()));
+
+        QueueEntryIterator iterator = _list.iterator();
+        assertTrue(iterator.advance());
+        assertEquals(_priority4message1, iterator.getNode());
+    }
+
+    public void testScansSkipDrainedLevel()
+    {
+        final PriorityQueueList.PriorityQueueMasterList list = (PriorityQueueList.PriorityQueueMasterList) _list;
+        assertTrue(_priority5message1.acquire());
+        _priority5message1.delete();
+        assertTrue(_priority5message2.acquire());
+        _priority5message2.delete();
+
+        assertTrue("Level unmarked before being scanned", list.isLevelOccupied(5));
+
+        assertEquals("Unexpected first entry", _priority4message1, _list.next(_list.getHead()));
+
+        assertFalse("Drained level still marked after scan", list.isLevelOccupied(5));
+        assertTrue("Occupied level unmarked", list.isLevelOccupied(4));
+        assertEquals("Unexpected oldest entry", _priority4message1, _list.getOldestEntry());
+
+        final QueueEntry newEntry = _list.add(createMessage((byte) 5), null);
+
+        assertTrue("Level not marked on add", list.isLevelOccupied(5));
+        assertEquals("Unexpected first entry", newEntry, _list.next(_list.getHead()));
+    }
+
+    public void testLevelLeftMarkedWhenAddConcurrentWithEmptyLevelScan() throws Exception
+    {
+        final PriorityQueueList.PriorityQueueMasterList list = (PriorityQueueList.PriorityQueueMasterList) _list;
+        assertTrue(_priority5message1.acquire());
+        _priority5message1.delete();
+        assertTrue(_priority5message2.acquire());
+        _priority5message2.delete();
+
+        // scans find the priority 5 level empty, and unmark it, whilst entries are added to it
+        final ServerMessage<?> message = createMessage((byte) 5);
+        for (int i = 0; i < 1000; i++)
+        {
+            final CountDownLatch started = new CountDownLatch(1);
+            final Thread scanner = new Thread(() ->
+            {
+                started.countDown();
+                for (int j = 0; j < 100; j++)
+                {
+                    _list.next(_list.getHead());
+                    _list.getLeastSignificantOldestEntry();
+                }
+            });
+            scanner.start();
+            started.await();
+            final QueueEntry entry = _list.add(message, null);
+            scanner.join();
+
+            assertTrue("Occupied level left unmarked", list.isLevelOccupied(5));
+            assertEquals("Added entry hidden from scan", entry, _list.next(_list.getHead()));
+            assertTrue(entry.acquire());
+            entry.delete();
+        }
+    }
+
     public void testGetLeastSignificantOldestEntry()
     {
         assertEquals("Unexpected last entry", _priority4message1, _list.getLeastSignificantOldestEntry());
 
+        QueueEntry newEntry = _list.add(createMessage((byte)3), null);
+
+        assertEquals("Unexpected last entry", newEntry, _list.getLeastSignificantOldestEntry());
+    }
+
+    private ServerMessage<?> createMessage(final byte priority)
+    {
         ServerMessage<?> message = mock(ServerMessage.class);
         AMQMessageHeader header = mock(AMQMessageHeader.class);
         @SuppressWarnings({ "rawtypes", "unchecked" })
@@ -172,10 +269,7 @@ public class PriorityQueueListTest extends QpidTestCase
         when(message.newReference()).thenReturn(ref);
         when(message.newReference(any(TransactionLogResource.class))).thenReturn(ref);
         when(ref.getMessage()).thenReturn(message);
-        when(header.getPriority()).thenReturn((byte)3);
-
-        QueueEntry newEntry = _list.add(message, null);
-
-        assertEquals("Unexpected last entry", newEntry, _list.getLeastSignificantOldestEntry());
+        when(header.getPriority()).thenReturn(priority);
+        return message;
     }
 }
@@ -26,7 +26,9 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.security.Principal;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
@@ -174,6 +176,48 @@ public class StandardQueueEntryListTest extends QueueEntryListTestBase
         verifyAllDeletedMessagedNotPresent(head, entriesMap);
     }
     
+    public void testDeleteEntriesScavengesOnceForBatch() throws Exception
+    {
+        StandardQueueImpl mockQueue = mock(StandardQueueImpl.class);
+        when(mockQueue.getContextValue(Integer.class, QUEUE_SCAVANGE_COUNT)).thenReturn(9);
+        QueueStatistics queueStatistics = new QueueStatistics();
+        OrderedQueueEntryList sqel = new StandardQueueEntryList(mockQueue, queueStatistics);
+        ConcurrentMap<Integer,QueueEntry> entriesMap = new ConcurrentHashMap<Integer,QueueEntry>();
+
+        for(int i = 1; i <= 100 ; i++)
+        {
+            entriesMap.put(i, sqel.add(createServerMessage(i), null));
+        }
+
+        OrderedQueueEntry head = (OrderedQueueEntry) sqel.getHead();
+
+        //Delete messages 12 to 14 together, which is below the scavenge threshold of 9 deletes
+        assertEquals("Unexpected number of deleted entries", 3, sqel.deleteEntries(acquire(entriesMap, 12, 14)));
+        verifyDeletedButPresentBeforeScavenge(head, 12);
+        verifyDeletedButPresentBeforeScavenge(head, 13);
+        verifyDeletedButPresentBeforeScavenge(head, 14);
+
+        //Delete messages 81 to 87 together, taking the deletions after the queue head past the threshold
+        assertEquals("Unexpected number of deleted entries", 7, sqel.deleteEntries(acquire(entriesMap, 81, 87)));
+
+        verifyAllDeletedMessagedNotPresent(head, entriesMap);
+        assertEquals("Unexpected queue count", 90, queueStatistics.getQueueCount());
+        assertEquals("Unexpected dequeue count", 10, queueStatistics.getDequeueCount());
+        assertEquals("Unexpected available count", 90, queueStatistics.getAvailableCount());
+    }
+
+    private List<QueueEntryImpl> acquire(Map<Integer,QueueEntry> entriesMap, int first, int last)
+    {
+        List<QueueEntryImpl> entries = new ArrayList<>();
+        for (int pos = first; pos <= last; pos++)
+        {
+            QueueEntry entry = entriesMap.remove(pos);
+            assertTrue("Failed to acquire QueueEntry", entry.acquire());
+            entries.add((QueueEntryImpl) entry);
+        }
+        return entries;
+    }
+
     private boolean remove(Map<Integer,QueueEntry> entriesMap, int pos)
     {
         QueueEntry entry = entriesMap.remove(pos);
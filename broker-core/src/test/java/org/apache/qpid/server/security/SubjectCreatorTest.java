@@ -18,7 +18,9 @@
  */
 package org.apache.qpid.server.security;
 
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -26,10 +28,14 @@ import java.security.Principal;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.security.auth.Subject;
 
+import com.google.common.util.concurrent.ListenableFuture;
 import org.mockito.ArgumentCaptor;
 
 import org.apache.qpid.server.logging.EventLogger;
@@ -119,6 +125,42 @@ public class SubjectCreatorTest extends QpidTestCase
         }
     }
 
+    public void testAuthenticateAsync() throws Exception
+    {
+        when(_testSaslNegotiator.handleResponse(_saslResponseBytes)).thenReturn(_authenticationResult);
+        final List<Runnable> tasks = new CopyOnWriteArrayList<>();
+
+        ListenableFuture<SubjectAuthenticationResult> future =
+                _subjectCreator.authenticateAsync(_testSaslNegotiator, _saslResponseBytes, tasks::add);
+
+        assertFalse("Authentication unexpectedly performed before being run by the executor", future.isDone());
+        assertEquals("Unexpected number of tasks", 1, tasks.size());
+        verify(_authenticationProvider).incrementAuthenticationQueueLength();
+        verify(_authenticationProvider, never()).registerAuthentication(anyLong());
+
+        tasks.get(0).run();
+
+        assertTrue("Authentication not complete", future.isDone());
+        assertSame(AuthenticationStatus.SUCCESS, future.get().getStatus());
+        verify(_authenticationProvider).decrementAuthenticationQueueLength();
+        verify(_authenticationProvider).registerAuthentication(anyLong());
+    }
+
+    public void testAuthenticateAsyncPerformedByCallerWhenRejected() throws Exception
+    {
+        when(_testSaslNegotiator.handleResponse(_saslResponseBytes)).thenReturn(_authenticationResult);
+
+        ListenableFuture<SubjectAuthenticationResult> future =
+                _subjectCreator.authenticateAsync(_testSaslNegotiator, _saslResponseBytes, task ->
+                {
+                    throw new RejectedExecutionException();
+                });
+
+        assertTrue("Authentication not complete", future.isDone());
+        assertSame(AuthenticationStatus.SUCCESS, future.get().getStatus());
+        verify(_authenticationProvider).decrementAuthenticationQueueLength();
+    }
+
     public void testGetGroupPrincipals()
     {
         getAndAssertGroupPrincipals(_group1, _group2);
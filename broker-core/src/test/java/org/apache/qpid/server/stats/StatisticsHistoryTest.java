@@ -0,0 +1,166 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package org.apache.qpid.server.stats;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.qpid.server.model.ConfiguredObject;
+import org.apache.qpid.server.model.ConfiguredObjectStatistic;
+import org.apache.qpid.server.model.ConfiguredObjectTypeRegistry;
+import org.apache.qpid.server.model.Model;
+import org.apache.qpid.server.model.Queue;
+import org.apache.qpid.server.model.StatisticType;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class StatisticsHistoryTest extends QpidTestCase
+{
+    private static final String COUNTER = "counter";
+    private static final String GAUGE = "gauge";
+    private static final String LABEL = "label";
+
+    private final AtomicLong _counter = new AtomicLong();
+    private final AtomicLong _gauge = new AtomicLong();
+    private ConfiguredObject<?> _object;
+    private StatisticsHistory _history;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        _object = mock(Queue.class);
+        ConfiguredObjectStatistic counter = createStatistic(COUNTER, Long.class, StatisticType.CUMULATIVE);
+        when(counter.getValue(_object)).thenAnswer(invocation -> _counter.get());
+        ConfiguredObjectStatistic gauge = createStatistic(GAUGE, Integer.TYPE, StatisticType.POINT_IN_TIME);
+        when(gauge.getValue(_object)).thenAnswer(invocation -> (int) _gauge.get());
+        ConfiguredObjectStatistic label = createStatistic(LABEL, String.class, StatisticType.POINT_IN_TIME);
+
+        ConfiguredObjectTypeRegistry typeRegistry = mock(ConfiguredObjectTypeRegistry.class);
+        doReturn(Arrays.asList(label, gauge, counter)).when(typeRegistry).getStatistics(Queue.class);
+        Model model = mock(Model.class);
+        when(model.getTypeRegistry()).thenReturn(typeRegistry);
+        when(_object.getModel()).thenReturn(model);
+        doReturn(Queue.class).when(_object).getTypeClass();
+
+        _history = new StatisticsHistory(4, 3);
+    }
+
+    public void testOnlyIntegralStatisticsSampled()
+    {
+        _history.record(_object, 1000L);
+
+        StatisticsHistory.ObjectHistory objectHistory = _history.getHistory(_object);
+        assertNotNull("History not created", objectHistory);
+        assertEquals(Arrays.asList(COUNTER, GAUGE), objectHistory.getStatisticNames());
+        assertEquals(StatisticType.CUMULATIVE, objectHistory.getStatisticType(COUNTER));
+        assertNull(objectHistory.getSamples(LABEL, StatisticsHistory.Resolution.SECOND, 0L));
+    }
+
+    public void testSecondResolutionIsBounded()
+    {
+        for (int i = 1; i <= 6; i++)
+        {
+            _counter.set(i * 10L);
+            _history.record(_object, i * 1000L);
+        }
+
+        StatisticsHistory.Samples samples =
+                _history.getHistory(_object).getSamples(COUNTER, StatisticsHistory.Resolution.SECOND, Long.MIN_VALUE);
+        assertEquals(4, samples.size());
+        assertTrue(Arrays.equals(new long[]{3000L, 4000L, 5000L, 6000L}, samples.getTimestamps()));
+        assertTrue(Arrays.equals(new long[]{30L, 40L, 50L, 60L}, samples.getValues()));
+
+        samples = _history.getHistory(_object).getSamples(COUNTER, StatisticsHistory.Resolution.SECOND, 5000L);
+        assertTrue(Arrays.equals(new long[]{50L, 60L}, samples.getValues()));
+    }
+
+    public void testMinuteResolutionKeepsFirstSampleOfEachMinute()
+    {
+        long[] timestamps = {0L, 30000L, 60000L, 61000L, 120000L, 180000L};
+        for (int i = 0; i < timestamps.length; i++)
+        {
+            _gauge.set(i);
+            _history.record(_object, timestamps[i]);
+        }
+
+        StatisticsHistory.Samples samples =
+                _history.getHistory(_object).getSamples(GAUGE, StatisticsHistory.Resolution.MINUTE, Long.MIN_VALUE);
+        assertTrue(Arrays.equals(new long[]{60000L, 120000L, 180000L}, samples.getTimestamps()));
+        assertTrue(Arrays.equals(new long[]{2L, 4L, 5L}, samples.getValues()));
+    }
+
+    public void testRates()
+    {
+        long[] values = {0L, 10L, 30L, 60L};
+        for (int i = 0; i < values.length; i++)
+        {
+            _counter.set(values[i]);
+            _history.record(_object, i * 1000L);
+        }
+
+        StatisticsHistory.Samples samples =
+                _history.getHistory(_object).getSamples(COUNTER, StatisticsHistory.Resolution.SECOND, Long.MIN_VALUE);
+        assertEquals(20d, samples.getRatePerSecond(), 0.001);
+        double[] intervalRates = samples.getIntervalRates();
+        assertTrue(Arrays.equals(new double[]{10d, 20d, 30d}, intervalRates));
+        assertEquals(30d, StatisticsHistory.Samples.percentile(intervalRates, 95d), 0.001);
+        assertEquals(20d, StatisticsHistory.Samples.percentile(intervalRates, 50d), 0.001);
+    }
+
+    public void testRateUndefinedForSingleSample()
+    {
+        _history.record(_object, 1000L);
+
+        StatisticsHistory.Samples samples =
+                _history.getHistory(_object).getSamples(COUNTER, StatisticsHistory.Resolution.SECOND, Long.MIN_VALUE);
+        assertTrue(Double.isNaN(samples.getRatePerSecond()));
+        assertEquals(0, samples.getIntervalRates().length);
+        assertTrue(Double.isNaN(StatisticsHistory.Samples.percentile(samples.getIntervalRates(), 50d)));
+    }
+
+    public void testPurge()
+    {
+        _history.record(_object, 1000L);
+        _history.purgeNotRecordedSince(1000L);
+        assertNotNull(_history.getHistory(_object));
+
+        _history.purgeNotRecordedSince(2000L);
+        assertNull(_history.getHistory(_object));
+        assertEquals(Collections.emptyList(), Arrays.asList(_history.getHistories().toArray()));
+    }
+
+    private ConfiguredObjectStatistic createStatistic(final String name,
+                                                      final Class<?> type,
+                                                      final StatisticType statisticType)
+    {
+        ConfiguredObjectStatistic statistic = mock(ConfiguredObjectStatistic.class);
+        when(statistic.getName()).thenReturn(name);
+        doReturn(type).when(statistic).getType();
+        when(statistic.getStatisticType()).thenReturn(statisticType);
+        return statistic;
+    }
+}
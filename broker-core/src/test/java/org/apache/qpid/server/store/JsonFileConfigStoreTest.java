@@ -29,6 +29,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.File;
+import java.nio.file.Files;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -42,6 +43,7 @@ import org.apache.qpid.server.model.ConfiguredObject;
 import org.apache.qpid.server.model.ConfiguredObjectFactory;
 import org.apache.qpid.server.model.ConfiguredObjectFactoryImpl;
 import org.apache.qpid.server.model.Queue;
+import org.apache.qpid.server.model.SystemConfig;
 import org.apache.qpid.server.model.VirtualHost;
 import org.apache.qpid.server.store.handler.ConfiguredObjectRecordHandler;
 import org.apache.qpid.server.util.ServerScopedRuntimeException;
@@ -428,6 +430,83 @@ public class JsonFileConfigStoreTest extends QpidTestCase
 
     }
 
+    public void testJournalReplayedAfterUncleanShutdown() throws Exception
+    {
+        when(_parent.getContextValue(Boolean.class, SystemConfig.JSON_CONFIG_STORE_JOURNAL_ENABLED)).thenReturn(true);
+        _store.init(_parent);
+        _store.openConfigurationStore(mock(ConfiguredObjectRecordHandler.class));
+        createRootRecord();
+
+        final UUID queueId = new UUID(0, 1);
+        final Map<String, Object> queueAttr = Collections.<String, Object>singletonMap(ConfiguredObject.NAME, "queue");
+        _store.create(new ConfiguredObjectRecordImpl(queueId, "Queue", queueAttr, getRootAsParentMap()));
+
+        File configFile = new File(_storeLocation, _parent.getName() + ".json");
+        File journalFile = new File(_storeLocation, _parent.getName() + ".json" + JsonFileConfigStore.JOURNAL_SUFFIX);
+        assertTrue("Journal should exist", journalFile.exists());
+        assertFalse("Change should not be written to the configuration file",
+                    new String(Files.readAllBytes(configFile.toPath())).contains("queue"));
+
+        // simulate a crash by opening a copy of the files as left on disk
+        File copyLocation = TestFileUtils.createTestDirectory("json", true);
+        try
+        {
+            Files.copy(configFile.toPath(), new File(copyLocation, configFile.getName()).toPath());
+            Files.copy(journalFile.toPath(), new File(copyLocation, journalFile.getName()).toPath());
+            when(_parent.getStorePath()).thenReturn(copyLocation.getAbsolutePath());
+
+            JsonFileConfigStore recoveredStore = new JsonFileConfigStore(VirtualHost.class);
+            recoveredStore.init(_parent);
+            recoveredStore.openConfigurationStore(_handler);
+            verify(_handler).handle(matchesRecord(queueId, "Queue", queueAttr));
+            verify(_handler).handle(matchesRecord(_rootRecord.getId(), VIRTUAL_HOST_TYPE, _rootRecord.getAttributes()));
+            recoveredStore.closeConfigurationStore();
+
+            assertFalse("Journal should be compacted after recovery",
+                        new File(copyLocation, journalFile.getName()).exists());
+        }
+        finally
+        {
+            FileUtils.delete(copyLocation, true);
+        }
+
+        _store.closeConfigurationStore();
+    }
+
+    public void testJournalCompaction() throws Exception
+    {
+        when(_parent.getContextValue(Boolean.class, SystemConfig.JSON_CONFIG_STORE_JOURNAL_ENABLED)).thenReturn(true);
+        when(_parent.getContextValue(Integer.class, SystemConfig.JSON_CONFIG_STORE_JOURNAL_COMPACTION_THRESHOLD)).thenReturn(2);
+        _store.init(_parent);
+        _store.openConfigurationStore(mock(ConfiguredObjectRecordHandler.class));
+        createRootRecord();
+
+        final UUID queueId = new UUID(0, 1);
+        final Map<String, Object> queueAttr = Collections.<String, Object>singletonMap(ConfiguredObject.NAME, "queue");
+        final ConfiguredObjectRecordImpl queueRecord =
+                new ConfiguredObjectRecordImpl(queueId, "Queue", queueAttr, getRootAsParentMap());
+        _store.create(queueRecord);
+
+        final UUID exchangeId = new UUID(0, 2);
+        final Map<String, Object> exchangeAttr = Collections.<String, Object>singletonMap(ConfiguredObject.NAME, "exchange");
+        _store.create(new ConfiguredObjectRecordImpl(exchangeId, "Exchange", exchangeAttr, getRootAsParentMap()));
+        _store.remove(queueRecord);
+        _store.closeConfigurationStore();
+
+        assertFalse("Journal should not exist after close",
+                    new File(_storeLocation, _parent.getName() + ".json" + JsonFileConfigStore.JOURNAL_SUFFIX).exists());
+        assertFalse("Compacting journal should not exist after close",
+                    new File(_storeLocation,
+                             _parent.getName() + ".json" + JsonFileConfigStore.COMPACTING_JOURNAL_SUFFIX).exists());
+
+        when(_parent.getContextValue(Boolean.class, SystemConfig.JSON_CONFIG_STORE_JOURNAL_ENABLED)).thenReturn(false);
+        _store.init(_parent);
+        _store.openConfigurationStore(_handler);
+        verify(_handler).handle(matchesRecord(exchangeId, "Exchange", exchangeAttr));
+        verify(_handler, times(0)).handle(matchesRecord(queueId, "Queue", queueAttr));
+        verify(_handler, times(2)).handle(any(ConfiguredObjectRecord.class));
+        _store.closeConfigurationStore();
+    }
 
     private void createRootRecord()
     {
@@ -22,7 +22,9 @@ import static org.mockito.Mockito.*;
 
 import java.util.Collections;
 
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import org.mockito.ArgumentCaptor;
 
 import org.apache.qpid.server.message.EnqueueableMessage;
 import org.apache.qpid.server.queue.BaseQueue;
@@ -139,4 +141,76 @@ public class AsyncAutoCommitTransactionTest extends QpidTestCase
         verify(_futureRecorder).recordFuture(any(ListenableFuture.class), any(Action.class));
         verifyZeroInteractions(_postTransactionAction);
     }
+
+    public void testPersistentEnqueuesWhilstBatchOpenShareStoreTransaction() throws Exception
+    {
+        when(_message.isPersistent()).thenReturn(true);
+        when(_storeTransaction.commitTranAsync((Void) null)).thenReturn(Futures.<Void>immediateFuture(null));
+
+        EnqueueBatch batch = new EnqueueBatch(10, 60000L);
+        AsyncAutoCommitTransaction asyncAutoCommitTransaction =
+                new AsyncAutoCommitTransaction(_messageStore, _futureRecorder, batch);
+
+        batch.open();
+        asyncAutoCommitTransaction.enqueue(_queue, _message, _postTransactionAction);
+        asyncAutoCommitTransaction.enqueue(Collections.singletonList(_queue), _message, _postTransactionAction);
+
+        ArgumentCaptor<ListenableFuture> futureCaptor = ArgumentCaptor.forClass(ListenableFuture.class);
+        verify(_futureRecorder, times(2)).recordFuture(futureCaptor.capture(), any(Action.class));
+        verify(_messageStore, times(1)).newTransaction();
+        verify(_storeTransaction, times(2)).enqueueMessage(_queue, _message);
+        verify(_storeTransaction, never()).commitTranAsync((Void) null);
+        assertSame("Enqueues should share the batch future",
+                   futureCaptor.getAllValues().get(0), futureCaptor.getAllValues().get(1));
+        assertFalse("Batch future should not be complete before commit", futureCaptor.getValue().isDone());
+
+        batch.close();
+
+        verify(_storeTransaction, times(1)).commitTranAsync((Void) null);
+        assertTrue("Batch future should be complete after commit", futureCaptor.getValue().isDone());
+
+        asyncAutoCommitTransaction.enqueue(_queue, _message, _postTransactionAction);
+        verify(_messageStore, times(2)).newTransaction();
+        verify(_storeTransaction, times(2)).commitTranAsync((Void) null);
+    }
+
+    public void testBatchCommittedWhenFull() throws Exception
+    {
+        when(_message.isPersistent()).thenReturn(true);
+        when(_storeTransaction.commitTranAsync((Void) null)).thenReturn(Futures.<Void>immediateFuture(null));
+
+        EnqueueBatch batch = new EnqueueBatch(2, 60000L);
+        AsyncAutoCommitTransaction asyncAutoCommitTransaction =
+                new AsyncAutoCommitTransaction(_messageStore, _futureRecorder, batch);
+
+        batch.open();
+        asyncAutoCommitTransaction.enqueue(_queue, _message, _postTransactionAction);
+        verify(_storeTransaction, never()).commitTranAsync((Void) null);
+
+        asyncAutoCommitTransaction.enqueue(_queue, _message, _postTransactionAction);
+        verify(_storeTransaction, times(1)).commitTranAsync((Void) null);
+
+        asyncAutoCommitTransaction.enqueue(_queue, _message, _postTransactionAction);
+        verify(_messageStore, times(2)).newTransaction();
+    }
+
+    public void testBatchCommittedWhenFutureAwaited() throws Exception
+    {
+        when(_message.isPersistent()).thenReturn(true);
+        when(_storeTransaction.commitTranAsync((Void) null)).thenReturn(Futures.<Void>immediateFuture(null));
+
+        EnqueueBatch batch = new EnqueueBatch(10, 60000L);
+        AsyncAutoCommitTransaction asyncAutoCommitTransaction =
+                new AsyncAutoCommitTransaction(_messageStore, _futureRecorder, batch);
+
+        batch.open();
+        asyncAutoCommitTransaction.enqueue(_queue, _message, _postTransactionAction);
+
+        ArgumentCaptor<ListenableFuture> futureCaptor = ArgumentCaptor.forClass(ListenableFuture.class);
+        verify(_futureRecorder).recordFuture(futureCaptor.capture(), any(Action.class));
+
+        futureCaptor.getValue().get();
+
+        verify(_storeTransaction, times(1)).commitTranAsync((Void) null);
+    }
 }
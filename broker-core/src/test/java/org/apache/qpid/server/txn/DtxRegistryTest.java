@@ -0,0 +1,265 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.txn;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+import org.apache.qpid.server.store.MessageStore;
+import org.apache.qpid.server.store.NullMessageStore;
+import org.apache.qpid.server.store.StoreException;
+import org.apache.qpid.server.store.Transaction;
+import org.apache.qpid.server.virtualhost.QueueManagingVirtualHost;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class DtxRegistryTest extends QpidTestCase
+{
+    private final List<TestTransaction> _transactions = new CopyOnWriteArrayList<>();
+    private final List<ListenableFuture<Void>> _recordedFutures = new CopyOnWriteArrayList<>();
+    private final List<ServerTransaction.Action> _recordedActions = new CopyOnWriteArrayList<>();
+    private volatile boolean _commitImmediately;
+    private DtxRegistry _registry;
+    private AsyncAutoCommitTransaction.FutureRecorder _futureRecorder;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        final MessageStore store = new NullMessageStore()
+        {
+            @Override
+            public Transaction newTransaction()
+            {
+                final TestTransaction transaction = new TestTransaction(_commitImmediately);
+                _transactions.add(transaction);
+                return transaction;
+            }
+        };
+        final QueueManagingVirtualHost<?> virtualHost = mock(QueueManagingVirtualHost.class);
+        when(virtualHost.getMessageStore()).thenReturn(store);
+        _registry = new DtxRegistry(virtualHost);
+        _futureRecorder = new AsyncAutoCommitTransaction.FutureRecorder()
+        {
+            @Override
+            public void recordFuture(final ListenableFuture<Void> future, final ServerTransaction.Action action)
+            {
+                _recordedFutures.add(future);
+                _recordedActions.add(action);
+            }
+        };
+    }
+
+    public void testBranchPreparedOnceDurable() throws Exception
+    {
+        final Xid xid = createBranch(1);
+        final ServerTransaction.Action completionAction = mock(ServerTransaction.Action.class);
+
+        _registry.prepare(xid, _futureRecorder, completionAction);
+
+        assertEquals(DtxBranch.State.PREPARING, _registry.getBranch(xid).getState());
+        assertEquals("Branch recovered before prepare durable", Collections.emptyList(), _registry.recover());
+        try
+        {
+            _registry.commit(xid, false, _futureRecorder, mock(ServerTransaction.Action.class));
+            fail("Exception not thrown");
+        }
+        catch (IncorrectDtxStateException e)
+        {
+            // pass
+        }
+
+        getXidTransaction().completeCommit();
+
+        assertEquals(DtxBranch.State.PREPARED, _registry.getBranch(xid).getState());
+        assertEquals(Collections.singletonList(xid), _registry.recover());
+
+        completeRecordedActions();
+        verify(completionAction).postCommit();
+    }
+
+    public void testRecoverDuringPrepare() throws Exception
+    {
+        final Xid preparedXid = createBranch(1);
+        _registry.prepare(preparedXid, _futureRecorder, mock(ServerTransaction.Action.class));
+        getXidTransaction().completeCommit();
+
+        final Xid preparingXid = createBranch(2);
+        _registry.prepare(preparingXid, _futureRecorder, mock(ServerTransaction.Action.class));
+
+        assertEquals("Branch being prepared unexpectedly recovered",
+                     Collections.singletonList(preparedXid), _registry.recover());
+        try
+        {
+            _registry.rollback(preparingXid);
+            fail("Exception not thrown");
+        }
+        catch (IncorrectDtxStateException e)
+        {
+            // pass
+        }
+
+        getXidTransaction().completeCommit();
+
+        assertEquals(2, _registry.recover().size());
+    }
+
+    public void testStoreFailureDuringPrepare() throws Exception
+    {
+        final Xid xid = createBranch(1);
+        final ServerTransaction.Action completionAction = mock(ServerTransaction.Action.class);
+        _registry.prepare(xid, _futureRecorder, completionAction);
+        final TestTransaction branchTransaction = _transactions.get(_transactions.size() - 1);
+
+        getXidTransaction().failCommit(new StoreException("Test store failure"));
+
+        assertEquals(DtxBranch.State.ROLLBACK_ONLY, _registry.getBranch(xid).getState());
+        assertEquals("Failed branch unexpectedly recovered", Collections.emptyList(), _registry.recover());
+        verify(completionAction, never()).postCommit();
+
+        _registry.rollback(xid);
+
+        assertNull("Branch not removed on rollback", _registry.getBranch(xid));
+        assertEquals(MockStoreTransaction.TransactionState.ABORTED, branchTransaction.getState());
+    }
+
+    public void testConcurrentOperationsOnSeparateBranches() throws Exception
+    {
+        _commitImmediately = true;
+        final Xid prepareXid = createBranch(1);
+        final Xid commitXid = createBranch(2);
+        final Xid rollbackXid = createBranch(3);
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Throwable> failures = new CopyOnWriteArrayList<>();
+        final List<Thread> threads = new ArrayList<>();
+        threads.add(createThread(start, failures, () ->
+                _registry.prepare(prepareXid, _futureRecorder, mock(ServerTransaction.Action.class))));
+        threads.add(createThread(start, failures, () ->
+                _registry.commit(commitXid, true, _futureRecorder, mock(ServerTransaction.Action.class))));
+        threads.add(createThread(start, failures, () -> _registry.rollback(rollbackXid)));
+        for (Thread thread : threads)
+        {
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads)
+        {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+            assertFalse("Thread did not complete", thread.isAlive());
+        }
+
+        assertEquals("Unexpected failures", Collections.emptyList(), failures);
+        completeRecordedActions();
+        assertEquals(DtxBranch.State.PREPARED, _registry.getBranch(prepareXid).getState());
+        assertNull("Committed branch not removed", _registry.getBranch(commitXid));
+        assertNull("Rolled back branch not removed", _registry.getBranch(rollbackXid));
+        assertEquals(Collections.singletonList(prepareXid), _registry.recover());
+    }
+
+    private Xid createBranch(final int id)
+    {
+        final Xid xid = new Xid(1L, new byte[]{(byte) id}, new byte[]{(byte) id});
+        assertTrue("Branch not registered", _registry.registerBranch(new DtxBranch(xid, _registry)));
+        return xid;
+    }
+
+    /** The transaction recording the xid of the last branch prepared, which is created before its store transaction */
+    private TestTransaction getXidTransaction()
+    {
+        return _transactions.get(_transactions.size() - 2);
+    }
+
+    private void completeRecordedActions() throws Exception
+    {
+        for (int i = 0; i < _recordedFutures.size(); i++)
+        {
+            _recordedFutures.get(i).get();
+            _recordedActions.get(i).postCommit();
+        }
+        _recordedFutures.clear();
+        _recordedActions.clear();
+    }
+
+    private Thread createThread(final CountDownLatch start, final List<Throwable> failures, final DtxOperation operation)
+    {
+        return new Thread(() ->
+        {
+            try
+            {
+                start.await();
+                operation.perform();
+            }
+            catch (Throwable e)
+            {
+                failures.add(e);
+            }
+        });
+    }
+
+    private interface DtxOperation
+    {
+        void perform() throws Exception;
+    }
+
+    private static class TestTransaction extends MockStoreTransaction
+    {
+        private final SettableFuture<Object> _commitFuture = SettableFuture.create();
+
+        TestTransaction(final boolean commitImmediately)
+        {
+            super(false);
+            if (commitImmediately)
+            {
+                _commitFuture.set(null);
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <X> ListenableFuture<X> commitTranAsync(final X val)
+        {
+            // the prepare and commit futures carry no value
+            return (ListenableFuture<X>) (ListenableFuture<?>) _commitFuture;
+        }
+
+        void completeCommit()
+        {
+            _commitFuture.set(null);
+        }
+
+        void failCommit(final Throwable t)
+        {
+            _commitFuture.setException(t);
+        }
+    }
+}
@@ -29,6 +29,9 @@ import static org.mockito.Mockito.when;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.google.common.util.concurrent.ListenableFuture;
 
 import org.apache.qpid.server.message.MessageInstance;
 import org.apache.qpid.server.message.ServerMessage;
@@ -417,6 +420,41 @@ public class LocalTransactionTest extends QpidTestCase
         assertEquals("Unexpected transaction state", TransactionState.COMMITTED, _storeTransaction.getState());
         assertTrue("Post commit action must be fired", _action1.isPostCommitActionFired());
     }
+
+    /**
+     * Tests the dequeuing of a message with an asynchronous commit.  Test ensures that the returned future completes
+     * with the store transaction and that the post commit action and deferred task are only run on sync.
+     */
+    public void testCommitAsyncWork() throws Exception
+    {
+        final AtomicBoolean deferredRun = new AtomicBoolean();
+
+        _transaction.dequeue(mock(MessageEnqueueRecord.class), _action1);
+        ListenableFuture<Void> future = _transaction.commitAsync(() -> deferredRun.set(true));
+
+        assertTrue("Commit future must be done", future.isDone());
+        assertFalse("Post commit action must not be fired before sync", _action1.isPostCommitActionFired());
+        assertFalse("Deferred task must not be run before sync", deferredRun.get());
+
+        _transaction.sync();
+
+        assertTrue("Post commit action must be fired", _action1.isPostCommitActionFired());
+        assertTrue("Deferred task must be run", deferredRun.get());
+    }
+
+    /**
+     * Tests an asynchronous commit without work.  The deferred task is run immediately.
+     */
+    public void testCommitAsyncNoWork() throws Exception
+    {
+        final AtomicBoolean deferredRun = new AtomicBoolean();
+
+        ListenableFuture<Void> future = _transaction.commitAsync(() -> deferredRun.set(true));
+
+        assertTrue("Commit future must be done", future.isDone());
+        assertTrue("Deferred task must be run", deferredRun.get());
+        assertEquals("Unexpected transaction state", TransactionState.NOT_STARTED, _storeTransaction.getState());
+    }
     
     /** 
      * Tests the dequeuing of a message with a rollback.  Test ensures that the underlying store transaction is 
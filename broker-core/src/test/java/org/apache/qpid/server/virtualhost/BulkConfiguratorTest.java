@@ -0,0 +1,163 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.virtualhost;
+
+import static org.mockito.Matchers.anyVararg;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import org.apache.qpid.server.configuration.store.StoreConfigurationChangeListener;
+import org.apache.qpid.server.model.BrokerTestHelper;
+import org.apache.qpid.server.model.ConfiguredObject;
+import org.apache.qpid.server.model.Queue;
+import org.apache.qpid.server.store.ConfiguredObjectRecord;
+import org.apache.qpid.server.store.DurableConfigurationStore;
+import org.apache.qpid.server.store.StoreException;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class BulkConfiguratorTest extends QpidTestCase
+{
+    private QueueManagingVirtualHost<?> _virtualHost;
+    private DurableConfigurationStore _store;
+    private List<List<Object>> _createdRecordNames;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        BrokerTestHelper.setUp();
+        _virtualHost = BrokerTestHelper.createVirtualHost(getTestName());
+
+        _store = mock(DurableConfigurationStore.class);
+        _createdRecordNames = new ArrayList<>();
+        doAnswer(new Answer<Void>()
+        {
+            @Override
+            public Void answer(final InvocationOnMock invocation) throws Throwable
+            {
+                final Object[] arguments = invocation.getArguments();
+                final List<Object> names = new ArrayList<>();
+                for (int i = 1; i < arguments.length; i++)
+                {
+                    names.add(((ConfiguredObjectRecord) arguments[i]).getAttributes().get(ConfiguredObject.NAME));
+                }
+                _createdRecordNames.add(names);
+                return null;
+            }
+        }).when(_store).update(eq(true), anyVararg());
+        _virtualHost.addChangeListener(new StoreConfigurationChangeListener(_store));
+    }
+
+    @Override
+    public void tearDown() throws Exception
+    {
+        try
+        {
+            super.tearDown();
+        }
+        finally
+        {
+            BrokerTestHelper.tearDown();
+        }
+    }
+
+    public void testOperationsSucceed()
+    {
+        final List<Map<String, Object>> results =
+                _virtualHost.bulkConfigure(Arrays.asList(createQueueOperation("queue1"),
+                                                         createQueueOperation("queue2")));
+
+        assertEquals("Unexpected number of results", 2, results.size());
+        assertOutcome(results.get(0), BulkConfigurator.SUCCESS);
+        assertEquals("queue1", results.get(0).get(ConfiguredObject.NAME));
+        assertOutcome(results.get(1), BulkConfigurator.SUCCESS);
+        assertEquals("queue2", results.get(1).get(ConfiguredObject.NAME));
+
+        assertNotNull(_virtualHost.getChildByName(Queue.class, "queue1"));
+        assertNotNull(_virtualHost.getChildByName(Queue.class, "queue2"));
+        assertEquals("Records should have been created in a single store update",
+                     Collections.singletonList(Arrays.<Object>asList("queue1", "queue2")), _createdRecordNames);
+    }
+
+    public void testFailedOperationDoesNotPreventOthers()
+    {
+        final Map<String, Object> deleteMissing = new HashMap<>();
+        deleteMissing.put(BulkConfigurator.ACTION, "delete");
+        deleteMissing.put(BulkConfigurator.CATEGORY, "Queue");
+        deleteMissing.put(ConfiguredObject.NAME, "missing");
+
+        final List<Map<String, Object>> results =
+                _virtualHost.bulkConfigure(Arrays.asList(createQueueOperation("queue1"),
+                                                         deleteMissing,
+                                                         createQueueOperation("queue2")));
+
+        assertEquals("Unexpected number of results", 3, results.size());
+        assertOutcome(results.get(0), BulkConfigurator.SUCCESS);
+        assertOutcome(results.get(1), BulkConfigurator.FAILURE);
+        assertNotNull("Failure should have an error message", results.get(1).get(BulkConfigurator.ERROR_MESSAGE));
+        assertOutcome(results.get(2), BulkConfigurator.SUCCESS);
+
+        assertEquals("Records of successful operations should have been stored",
+                     Collections.singletonList(Arrays.<Object>asList("queue1", "queue2")), _createdRecordNames);
+    }
+
+    public void testStoreFailureFailsOperation()
+    {
+        final StoreException storeException = new StoreException("Test store failure");
+        doThrow(storeException).when(_store).update(eq(true), anyVararg());
+
+        try
+        {
+            _virtualHost.bulkConfigure(Collections.singletonList(createQueueOperation("queue1")));
+            fail("Exception not thrown");
+        }
+        catch (StoreException e)
+        {
+            assertSame("Unexpected exception", storeException, e);
+        }
+    }
+
+    private Map<String, Object> createQueueOperation(final String name)
+    {
+        final Map<String, Object> operation = new HashMap<>();
+        operation.put(BulkConfigurator.ACTION, "create");
+        operation.put(BulkConfigurator.CATEGORY, "Queue");
+        operation.put(BulkConfigurator.ATTRIBUTES, Collections.<String, Object>singletonMap(Queue.NAME, name));
+        return operation;
+    }
+
+    private void assertOutcome(final Map<String, Object> result, final String expectedOutcome)
+    {
+        assertEquals("Unexpected outcome of " + result, expectedOutcome, result.get(BulkConfigurator.OUTCOME));
+    }
+}
@@ -51,7 +51,8 @@ class LegacyAccessControlAdapter
             Collections.unmodifiableSet(new HashSet<>(Arrays.asList("getFile",
                                                                     "getFiles",
                                                                     "getAllFiles",
-                                                                    "getLogEntries")));
+                                                                    "getLogEntries",
+                                                                    "findLogEntries")));
     private static final Set<String> QUEUE_UPDATE_METHODS =
             Collections.unmodifiableSet(new HashSet<>(Arrays.asList("moveMessages",
                                                                     "copyMessages",
@@ -141,7 +141,15 @@ public class AMQPConnection_0_10Impl extends AbstractAMQPConnection<AMQPConnecti
             updateLastReadTime();
             try
             {
-                _inputHandler.received(buf);
+                openEnqueueBatch();
+                try
+                {
+                    _inputHandler.received(buf);
+                }
+                finally
+                {
+                    closeEnqueueBatch();
+                }
                 _connection.receivedComplete();
             }
             catch (IllegalArgumentException | IllegalStateException e)
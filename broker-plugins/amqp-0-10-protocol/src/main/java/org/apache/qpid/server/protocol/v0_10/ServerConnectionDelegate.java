@@ -71,6 +71,7 @@ public class ServerConnectionDelegate extends MethodDelegate<ServerConnection> i
         INIT,
         AWAIT_START_OK,
         AWAIT_SECURE_OK,
+        AWAIT_AUTHENTICATION,
         AWAIT_TUNE_OK,
         AWAIT_OPEN,
         OPEN
@@ -181,14 +182,25 @@ public class ServerConnectionDelegate extends MethodDelegate<ServerConnection> i
 
     protected void secure(final ServerConnection sconn, final byte[] response)
     {
-        SubjectAuthenticationResult authResult = _successfulAuthenticationResult;
-        byte[] challenge = null;
-        if (authResult == null)
+        if (_successfulAuthenticationResult == null)
         {
-            authResult = _subjectCreator.authenticate(_saslNegotiator, response);
-            challenge = authResult.getChallenge();
+            // no further controls are expected from the client until it receives the outcome
+            _state = ConnectionState.AWAIT_AUTHENTICATION;
+            sconn.getAmqpConnection().authenticate(_subjectCreator, _saslNegotiator, response,
+                                                   authResult -> processAuthenticationResult(sconn,
+                                                                                             authResult,
+                                                                                             authResult.getChallenge()));
         }
+        else
+        {
+            processAuthenticationResult(sconn, _successfulAuthenticationResult, null);
+        }
+    }
 
+    private void processAuthenticationResult(final ServerConnection sconn,
+                                             final SubjectAuthenticationResult authResult,
+                                             final byte[] challenge)
+    {
         if (AuthenticationStatus.SUCCESS.equals(authResult.getStatus()))
         {
             _successfulAuthenticationResult = authResult;
@@ -65,6 +65,7 @@ import java.util.concurrent.atomic.AtomicReference;
 
 import javax.security.auth.Subject;
 
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -81,6 +82,7 @@ import org.apache.qpid.server.model.Broker;
 import org.apache.qpid.server.model.NamedAddressSpace;
 import org.apache.qpid.server.model.Queue;
 import org.apache.qpid.server.protocol.v0_10.transport.*;
+import org.apache.qpid.server.queue.AcknowledgedEntryDeleter;
 import org.apache.qpid.server.store.MessageStore;
 import org.apache.qpid.server.store.StoreException;
 import org.apache.qpid.server.transport.AMQPConnection;
@@ -152,6 +154,8 @@ public class ServerSession extends SessionInvoker
     private final SortedMap<Integer, MessageDispositionChangeListener> _messageDispositionListenerMap =
             new ConcurrentSkipListMap<Integer, MessageDispositionChangeListener>();
 
+    private final AcknowledgedEntryDeleter _acknowledgedEntryDeleter = new AcknowledgedEntryDeleter();
+
     private ServerTransaction _transaction;
     private final AtomicLong _txnStarts = new AtomicLong(0);
     private final AtomicLong _txnCommits = new AtomicLong(0);
@@ -170,7 +174,9 @@ public class ServerSession extends SessionInvoker
         this.closing = false;
         this._isNoReplay = false;
         initReceiver();
-        _transaction = new AsyncAutoCommitTransaction(this.getMessageStore(),this);
+        _transaction = new AsyncAutoCommitTransaction(this.getMessageStore(),
+                                                      this,
+                                                      connection.getAmqpConnection().getEnqueueBatch());
 
         _blockingTimeout = connection.getBroker().getContextValue(Long.class, Broker.CHANNEL_FLOW_CONTROL_ENFORCEMENT_TIMEOUT);
     }
@@ -991,14 +997,23 @@ public class ServerSession extends SessionInvoker
 
     public void accept(RangeSet ranges)
     {
-        dispositionChange(ranges, new MessageDispositionAction()
+        // the accepted entries of the ranges are dequeued in one store transaction and deleted together
+        _acknowledgedEntryDeleter.beginBatch();
+        try
         {
-            @Override
-            public void performAction(MessageDispositionChangeListener listener)
+            dispositionChange(ranges, new MessageDispositionAction()
             {
-                listener.onAccept();
-            }
-        });
+                @Override
+                public void performAction(MessageDispositionChangeListener listener)
+                {
+                    listener.onAccept();
+                }
+            });
+        }
+        finally
+        {
+            _acknowledgedEntryDeleter.endBatch();
+        }
     }
 
 
@@ -1175,25 +1190,24 @@ public class ServerSession extends SessionInvoker
     {
         if (entry.makeAcquisitionUnstealable(consumer))
         {
-            _transaction.dequeue(entry.getEnqueueRecord(),
-                                 new ServerTransaction.Action()
-                                 {
+            _acknowledgedEntryDeleter.dequeue(_transaction, entry, new ServerTransaction.Action()
+            {
 
-                                     @Override
-                                     public void postCommit()
-                                     {
-                                         entry.delete();
-                                     }
+                @Override
+                public void postCommit()
+                {
+                    _acknowledgedEntryDeleter.delete(entry);
+                }
 
-                                     @Override
-                                     public void onRollback()
-                                     {
-                                         // The client has acknowledge the message and therefore have seen it.
-                                         // In the event of rollback, the message must be marked as redelivered.
-                                         entry.setRedelivered();
-                                         entry.release(consumer);
-                                     }
-                                 });
+                @Override
+                public void onRollback()
+                {
+                    // The client has acknowledge the message and therefore have seen it.
+                    // In the event of rollback, the message must be marked as redelivered.
+                    entry.setRedelivered();
+                    entry.release(consumer);
+                }
+            });
         }
     }
 
@@ -1274,18 +1288,24 @@ public class ServerSession extends SessionInvoker
     }
 
 
-    public void prepareDtx(Xid xid)
+    /**
+     * Prepares the branch, performing the completion action once the store has committed the prepare.
+     */
+    public void prepareDtx(Xid xid, ServerTransaction.Action completionAction)
             throws UnknownDtxBranchException,
             IncorrectDtxStateException, StoreException, RollbackOnlyDtxException, TimeoutDtxException
     {
-        getAddressSpace().getDtxRegistry().prepare(toDtxXid(xid));
+        getAddressSpace().getDtxRegistry().prepare(toDtxXid(xid), this, completionAction);
     }
 
-    public void commitDtx(Xid xid, boolean onePhase)
+    /**
+     * Commits the branch, performing the completion action once the store has committed.
+     */
+    public void commitDtx(Xid xid, boolean onePhase, ServerTransaction.Action completionAction)
             throws UnknownDtxBranchException,
             IncorrectDtxStateException, StoreException, RollbackOnlyDtxException, TimeoutDtxException
     {
-        getAddressSpace().getDtxRegistry().commit(toDtxXid(xid), onePhase);
+        getAddressSpace().getDtxRegistry().commit(toDtxXid(xid), onePhase, this, completionAction);
     }
 
 
@@ -1327,13 +1347,52 @@ public class ServerSession extends SessionInvoker
     }
 
 
-    public void commit()
+    /**
+     * Commits the current transaction.  A local transaction is committed asynchronously, the completion action (and
+     * the post transaction actions) being performed once the store has committed, so that the IO thread is not held
+     * whilst the store syncs.
+     */
+    public void commit(final ServerTransaction.Action completionAction)
     {
-        _transaction.commit();
+        if (_transaction instanceof LocalTransaction)
+        {
+            final LocalTransaction transaction = (LocalTransaction) _transaction;
+            final ListenableFuture<Void> future = transaction.commitAsync(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    _txnCommits.incrementAndGet();
+                    _txnStarts.incrementAndGet();
+                    decrementOutstandingTxnsIfNecessary();
+                }
+            });
+            recordFuture(future, new ServerTransaction.Action()
+            {
+                @Override
+                public void postCommit()
+                {
+                    transaction.sync();
+                    completionAction.postCommit();
+                }
 
-        _txnCommits.incrementAndGet();
-        _txnStarts.incrementAndGet();
-        decrementOutstandingTxnsIfNecessary();
+                @Override
+                public void onRollback()
+                {
+                    completionAction.onRollback();
+                }
+            });
+        }
+        else
+        {
+            _transaction.commit();
+
+            _txnCommits.incrementAndGet();
+            _txnStarts.incrementAndGet();
+            decrementOutstandingTxnsIfNecessary();
+
+            recordFuture(Futures.<Void>immediateFuture(null), completionAction);
+        }
     }
 
     public void rollback()
@@ -1630,16 +1689,25 @@ public class ServerSession extends SessionInvoker
 
     public void completeAsyncCommands()
     {
-        AsyncCommand cmd;
-        while((cmd = _unfinishedCommandsQueue.peek()) != null && cmd.isReadyForCompletion())
+        // entries of accepts whose dequeues complete together are deleted together
+        _acknowledgedEntryDeleter.beginBatch();
+        try
         {
-            cmd.complete();
-            _unfinishedCommandsQueue.poll();
+            AsyncCommand cmd;
+            while((cmd = _unfinishedCommandsQueue.peek()) != null && cmd.isReadyForCompletion())
+            {
+                cmd.complete();
+                _unfinishedCommandsQueue.poll();
+            }
+            while(_unfinishedCommandsQueue.size() > UNFINISHED_COMMAND_QUEUE_THRESHOLD)
+            {
+                cmd = _unfinishedCommandsQueue.poll();
+                cmd.complete();
+            }
         }
-        while(_unfinishedCommandsQueue.size() > UNFINISHED_COMMAND_QUEUE_THRESHOLD)
+        finally
         {
-            cmd = _unfinishedCommandsQueue.poll();
-            cmd.complete();
+            _acknowledgedEntryDeleter.endBatch();
         }
     }
 
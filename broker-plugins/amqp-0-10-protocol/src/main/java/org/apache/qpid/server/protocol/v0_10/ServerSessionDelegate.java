@@ -614,7 +614,8 @@ public class ServerSessionDelegate extends MethodDelegate<ServerSession> impleme
     public void txCommit(ServerSession session, TxCommit method)
     {
         // TODO - check current tx mode
-        ((ServerSession)session).commit();
+        final ServerSession serverSession = (ServerSession) session;
+        serverSession.commit(new CommandProcessedAction(serverSession, method));
     }
 
     @Override
@@ -700,13 +701,17 @@ public class ServerSessionDelegate extends MethodDelegate<ServerSession> impleme
     @Override
     public void dtxCommit(ServerSession session, DtxCommit method)
     {
-        XaResult result = new XaResult();
+        final ServerSession serverSession = (ServerSession) session;
+        final XaResult result = new XaResult();
         result.setStatus(DtxXaStatus.XA_OK);
         try
         {
             try
             {
-                ((ServerSession)session).commitDtx(method.getXid(), method.getOnePhase());
+                serverSession.commitDtx(method.getXid(),
+                                        method.getOnePhase(),
+                                        new ExecutionResultAction(serverSession, method, result));
+                return;
             }
             catch (RollbackOnlyDtxException e)
             {
@@ -769,13 +774,15 @@ public class ServerSessionDelegate extends MethodDelegate<ServerSession> impleme
     @Override
     public void dtxPrepare(ServerSession session, DtxPrepare method)
     {
-        XaResult result = new XaResult();
+        final ServerSession serverSession = (ServerSession) session;
+        final XaResult result = new XaResult();
         result.setStatus(DtxXaStatus.XA_OK);
         try
         {
             try
             {
-                ((ServerSession)session).prepareDtx(method.getXid());
+                serverSession.prepareDtx(method.getXid(), new ExecutionResultAction(serverSession, method, result));
+                return;
             }
             catch (RollbackOnlyDtxException e)
             {
@@ -1957,6 +1964,35 @@ public class ServerSessionDelegate extends MethodDelegate<ServerSession> impleme
         ssn.closed();
     }
 
+    /**
+     * Sends the result of a command which completes asynchronously, and marks it processed.
+     */
+    private static class ExecutionResultAction implements ServerTransaction.Action
+    {
+        private final ServerSession _serverSession;
+        private final Method _method;
+        private final Struct _result;
+
+        public ExecutionResultAction(final ServerSession serverSession, final Method method, final Struct result)
+        {
+            _serverSession = serverSession;
+            _method = method;
+            _result = result;
+        }
+
+        @Override
+        public void postCommit()
+        {
+            _serverSession.executionResult(_method.getId(), _result);
+            _serverSession.processed(_method);
+        }
+
+        @Override
+        public void onRollback()
+        {
+        }
+    }
+
     private static class CommandProcessedAction implements ServerTransaction.Action
     {
         private final ServerSession _serverSession;
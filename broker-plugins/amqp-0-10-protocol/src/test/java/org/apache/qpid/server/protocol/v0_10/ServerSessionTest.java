@@ -18,8 +18,11 @@
  */
 package org.apache.qpid.server.protocol.v0_10;
 
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
@@ -28,11 +31,15 @@ import java.util.List;
 import javax.security.auth.Subject;
 
 import com.google.common.util.concurrent.Futures;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import org.apache.qpid.server.configuration.updater.CurrentThreadTaskExecutor;
 import org.apache.qpid.server.configuration.updater.TaskExecutor;
 import org.apache.qpid.server.configuration.updater.TaskExecutorImpl;
 import org.apache.qpid.server.logging.EventLogger;
+import org.apache.qpid.server.message.MessageInstance;
+import org.apache.qpid.server.message.MessageInstanceConsumer;
 import org.apache.qpid.server.model.Broker;
 import org.apache.qpid.server.model.BrokerModel;
 import org.apache.qpid.server.model.Connection;
@@ -42,12 +49,18 @@ import org.apache.qpid.server.model.Transport;
 import org.apache.qpid.server.model.VirtualHost;
 import org.apache.qpid.server.model.port.AmqpPort;
 import org.apache.qpid.server.model.BrokerTestHelper;
+import org.apache.qpid.server.store.MessageEnqueueRecord;
+import org.apache.qpid.server.store.MessageStore;
+import org.apache.qpid.server.store.NullMessageStore;
+import org.apache.qpid.server.store.Transaction;
 import org.apache.qpid.test.utils.QpidTestCase;
 import org.apache.qpid.server.protocol.v0_10.transport.Binary;
 import org.apache.qpid.server.protocol.v0_10.transport.ExecutionErrorCode;
 import org.apache.qpid.server.protocol.v0_10.transport.ExecutionException;
 import org.apache.qpid.server.protocol.v0_10.transport.MessageTransfer;
 import org.apache.qpid.server.protocol.v0_10.transport.Method;
+import org.apache.qpid.server.protocol.v0_10.transport.RangeSet;
+import org.apache.qpid.server.protocol.v0_10.transport.RangeSetFactory;
 
 public class ServerSessionTest extends QpidTestCase
 {
@@ -94,29 +107,8 @@ public class ServerSessionTest extends QpidTestCase
 
     public void testOverlargeMessageTest() throws Exception
     {
-        final Broker<?> broker = mock(Broker.class);
-        when(broker.getContextValue(eq(Long.class), eq(Broker.CHANNEL_FLOW_CONTROL_ENFORCEMENT_TIMEOUT))).thenReturn(0l);
-
-        AmqpPort port = createMockPort();
-
         final AMQPConnection_0_10 modelConnection = mock(AMQPConnection_0_10.class);
-        when(modelConnection.closeAsync()).thenReturn(Futures.immediateFuture(null));
-        when(modelConnection.getAddressSpace()).thenReturn(_virtualHost);
-        when(modelConnection.getContextProvider()).thenReturn(_virtualHost);
-        when(modelConnection.getBroker()).thenReturn(broker);
-        when(modelConnection.getEventLogger()).thenReturn(mock(EventLogger.class));
-        when(modelConnection.getContextValue(Long.class, Session.PRODUCER_AUTH_CACHE_TIMEOUT)).thenReturn(Session.PRODUCER_AUTH_CACHE_TIMEOUT_DEFAULT);
-        when(modelConnection.getContextValue(Integer.class, Session.PRODUCER_AUTH_CACHE_SIZE)).thenReturn(Session.PRODUCER_AUTH_CACHE_SIZE_DEFAULT);
-        when(modelConnection.getContextValue(Long.class, Connection.MAX_UNCOMMITTED_IN_MEMORY_SIZE)).thenReturn(Connection.DEFAULT_MAX_UNCOMMITTED_IN_MEMORY_SIZE);
-        when(modelConnection.getChildExecutor()).thenReturn(_taskExecutor);
-        when(modelConnection.getModel()).thenReturn(BrokerModel.getInstance());
-        when(modelConnection.getPort()).thenReturn(port);
-
-        Subject subject = new Subject();
-        when(modelConnection.getSubject()).thenReturn(subject);
-        when(modelConnection.getMaxMessageSize()).thenReturn(1024l);
-        ServerConnection connection = new ServerConnection(1, broker, port, Transport.TCP, modelConnection);
-        connection.setVirtualHost(_virtualHost);
+        ServerConnection connection = createConnection(modelConnection);
 
         final List<Method> invokedMethods = new ArrayList<>();
         ServerSession session = new ServerSession(connection, new ServerSessionDelegate(),
@@ -151,6 +143,111 @@ public class ServerSessionTest extends QpidTestCase
         assertTrue("Methods invoked when not expecting any", invokedMethods.isEmpty());
     }
 
+    public void testAcceptedRangeDequeuedInOneStoreTransaction() throws Exception
+    {
+        final List<Transaction> storeTransactions = new ArrayList<>();
+        final MessageStore store = new NullMessageStore()
+        {
+            @Override
+            public Transaction newTransaction()
+            {
+                final Transaction transaction = mock(Transaction.class);
+                when(transaction.commitTranAsync(any())).thenReturn(Futures.immediateFuture(null));
+                storeTransactions.add(transaction);
+                return transaction;
+            }
+        };
+
+        final ServerConnection connection = createConnection(mock(AMQPConnection_0_10.class));
+        final ServerSession session = new ServerSession(connection, new ServerSessionDelegate(),
+                                                        new Binary(getName().getBytes()), 0)
+        {
+            @Override
+            public MessageStore getMessageStore()
+            {
+                return store;
+            }
+        };
+
+        final MessageInstanceConsumer consumer = mock(MessageInstanceConsumer.class);
+        final List<MessageInstance> entries = new ArrayList<>();
+        final List<MessageEnqueueRecord> enqueueRecords = new ArrayList<>();
+        for (int i = 0; i < 3; i++)
+        {
+            final MessageInstance entry = mock(MessageInstance.class);
+            final MessageEnqueueRecord enqueueRecord = mock(MessageEnqueueRecord.class);
+            when(entry.makeAcquisitionUnstealable(consumer)).thenReturn(true);
+            when(entry.getEnqueueRecord()).thenReturn(enqueueRecord);
+            entries.add(entry);
+            enqueueRecords.add(enqueueRecord);
+
+            final MessageTransfer xfr = new MessageTransfer();
+            xfr.setId(i);
+            session.onMessageDispositionChange(xfr, createAcceptListener(session, consumer, entry));
+        }
+
+        final RangeSet ranges = RangeSetFactory.createRangeSet();
+        ranges.add(0, 2);
+        session.accept(ranges);
+
+        assertEquals("Unexpected number of store transactions", 1, storeTransactions.size());
+        final Transaction storeTransaction = storeTransactions.get(0);
+        for (MessageEnqueueRecord enqueueRecord : enqueueRecords)
+        {
+            verify(storeTransaction).dequeueMessage(enqueueRecord);
+        }
+        verify(storeTransaction).commitTranAsync(any());
+        for (MessageInstance entry : entries)
+        {
+            verify(entry).delete();
+        }
+    }
+
+    private ServerSession.MessageDispositionChangeListener createAcceptListener(final ServerSession session,
+                                                                                final MessageInstanceConsumer consumer,
+                                                                                final MessageInstance entry)
+    {
+        final ServerSession.MessageDispositionChangeListener listener =
+                mock(ServerSession.MessageDispositionChangeListener.class);
+        doAnswer(new Answer<Void>()
+        {
+            @Override
+            public Void answer(final InvocationOnMock invocation) throws Throwable
+            {
+                session.acknowledge(consumer, null, entry);
+                return null;
+            }
+        }).when(listener).onAccept();
+        return listener;
+    }
+
+    private ServerConnection createConnection(final AMQPConnection_0_10 modelConnection)
+    {
+        final Broker<?> broker = mock(Broker.class);
+        when(broker.getContextValue(eq(Long.class), eq(Broker.CHANNEL_FLOW_CONTROL_ENFORCEMENT_TIMEOUT))).thenReturn(0l);
+
+        AmqpPort port = createMockPort();
+
+        when(modelConnection.closeAsync()).thenReturn(Futures.immediateFuture(null));
+        when(modelConnection.getAddressSpace()).thenReturn(_virtualHost);
+        when(modelConnection.getContextProvider()).thenReturn(_virtualHost);
+        when(modelConnection.getBroker()).thenReturn(broker);
+        when(modelConnection.getEventLogger()).thenReturn(mock(EventLogger.class));
+        when(modelConnection.getContextValue(Long.class, Session.PRODUCER_AUTH_CACHE_TIMEOUT)).thenReturn(Session.PRODUCER_AUTH_CACHE_TIMEOUT_DEFAULT);
+        when(modelConnection.getContextValue(Integer.class, Session.PRODUCER_AUTH_CACHE_SIZE)).thenReturn(Session.PRODUCER_AUTH_CACHE_SIZE_DEFAULT);
+        when(modelConnection.getContextValue(Long.class, Connection.MAX_UNCOMMITTED_IN_MEMORY_SIZE)).thenReturn(Connection.DEFAULT_MAX_UNCOMMITTED_IN_MEMORY_SIZE);
+        when(modelConnection.getChildExecutor()).thenReturn(_taskExecutor);
+        when(modelConnection.getModel()).thenReturn(BrokerModel.getInstance());
+        when(modelConnection.getPort()).thenReturn(port);
+
+        Subject subject = new Subject();
+        when(modelConnection.getSubject()).thenReturn(subject);
+        when(modelConnection.getMaxMessageSize()).thenReturn(1024l);
+        ServerConnection connection = new ServerConnection(1, broker, port, Transport.TCP, modelConnection);
+        connection.setVirtualHost(_virtualHost);
+        return connection;
+    }
+
     public AmqpPort createMockPort()
     {
         AmqpPort port = mock(AmqpPort.class);
@@ -83,6 +83,7 @@ import org.apache.qpid.server.model.ExclusivityPolicy;
 import org.apache.qpid.server.model.LifetimePolicy;
 import org.apache.qpid.server.model.NamedAddressSpace;
 import org.apache.qpid.server.model.NoFactoryForTypeException;
+import org.apache.qpid.server.model.OverflowPolicy;
 import org.apache.qpid.server.model.Queue;
 import org.apache.qpid.server.model.Session;
 import org.apache.qpid.server.model.UnknownConfiguredObjectException;
@@ -90,6 +91,8 @@ import org.apache.qpid.server.protocol.ErrorCodes;
 import org.apache.qpid.server.protocol.ProtocolVersion;
 import org.apache.qpid.server.protocol.v0_8.UnacknowledgedMessageMap.Visitor;
 import org.apache.qpid.server.protocol.v0_8.transport.*;
+import org.apache.qpid.server.queue.AcknowledgedEntryDeleter;
+import org.apache.qpid.server.queue.BaseQueue;
 import org.apache.qpid.server.queue.QueueArgumentsConverter;
 import org.apache.qpid.server.session.AbstractAMQPSession;
 import org.apache.qpid.server.store.MessageHandle;
@@ -162,6 +165,8 @@ public class AMQChannel extends AbstractAMQPSession<AMQChannel, ConsumerTarget_0
 
     private final UnacknowledgedMessageMap _unacknowledgedMessageMap;
 
+    private final AcknowledgedEntryDeleter _acknowledgedEntryDeleter = new AcknowledgedEntryDeleter();
+
     private final AtomicBoolean _suspended = new AtomicBoolean(false);
 
     private ServerTransaction _transaction;
@@ -222,7 +227,7 @@ public class AMQChannel extends AbstractAMQPSession<AMQChannel, ConsumerTarget_0
         _blockingTimeout = connection.getBroker().getContextValue(Long.class,
                                                                   Broker.CHANNEL_FLOW_CONTROL_ENFORCEMENT_TIMEOUT);
         // by default the session is non-transactional
-        _transaction = new AsyncAutoCommitTransaction(_messageStore, this);
+        _transaction = new AsyncAutoCommitTransaction(_messageStore, this, connection.getEnqueueBatch());
 
         MethodRegistry methodRegistry = _connection.getMethodRegistry();
         AMQMethodBody responseBody = methodRegistry.createTxCommitOkBody();
@@ -465,6 +470,10 @@ public class AMQChannel extends AbstractAMQPSession<AMQChannel, ConsumerTarget_0
                                                   instanceProperties);
 
                         int enqueues = result.send(_transaction, immediate ? _immediateAction : null);
+                        if (enqueues != 0 && _connection.isPublisherPacing())
+                        {
+                            registerPublisherPressure(result);
+                        }
                         if (enqueues == 0)
                         {
                             boolean mandatory = amqMessage.isMandatory();
@@ -547,6 +556,20 @@ public class AMQChannel extends AbstractAMQPSession<AMQChannel, ConsumerTarget_0
 
     }
 
+    private void registerPublisherPressure(final RoutingResult<AMQMessage> result)
+    {
+        int pressure = 0;
+        for (BaseQueue queue : result.getRoutes())
+        {
+            if (queue instanceof Queue
+                && ((Queue<?>) queue).getOverflowPolicy() == OverflowPolicy.PRODUCER_FLOW_CONTROL)
+            {
+                pressure = Math.max(pressure, ((Queue<?>) queue).getPublisherPressure());
+            }
+        }
+        _connection.registerPublisherPressure(pressure);
+    }
+
     private void publishContentBody(ContentBody contentBody)
     {
         if (_logger.isDebugEnabled())
@@ -1385,9 +1408,17 @@ public class AMQChannel extends AbstractAMQPSession<AMQChannel, ConsumerTarget_0
         {
             try
             {
-                for(MessageConsumerAssociation association : _ackedMessages)
+                _acknowledgedEntryDeleter.beginBatch();
+                try
+                {
+                    for(MessageConsumerAssociation association : _ackedMessages)
+                    {
+                        _acknowledgedEntryDeleter.delete(association.getMessageInstance());
+                    }
+                }
+                finally
                 {
-                    association.getMessageInstance().delete();
+                    _acknowledgedEntryDeleter.endBatch();
                 }
             }
             finally
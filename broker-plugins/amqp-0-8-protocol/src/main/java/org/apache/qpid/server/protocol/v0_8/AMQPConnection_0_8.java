@@ -51,6 +51,26 @@ public interface AMQPConnection_0_8<C extends AMQPConnection_0_8<C>> extends AMQ
     @ManagedContextDefault(name= BATCH_LIMIT)
     long DEFAULT_BATCH_LIMIT = 10L;
 
+    String PUBLISHER_PACING = "connection.publisher_pacing";
+    @SuppressWarnings("unused")
+    @ManagedContextDefault(name = PUBLISHER_PACING,
+            description = "If true, reading from the connection is delayed in proportion to the pressure from the"
+                          + " producer flow controlled queues to which it publishes and from virtual host memory,"
+                          + " slowing publishers before the queues block them.")
+    boolean DEFAULT_PUBLISHER_PACING = false;
+
+    String PUBLISHER_PACING_THRESHOLD = "connection.publisher_pacing.threshold";
+    @SuppressWarnings("unused")
+    @ManagedContextDefault(name = PUBLISHER_PACING_THRESHOLD,
+            description = "The pressure (as a percentage) above which publishers are paced.")
+    int DEFAULT_PUBLISHER_PACING_THRESHOLD = 50;
+
+    String PUBLISHER_PACING_MAXIMUM_DELAY = "connection.publisher_pacing.maximum_delay";
+    @SuppressWarnings("unused")
+    @ManagedContextDefault(name = PUBLISHER_PACING_MAXIMUM_DELAY,
+            description = "The delay (in milliseconds) to reading once the pressure reaches 100%.")
+    long DEFAULT_PUBLISHER_PACING_MAXIMUM_DELAY = 100L;
+
     @DerivedAttribute(description = "The actual negotiated value of heartbeat delay.")
     int getHeartbeatDelay();
 
@@ -89,4 +109,11 @@ public interface AMQPConnection_0_8<C extends AMQPConnection_0_8<C>> extends AMQ
     ClientDeliveryMethod createDeliveryMethod(int channelId);
 
     void setDeferFlush(boolean batch);
+
+    boolean isPublisherPacing();
+
+    /**
+     * Records the pressure (as a percentage) from the queues to which a message has just been published.
+     */
+    void registerPublisherPressure(int pressure);
 }
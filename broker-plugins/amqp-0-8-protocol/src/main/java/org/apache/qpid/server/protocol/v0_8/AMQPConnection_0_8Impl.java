@@ -77,6 +77,7 @@ import org.apache.qpid.server.util.Action;
 import org.apache.qpid.server.util.ConnectionScopedRuntimeException;
 import org.apache.qpid.server.util.ServerScopedRuntimeException;
 import org.apache.qpid.server.virtualhost.NoopConnectionEstablishmentPolicy;
+import org.apache.qpid.server.virtualhost.QueueManagingVirtualHost;
 import org.apache.qpid.server.virtualhost.VirtualHostUnavailableException;
 
 public class AMQPConnection_0_8Impl
@@ -89,6 +90,7 @@ public class AMQPConnection_0_8Impl
         INIT,
         AWAIT_START_OK,
         AWAIT_SECURE_OK,
+        AWAIT_AUTHENTICATION,
         AWAIT_TUNE_OK,
         AWAIT_OPEN,
         OPEN
@@ -162,6 +164,13 @@ public class AMQPConnection_0_8Impl
 
     private volatile int _heartBeatDelay;
 
+    private volatile boolean _publisherPacing;
+    private int _publisherPacingThreshold;
+    private long _publisherPacingMaximumDelay;
+    /** Accessed only by the IO thread */
+    private boolean _publishedSincePacing;
+    private int _queuePressure;
+
     public AMQPConnection_0_8Impl(Broker<?> broker,
                                   ServerNetworkConnection network,
                                   AmqpPort<?> port,
@@ -186,6 +195,17 @@ public class AMQPConnection_0_8Impl
         _closeWhenNoRoute = port.getCloseWhenNoRoute();
     }
 
+    @Override
+    protected void onOpen()
+    {
+        super.onOpen();
+        _publisherPacingThreshold = Math.max(0, getContextValue(Integer.class, PUBLISHER_PACING_THRESHOLD));
+        _publisherPacingMaximumDelay = getContextValue(Long.class, PUBLISHER_PACING_MAXIMUM_DELAY);
+        _publisherPacing = getContextValue(Boolean.class, PUBLISHER_PACING)
+                           && _publisherPacingMaximumDelay > 0L
+                           && _publisherPacingThreshold < 100;
+    }
+
     @Override
     public boolean isTransportBlockedForWriting()
     {
@@ -249,8 +269,17 @@ public class AMQPConnection_0_8Impl
 
                 try
                 {
-                    _decoder.decodeBuffer(msg);
+                    openEnqueueBatch();
+                    try
+                    {
+                        _decoder.decodeBuffer(msg);
+                    }
+                    finally
+                    {
+                        closeEnqueueBatch();
+                    }
                     receivedCompleteAllChannels();
+                    pacePublishers();
                 }
                 catch (AMQFrameDecodingException | IOException e)
                 {
@@ -274,6 +303,56 @@ public class AMQPConnection_0_8Impl
 
     }
 
+    /**
+     * If messages were published by the data just received, delays further reading in proportion to the greater
+     * of the pressure from the queues published to and from virtual host memory.
+     */
+    private void pacePublishers()
+    {
+        if (_publisherPacing && _publishedSincePacing)
+        {
+            _publishedSincePacing = false;
+            final int pressure = Math.max(_queuePressure, getMemoryPressure());
+            _queuePressure = 0;
+            setPublisherPressure(pressure);
+
+            if (pressure > _publisherPacingThreshold)
+            {
+                suspendReading(_publisherPacingMaximumDelay * (pressure - _publisherPacingThreshold)
+                               / (100 - _publisherPacingThreshold));
+            }
+        }
+    }
+
+    private int getMemoryPressure()
+    {
+        final NamedAddressSpace addressSpace = getAddressSpace();
+        if (addressSpace instanceof QueueManagingVirtualHost)
+        {
+            final QueueManagingVirtualHost<?> virtualHost = (QueueManagingVirtualHost<?>) addressSpace;
+            final long targetSize = virtualHost.getTargetSize();
+            final long inMemorySize = virtualHost.getInMemoryMessageSize();
+            if (targetSize > 0L && inMemorySize > 0L)
+            {
+                return (int) Math.min(100L, inMemorySize * 100L / targetSize);
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public boolean isPublisherPacing()
+    {
+        return _publisherPacing;
+    }
+
+    @Override
+    public void registerPublisherPressure(final int pressure)
+    {
+        _publishedSincePacing = true;
+        _queuePressure = Math.max(_queuePressure, Math.min(100, pressure));
+    }
+
     private void receivedCompleteAllChannels()
     {
         RuntimeException exception = null;
@@ -1105,15 +1184,22 @@ public class AMQPConnection_0_8Impl
 
     private void processSaslResponse(final byte[] response, final SubjectCreator subjectCreator)
     {
-        MethodRegistry methodRegistry = getMethodRegistry();
-        SubjectAuthenticationResult authResult = _successfulAuthenticationResult;
-        byte[] challenge = null;
-        if (authResult == null)
+        if (_successfulAuthenticationResult == null)
+        {
+            // no further methods are expected from the client until it receives the outcome
+            _state = ConnectionState.AWAIT_AUTHENTICATION;
+            authenticate(subjectCreator, _saslNegotiator, response,
+                         authResult -> processAuthenticationResult(authResult, authResult.getChallenge()));
+        }
+        else
         {
-            authResult = subjectCreator.authenticate(_saslNegotiator, response);
-            challenge = authResult.getChallenge();
+            processAuthenticationResult(_successfulAuthenticationResult, null);
         }
+    }
 
+    private void processAuthenticationResult(final SubjectAuthenticationResult authResult, final byte[] challenge)
+    {
+        MethodRegistry methodRegistry = getMethodRegistry();
         switch (authResult.getStatus())
         {
             case ERROR:
@@ -1397,6 +1483,7 @@ public class AMQPConnection_0_8Impl
             case INIT:
             case AWAIT_START_OK:
             case AWAIT_SECURE_OK:
+            case AWAIT_AUTHENTICATION:
             case AWAIT_TUNE_OK:
             case AWAIT_OPEN:
                 return true;
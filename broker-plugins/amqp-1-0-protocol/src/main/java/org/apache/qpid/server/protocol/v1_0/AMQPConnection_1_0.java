@@ -28,6 +28,9 @@ import org.apache.qpid.server.logging.EventLoggerProvider;
 import org.apache.qpid.server.model.DerivedAttribute;
 import org.apache.qpid.server.model.ManagedContextDefault;
 import org.apache.qpid.server.model.ManagedObject;
+import org.apache.qpid.server.model.ManagedStatistic;
+import org.apache.qpid.server.model.StatisticType;
+import org.apache.qpid.server.model.StatisticUnit;
 import org.apache.qpid.server.protocol.v1_0.codec.SectionDecoderRegistry;
 import org.apache.qpid.server.protocol.v1_0.type.FrameBody;
 import org.apache.qpid.server.protocol.v1_0.type.Symbol;
@@ -53,6 +56,13 @@ public interface AMQPConnection_1_0<C extends AMQPConnection_1_0<C>> extends AMQ
     @ManagedContextDefault(name = SEND_SASL_FINAL_CHALLENGE_AS_CHALLENGE)
     boolean DEFAULT_SEND_SASL_FINAL_CHALLENGE_AS_CHALLENGE = false;
 
+    String CONNECTION_OUTPUT_COALESCING_THRESHOLD = "connection.outputCoalescingThreshold";
+    @ManagedContextDefault(name = CONNECTION_OUTPUT_COALESCING_THRESHOLD,
+            description = "Frames carrying a payload of at most this many bytes are copied into a shared network"
+                          + " buffer so that frames from all sessions are written together. Larger payloads are"
+                          + " written as slices. A negative value disables output coalescing.")
+    int DEFAULT_CONNECTION_OUTPUT_COALESCING_THRESHOLD = 1024;
+
     Symbol ANONYMOUS_RELAY = Symbol.valueOf("ANONYMOUS-RELAY");
     Symbol SHARED_SUBSCRIPTIONS = Symbol.valueOf("SHARED-SUBS");
 
@@ -90,4 +100,18 @@ public interface AMQPConnection_1_0<C extends AMQPConnection_1_0<C>> extends AMQ
 
     @DerivedAttribute(description = "If true send a final SASL challenge using a SaslChallenge performative, rather than SaslOutcome.")
     boolean getSendSaslFinalChallengeAsChallenge();
+
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.COUNT, label = "Frames Outbound",
+                      description = "Total number of frames sent by this connection.")
+    long getFramesOut();
+
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.COUNT, label = "Output Buffers",
+                      description = "Total number of buffers handed to the transport by this connection. Dividing the"
+                                    + " number of frames by this value gives the average number of frames per buffer.")
+    long getOutputBuffers();
+
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.BYTES, label = "Output",
+                      description = "Total number of bytes (frame headers included) handed to the transport by this"
+                                    + " connection.")
+    long getOutputBytes();
 }
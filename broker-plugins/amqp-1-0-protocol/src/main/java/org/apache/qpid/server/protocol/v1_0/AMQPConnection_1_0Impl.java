@@ -202,6 +202,8 @@ public class AMQPConnection_1_0Impl extends AbstractAMQPConnection<AMQPConnectio
     private volatile long _outgoingIdleTimeout;
 
     private volatile ConnectionState _connectionState = ConnectionState.AWAIT_AMQP_OR_SASL_HEADER;
+    /** Whether received() left input unread whilst awaiting the authentication outcome, accessed on the IO thread */
+    private boolean _inputLeftUnread;
 
     private final AMQPDescribedTypeRegistry _describedTypeRegistry = AMQPDescribedTypeRegistry.newInstance()
                                                                                               .registerTransportLayer()
@@ -268,6 +270,8 @@ public class AMQPConnection_1_0Impl extends AbstractAMQPConnection<AMQPConnectio
     {
         super.onOpen();
         _sendSaslFinalChallengeAsChallenge = getContextValue(Boolean.class, AMQPConnection_1_0.SEND_SASL_FINAL_CHALLENGE_AS_CHALLENGE);
+        _frameWriter.setCoalescing(getBroker().getNetworkBufferSize(),
+                                   getContextValue(Integer.class, CONNECTION_OUTPUT_COALESCING_THRESHOLD));
     }
 
     @Override
@@ -332,12 +336,28 @@ public class AMQPConnection_1_0Impl extends AbstractAMQPConnection<AMQPConnectio
 
     private void processSaslResponse(final byte[] response)
     {
-        byte[] challenge = null;
-        SubjectAuthenticationResult authenticationResult = _successfulAuthenticationResult;
-        if (authenticationResult == null)
+        if (_successfulAuthenticationResult == null)
         {
-            authenticationResult = _subjectCreator.authenticate(_saslNegotiator, response != null ? response : new byte[0]);
-            challenge = authenticationResult.getChallenge();
+            _connectionState = ConnectionState.AWAIT_SASL_OUTCOME;
+            authenticate(_subjectCreator, _saslNegotiator, response != null ? response : new byte[0],
+                         authenticationResult -> processAuthenticationResult(authenticationResult,
+                                                                             authenticationResult.getChallenge()));
+        }
+        else
+        {
+            processAuthenticationResult(_successfulAuthenticationResult, null);
+        }
+    }
+
+    private void processAuthenticationResult(final SubjectAuthenticationResult authenticationResult,
+                                             final byte[] challenge)
+    {
+        if (_connectionState != ConnectionState.AWAIT_SASL_OUTCOME
+            && _connectionState != ConnectionState.AWAIT_SASL_RESPONSE)
+        {
+            // the connection has been closed whilst authentication was in progress
+            disposeSaslNegotiator();
+            return;
         }
 
         if (authenticationResult.getStatus() == AuthenticationResult.AuthenticationStatus.SUCCESS)
@@ -371,6 +391,12 @@ public class AMQPConnection_1_0Impl extends AbstractAMQPConnection<AMQPConnectio
         {
             handleSaslError();
         }
+
+        if (_inputLeftUnread)
+        {
+            // the network offers the unread input again once the connection has work
+            notifyWork();
+        }
     }
 
     private void continueSaslNegotiation(final byte[] challenge)
@@ -509,6 +535,7 @@ public class AMQPConnection_1_0Impl extends AbstractAMQPConnection<AMQPConnectio
             case AWAIT_AMQP_OR_SASL_HEADER:
             case AWAIT_SASL_INIT:
             case AWAIT_SASL_RESPONSE:
+            case AWAIT_SASL_OUTCOME:
             case AWAIT_AMQP_HEADER:
                 throw new ConnectionScopedRuntimeException("Received unexpected close when AMQP connection has not been established.");
             case AWAIT_OPEN:
@@ -1150,6 +1177,7 @@ public class AMQPConnection_1_0Impl extends AbstractAMQPConnection<AMQPConnectio
             case AWAIT_AMQP_OR_SASL_HEADER:
             case AWAIT_SASL_INIT:
             case AWAIT_SASL_RESPONSE:
+            case AWAIT_SASL_OUTCOME:
             case AWAIT_AMQP_HEADER:
                 throw new ConnectionScopedRuntimeException("Connection is closed before being fully established: " + error.getDescription());
 
@@ -1291,6 +1319,7 @@ public class AMQPConnection_1_0Impl extends AbstractAMQPConnection<AMQPConnectio
         AccessController.doPrivileged((PrivilegedAction<Object>) () ->
         {
             updateLastReadTime();
+            _inputLeftUnread = false;
             try
             {
                 int remaining;
@@ -1315,6 +1344,11 @@ public class AMQPConnection_1_0Impl extends AbstractAMQPConnection<AMQPConnectio
                         case CLOSE_SENT:
                             _frameHandler.parse(msg);
                             break;
+                        case AWAIT_SASL_OUTCOME:
+                            // a client may pipeline the AMQP header and open behind its sasl-init, so any further
+                            // input is left unread until the authentication outcome is known and then processed
+                            _inputLeftUnread = msg.hasRemaining();
+                            break;
                         case CLOSE_RECEIVED:
                         case CLOSED:
                             // ignore;
@@ -1324,6 +1358,7 @@ public class AMQPConnection_1_0Impl extends AbstractAMQPConnection<AMQPConnectio
 
                 }
                 while (msg.remaining() != remaining);
+                _frameWriter.flush();
             }
             catch (IllegalArgumentException | IllegalStateException e)
             {
@@ -1361,6 +1396,7 @@ public class AMQPConnection_1_0Impl extends AbstractAMQPConnection<AMQPConnectio
                     throw new ConnectionScopedRuntimeException("SASL Layer header received after SASL already established");
                 }
 
+                _frameWriter.flush();
                 getSender().send(QpidByteBuffer.wrap(SASL_HEADER));
 
                 SaslMechanisms mechanisms = new SaslMechanisms();
@@ -1397,6 +1433,7 @@ public class AMQPConnection_1_0Impl extends AbstractAMQPConnection<AMQPConnectio
                     }
 
                 }
+                _frameWriter.flush();
                 getSender().send(QpidByteBuffer.wrap(AMQP_HEADER));
                 _connectionState = ConnectionState.AWAIT_OPEN;
                 _frameHandler = getFrameHandler(false);
@@ -1438,6 +1475,7 @@ public class AMQPConnection_1_0Impl extends AbstractAMQPConnection<AMQPConnectio
             }
             finally
             {
+                _frameWriter.close();
                 markTransportClosed();
             }
         }
@@ -1519,6 +1557,12 @@ public class AMQPConnection_1_0Impl extends AbstractAMQPConnection<AMQPConnectio
         return _stateChanged.get();
     }
 
+    @Override
+    public boolean hasUnprocessedInput()
+    {
+        return _inputLeftUnread && _connectionState != ConnectionState.AWAIT_SASL_OUTCOME;
+    }
+
     @Override
     public void notifyWork()
     {
@@ -1749,6 +1793,7 @@ public class AMQPConnection_1_0Impl extends AbstractAMQPConnection<AMQPConnectio
     private void sendClose(Close closeToSend)
     {
         sendFrame(CONNECTION_CONTROL_CHANNEL, closeToSend);
+        _frameWriter.flush();
         closeSender();
     }
 
@@ -1775,7 +1820,14 @@ public class AMQPConnection_1_0Impl extends AbstractAMQPConnection<AMQPConnectio
         @Override
         public boolean hasNext()
         {
-            return (!_sessionsWithWork.isEmpty() && !isClosed() && !isConnectionStopped()) || !_asyncTaskList.isEmpty();
+            final boolean hasNext = (!_sessionsWithWork.isEmpty() && !isClosed() && !isConnectionStopped())
+                                    || !_asyncTaskList.isEmpty();
+            if (!hasNext)
+            {
+                // all sessions have had their turn - hand the frames coalesced during this cycle to the transport
+                _frameWriter.flush();
+            }
+            return hasNext;
         }
 
         @Override
@@ -1933,6 +1985,24 @@ public class AMQPConnection_1_0Impl extends AbstractAMQPConnection<AMQPConnectio
         }
     }
 
+    @Override
+    public long getFramesOut()
+    {
+        return _frameWriter.getFramesWritten();
+    }
+
+    @Override
+    public long getOutputBuffers()
+    {
+        return _frameWriter.getBuffersWritten();
+    }
+
+    @Override
+    public long getOutputBytes()
+    {
+        return _frameWriter.getBytesWritten();
+    }
+
     @Override
     protected boolean isOpeningInProgress()
     {
@@ -1941,6 +2011,7 @@ public class AMQPConnection_1_0Impl extends AbstractAMQPConnection<AMQPConnectio
             case AWAIT_AMQP_OR_SASL_HEADER:
             case AWAIT_SASL_INIT:
             case AWAIT_SASL_RESPONSE:
+            case AWAIT_SASL_OUTCOME:
             case AWAIT_AMQP_HEADER:
             case AWAIT_OPEN:
                 return true;
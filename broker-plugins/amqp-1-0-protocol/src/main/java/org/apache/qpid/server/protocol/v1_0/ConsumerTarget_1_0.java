@@ -56,10 +56,10 @@ import org.apache.qpid.server.protocol.v1_0.type.transaction.TransactionalState;
 import org.apache.qpid.server.protocol.v1_0.type.transport.Error;
 import org.apache.qpid.server.protocol.v1_0.type.transport.SenderSettleMode;
 import org.apache.qpid.server.protocol.v1_0.type.transport.Transfer;
+import org.apache.qpid.server.queue.AcknowledgedEntryDeleter;
 import org.apache.qpid.server.store.TransactionLogResource;
 import org.apache.qpid.server.transport.AMQPConnection;
 import org.apache.qpid.server.transport.ProtocolEngine;
-import org.apache.qpid.server.txn.AutoCommitTransaction;
 import org.apache.qpid.server.txn.ServerTransaction;
 import org.apache.qpid.server.util.Action;
 import org.apache.qpid.server.util.ServerScopedRuntimeException;
@@ -428,7 +428,7 @@ class ConsumerTarget_1_0 extends AbstractConsumerTarget<ConsumerTarget_1_0>
             else if (state instanceof Outcome)
             {
                 outcome = (Outcome) state;
-                txn = new AutoCommitTransaction(getSession().getConnection().getAddressSpace().getMessageStore());
+                txn = getSession().getAutoCommitTransaction();
             }
             else
             {
@@ -438,28 +438,7 @@ class ConsumerTarget_1_0 extends AbstractConsumerTarget<ConsumerTarget_1_0>
 
             if(outcome instanceof Accepted)
             {
-                if (_queueEntry.makeAcquisitionUnstealable(getConsumer()))
-                {
-                    txn.dequeue(_queueEntry.getEnqueueRecord(),
-                                new ServerTransaction.Action()
-                                {
-                                    @Override
-                                    public void postCommit()
-                                    {
-                                        if (_queueEntry.isAcquiredBy(getConsumer()))
-                                        {
-                                            _queueEntry.delete();
-                                        }
-                                    }
-
-                                    @Override
-                                    public void onRollback()
-                                    {
-
-                                    }
-                                });
-                }
-                txn.addPostTransactionAction(new ServerTransaction.Action()
+                final ServerTransaction.Action settleAction = new ServerTransaction.Action()
                     {
                         @Override
                         public void postCommit()
@@ -484,7 +463,35 @@ class ConsumerTarget_1_0 extends AbstractConsumerTarget<ConsumerTarget_1_0>
                                 applyModifiedOutcome();
                             }
                         }
+                    };
+
+                if (_queueEntry.makeAcquisitionUnstealable(getConsumer()))
+                {
+                    // the dequeues of the deliveries accepted by a disposition range share a store transaction
+                    final AcknowledgedEntryDeleter deleter = getSession().getAcknowledgedEntryDeleter();
+                    deleter.dequeue(txn, _queueEntry, new ServerTransaction.Action()
+                    {
+                        @Override
+                        public void postCommit()
+                        {
+                            if (_queueEntry.isAcquiredBy(getConsumer()))
+                            {
+                                deleter.delete(_queueEntry);
+                            }
+                            settleAction.postCommit();
+                        }
+
+                        @Override
+                        public void onRollback()
+                        {
+                            settleAction.onRollback();
+                        }
                     });
+                }
+                else
+                {
+                    txn.addPostTransactionAction(settleAction);
+                }
             }
             else if(outcome instanceof Released)
             {
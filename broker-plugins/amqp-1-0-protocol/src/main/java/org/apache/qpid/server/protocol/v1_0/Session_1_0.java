@@ -96,11 +96,13 @@ import org.apache.qpid.server.protocol.v1_0.type.transport.LinkError;
 import org.apache.qpid.server.protocol.v1_0.type.transport.Role;
 import org.apache.qpid.server.protocol.v1_0.type.transport.SessionError;
 import org.apache.qpid.server.protocol.v1_0.type.transport.Transfer;
+import org.apache.qpid.server.queue.AcknowledgedEntryDeleter;
 import org.apache.qpid.server.queue.CreatingLinkInfo;
 import org.apache.qpid.server.queue.CreatingLinkInfoImpl;
 import org.apache.qpid.server.security.SecurityToken;
 import org.apache.qpid.server.session.AbstractAMQPSession;
 import org.apache.qpid.server.transport.AMQPConnection;
+import org.apache.qpid.server.txn.AutoCommitTransaction;
 import org.apache.qpid.server.txn.ServerTransaction;
 import org.apache.qpid.server.util.Action;
 import org.apache.qpid.server.util.ConnectionScopedRuntimeException;
@@ -143,6 +145,8 @@ public class Session_1_0 extends AbstractAMQPSession<Session_1_0, ConsumerTarget
 
     private final DeliveryRegistry _outgoingDeliveryRegistry = new DeliveryRegistryImpl();
     private final DeliveryRegistry _incomingDeliveryRegistry = new DeliveryRegistryImpl();
+    private final AcknowledgedEntryDeleter _acknowledgedEntryDeleter = new AcknowledgedEntryDeleter();
+    private ServerTransaction _autoCommitTransaction;
 
     private final Error _sessionEndedLinkError =
             new Error(LinkError.DETACH_FORCED,
@@ -464,22 +468,48 @@ public class Session_1_0 extends AbstractAMQPSession<Session_1_0, ConsumerTarget
             last = new SequenceNumber(disposition.getLast().intValue());
         }
 
-        while(deliveryId.compareTo(last)<=0)
+        // the deliveries accepted by the range are dequeued in one store transaction and their entries deleted together
+        _acknowledgedEntryDeleter.beginBatch();
+        try
         {
-            UnsignedInteger deliveryIdUnsigned = UnsignedInteger.valueOf(deliveryId.intValue());
-            UnsettledDelivery unsettledDelivery = unsettledDeliveries.getDelivery(deliveryIdUnsigned);
-
-            if(unsettledDelivery != null)
+            while(deliveryId.compareTo(last)<=0)
             {
-                LinkEndpoint<?,?> linkEndpoint  = unsettledDelivery.getLinkEndpoint();
-                linkEndpoint.receiveDeliveryState(unsettledDelivery.getDeliveryTag(), disposition.getState(), disposition.getSettled());
-                if (Boolean.TRUE.equals(disposition.getSettled()))
+                UnsignedInteger deliveryIdUnsigned = UnsignedInteger.valueOf(deliveryId.intValue());
+                UnsettledDelivery unsettledDelivery = unsettledDeliveries.getDelivery(deliveryIdUnsigned);
+
+                if(unsettledDelivery != null)
                 {
-                    unsettledDeliveries.removeDelivery(deliveryIdUnsigned);
+                    LinkEndpoint<?,?> linkEndpoint  = unsettledDelivery.getLinkEndpoint();
+                    linkEndpoint.receiveDeliveryState(unsettledDelivery.getDeliveryTag(), disposition.getState(), disposition.getSettled());
+                    if (Boolean.TRUE.equals(disposition.getSettled()))
+                    {
+                        unsettledDeliveries.removeDelivery(deliveryIdUnsigned);
+                    }
                 }
+                deliveryId.incr();
             }
-            deliveryId.incr();
         }
+        finally
+        {
+            _acknowledgedEntryDeleter.endBatch();
+        }
+    }
+
+    AcknowledgedEntryDeleter getAcknowledgedEntryDeleter()
+    {
+        return _acknowledgedEntryDeleter;
+    }
+
+    /**
+     * The transaction in which the outcomes of deliveries received outside a transaction are applied.
+     */
+    ServerTransaction getAutoCommitTransaction()
+    {
+        if (_autoCommitTransaction == null)
+        {
+            _autoCommitTransaction = new AutoCommitTransaction(getAddressSpace().getMessageStore());
+        }
+        return _autoCommitTransaction;
     }
 
     public SessionState getSessionState()
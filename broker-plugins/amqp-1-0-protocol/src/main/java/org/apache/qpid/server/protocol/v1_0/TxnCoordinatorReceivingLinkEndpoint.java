@@ -25,6 +25,11 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import org.apache.qpid.server.bytebuffer.QpidByteBuffer;
 import org.apache.qpid.server.protocol.v1_0.type.AmqpErrorException;
 import org.apache.qpid.server.protocol.v1_0.type.Binary;
@@ -50,7 +55,11 @@ import org.apache.qpid.server.util.ConnectionScopedRuntimeException;
 
 public class TxnCoordinatorReceivingLinkEndpoint extends AbstractReceivingLinkEndpoint<Coordinator>
 {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TxnCoordinatorReceivingLinkEndpoint.class);
+
     private final LinkedHashMap<Integer, ServerTransaction> _createdTransactions = new LinkedHashMap<>();
+    /** Transactions committed asynchronously whose outcome is yet to be sent and post commit actions yet to run */
+    private final LinkedHashMap<Integer, LocalTransaction> _dischargingTransactions = new LinkedHashMap<>();
 
     public TxnCoordinatorReceivingLinkEndpoint(final Session_1_0 session, final Link_1_0<Source, Coordinator> link)
     {
@@ -105,29 +114,9 @@ public class TxnCoordinatorReceivingLinkEndpoint extends AbstractReceivingLinkEn
                     {
                         Discharge discharge = (Discharge) command;
 
-                        Error error = discharge(discharge.getTxnId(), Boolean.TRUE.equals(discharge.getFail()));
-                        final DeliveryState outcome;
-                        if (error == null)
-                        {
-                            outcome = new Accepted();
-                        }
-                        else if (Arrays.asList(getSource().getOutcomes()).contains(Rejected.REJECTED_SYMBOL))
-                        {
-                            final Rejected rejected = new Rejected();
-                            rejected.setError(error);
-                            outcome = rejected;
-                            error = null;
-                        }
-                        else
-                        {
-                            outcome = null;
-                        }
-
-                        if (error == null)
-                        {
-                            updateDisposition(delivery.getDeliveryTag(), outcome, true);
-                        }
-                        return error;
+                        return discharge(delivery.getDeliveryTag(),
+                                         discharge.getTxnId(),
+                                         Boolean.TRUE.equals(discharge.getFail()));
                     }
                     else
                     {
@@ -155,7 +144,7 @@ public class TxnCoordinatorReceivingLinkEndpoint extends AbstractReceivingLinkEn
         return null;
     }
 
-    private Error discharge(Binary transactionIdAsBinary, boolean fail)
+    private Error discharge(final Binary deliveryTag, Binary transactionIdAsBinary, boolean fail)
     {
         Error error = null;
         Integer transactionId = null;
@@ -172,12 +161,21 @@ public class TxnCoordinatorReceivingLinkEndpoint extends AbstractReceivingLinkEn
 
         if(txn != null)
         {
+            _createdTransactions.remove(transactionId);
+            if (!fail && txn instanceof LocalTransaction && !((LocalTransaction) txn).isRollbackOnly())
+            {
+                // the transaction stays registered with the connection until its post commit actions have run
+                commitAsync(transactionId, (LocalTransaction) txn, deliveryTag);
+                return null;
+            }
+
+            getSession().getConnection().removeTransaction(transactionId);
             if(fail)
             {
                 txn.rollback();
                 getSession().incrementRolledBackTransactions();
             }
-            else if(!(txn instanceof LocalTransaction && ((LocalTransaction)txn).isRollbackOnly()))
+            else if(!(txn instanceof LocalTransaction))
             {
                 txn.commit();
                 getSession().incrementCommittedTransactions();
@@ -190,8 +188,6 @@ public class TxnCoordinatorReceivingLinkEndpoint extends AbstractReceivingLinkEn
                 error.setCondition(TransactionError.TRANSACTION_ROLLBACK);
                 error.setDescription("The transaction was marked as rollback only due to an earlier issue (e.g. a published message was sent settled but could not be enqueued)");
             }
-            _createdTransactions.remove(transactionId);
-            getSession().getConnection().removeTransaction(transactionId);
         }
         else
         {
@@ -199,12 +195,106 @@ public class TxnCoordinatorReceivingLinkEndpoint extends AbstractReceivingLinkEn
             error.setCondition(TransactionError.UNKNOWN_ID);
             error.setDescription("Unknown transactionId " + transactionIdAsBinary.toString());
         }
+        return dischargeCompleted(deliveryTag, error);
+    }
+
+    private void commitAsync(final Integer transactionId, final LocalTransaction txn, final Binary deliveryTag)
+    {
+        final ListenableFuture<Void> future;
+        try
+        {
+            future = txn.commitAsync(() -> getSession().incrementCommittedTransactions());
+        }
+        catch (RuntimeException e)
+        {
+            getSession().getConnection().removeTransaction(transactionId);
+            throw e;
+        }
+        _dischargingTransactions.put(transactionId, txn);
+
+        // the outcome is sent (and the post transaction actions run) on the IO thread once the store has committed,
+        // so that the IO thread is not held whilst the store syncs
+        future.addListener(() -> getSession().doOnIOThreadAsync(() ->
+        {
+            if (_dischargingTransactions.remove(transactionId) == null)
+            {
+                // already completed when the link was detached
+                return;
+            }
+
+            try
+            {
+                completeDischarge(transactionId, txn);
+            }
+            catch (RuntimeException e)
+            {
+                LOGGER.error("Failed to commit transaction", e);
+                close(new Error(AmqpError.INTERNAL_ERROR, "Failed to commit transaction: " + e.getMessage()));
+                throw e;
+            }
+
+            if (!isDetached())
+            {
+                dischargeCompleted(deliveryTag, null);
+            }
+        }), MoreExecutors.directExecutor());
+    }
+
+    private void completeDischarge(final Integer transactionId, final LocalTransaction txn)
+    {
+        try
+        {
+            txn.sync();
+        }
+        finally
+        {
+            getSession().getConnection().removeTransaction(transactionId);
+        }
+    }
+
+    private Error dischargeCompleted(final Binary deliveryTag, Error error)
+    {
+        final DeliveryState outcome;
+        if (error == null)
+        {
+            outcome = new Accepted();
+        }
+        else if (Arrays.asList(getSource().getOutcomes()).contains(Rejected.REJECTED_SYMBOL))
+        {
+            final Rejected rejected = new Rejected();
+            rejected.setError(error);
+            outcome = rejected;
+            error = null;
+        }
+        else
+        {
+            outcome = null;
+        }
+
+        if (error == null)
+        {
+            updateDisposition(deliveryTag, outcome, true);
+        }
         return error;
     }
 
     @Override
     protected void remoteDetachedPerformDetach(Detach detach)
     {
+        // the transactions being discharged are committed, so wait for the store and run their post commit actions
+        for(Map.Entry<Integer, LocalTransaction> entry : _dischargingTransactions.entrySet())
+        {
+            try
+            {
+                completeDischarge(entry.getKey(), entry.getValue());
+            }
+            catch (RuntimeException e)
+            {
+                LOGGER.error("Failed to commit transaction", e);
+            }
+        }
+        _dischargingTransactions.clear();
+
         // force rollback of open transactions
         for(Map.Entry<Integer, ServerTransaction> entry : _createdTransactions.entrySet())
         {
@@ -29,18 +29,58 @@ import org.apache.qpid.server.protocol.v1_0.framing.AMQFrame;
 import org.apache.qpid.server.protocol.v1_0.type.UnsignedShort;
 import org.apache.qpid.server.transport.ByteBufferSender;
 
+/**
+ * Encodes frames and hands them to a {@link ByteBufferSender}.
+ * <p>
+ * When coalescing is enabled the encoded frame headers and performatives, together with any payload not larger than
+ * the configured threshold, are copied into a shared output buffer.  The accumulated region is only handed to the
+ * sender when the output buffer is full, when a large payload has to be sent as slices, or when {@link #flush()} is
+ * called, so that many small frames end up in a single buffer of the gathering write.
+ * <p>
+ * This class is not thread-safe and is expected to be used from the connection's IO thread only.
+ */
 public class FrameWriter
 {
+    private static final int MINIMUM_USEFUL_SPACE = 64;
+
     private final ByteBufferSender _sender;
     private final ValueWriter.Registry _registry;
     private static final byte[] EMPTY_BYTE_ARRAY = new byte[] {};
 
+    private int _outputBufferSize;
+    private int _maxCoalescedPayloadSize = -1;
+    private QpidByteBuffer _outputBuffer;
+    private int _outputBufferMark;
+
+    private volatile long _framesWritten;
+    private volatile long _buffersWritten;
+    private volatile long _bytesWritten;
+
     public FrameWriter(final ValueWriter.Registry registry, final ByteBufferSender sender)
     {
         _registry = registry;
         _sender = sender;
     }
 
+    /**
+     * Enables coalescing of small frames into output buffers of the given size.
+     *
+     * @param outputBufferSize size of the shared output buffers
+     * @param maxCoalescedPayloadSize payloads up to this size are copied into the output buffer, larger payloads are
+     *                                sent as slices. A negative value disables coalescing.
+     */
+    public void setCoalescing(final int outputBufferSize, final int maxCoalescedPayloadSize)
+    {
+        flush();
+        _outputBufferSize = outputBufferSize;
+        _maxCoalescedPayloadSize = outputBufferSize > 0 ? maxCoalescedPayloadSize : -1;
+    }
+
+    public boolean isCoalescing()
+    {
+        return _maxCoalescedPayloadSize >= 0;
+    }
+
     public <T> int send(AMQFrame<T> frame)
     {
         final List<QpidByteBuffer> payload = frame.getPayload();
@@ -59,8 +99,111 @@ public class FrameWriter
             bodySize = 8 + typeWriter.getEncodedSize();
         }
 
-        QpidByteBuffer body = QpidByteBuffer.allocate(_sender.isDirectBufferPreferred(), bodySize);
         final int totalSize = bodySize + payloadLength;
+        _framesWritten++;
+
+        if (isCoalescing() && bodySize <= _outputBufferSize)
+        {
+            final boolean copyPayload = payloadLength <= _maxCoalescedPayloadSize
+                                        && totalSize <= _outputBufferSize;
+            final int requiredSpace = copyPayload ? totalSize : bodySize;
+            if (_outputBuffer == null || _outputBuffer.remaining() < requiredSpace)
+            {
+                flush();
+                releaseOutputBuffer();
+                _outputBuffer = QpidByteBuffer.allocate(_sender.isDirectBufferPreferred(), _outputBufferSize);
+                _outputBufferMark = 0;
+            }
+
+            writeFrameHeader(_outputBuffer, frame, typeWriter, totalSize);
+            if (payload != null)
+            {
+                if (copyPayload)
+                {
+                    // the caller's payload buffers are left unchanged
+                    for (QpidByteBuffer buf : payload)
+                    {
+                        _outputBuffer.putCopyOf(buf);
+                    }
+                }
+                else
+                {
+                    flush();
+                    sendPayload(payload);
+                }
+            }
+        }
+        else
+        {
+            flush();
+
+            QpidByteBuffer body = QpidByteBuffer.allocate(_sender.isDirectBufferPreferred(), bodySize);
+            writeFrameHeader(body, frame, typeWriter, totalSize);
+            body.flip();
+
+            sendBuffer(body);
+            body.dispose();
+            if (payload != null)
+            {
+                sendPayload(payload);
+            }
+        }
+        return totalSize;
+    }
+
+    /**
+     * Hands any frames accumulated in the current output buffer to the sender.
+     */
+    public void flush()
+    {
+        if (_outputBuffer != null)
+        {
+            final int position = _outputBuffer.position();
+            if (position > _outputBufferMark)
+            {
+                QpidByteBuffer region = _outputBuffer.duplicate();
+                region.position(_outputBufferMark);
+                region.limit(position);
+                sendBuffer(region);
+                region.dispose();
+                _outputBufferMark = position;
+            }
+            if (_outputBuffer.remaining() < MINIMUM_USEFUL_SPACE)
+            {
+                releaseOutputBuffer();
+            }
+        }
+    }
+
+    /**
+     * Flushes any accumulated frames and releases the output buffer.
+     */
+    public void close()
+    {
+        flush();
+        releaseOutputBuffer();
+    }
+
+    public long getFramesWritten()
+    {
+        return _framesWritten;
+    }
+
+    public long getBuffersWritten()
+    {
+        return _buffersWritten;
+    }
+
+    public long getBytesWritten()
+    {
+        return _bytesWritten;
+    }
+
+    private <T> void writeFrameHeader(final QpidByteBuffer body,
+                                      final AMQFrame<T> frame,
+                                      final ValueWriter<T> typeWriter,
+                                      final int totalSize)
+    {
         body.putInt(totalSize);
         body.put((byte)2); // DOFF
         body.put(frame.getFrameType()); // AMQP Frame Type
@@ -69,18 +212,34 @@ public class FrameWriter
         {
             typeWriter.writeToBuffer(body);
         }
-        body.flip();
+    }
 
-        _sender.send(body);
-        body.dispose();
-        if(payload != null)
+    private void sendPayload(final List<QpidByteBuffer> payload)
+    {
+        for(QpidByteBuffer buf : payload)
         {
-            for(QpidByteBuffer buf : payload)
-            {
-                _sender.send(buf);
-            }
+            sendBuffer(buf);
         }
-        return totalSize;
     }
 
+    private void sendBuffer(final QpidByteBuffer buf)
+    {
+        final int remaining = buf.remaining();
+        if (remaining > 0)
+        {
+            _buffersWritten++;
+            _bytesWritten += remaining;
+        }
+        _sender.send(buf);
+    }
+
+    private void releaseOutputBuffer()
+    {
+        if (_outputBuffer != null)
+        {
+            _outputBuffer.dispose();
+            _outputBuffer = null;
+            _outputBufferMark = 0;
+        }
+    }
 }
@@ -34,14 +34,17 @@ import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 
 import junit.framework.TestCase;
+import org.mockito.ArgumentCaptor;
 
 import org.apache.qpid.server.bytebuffer.QpidByteBuffer;
 import org.apache.qpid.server.message.MessageInstance;
 import org.apache.qpid.server.message.MessageInstanceConsumer;
 import org.apache.qpid.server.model.Consumer;
 import org.apache.qpid.server.protocol.v1_0.messaging.SectionDecoderImpl;
+import org.apache.qpid.server.protocol.v1_0.type.Binary;
 import org.apache.qpid.server.protocol.v1_0.type.UnsignedInteger;
 import org.apache.qpid.server.protocol.v1_0.type.codec.AMQPDescribedTypeRegistry;
+import org.apache.qpid.server.protocol.v1_0.type.messaging.Accepted;
 import org.apache.qpid.server.protocol.v1_0.type.messaging.ApplicationProperties;
 import org.apache.qpid.server.protocol.v1_0.type.messaging.ApplicationPropertiesSection;
 import org.apache.qpid.server.protocol.v1_0.type.messaging.DeliveryAnnotations;
@@ -55,7 +58,13 @@ import org.apache.qpid.server.protocol.v1_0.type.messaging.MessageAnnotations;
 import org.apache.qpid.server.protocol.v1_0.type.messaging.MessageAnnotationsSection;
 import org.apache.qpid.server.protocol.v1_0.type.messaging.Properties;
 import org.apache.qpid.server.protocol.v1_0.type.transport.Transfer;
+import org.apache.qpid.server.queue.AcknowledgedEntryDeleter;
+import org.apache.qpid.server.store.MessageEnqueueRecord;
+import org.apache.qpid.server.store.MessageStore;
+import org.apache.qpid.server.store.NullMessageStore;
 import org.apache.qpid.server.store.StoredMessage;
+import org.apache.qpid.server.store.Transaction;
+import org.apache.qpid.server.txn.AutoCommitTransaction;
 
 public class ConsumerTarget_1_0Test extends TestCase
 {
@@ -67,18 +76,19 @@ public class ConsumerTarget_1_0Test extends TestCase
                                                                                               .registerExtensionSoleconnLayer();
     private ConsumerTarget_1_0 _consumerTarget;
     private SendingLinkEndpoint _sendingLinkEndpoint;
+    private Session_1_0 _session;
 
     @Override
     public void setUp() throws Exception
     {
         super.setUp();
         final AMQPConnection_1_0 connection = mock(AMQPConnection_1_0.class);
-        final Session_1_0 session = mock(Session_1_0.class);
+        _session = mock(Session_1_0.class);
         _sendingLinkEndpoint = mock(SendingLinkEndpoint.class);
-        when(_sendingLinkEndpoint.getSession()).thenReturn(session);
+        when(_sendingLinkEndpoint.getSession()).thenReturn(_session);
         when(_sendingLinkEndpoint.isAttached()).thenReturn(true);
-        when(session.getAMQPConnection()).thenReturn(connection);
-        when(session.getConnection()).thenReturn(connection);
+        when(_session.getAMQPConnection()).thenReturn(connection);
+        when(_session.getConnection()).thenReturn(connection);
         when(connection.getDescribedTypeRegistry()).thenReturn(_describedTypeRegistry);
         when(connection.getContextValue(Long.class, Consumer.SUSPEND_NOTIFICATION_PERIOD)).thenReturn(10000L);
 
@@ -143,6 +153,69 @@ public class ConsumerTarget_1_0Test extends TestCase
         assertTrue("Unexpected ttl", sentHeader.getTtl().longValue() <= 1000);
     }
 
+    public void testAcceptedDispositionRangeDequeuedInOneStoreTransaction() throws Exception
+    {
+        final List<Transaction> storeTransactions = new ArrayList<>();
+        final MessageStore store = new NullMessageStore()
+        {
+            @Override
+            public Transaction newTransaction()
+            {
+                final Transaction transaction = mock(Transaction.class);
+                storeTransactions.add(transaction);
+                return transaction;
+            }
+        };
+        final AcknowledgedEntryDeleter acknowledgedEntryDeleter = new AcknowledgedEntryDeleter();
+        when(_session.getAcknowledgedEntryDeleter()).thenReturn(acknowledgedEntryDeleter);
+        when(_session.getAutoCommitTransaction()).thenReturn(new AutoCommitTransaction(store));
+
+        final MessageInstanceConsumer consumer = mock(MessageInstanceConsumer.class);
+        final List<MessageInstance> messageInstances = new ArrayList<>();
+        final List<MessageEnqueueRecord> enqueueRecords = new ArrayList<>();
+        for (int i = 0; i < 3; i++)
+        {
+            final Message_1_0 message = createTestMessage(new Header(), System.currentTimeMillis());
+            final MessageEnqueueRecord enqueueRecord = mock(MessageEnqueueRecord.class);
+            final MessageInstance messageInstance = mock(MessageInstance.class);
+            when(messageInstance.getMessage()).thenReturn(message);
+            when(messageInstance.makeAcquisitionUnstealable(consumer)).thenReturn(true);
+            when(messageInstance.isAcquiredBy(consumer)).thenReturn(true);
+            when(messageInstance.getEnqueueRecord()).thenReturn(enqueueRecord);
+            messageInstances.add(messageInstance);
+            enqueueRecords.add(enqueueRecord);
+
+            _consumerTarget.doSend(consumer, messageInstance, false);
+        }
+
+        final ArgumentCaptor<UnsettledAction> actionCaptor = ArgumentCaptor.forClass(UnsettledAction.class);
+        verify(_sendingLinkEndpoint, times(3)).addUnsettled(any(Binary.class),
+                                                            actionCaptor.capture(),
+                                                            any(MessageInstance.class));
+
+        // the deliveries of a disposition range are processed in a batch, as by Session_1_0#receiveDisposition
+        acknowledgedEntryDeleter.beginBatch();
+        for (UnsettledAction action : actionCaptor.getAllValues())
+        {
+            action.process(new Accepted(), true);
+        }
+        assertTrue("Dequeued before the end of the range", storeTransactions.isEmpty());
+        acknowledgedEntryDeleter.endBatch();
+
+        assertEquals("Unexpected number of store transactions", 1, storeTransactions.size());
+        final Transaction storeTransaction = storeTransactions.get(0);
+        for (MessageEnqueueRecord enqueueRecord : enqueueRecords)
+        {
+            verify(storeTransaction).dequeueMessage(enqueueRecord);
+        }
+        verify(storeTransaction).commitTran();
+        for (MessageInstance messageInstance : messageInstances)
+        {
+            verify(messageInstance).delete();
+        }
+        verify(_sendingLinkEndpoint, times(3)).settle(any(Binary.class));
+    }
+
     private Message_1_0 createTestMessage(final Header header, long arrivalTime)
     {
         DeliveryAnnotationsSection deliveryAnnotations =
@@ -23,18 +23,21 @@ package org.apache.qpid.server.protocol.v1_0;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.security.Principal;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -73,7 +76,9 @@ import org.apache.qpid.server.security.auth.manager.ExternalAuthenticationManage
 import org.apache.qpid.server.transport.AMQPConnection;
 import org.apache.qpid.server.transport.AggregateTicker;
 import org.apache.qpid.server.transport.ByteBufferSender;
+import org.apache.qpid.server.transport.ProtocolEngine;
 import org.apache.qpid.server.transport.ServerNetworkConnection;
+import org.apache.qpid.server.util.Action;
 import org.apache.qpid.server.virtualhost.ConnectionEstablishmentPolicy;
 import org.apache.qpid.server.virtualhost.VirtualHostPrincipal;
 import org.apache.qpid.test.utils.QpidTestCase;
@@ -276,6 +281,100 @@ public class ProtocolEngine_1_0_0Test extends QpidTestCase
         assertEquals(principal, new AuthenticatedPrincipal(anonymousAuthenticationManager.getAnonymousPrincipal()));
     }
 
+    public void testPipelinedHeaderAndOpenProcessedOnceAuthenticatedAsynchronously() throws Exception
+    {
+        final Map<String, Object> attrs = Collections.singletonMap(ConfiguredObject.NAME, getTestName());
+        final AnonymousAuthenticationManager anonymousAuthenticationManager =
+                (new AnonymousAuthenticationManagerFactory()).create(null, attrs, _broker);
+        when(_port.getAuthenticationProvider()).thenReturn(anonymousAuthenticationManager);
+        when(_port.getSubjectCreator(anyBoolean(), anyString())).thenReturn(new SubjectCreator(anonymousAuthenticationManager, Collections.emptyList(), null));
+        final List<Runnable> authenticationTasks = new ArrayList<>();
+        when(_port.getAuthenticationExecutor()).thenReturn(authenticationTasks::add);
+
+        allowMechanisms(AnonymousAuthenticationManager.MECHANISM_NAME);
+
+        createEngine(Transport.TCP);
+
+        _protocolEngine_1_0_0.received(QpidByteBuffer.wrap(ProtocolEngineCreator_1_0_0_SASL.getInstance()
+                                                                   .getHeaderIdentifier()));
+
+        // sasl-init, the AMQP header and open in a single write
+        SaslInit init = new SaslInit();
+        init.setMechanism(Symbol.valueOf("ANONYMOUS"));
+        Open open = new Open();
+        open.setContainerId("testContainerId");
+        final ByteArrayOutputStream pipelined = new ByteArrayOutputStream();
+        final FrameWriter frameWriter = createFrameWriter(pipelined);
+        frameWriter.send(new SASLFrame(init));
+        pipelined.write(ProtocolEngineCreator_1_0_0.getInstance().getHeaderIdentifier());
+        frameWriter.send(AMQFrame.createAMQFrame((short) 0, open));
+        final QpidByteBuffer input = QpidByteBuffer.wrap(pipelined.toByteArray());
+
+        _protocolEngine_1_0_0.received(input);
+
+        assertTrue("Input after sasl-init unexpectedly consumed", input.hasRemaining());
+        assertFalse("Unread input offered before authentication completed",
+                    _protocolEngine_1_0_0.hasUnprocessedInput());
+        assertEquals("Unexpected number of authentication tasks", 1, authenticationTasks.size());
+
+        final Action<ProtocolEngine> workListener = mock(Action.class);
+        _protocolEngine_1_0_0.setWorkListener(workListener);
+        authenticationTasks.get(0).run();
+        _protocolEngine_1_0_0.setIOThread(Thread.currentThread());
+        final Iterator<Runnable> pendingIterator = _protocolEngine_1_0_0.processPendingIterator();
+        while (pendingIterator.hasNext())
+        {
+            pendingIterator.next().run();
+        }
+
+        verify(workListener, atLeastOnce()).performAction(_protocolEngine_1_0_0);
+        assertTrue("Unread input not offered once authenticated", _protocolEngine_1_0_0.hasUnprocessedInput());
+
+        // as the network does, offer the unread input again
+        _protocolEngine_1_0_0.received(input);
+
+        assertFalse("Input not consumed", input.hasRemaining());
+        assertFalse("Unread input still reported", _protocolEngine_1_0_0.hasUnprocessedInput());
+        verify(_virtualHost).registerConnection(any(AMQPConnection.class), any(ConnectionEstablishmentPolicy.class));
+        AuthenticatedPrincipal principal = (AuthenticatedPrincipal) _connection.getAuthorizedPrincipal();
+        assertNotNull(principal);
+        assertEquals(principal, new AuthenticatedPrincipal(anonymousAuthenticationManager.getAnonymousPrincipal()));
+    }
+
+    private FrameWriter createFrameWriter(final ByteArrayOutputStream output)
+    {
+        AMQPDescribedTypeRegistry registry = AMQPDescribedTypeRegistry.newInstance().registerTransportLayer()
+                .registerMessagingLayer()
+                .registerTransactionLayer()
+                .registerSecurityLayer();
+
+        return new FrameWriter(registry, new ByteBufferSender()
+        {
+            @Override
+            public boolean isDirectBufferPreferred()
+            {
+                return false;
+            }
+
+            @Override
+            public void send(final QpidByteBuffer msg)
+            {
+                final byte[] bytes = new byte[msg.remaining()];
+                msg.get(bytes);
+                output.write(bytes, 0, bytes.length);
+            }
+
+            @Override
+            public void flush()
+            {
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        });
+    }
 
     private void createEngine(Transport transport)
     {
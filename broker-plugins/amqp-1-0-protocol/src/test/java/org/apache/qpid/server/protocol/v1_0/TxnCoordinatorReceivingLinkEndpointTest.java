@@ -0,0 +1,156 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.protocol.v1_0;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import org.apache.qpid.server.protocol.v1_0.type.Binary;
+import org.apache.qpid.server.protocol.v1_0.type.codec.AMQPDescribedTypeRegistry;
+import org.apache.qpid.server.protocol.v1_0.type.messaging.AmqpValue;
+import org.apache.qpid.server.protocol.v1_0.type.messaging.Source;
+import org.apache.qpid.server.protocol.v1_0.type.transaction.Coordinator;
+import org.apache.qpid.server.protocol.v1_0.type.transaction.Declare;
+import org.apache.qpid.server.protocol.v1_0.type.transaction.Discharge;
+import org.apache.qpid.server.protocol.v1_0.type.transport.Detach;
+import org.apache.qpid.server.txn.LocalTransaction;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class TxnCoordinatorReceivingLinkEndpointTest extends QpidTestCase
+{
+    private static final AMQPDescribedTypeRegistry DESCRIBED_TYPE_REGISTRY = AMQPDescribedTypeRegistry.newInstance()
+                                                                                                      .registerTransportLayer()
+                                                                                                      .registerMessagingLayer()
+                                                                                                      .registerTransactionLayer();
+    private static final int TRANSACTION_ID = 0;
+
+    private AMQPConnection_1_0 _connection;
+    private Session_1_0 _session;
+    private LocalTransaction _transaction;
+    private SettableFuture<Void> _commitFuture;
+    private TxnCoordinatorReceivingLinkEndpoint _endpoint;
+    private final List<Runnable> _ioThreadTasks = new ArrayList<>();
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        _connection = mock(AMQPConnection_1_0.class);
+        when(_connection.getDescribedTypeRegistry()).thenReturn(DESCRIBED_TYPE_REGISTRY);
+
+        _session = mock(Session_1_0.class);
+        when(_session.getConnection()).thenReturn(_connection);
+        when(_session.doOnIOThreadAsync(any(Runnable.class))).thenAnswer(new Answer<ListenableFuture<Void>>()
+        {
+            @Override
+            public ListenableFuture<Void> answer(final InvocationOnMock invocation) throws Throwable
+            {
+                _ioThreadTasks.add((Runnable) invocation.getArguments()[0]);
+                return Futures.immediateFuture(null);
+            }
+        });
+
+        _transaction = mock(LocalTransaction.class);
+        _commitFuture = SettableFuture.create();
+        when(_transaction.commitAsync(any(Runnable.class))).thenReturn(_commitFuture);
+        when(_connection.createIdentifiedTransaction()).thenReturn(new IdentifiedTransaction(TRANSACTION_ID,
+                                                                                             _transaction));
+
+        final Link_1_0<Source, Coordinator> link = mock(Link_1_0.class);
+        _endpoint = new TxnCoordinatorReceivingLinkEndpoint(_session, link);
+        assertNull("Unexpected error on declare", _endpoint.receiveDelivery(createDelivery(new Declare(), 1)));
+    }
+
+    public void testDischargeCompletedOnceCommitted()
+    {
+        assertNull("Unexpected error on discharge", _endpoint.receiveDelivery(createDelivery(createDischarge(), 2)));
+
+        verify(_transaction).commitAsync(any(Runnable.class));
+        verify(_connection, never()).removeTransaction(TRANSACTION_ID);
+        verify(_transaction, never()).sync();
+
+        _commitFuture.set(null);
+        runIOThreadTasks();
+
+        verify(_transaction).sync();
+        verify(_connection).removeTransaction(TRANSACTION_ID);
+        verify(_transaction, never()).rollback();
+    }
+
+    public void testDetachWhilstDischargePending()
+    {
+        assertNull("Unexpected error on discharge", _endpoint.receiveDelivery(createDelivery(createDischarge(), 2)));
+        verify(_connection, never()).removeTransaction(TRANSACTION_ID);
+
+        _endpoint.remoteDetachedPerformDetach(new Detach());
+
+        verify(_transaction).sync();
+        verify(_transaction, never()).rollback();
+        verify(_connection).removeTransaction(TRANSACTION_ID);
+
+        _commitFuture.set(null);
+        runIOThreadTasks();
+
+        verify(_transaction, times(1)).sync();
+        verify(_connection, times(1)).removeTransaction(TRANSACTION_ID);
+    }
+
+    private void runIOThreadTasks()
+    {
+        final List<Runnable> tasks = new ArrayList<>(_ioThreadTasks);
+        _ioThreadTasks.clear();
+        for (Runnable task : tasks)
+        {
+            task.run();
+        }
+    }
+
+    private Discharge createDischarge()
+    {
+        final Discharge discharge = new Discharge();
+        discharge.setTxnId(Session_1_0.integerToTransactionId(TRANSACTION_ID));
+        discharge.setFail(false);
+        return discharge;
+    }
+
+    private Delivery createDelivery(final Object command, final int tag)
+    {
+        final Delivery delivery = mock(Delivery.class);
+        when(delivery.getDeliveryTag()).thenReturn(new Binary(new byte[]{(byte) tag}));
+        when(delivery.getPayload()).thenReturn(new AmqpValue(command).createEncodingRetainingSection()
+                                                                      .getEncodedForm());
+        return delivery;
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package org.apache.qpid.server.protocol.v1_0.codec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.qpid.server.bytebuffer.QpidByteBuffer;
+import org.apache.qpid.server.protocol.v1_0.framing.TransportFrame;
+import org.apache.qpid.server.protocol.v1_0.type.codec.AMQPDescribedTypeRegistry;
+import org.apache.qpid.server.transport.ByteBufferSender;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class FrameWriterTest extends QpidTestCase
+{
+    private static final AMQPDescribedTypeRegistry TYPE_REGISTRY = AMQPDescribedTypeRegistry.newInstance()
+                                                                                            .registerTransportLayer();
+
+    private List<byte[]> _sent;
+    private FrameWriter _frameWriter;
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+        _sent = new ArrayList<>();
+        _frameWriter = new FrameWriter(TYPE_REGISTRY, new ByteBufferSender()
+        {
+            @Override
+            public boolean isDirectBufferPreferred()
+            {
+                return false;
+            }
+
+            @Override
+            public void send(final QpidByteBuffer msg)
+            {
+                byte[] data = new byte[msg.remaining()];
+                msg.get(data);
+                _sent.add(data);
+            }
+
+            @Override
+            public void flush()
+            {
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        });
+    }
+
+    public void testFramesSentIndividuallyWithoutCoalescing()
+    {
+        _frameWriter.send(new TransportFrame(0, null));
+        _frameWriter.send(new TransportFrame(1, null));
+
+        assertEquals("Unexpected number of buffers", 2, _sent.size());
+        assertEquals("Unexpected frame count", 2, _frameWriter.getFramesWritten());
+        assertEquals("Unexpected buffer count", 2, _frameWriter.getBuffersWritten());
+    }
+
+    public void testSmallFramesCoalescedUntilFlush()
+    {
+        _frameWriter.setCoalescing(1024, 16);
+
+        _frameWriter.send(new TransportFrame(0, null));
+        _frameWriter.send(new TransportFrame(1, null, payload(10)));
+        _frameWriter.send(new TransportFrame(2, null));
+
+        assertTrue("Frames should not be sent before flush", _sent.isEmpty());
+
+        _frameWriter.flush();
+
+        assertEquals("Unexpected number of buffers", 1, _sent.size());
+        assertEquals("Unexpected coalesced size", 8 + 18 + 8, _sent.get(0).length);
+        assertEquals("Unexpected channel of second frame", 1, _sent.get(0)[15]);
+        assertEquals("Unexpected frame count", 3, _frameWriter.getFramesWritten());
+        assertEquals("Unexpected buffer count", 1, _frameWriter.getBuffersWritten());
+        assertEquals("Unexpected byte count", 34, _frameWriter.getBytesWritten());
+    }
+
+    public void testCopiedPayloadLeftUnchanged()
+    {
+        _frameWriter.setCoalescing(1024, 16);
+        final QpidByteBuffer payload = QpidByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10});
+        payload.position(2);
+
+        _frameWriter.send(new TransportFrame(1, null, Collections.singletonList(payload)));
+        _frameWriter.flush();
+
+        assertEquals("Unexpected payload position", 2, payload.position());
+        assertEquals("Unexpected payload remaining", 8, payload.remaining());
+        assertEquals("Unexpected number of buffers", 1, _sent.size());
+        assertEquals("Unexpected coalesced size", 8 + 8, _sent.get(0).length);
+        assertEquals("Unexpected first payload byte", 3, _sent.get(0)[8]);
+    }
+
+    public void testLargePayloadSentAsSlice()
+    {
+        _frameWriter.setCoalescing(1024, 16);
+
+        _frameWriter.send(new TransportFrame(0, null));
+        _frameWriter.send(new TransportFrame(1, null, payload(100)));
+        _frameWriter.flush();
+
+        assertEquals("Unexpected number of buffers", 2, _sent.size());
+        assertEquals("Unexpected header buffer size", 16, _sent.get(0).length);
+        assertEquals("Unexpected payload buffer size", 100, _sent.get(1).length);
+    }
+
+    public void testOutputBufferFlushedWhenFull()
+    {
+        _frameWriter.setCoalescing(100, 16);
+
+        for (int i = 0; i < 20; i++)
+        {
+            _frameWriter.send(new TransportFrame(0, null));
+        }
+        _frameWriter.close();
+
+        int total = 0;
+        for (byte[] buf : _sent)
+        {
+            assertTrue("Buffer exceeds output buffer size", buf.length <= 100);
+            total += buf.length;
+        }
+        assertEquals("Unexpected total size", 20 * 8, total);
+        assertEquals("Unexpected number of buffers", 2, _sent.size());
+    }
+
+    private List<QpidByteBuffer> payload(final int size)
+    {
+        return Collections.singletonList(QpidByteBuffer.wrap(new byte[size]));
+    }
+}
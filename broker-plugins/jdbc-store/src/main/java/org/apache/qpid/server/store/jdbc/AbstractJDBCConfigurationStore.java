@@ -666,7 +666,7 @@ public abstract class AbstractJDBCConfigurationStore implements MessageStoreProv
         try
         {
 
-            try (Connection conn = newAutoCommitConnection())
+            try (Connection conn = newConnection())
             {
                 for (ConfiguredObjectRecord record : objects)
                 {
@@ -675,6 +675,7 @@ public abstract class AbstractJDBCConfigurationStore implements MessageStoreProv
                         removed.add(record.getId());
                     }
                 }
+                conn.commit();
             }
         }
         catch (SQLException e)
@@ -33,7 +33,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
@@ -76,11 +79,19 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
     private static final String DB_VERSION_TABLE_NAME_SUFFIX = "QPID_DB_VERSION";
     private static final String QUEUE_ENTRY_TABLE_NAME_SUFFIX = "QPID_QUEUE_ENTRIES";
     private static final String META_DATA_TABLE_NAME_SUFFIX = "QPID_MESSAGE_METADATA";
-    private static final String MESSAGE_CONTENT_TABLE_NAME_SUFFIX = "QPID_MESSAGE_CONTENT";
+    private static final String MESSAGE_CONTENT_TABLE_NAME_SUFFIX = "QPID_MESSAGE_CONTENT_CHUNKS";
+    /** Table holding the content of each message in a single row, replaced by the chunked table in version 9 */
+    private static final String LEGACY_MESSAGE_CONTENT_TABLE_NAME_SUFFIX = "QPID_MESSAGE_CONTENT";
     private static final String XID_TABLE_NAME_SUFFIX = "QPID_XIDS";
     private static final String XID_ACTIONS_TABLE_NAME_SUFFIX = "QPID_XID_ACTIONS";
 
-    private static final int DB_VERSION = 8;
+    private static final int DB_VERSION = 9;
+
+    /**
+     * Size of the rows into which message content is split, so that a region of the content can be read without
+     * reading all of it.  Part of the store format, so must not be changed.
+     */
+    static final int CONTENT_CHUNK_SIZE = 64 * 1024;
 
     private final AtomicLong _messageId = new AtomicLong(0);
 
@@ -170,6 +181,8 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
                             upgradeFromV6();
                         case 7:
                             upgradeFromV7();
+                        case 8:
+                            upgradeFromV8();
                         case DB_VERSION:
                             return;
                         default:
@@ -181,6 +194,40 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
 
     }
 
+    private void upgradeFromV8() throws SQLException
+    {
+        final String legacyContentTableName = _tablePrefix + LEGACY_MESSAGE_CONTENT_TABLE_NAME_SUFFIX;
+        try (Connection conn = newConnection())
+        {
+            if (tableExists(legacyContentTableName, conn))
+            {
+                try (Statement selectStmt = conn.createStatement();
+                     ResultSet rs = selectStmt.executeQuery("SELECT message_id, content FROM " + legacyContentTableName);
+                     PreparedStatement insertStmt = conn.prepareStatement(getInsertContentSql()))
+                {
+                    int rows = 0;
+                    while (rs.next())
+                    {
+                        addContentChunks(insertStmt, rs.getLong(1), getBlobAsBytes(rs, 2));
+                        if (++rows % 100 == 0)
+                        {
+                            insertStmt.executeBatch();
+                        }
+                    }
+                    insertStmt.executeBatch();
+                }
+                conn.commit();
+
+                try (Statement stmt = conn.createStatement())
+                {
+                    stmt.execute("DROP TABLE " + legacyContentTableName);
+                }
+                conn.commit();
+            }
+        }
+        updateDbVersion(9);
+    }
+
     private void upgradeFromV7() throws SQLException
     {
         updateDbVersion(8);
@@ -324,9 +371,9 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
                              + getMessageContentTableName()
                              + " ( message_id "
                              + getSqlBigIntType()
-                             + " not null, content "
+                             + " not null, chunk_index int not null, content "
                              + getSqlBlobType()
-                             + ", PRIMARY KEY (message_id) )");
+                             + ", PRIMARY KEY (message_id, chunk_index) )");
             }
         }
 
@@ -526,69 +573,59 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
         return new JDBCTransaction();
     }
 
-    private void enqueueMessage(ConnectionWrapper connWrapper, final TransactionLogResource queue, Long messageId) throws StoreException
+    private void enqueueMessages(ConnectionWrapper connWrapper, final List<MessageEnqueueRecord> enqueues)
+            throws StoreException
     {
-        Connection conn = connWrapper.getConnection();
-
-
         try
         {
-            if (getLogger().isDebugEnabled())
-            {
-                getLogger().debug("Enqueuing message {} on queue {} with id {} [Connection {}]",
-                                  messageId, queue.getName(), queue.getId(), conn);
-            }
-
-            try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO " + getQueueEntryTableName()
-                                                                + " (queue_id, message_id) values (?,?)"))
+            final PreparedStatement stmt = connWrapper.prepareStatement("INSERT INTO " + getQueueEntryTableName()
+                                                                        + " (queue_id, message_id) values (?,?)");
+            for (MessageEnqueueRecord record : enqueues)
             {
-                stmt.setString(1, queue.getId().toString());
-                stmt.setLong(2, messageId);
-                stmt.executeUpdate();
+                stmt.setString(1, record.getQueueId().toString());
+                stmt.setLong(2, record.getMessageNumber());
+                stmt.addBatch();
             }
-
+            stmt.executeBatch();
         }
         catch (SQLException e)
         {
-            getLogger().error("Failed to enqueue message {}", messageId, e);
-            throw new StoreException("Error writing enqueued message with id " + messageId + " for queue " + queue.getName() + " with id " + queue.getId()
-                                     + " to database", e);
+            getLogger().error("Failed to enqueue {} message(s)", enqueues.size(), e);
+            throw new StoreException("Error writing " + enqueues.size() + " enqueued message(s) to database", e);
         }
 
     }
 
-    private void dequeueMessage(ConnectionWrapper connWrapper, final UUID queueId,
-                                Long messageId) throws StoreException
+    private void dequeueMessages(ConnectionWrapper connWrapper, final List<MessageEnqueueRecord> dequeues)
+            throws StoreException
     {
-
-        Connection conn = connWrapper.getConnection();
-
         try
         {
-            try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM " + getQueueEntryTableName()
-                                                                + " WHERE queue_id = ? AND message_id =?"))
+            final PreparedStatement stmt = connWrapper.prepareStatement("DELETE FROM " + getQueueEntryTableName()
+                                                                        + " WHERE queue_id = ? AND message_id =?");
+            for (MessageEnqueueRecord record : dequeues)
             {
-                stmt.setString(1, queueId.toString());
-                stmt.setLong(2, messageId);
-                int results = stmt.executeUpdate();
-
+                stmt.setString(1, record.getQueueId().toString());
+                stmt.setLong(2, record.getMessageNumber());
+                stmt.addBatch();
+            }
+            final int[] results = stmt.executeBatch();
 
-                if (results != 1)
+            for (int i = 0; i < results.length; i++)
+            {
+                // drivers may report success without the number of rows affected
+                if (results[i] != 1 && results[i] != Statement.SUCCESS_NO_INFO)
                 {
-                    throw new StoreException("Unable to find message with id " + messageId
-                                             + " on queue with id " + queueId);
+                    final MessageEnqueueRecord record = dequeues.get(i);
+                    throw new StoreException("Unable to find message with id " + record.getMessageNumber()
+                                             + " on queue with id " + record.getQueueId());
                 }
-
-                getLogger().debug("Dequeuing message {} on queue with id {}", messageId, queueId);
-
             }
-
         }
         catch (SQLException e)
         {
-            getLogger().error("Failed to dequeue message {}", messageId, e);
-            throw new StoreException("Error deleting enqueued message with id " + messageId + " for queue with id "
-                                     + queueId + " from database", e);
+            getLogger().error("Failed to dequeue {} message(s)", dequeues.size(), e);
+            throw new StoreException("Error deleting " + dequeues.size() + " enqueued message(s) from database", e);
         }
 
     }
@@ -652,46 +689,46 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
                 stmt.executeUpdate();
             }
 
+            final List<StoredJDBCMessage<?>> messages = new ArrayList<>(enqueues.length);
             for(Transaction.EnqueueRecord enqueue : enqueues)
             {
                 StoredMessage storedMessage = enqueue.getMessage().getStoredMessage();
                 if(storedMessage instanceof StoredJDBCMessage)
                 {
-                    ((StoredJDBCMessage) storedMessage).store(conn);
+                    messages.add((StoredJDBCMessage<?>) storedMessage);
                 }
             }
+            storeMessages(connWrapper, messages);
 
-            try(PreparedStatement stmt = conn.prepareStatement("INSERT INTO " + getXidActionsTableName()
-                                                               + " ( format, global_id, branch_id, action_type, " +
-                                                               "queue_id, message_id ) values (?,?,?,?,?,?) "))
-            {
-                stmt.setLong(1,format);
-                stmt.setBytes(2, globalId);
-                stmt.setBytes(3, branchId);
+            final PreparedStatement stmt = connWrapper.prepareStatement("INSERT INTO " + getXidActionsTableName()
+                                                                        + " ( format, global_id, branch_id, action_type, "
+                                                                        + "queue_id, message_id ) values (?,?,?,?,?,?) ");
+            stmt.setLong(1,format);
+            stmt.setBytes(2, globalId);
+            stmt.setBytes(3, branchId);
 
-                if(enqueues != null)
+            if(enqueues != null)
+            {
+                stmt.setString(4, "E");
+                for(Transaction.EnqueueRecord record : enqueues)
                 {
-                    stmt.setString(4, "E");
-                    for(Transaction.EnqueueRecord record : enqueues)
-                    {
-                        stmt.setString(5, record.getResource().getId().toString());
-                        stmt.setLong(6, record.getMessage().getMessageNumber());
-                        stmt.executeUpdate();
-                    }
+                    stmt.setString(5, record.getResource().getId().toString());
+                    stmt.setLong(6, record.getMessage().getMessageNumber());
+                    stmt.addBatch();
                 }
+            }
 
-                if(dequeues != null)
+            if(dequeues != null)
+            {
+                stmt.setString(4, "D");
+                for(Transaction.DequeueRecord record : dequeues)
                 {
-                    stmt.setString(4, "D");
-                    for(Transaction.DequeueRecord record : dequeues)
-                    {
-                        stmt.setString(5, record.getEnqueueRecord().getQueueId().toString());
-                        stmt.setLong(6, record.getEnqueueRecord().getMessageNumber());
-                        stmt.executeUpdate();
-                    }
+                    stmt.setString(5, record.getEnqueueRecord().getQueueId().toString());
+                    stmt.setLong(6, record.getEnqueueRecord().getMessageNumber());
+                    stmt.addBatch();
                 }
-
             }
+            stmt.executeBatch();
             return Collections.emptyList();
         }
         catch (SQLException e)
@@ -741,9 +778,16 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
         return _tablePrefix + XID_ACTIONS_TABLE_NAME_SUFFIX;
     }
 
-    private static final class ConnectionWrapper
+    /**
+     * Wraps the connection of a transaction, caching the statements prepared on it so that each distinct statement
+     * is prepared once per transaction however many rows it writes.  The messages whose metadata and content are
+     * written by the transaction are recorded so that they are only marked as stored once it commits.
+     */
+    private static final class ConnectionWrapper implements AutoCloseable
     {
         private final Connection _connection;
+        private final Map<String, PreparedStatement> _statements = new HashMap<>();
+        private final List<StoredJDBCMessage<?>> _storedMessages = new ArrayList<>();
 
         public ConnectionWrapper(Connection conn)
         {
@@ -754,6 +798,51 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
         {
             return _connection;
         }
+
+        PreparedStatement prepareStatement(final String sql) throws SQLException
+        {
+            PreparedStatement statement = _statements.get(sql);
+            if (statement == null)
+            {
+                statement = _connection.prepareStatement(sql);
+                _statements.put(sql, statement);
+            }
+            return statement;
+        }
+
+        void addStoredMessages(final Collection<StoredJDBCMessage<?>> messages)
+        {
+            _storedMessages.addAll(messages);
+        }
+
+        void completeStoredMessages(final boolean committed)
+        {
+            if (!_storedMessages.isEmpty())
+            {
+                for (StoredJDBCMessage<?> message : _storedMessages)
+                {
+                    message.storeCompleted(committed);
+                }
+                _storedMessages.clear();
+            }
+        }
+
+        @Override
+        public void close() throws SQLException
+        {
+            try
+            {
+                for (PreparedStatement statement : _statements.values())
+                {
+                    statement.close();
+                }
+                _statements.clear();
+            }
+            finally
+            {
+                _connection.close();
+            }
+        }
     }
 
 
@@ -766,10 +855,12 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
 
             getLogger().debug("commit tran completed");
 
-            conn.close();
+            connWrapper.completeStoredMessages(true);
+            connWrapper.close();
         }
         catch (SQLException e)
         {
+            connWrapper.completeStoredMessages(false);
             throw new StoreException("Error commit tx", e);
         }
     }
@@ -809,48 +900,93 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
         {
             Connection conn = connWrapper.getConnection();
             conn.rollback();
-            conn.close();
+            connWrapper.close();
         }
         catch (SQLException e)
         {
             throw new StoreException("Error aborting transaction: " + e.getMessage(), e);
         }
+        finally
+        {
+            connWrapper.completeStoredMessages(false);
+        }
 
     }
 
-    private void storeMetaData(Connection conn, long messageId, StorableMessageMetaData metaData)
-            throws SQLException
+    /**
+     * Stores the metadata and content of those of the given messages not already stored, writing each table with a
+     * single batch.  The messages are marked as stored when the transaction of the connection commits.
+     *
+     * @return the total content size of the messages stored
+     */
+    private int storeMessages(final ConnectionWrapper connWrapper,
+                              final Collection<StoredJDBCMessage<?>> messages) throws SQLException
     {
-        getLogger().debug("Adding metadata for message {}", messageId);
-
-        try(PreparedStatement stmt = conn.prepareStatement("INSERT INTO " + getMetaDataTableName()
-                                                           + "( message_id , meta_data ) values (?, ?)"))
+        final List<StoredJDBCMessage<?>> storedMessages = new ArrayList<>(messages.size());
+        int storedSize = 0;
+        for (StoredJDBCMessage<?> message : messages)
         {
-            stmt.setLong(1, messageId);
-
-            final int bodySize = 1 + metaData.getStorableSize();
-            byte[] underlying = new byte[bodySize];
-            underlying[0] = (byte) metaData.getType().ordinal();
-            QpidByteBuffer buf = QpidByteBuffer.wrap(underlying);
-            buf.position(1);
-            buf = buf.slice();
-
-            metaData.writeToBuffer(buf);
-            try(ByteArrayInputStream bis = new ByteArrayInputStream(underlying))
+            if (message.store(connWrapper))
             {
-                stmt.setBinaryStream(2, bis, underlying.length);
-                int result = stmt.executeUpdate();
+                storedMessages.add(message);
+                storedSize += message.getContentSize();
+            }
+        }
 
-                if (result == 0)
+        if (!storedMessages.isEmpty())
+        {
+            connWrapper.addStoredMessages(storedMessages);
+            try
+            {
+                final int[] results = connWrapper.prepareStatement(getInsertMetaDataSql()).executeBatch();
+                for (int i = 0; i < results.length; i++)
                 {
-                    throw new StoreException("Unable to add meta data for message " + messageId);
+                    if (results[i] == 0)
+                    {
+                        throw new StoreException("Unable to add meta data for message "
+                                                 + storedMessages.get(i).getMessageNumber());
+                    }
                 }
+                connWrapper.prepareStatement(getInsertContentSql()).executeBatch();
             }
-            catch (IOException e)
+            catch (SQLException | RuntimeException e)
             {
-                throw new SQLException("Failed to close ByteArrayInputStream", e);
+                // the transaction cannot commit, so the messages may be stored again by another
+                connWrapper.completeStoredMessages(false);
+                throw e;
             }
         }
+        return storedSize;
+    }
+
+    private String getInsertMetaDataSql()
+    {
+        return "INSERT INTO " + getMetaDataTableName() + "( message_id , meta_data ) values (?, ?)";
+    }
+
+    private String getInsertContentSql()
+    {
+        return "INSERT INTO " + getMessageContentTableName() + "( message_id, chunk_index, content ) values (?, ?, ?)";
+    }
+
+    private void storeMetaData(ConnectionWrapper connWrapper, long messageId, StorableMessageMetaData metaData)
+            throws SQLException
+    {
+        getLogger().debug("Adding metadata for message {}", messageId);
+
+        final PreparedStatement stmt = connWrapper.prepareStatement(getInsertMetaDataSql());
+        stmt.setLong(1, messageId);
+
+        final int bodySize = 1 + metaData.getStorableSize();
+        byte[] underlying = new byte[bodySize];
+        underlying[0] = (byte) metaData.getType().ordinal();
+        QpidByteBuffer buf = QpidByteBuffer.wrap(underlying);
+        buf.position(1);
+        buf = buf.slice();
+
+        metaData.writeToBuffer(buf);
+        stmt.setBinaryStream(2, new ByteArrayInputStream(underlying), underlying.length);
+        stmt.addBatch();
 
     }
 
@@ -972,8 +1108,8 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
 
     protected abstract byte[] getBlobAsBytes(ResultSet rs, int col) throws SQLException;
 
-    private void addContent(final Connection conn, long messageId,
-                            Collection<QpidByteBuffer> contentBody)
+    private void addContent(final ConnectionWrapper connWrapper, long messageId,
+                            Collection<QpidByteBuffer> contentBody) throws SQLException
     {
         getLogger().debug("Adding content for message {}", messageId);
 
@@ -990,51 +1126,103 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
             buf.copyTo(dst);
         }
 
-        try(PreparedStatement stmt = conn.prepareStatement("INSERT INTO " + getMessageContentTableName()
-                                                           + "( message_id, content ) values (?, ?)"))
+        addContentChunks(connWrapper.prepareStatement(getInsertContentSql()), messageId, data);
+    }
+
+    /**
+     * Adds the rows holding the given content to the batch of the given statement.  At least one row is added, so
+     * that empty content can be distinguished from missing content.
+     */
+    private void addContentChunks(final PreparedStatement stmt, final long messageId, final byte[] data)
+            throws SQLException
+    {
+        int chunkIndex = 0;
+        int offset = 0;
+        do
         {
+            final int chunkLength = Math.min(CONTENT_CHUNK_SIZE, data.length - offset);
             stmt.setLong(1, messageId);
-            stmt.setBinaryStream(2, new ByteArrayInputStream(data), data.length);
-            stmt.executeUpdate();
-        }
-        catch (SQLException e)
-        {
-            JdbcUtils.closeConnection(conn, getLogger());
-            throw new StoreException("Error adding content for message " + messageId + ": " + e.getMessage(), e);
+            stmt.setInt(2, chunkIndex++);
+            stmt.setBinaryStream(3, new ByteArrayInputStream(data, offset, chunkLength), chunkLength);
+            stmt.addBatch();
+            offset += chunkLength;
         }
+        while (offset < data.length);
     }
 
     Collection<QpidByteBuffer> getAllContent(long messageId) throws StoreException
     {
         getLogger().debug("Message Id: {} Getting content body", messageId);
 
+        return getContent(messageId, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Reads the given region of the content of a message, reading only the rows holding that region.
+     */
+    Collection<QpidByteBuffer> getContent(long messageId, int offset, int length) throws StoreException
+    {
+        if (length == 0)
+        {
+            return QpidByteBuffer.allocateDirectCollection(0);
+        }
+
+        final int firstChunk = offset / CONTENT_CHUNK_SIZE;
+        final int lastChunk = (int) ((Math.min((long) offset + length, Integer.MAX_VALUE) - 1) / CONTENT_CHUNK_SIZE);
+
         try(Connection conn = newAutoCommitConnection();
-            PreparedStatement stmt = conn.prepareStatement("SELECT content FROM " + getMessageContentTableName()
-        + " WHERE message_id = ?"))
+            PreparedStatement stmt = conn.prepareStatement("SELECT chunk_index, content FROM "
+                                                           + getMessageContentTableName()
+                                                           + " WHERE message_id = ? AND chunk_index >= ?"
+                                                           + " AND chunk_index <= ? ORDER BY chunk_index"))
         {
-            stmt.setLong(1,messageId);
-            ResultSet rs = stmt.executeQuery();
+            stmt.setLong(1, messageId);
+            stmt.setInt(2, firstChunk);
+            stmt.setInt(3, Math.max(firstChunk, lastChunk));
 
-            if (rs.next())
+            final List<byte[]> chunks = new ArrayList<>();
+            int size = 0;
+            int skip = 0;
+            try (ResultSet rs = stmt.executeQuery())
             {
-                byte[] data = getBlobAsBytes(rs, 1);
-                int offset = 0;
-                int length = data.length;
-                Collection<QpidByteBuffer> buffers = QpidByteBuffer.allocateDirectCollection(length);
-                for(QpidByteBuffer buf : buffers)
+                while (rs.next() && size < length)
                 {
-                    int bufSize = buf.remaining();
-                    buf.put(data, offset, bufSize);
-                    buf.flip();
-                    offset+=bufSize;
+                    final int chunkOffset = rs.getInt(1) * CONTENT_CHUNK_SIZE;
+                    final byte[] chunk = getBlobAsBytes(rs, 2);
+                    if (chunks.isEmpty())
+                    {
+                        skip = Math.min(chunk.length, Math.max(0, offset - chunkOffset));
+                    }
+                    chunks.add(chunk);
+                    size += chunk.length - (chunks.size() == 1 ? skip : 0);
                 }
-                return buffers;
             }
-            else
+
+            if (chunks.isEmpty())
             {
                 throw new StoreException("Unable to find message with id " + messageId);
             }
 
+            Collection<QpidByteBuffer> buffers = QpidByteBuffer.allocateDirectCollection(Math.min(size, length));
+            final Iterator<byte[]> chunkIterator = chunks.iterator();
+            byte[] chunk = chunkIterator.next();
+            int chunkPosition = skip;
+            for(QpidByteBuffer buf : buffers)
+            {
+                while (buf.hasRemaining())
+                {
+                    if (chunkPosition == chunk.length)
+                    {
+                        chunk = chunkIterator.next();
+                        chunkPosition = 0;
+                    }
+                    final int copyLength = Math.min(buf.remaining(), chunk.length - chunkPosition);
+                    buf.put(chunk, chunkPosition, copyLength);
+                    chunkPosition += copyLength;
+                }
+                buf.flip();
+            }
+            return buffers;
         }
         catch (SQLException e)
         {
@@ -1060,11 +1248,17 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
         return _bytesEvacuatedFromMemory.get();
     }
 
+    /**
+     * Buffers the messages, enqueues and dequeues of the transaction, writing them to the database as batches when
+     * the transaction is committed.
+     */
     protected class JDBCTransaction implements Transaction
     {
         private final ConnectionWrapper _connWrapper;
         private int _storeSizeIncrease;
-        private final List<Runnable> _preCommitActions = new ArrayList<>();
+        private final List<StoredJDBCMessage<?>> _messagesToStore = new ArrayList<>();
+        private final List<MessageEnqueueRecord> _enqueues = new ArrayList<>();
+        private final List<MessageEnqueueRecord> _dequeues = new ArrayList<>();
         private final List<Runnable> _postCommitActions = new ArrayList<>();
 
         protected JDBCTransaction()
@@ -1087,26 +1281,18 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
             final StoredMessage storedMessage = message.getStoredMessage();
             if(storedMessage instanceof StoredJDBCMessage)
             {
-                _preCommitActions.add(new Runnable()
-                {
-                    @Override
-                    public void run()
-                    {
-                        try
-                        {
-                            ((StoredJDBCMessage) storedMessage).store(_connWrapper.getConnection());
-                            _storeSizeIncrease += storedMessage.getContentSize();
-                        }
-                        catch (SQLException e)
-                        {
-                            throw new StoreException("Exception on enqueuing message into message store" + _messageId,
-                                                     e);
-                        }
-                    }
-                });
+                _messagesToStore.add((StoredJDBCMessage<?>) storedMessage);
+            }
+
+            if (getLogger().isDebugEnabled())
+            {
+                getLogger().debug("Enqueuing message {} on queue {} with id {} [Connection {}]",
+                                  message.getMessageNumber(), queue.getName(), queue.getId(),
+                                  _connWrapper.getConnection());
             }
-            AbstractJDBCMessageStore.this.enqueueMessage(_connWrapper, queue, message.getMessageNumber());
-            return new JDBCEnqueueRecord(queue.getId(), message.getMessageNumber());
+            final JDBCEnqueueRecord enqueueRecord = new JDBCEnqueueRecord(queue.getId(), message.getMessageNumber());
+            _enqueues.add(enqueueRecord);
+            return enqueueRecord;
         }
 
         @Override
@@ -1114,9 +1300,9 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
         {
             checkMessageStoreOpen();
 
-            AbstractJDBCMessageStore.this.dequeueMessage(_connWrapper,
-                                                         enqueueRecord.getQueueId(),
-                                                         enqueueRecord.getMessageNumber());
+            getLogger().debug("Dequeuing message {} on queue with id {}",
+                              enqueueRecord.getMessageNumber(), enqueueRecord.getQueueId());
+            _dequeues.add(enqueueRecord);
         }
 
         @Override
@@ -1142,11 +1328,28 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
 
         private void doPreCommitActions()
         {
-            for(Runnable action : _preCommitActions)
+            try
+            {
+                if (!_messagesToStore.isEmpty())
+                {
+                    _storeSizeIncrease += storeMessages(_connWrapper, _messagesToStore);
+                    _messagesToStore.clear();
+                }
+            }
+            catch (SQLException e)
+            {
+                throw new StoreException("Exception on storing messages into message store", e);
+            }
+            if (!_enqueues.isEmpty())
+            {
+                enqueueMessages(_connWrapper, _enqueues);
+                _enqueues.clear();
+            }
+            if (!_dequeues.isEmpty())
             {
-                action.run();
+                dequeueMessages(_connWrapper, _dequeues);
+                _dequeues.clear();
             }
-            _preCommitActions.clear();
         }
 
         private void doPostCommitActions()
@@ -1166,7 +1369,9 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
         public void abortTran()
         {
             checkMessageStoreOpen();
-            _preCommitActions.clear();
+            _messagesToStore.clear();
+            _enqueues.clear();
+            _dequeues.clear();
             AbstractJDBCMessageStore.this.abortTran(_connWrapper);
         }
 
@@ -1353,6 +1558,7 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
         private final int _metadataSize;
 
         private MessageDataRef<T> _messageDataRef;
+        private boolean _storing;
 
         StoredJDBCMessage(long messageId,
                           T metaData, boolean isRecovered)
@@ -1454,6 +1660,13 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
         @Override
         public synchronized Collection<QpidByteBuffer> getContent(int offset, int length)
         {
+            if (isRegionOfStoredContent(offset, length))
+            {
+                // read only the region rather than reloading all the content of a large flowed to disk message
+                checkMessageStoreOpen();
+                return AbstractJDBCMessageStore.this.getContent(_messageId, offset, length);
+            }
+
             Collection<QpidByteBuffer> bufs = getContentAsByteBuffer();
             Collection<QpidByteBuffer> content = new ArrayList<>(bufs.size());
 
@@ -1498,6 +1711,15 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
             return content;
         }
 
+        private boolean isRegionOfStoredContent(final int offset, final int length)
+        {
+            return stored()
+                   && _messageDataRef.getData() == null
+                   && _contentSize > CONTENT_CHUNK_SIZE
+                   && offset < _contentSize
+                   && (offset > 0 || length < _contentSize);
+        }
+
         @Override
         public int getContentSize()
         {
@@ -1510,19 +1732,46 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
             return _metadataSize;
         }
 
-        synchronized void store(final Connection conn) throws SQLException
+        /**
+         * Adds the metadata and content of the message, if neither stored nor being stored, to the batches of the
+         * given connection.  The message is only marked as stored by {@link #storeCompleted(boolean)} once the
+         * transaction writing it commits, so that its content is not released from memory before then.
+         *
+         * @return true if the message was added
+         */
+        synchronized boolean store(final ConnectionWrapper connWrapper) throws SQLException
         {
-            if (!stored())
+            if (_messageDataRef != null && !stored() && !_storing)
             {
-                AbstractJDBCMessageStore.this.storeMetaData(conn, _messageId, _messageDataRef.getMetaData());
-                AbstractJDBCMessageStore.this.addContent(conn, _messageId,
+                AbstractJDBCMessageStore.this.storeMetaData(connWrapper, _messageId, _messageDataRef.getMetaData());
+                AbstractJDBCMessageStore.this.addContent(connWrapper, _messageId,
                                                          _messageDataRef.getData() == null
                                                                 ? Collections.<QpidByteBuffer>emptySet()
                                                                 : _messageDataRef.getData());
 
                 getLogger().debug("Storing message {} to store", _messageId);
 
-                _messageDataRef.setSoft();
+                _storing = true;
+                return true;
+            }
+            return false;
+        }
+
+        synchronized void storeCompleted(final boolean committed)
+        {
+            _storing = false;
+            if (committed)
+            {
+                if (_messageDataRef != null)
+                {
+                    _messageDataRef.setSoft();
+                }
+                else
+                {
+                    // removed while its transaction was committing
+                    AbstractJDBCMessageStore.this.removeMessage(_messageId);
+                    storedSizeChange(-getContentSize());
+                }
             }
         }
 
@@ -1532,11 +1781,21 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
             {
                 if(!stored())
                 {
-                    try (Connection conn = newConnection())
+                    try (ConnectionWrapper connWrapper = new ConnectionWrapper(newConnection()))
                     {
-                        store(conn);
-                        conn.commit();
-                        storedSizeChange(getContentSize());
+                        boolean committed = false;
+                        try
+                        {
+                            final int storedSize =
+                                    storeMessages(connWrapper, Collections.<StoredJDBCMessage<?>>singleton(this));
+                            connWrapper.getConnection().commit();
+                            committed = true;
+                            storedSizeChange(storedSize);
+                        }
+                        finally
+                        {
+                            connWrapper.completeStoredMessages(committed);
+                        }
                     }
                     catch (SQLException e)
                     {
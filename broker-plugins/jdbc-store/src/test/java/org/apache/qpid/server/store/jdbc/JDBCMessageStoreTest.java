@@ -23,25 +23,47 @@ package org.apache.qpid.server.store.jdbc;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.qpid.server.bytebuffer.QpidByteBuffer;
+import org.apache.qpid.server.message.EnqueueableMessage;
 import org.apache.qpid.server.model.VirtualHost;
+import org.apache.qpid.server.store.MessageDurability;
+import org.apache.qpid.server.store.MessageEnqueueRecord;
+import org.apache.qpid.server.store.MessageHandle;
 import org.apache.qpid.server.store.MessageStore;
 import org.apache.qpid.server.store.MessageStoreTestCase;
+import org.apache.qpid.server.store.StoreException;
+import org.apache.qpid.server.store.StoredMessage;
+import org.apache.qpid.server.store.TestMessageMetaData;
+import org.apache.qpid.server.store.Transaction;
+import org.apache.qpid.server.store.TransactionLogResource;
+import org.apache.qpid.server.store.handler.MessageInstanceHandler;
 import org.apache.qpid.server.virtualhost.jdbc.JDBCVirtualHost;
 
 public class JDBCMessageStoreTest extends MessageStoreTestCase
 {
     public static final String TEST_TABLE_PREFIX = "TEST_TABLE_PREFIX_";
     private String _connectionURL;
+    private final List<List<String>> _preparedStatements = new CopyOnWriteArrayList<>();
     private static final int BUFFER_SIZE = 10;
     private static final int POOL_SIZE = 20;
     private static final double SPARSITY_FRACTION = 1.0;
@@ -92,6 +114,267 @@ public class JDBCMessageStoreTest extends MessageStoreTestCase
         assertTablesExist(expectedTables, false);
     }
 
+    public void testContentRegionOfFlowedToDiskMessage() throws Exception
+    {
+        final int contentSize = 2 * AbstractJDBCMessageStore.CONTENT_CHUNK_SIZE + 10;
+        final byte[] content = new byte[contentSize];
+        for (int i = 0; i < contentSize; i++)
+        {
+            content[i] = (byte) i;
+        }
+
+        final MessageHandle<TestMessageMetaData> handle =
+                getStore().addMessage(new TestMessageMetaData(1, contentSize));
+        handle.addContent(QpidByteBuffer.wrap(content));
+        final StoredMessage<TestMessageMetaData> message = handle.allContentAdded();
+        message.flowToDisk();
+        assertFalse("Message unexpectedly in memory", message.isInMemory());
+
+        final int offset = AbstractJDBCMessageStore.CONTENT_CHUNK_SIZE - 5;
+        assertTrue("Unexpected region content",
+                   Arrays.equals(Arrays.copyOfRange(content, offset, offset + 20),
+                                 getBytes(message.getContent(offset, 20))));
+        assertFalse("Message unexpectedly in memory after reading region", message.isInMemory());
+
+        assertTrue("Unexpected content", Arrays.equals(content, getBytes(message.getContent(0, contentSize))));
+    }
+
+    public void testEmptyContentRegionOfFlowedToDiskMessage() throws Exception
+    {
+        final MessageHandle<TestMessageMetaData> handle = getStore().addMessage(new TestMessageMetaData(1, 10));
+        handle.addContent(QpidByteBuffer.wrap(new byte[10]));
+        final StoredMessage<TestMessageMetaData> message = handle.allContentAdded();
+        message.flowToDisk();
+
+        assertEquals("Unexpected content", 0, getBytes(message.getContent(5, 0)).length);
+    }
+
+    public void testUpgradeFromVersion8() throws Exception
+    {
+        final int contentSize = AbstractJDBCMessageStore.CONTENT_CHUNK_SIZE + 10;
+        final byte[] content = new byte[contentSize];
+        for (int i = 0; i < contentSize; i++)
+        {
+            content[i] = (byte) i;
+        }
+
+        final MessageHandle<TestMessageMetaData> handle =
+                getStore().addMessage(new TestMessageMetaData(1, contentSize));
+        handle.addContent(QpidByteBuffer.wrap(content));
+        final StoredMessage<TestMessageMetaData> message = handle.allContentAdded();
+        message.flowToDisk();
+        final long messageId = message.getMessageNumber();
+
+        // move the content into the single row per message table of version 8
+        final String legacyContentTableName = TEST_TABLE_PREFIX + "QPID_MESSAGE_CONTENT";
+        try (Connection conn = openConnection())
+        {
+            try (Statement stmt = conn.createStatement())
+            {
+                stmt.execute("CREATE TABLE " + legacyContentTableName
+                             + " ( message_id bigint not null, content blob, PRIMARY KEY (message_id) )");
+                stmt.execute("DELETE FROM " + TEST_TABLE_PREFIX + "QPID_MESSAGE_CONTENT_CHUNKS");
+                stmt.execute("UPDATE " + TEST_TABLE_PREFIX + "QPID_DB_VERSION SET version = 8");
+            }
+            try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO " + legacyContentTableName
+                                                                + " ( message_id, content ) values (?, ?)"))
+            {
+                stmt.setLong(1, messageId);
+                stmt.setBinaryStream(2, new ByteArrayInputStream(content), contentSize);
+                stmt.executeUpdate();
+            }
+        }
+
+        reopenStore();
+        getStore().upgradeStoreStructure();
+
+        assertFalse("Legacy content table not dropped", getTableNames().contains(legacyContentTableName));
+        final MessageStore.MessageStoreReader reader = getStore().newMessageStoreReader();
+        try
+        {
+            final StoredMessage<?> upgradedMessage = reader.getMessage(messageId);
+            assertNotNull("Message not found after upgrade", upgradedMessage);
+            assertTrue("Unexpected content",
+                       Arrays.equals(content, getBytes(upgradedMessage.getContent(0, contentSize))));
+            final int offset = AbstractJDBCMessageStore.CONTENT_CHUNK_SIZE - 5;
+            assertTrue("Unexpected region content",
+                       Arrays.equals(Arrays.copyOfRange(content, offset, contentSize),
+                                     getBytes(upgradedMessage.getContent(offset, contentSize - offset))));
+        }
+        finally
+        {
+            reader.close();
+        }
+    }
+
+    public void testEnqueuesAndDequeuesWrittenInBatchesAtCommit() throws Exception
+    {
+        final UUID queueId = UUID.randomUUID();
+        final TransactionLogResource queue = createTransactionLogResource(queueId);
+
+        final Transaction txn1 = getStore().newTransaction();
+        final List<String> txn1Statements = getLastConnectionPreparedStatements();
+        final MessageEnqueueRecord record1 = txn1.enqueueMessage(queue, createEnqueueableMessage(1L));
+        final MessageEnqueueRecord record2 = txn1.enqueueMessage(queue, createEnqueueableMessage(2L));
+        final EnqueueableMessage message3 = createEnqueueableMessage(3L);
+        txn1.enqueueMessage(queue, message3);
+        assertTrue("Statements unexpectedly prepared before commit: " + txn1Statements, txn1Statements.isEmpty());
+        txn1.commitTran();
+
+        // metadata, content and queue entry inserts
+        assertEquals("Unexpected statements prepared: " + txn1Statements, 3, txn1Statements.size());
+        assertEquals("Statement prepared more than once: " + txn1Statements,
+                     txn1Statements.size(), new HashSet<>(txn1Statements).size());
+
+        final Transaction txn2 = getStore().newTransaction();
+        final List<String> txn2Statements = getLastConnectionPreparedStatements();
+        txn2.dequeueMessage(record1);
+        txn2.dequeueMessage(record2);
+        final EnqueueableMessage message4 = createEnqueueableMessage(4L);
+        txn2.enqueueMessage(queue, message4);
+        txn2.commitTran();
+
+        assertNotSame("Transactions unexpectedly share a connection", txn1Statements, txn2Statements);
+        assertEquals("Unexpected statements prepared: " + txn2Statements, 4, txn2Statements.size());
+        assertEquals("Statement prepared more than once: " + txn2Statements,
+                     txn2Statements.size(), new HashSet<>(txn2Statements).size());
+        assertTrue("Statements of the first connection not prepared again on the second",
+                   txn2Statements.containsAll(txn1Statements));
+
+        assertEquals("Unexpected enqueued messages",
+                     new HashSet<>(Arrays.asList(message3.getMessageNumber(), message4.getMessageNumber())),
+                     getEnqueuedMessageIds(queueId));
+    }
+
+    public void testDequeueFailureReportedAtCommit() throws Exception
+    {
+        final UUID queueId = UUID.randomUUID();
+        final TransactionLogResource queue = createTransactionLogResource(queueId);
+        final EnqueueableMessage message = createEnqueueableMessage(1L);
+        final MessageEnqueueRecord missingRecord = mock(MessageEnqueueRecord.class);
+        when(missingRecord.getQueueId()).thenReturn(queueId);
+        when(missingRecord.getMessageNumber()).thenReturn(message.getMessageNumber() + 1);
+
+        final Transaction txn = getStore().newTransaction();
+        txn.enqueueMessage(queue, message);
+        txn.dequeueMessage(missingRecord);
+        try
+        {
+            txn.commitTran();
+            fail("Exception not thrown");
+        }
+        catch (StoreException e)
+        {
+            // pass
+        }
+        txn.abortTran();
+
+        assertTrue("Enqueue of failed transaction unexpectedly stored", getEnqueuedMessageIds(queueId).isEmpty());
+    }
+
+    public void testMessageOfFailedTransactionNotMarkedStored() throws Exception
+    {
+        final UUID queueId = UUID.randomUUID();
+        final TransactionLogResource queue = createTransactionLogResource(queueId);
+        final EnqueueableMessage message = createEnqueueableMessage(1L);
+        final StoredMessage<?> storedMessage = message.getStoredMessage();
+        final MessageEnqueueRecord missingRecord = mock(MessageEnqueueRecord.class);
+        when(missingRecord.getQueueId()).thenReturn(queueId);
+        when(missingRecord.getMessageNumber()).thenReturn(message.getMessageNumber() + 1);
+
+        final Transaction txn = getStore().newTransaction();
+        txn.enqueueMessage(queue, message);
+        txn.dequeueMessage(missingRecord);
+        try
+        {
+            txn.commitTran();
+            fail("Exception not thrown");
+        }
+        catch (StoreException e)
+        {
+            // pass
+        }
+        txn.abortTran();
+
+        // the message content rolled back with the transaction, so flowing to disk must write it again
+        storedMessage.flowToDisk();
+        assertFalse("Message unexpectedly in memory", storedMessage.isInMemory());
+        assertTrue("Unexpected content",
+                   Arrays.equals(new byte[]{(byte) 1}, getBytes(storedMessage.getContent(0, 1))));
+    }
+
+    private List<String> getLastConnectionPreparedStatements()
+    {
+        return _preparedStatements.get(_preparedStatements.size() - 1);
+    }
+
+    private TransactionLogResource createTransactionLogResource(final UUID queueId)
+    {
+        final TransactionLogResource queue = mock(TransactionLogResource.class);
+        when(queue.getId()).thenReturn(queueId);
+        when(queue.getName()).thenReturn("testQueue");
+        when(queue.getMessageDurability()).thenReturn(MessageDurability.DEFAULT);
+        return queue;
+    }
+
+    private EnqueueableMessage createEnqueueableMessage(final long messageId)
+    {
+        final MessageHandle<TestMessageMetaData> handle = getStore().addMessage(new TestMessageMetaData(messageId, 1));
+        handle.addContent(QpidByteBuffer.wrap(new byte[]{(byte) messageId}));
+        final StoredMessage<TestMessageMetaData> storedMessage = handle.allContentAdded();
+
+        final EnqueueableMessage message = mock(EnqueueableMessage.class);
+        when(message.isPersistent()).thenReturn(true);
+        when(message.getMessageNumber()).thenReturn(storedMessage.getMessageNumber());
+        when(message.getStoredMessage()).thenReturn(storedMessage);
+        return message;
+    }
+
+    private Set<Long> getEnqueuedMessageIds(final UUID queueId)
+    {
+        final Set<Long> messageIds = new HashSet<>();
+        final MessageStore.MessageStoreReader reader = getStore().newMessageStoreReader();
+        try
+        {
+            reader.visitMessageInstances(new MessageInstanceHandler()
+            {
+                @Override
+                public boolean handle(final MessageEnqueueRecord record)
+                {
+                    if (record.getQueueId().equals(queueId))
+                    {
+                        messageIds.add(record.getMessageNumber());
+                    }
+                    return true;
+                }
+            });
+        }
+        finally
+        {
+            reader.close();
+        }
+        return messageIds;
+    }
+
+    private byte[] getBytes(final Collection<QpidByteBuffer> buffers)
+    {
+        int size = 0;
+        for (QpidByteBuffer buf : buffers)
+        {
+            size += buf.remaining();
+        }
+        final byte[] bytes = new byte[size];
+        int position = 0;
+        for (QpidByteBuffer buf : buffers)
+        {
+            final int remaining = buf.remaining();
+            buf.get(bytes, position, remaining);
+            position += remaining;
+            buf.dispose();
+        }
+        return bytes;
+    }
+
     @Override
     protected VirtualHost createVirtualHost()
     {
@@ -109,7 +392,43 @@ public class JDBCMessageStoreTest extends MessageStoreTestCase
     @Override
     protected MessageStore createMessageStore()
     {
-        return new GenericJDBCMessageStore();
+        return new GenericJDBCMessageStore()
+        {
+            @Override
+            public Connection getConnection() throws SQLException
+            {
+                return recordPreparedStatements(super.getConnection());
+            }
+        };
+    }
+
+    private Connection recordPreparedStatements(final Connection connection)
+    {
+        final List<String> preparedStatements = new CopyOnWriteArrayList<>();
+        _preparedStatements.add(preparedStatements);
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                                                   new Class<?>[]{Connection.class},
+                                                   new InvocationHandler()
+                                                   {
+                                                       @Override
+                                                       public Object invoke(final Object proxy,
+                                                                            final Method method,
+                                                                            final Object[] args) throws Throwable
+                                                       {
+                                                           if ("prepareStatement".equals(method.getName()))
+                                                           {
+                                                               preparedStatements.add((String) args[0]);
+                                                           }
+                                                           try
+                                                           {
+                                                               return method.invoke(connection, args);
+                                                           }
+                                                           catch (InvocationTargetException e)
+                                                           {
+                                                               throw e.getCause();
+                                                           }
+                                                       }
+                                                   });
     }
 
     private void assertTablesExist(Collection<String> expectedTables, boolean exists) throws SQLException
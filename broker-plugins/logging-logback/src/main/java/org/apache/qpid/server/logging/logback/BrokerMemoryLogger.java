@@ -40,7 +40,15 @@ public interface BrokerMemoryLogger<X extends BrokerMemoryLogger<X>> extends Bro
     String BROKERMEMORYLOGGER_MAX_RECORD_LIMIT_VAR  = "brokermemorylogger.max_record_limit";
 
     @ManagedContextDefault(name = BROKERMEMORYLOGGER_MAX_RECORD_LIMIT_VAR)
-    int MAX_RECORD_LIMIT = 16384;
+    int MAX_RECORD_LIMIT = 1048576;
+
+    String BROKERMEMORYLOGGER_BYTES_PER_RECORD_VAR = "brokermemorylogger.bytes_per_record";
+
+    @ManagedContextDefault(name = BROKERMEMORYLOGGER_BYTES_PER_RECORD_VAR,
+                           description = "Average size in bytes of the thread name and message of a record, used to size"
+                                         + " the off-heap buffer holding the records. If the buffer becomes full the"
+                                         + " oldest records are discarded, even if maxRecords has not been reached.")
+    int DEFAULT_BYTES_PER_RECORD = 256;
 
     @ManagedAttribute( defaultValue = "4096" )
     int getMaxRecords();
@@ -48,4 +56,12 @@ public interface BrokerMemoryLogger<X extends BrokerMemoryLogger<X>> extends Bro
     @ManagedOperation(nonModifying = true, changesConfiguredObjectState = false)
     Collection<LogRecord> getLogEntries(@Param(name="lastLogId", defaultValue="0") long lastLogId);
 
+    @ManagedOperation(nonModifying = true, changesConfiguredObjectState = false,
+                      description = "Returns the records following the given record id matching the given criteria.")
+    Collection<LogRecord> findLogEntries(@Param(name = "lastLogId", defaultValue = "0") long lastLogId,
+                                         @Param(name = "minimumLevel", description = "The minimum level of the records returned, e.g. WARN.") String minimumLevel,
+                                         @Param(name = "loggerName", description = "The logger, including its descendants, of the records returned.") String loggerName,
+                                         @Param(name = "fromTimestamp", defaultValue = "0", description = "The earliest timestamp of the records returned.") long fromTimestamp,
+                                         @Param(name = "limit", defaultValue = "-1", description = "The maximum number of records returned, or -1 for no limit.") int limit);
+
 }
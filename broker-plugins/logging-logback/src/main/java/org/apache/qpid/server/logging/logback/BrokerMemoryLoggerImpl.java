@@ -20,12 +20,11 @@
  */
 package org.apache.qpid.server.logging.logback;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.Appender;
 import ch.qos.logback.core.Context;
@@ -95,7 +94,10 @@ public class BrokerMemoryLoggerImpl extends AbstractBrokerLogger<BrokerMemoryLog
         {
             throw new IllegalStateException("RecordEventAppender is already created");
         }
-        RecordEventAppender appender =  new RecordEventAppender(getMaxRecords());
+        final int maxRecords = getMaxRecords();
+        final int bytesPerRecord = getContextValue(Integer.class, BROKERMEMORYLOGGER_BYTES_PER_RECORD_VAR);
+        final int dataCapacity = (int) Math.min(Integer.MAX_VALUE, (long) maxRecords * Math.max(1, bytesPerRecord));
+        RecordEventAppender appender =  new RecordEventAppender(maxRecords, dataCapacity);
         _logRecorder = new LogRecorder(appender);
         return appender;
     }
@@ -103,15 +105,34 @@ public class BrokerMemoryLoggerImpl extends AbstractBrokerLogger<BrokerMemoryLog
     @Override
     public Collection<LogRecord> getLogEntries(long lastLogId)
     {
-        List<LogRecord> logRecords = new ArrayList<>();
-        for(LogRecord record : _logRecorder)
+        return _logRecorder.findLogRecords(lastLogId, null, null, Long.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Collection<LogRecord> findLogEntries(final long lastLogId,
+                                                final String minimumLevel,
+                                                final String loggerName,
+                                                final long fromTimestamp,
+                                                final int limit)
+    {
+        final Level level;
+        if (minimumLevel == null || "".equals(minimumLevel))
+        {
+            level = null;
+        }
+        else
         {
-            if (record.getId() > lastLogId)
+            level = Level.toLevel(minimumLevel, null);
+            if (level == null)
             {
-                logRecords.add(record);
+                throw new IllegalArgumentException(String.format("Unknown log level '%s'", minimumLevel));
             }
         }
-        return logRecords;
+        return _logRecorder.findLogRecords(lastLogId,
+                                           level,
+                                           loggerName == null || "".equals(loggerName) ? null : loggerName,
+                                           fromTimestamp,
+                                           limit < 0 ? Integer.MAX_VALUE : limit);
     }
 
 }
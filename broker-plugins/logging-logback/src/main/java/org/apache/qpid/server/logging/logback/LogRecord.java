@@ -26,13 +26,36 @@ import org.apache.qpid.server.model.ManagedAttributeValueType;
 @ManagedAttributeValueType
 public class LogRecord
 {
-    private final ILoggingEvent _event;
     private final long _id;
+    private final long _timestamp;
+    private final String _threadName;
+    private final String _level;
+    private final String _message;
+    private final String _logger;
 
     public LogRecord(long id, ILoggingEvent event)
+    {
+        this(id,
+             event.getTimeStamp(),
+             event.getThreadName(),
+             event.getLevel().toString(),
+             event.getFormattedMessage(),
+             event.getLoggerName());
+    }
+
+    public LogRecord(final long id,
+                     final long timestamp,
+                     final String threadName,
+                     final String level,
+                     final String message,
+                     final String logger)
     {
         _id = id;
-        _event = event;
+        _timestamp = timestamp;
+        _threadName = threadName;
+        _level = level;
+        _message = message;
+        _logger = logger;
     }
 
     public long getId()
@@ -42,26 +65,26 @@ public class LogRecord
 
     public long getTimestamp()
     {
-        return _event.getTimeStamp();
+        return _timestamp;
     }
 
     public String getThreadName()
     {
-        return _event.getThreadName();
+        return _threadName;
     }
 
     public String getLevel()
     {
-        return _event.getLevel().toString();
+        return _level;
     }
 
     public String getMessage()
     {
-        return _event.getFormattedMessage();
+        return _message;
     }
 
     public String getLogger()
     {
-        return _event.getLoggerName();
+        return _logger;
     }
 }
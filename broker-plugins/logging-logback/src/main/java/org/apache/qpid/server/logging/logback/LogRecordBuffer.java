@@ -0,0 +1,266 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.logging.logback;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+/**
+ * Bounded buffer of log records, holding the thread name and message of each record encoded in a single heap buffer
+ * used as a ring, rather than as an object graph per record.  The data buffer is deliberately not direct so that it
+ * does not consume the direct memory reserved for messaging.  The attributes used for filtering (timestamp, level and
+ * logger name, the latter being shared with logback) are indexed alongside so that records can be selected without
+ * decoding them.
+ * <p>
+ * Records are evicted oldest first when either the maximum number of records is reached or there is not enough space
+ * in the data buffer for a new record.  Record ids are assigned sequentially starting from 1.
+ * <p>
+ * The data buffer and the index grow on demand up to their maximum sizes, so that a logger configured for a large
+ * number of records only pays for the records it actually holds.
+ */
+class LogRecordBuffer
+{
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int INITIAL_RECORDS = 1024;
+    private static final int INITIAL_DATA_CAPACITY = 64 * 1024;
+
+    private final int _maxRecords;
+    private final int _maxDataCapacity;
+    private ByteBuffer _data;
+    private int[] _offsets;
+    private int[] _lengths;
+    private long[] _timestamps;
+    private Level[] _levels;
+    private String[] _loggers;
+
+    private long _firstId = 1L;
+    private long _nextId = 1L;
+    private int _writePosition;
+
+    LogRecordBuffer(final int maxRecords, final int dataCapacity)
+    {
+        if (maxRecords < 1)
+        {
+            throw new IllegalArgumentException("Maximum number of records must be positive: " + maxRecords);
+        }
+        if (dataCapacity < HEADER_SIZE)
+        {
+            throw new IllegalArgumentException("Data capacity is too small: " + dataCapacity);
+        }
+        _maxRecords = maxRecords;
+        _maxDataCapacity = dataCapacity;
+        _data = ByteBuffer.allocate(Math.min(dataCapacity, INITIAL_DATA_CAPACITY));
+        final int indexSize = Math.min(maxRecords, INITIAL_RECORDS);
+        _offsets = new int[indexSize];
+        _lengths = new int[indexSize];
+        _timestamps = new long[indexSize];
+        _levels = new Level[indexSize];
+        _loggers = new String[indexSize];
+    }
+
+    synchronized long add(final ILoggingEvent event)
+    {
+        byte[] threadName = encode(event.getThreadName());
+        byte[] message = encode(event.getFormattedMessage());
+
+        // truncate rather than discard records which could never fit
+        final int maxPayload = _maxDataCapacity - HEADER_SIZE;
+        if (threadName.length > maxPayload)
+        {
+            threadName = Arrays.copyOf(threadName, maxPayload);
+        }
+        if (threadName.length + message.length > maxPayload)
+        {
+            message = Arrays.copyOf(message, maxPayload - threadName.length);
+        }
+        final int length = HEADER_SIZE + threadName.length + message.length;
+
+        final int size = size();
+        if (size == _maxRecords)
+        {
+            evictOldest();
+        }
+        else if (size == _offsets.length)
+        {
+            growIndex();
+        }
+        if (_writePosition + length > _data.capacity())
+        {
+            // the buffer is fully grown before it is first wrapped, so all the data lies before the write position
+            if (_data.capacity() < _maxDataCapacity)
+            {
+                growData(_writePosition + length);
+            }
+            if (_writePosition + length > _data.capacity())
+            {
+                // the records after the write position are older than those from the start of the buffer which are
+                // about to be overwritten, so they must go first if eviction is to remain oldest first
+                while (_nextId > _firstId && _offsets[slot(_firstId)] >= _writePosition)
+                {
+                    evictOldest();
+                }
+                _writePosition = 0;
+            }
+        }
+        while (_nextId > _firstId && overlapsOldest(_writePosition, length))
+        {
+            evictOldest();
+        }
+
+        final long id = _nextId++;
+        final int slot = slot(id);
+        _offsets[slot] = _writePosition;
+        _lengths[slot] = length;
+        _timestamps[slot] = event.getTimeStamp();
+        _levels[slot] = event.getLevel();
+        _loggers[slot] = event.getLoggerName();
+
+        _data.position(_writePosition);
+        _data.putInt(threadName.length);
+        _data.put(threadName);
+        _data.putInt(message.length);
+        _data.put(message);
+        _writePosition += length;
+        return id;
+    }
+
+    /**
+     * Finds the records with ids greater than the given id matching the given criteria, in id order.
+     *
+     * @param lastLogId id after which records are returned
+     * @param minimumLevel the minimum level of the records returned, or null for all levels
+     * @param loggerName the logger, including its descendants, of the records returned, or null for all loggers
+     * @param fromTimestamp the earliest timestamp of the records returned
+     * @param limit the maximum number of records returned
+     */
+    synchronized List<LogRecord> find(final long lastLogId,
+                                      final Level minimumLevel,
+                                      final String loggerName,
+                                      final long fromTimestamp,
+                                      final int limit)
+    {
+        final List<LogRecord> records = new ArrayList<>();
+        for (long id = Math.max(lastLogId + 1, _firstId); id < _nextId && records.size() < limit; id++)
+        {
+            final int slot = slot(id);
+            if (_timestamps[slot] >= fromTimestamp
+                && (minimumLevel == null || _levels[slot].isGreaterOrEqual(minimumLevel))
+                && (loggerName == null || isLoggerOrDescendant(_loggers[slot], loggerName)))
+            {
+                records.add(decode(id, slot));
+            }
+        }
+        return records;
+    }
+
+    synchronized int size()
+    {
+        return (int) (_nextId - _firstId);
+    }
+
+    private LogRecord decode(final long id, final int slot)
+    {
+        _data.position(_offsets[slot]);
+        final String threadName = decodeString();
+        final String message = decodeString();
+        return new LogRecord(id, _timestamps[slot], threadName, _levels[slot].toString(), message, _loggers[slot]);
+    }
+
+    private String decodeString()
+    {
+        final byte[] bytes = new byte[_data.getInt()];
+        _data.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void growIndex()
+    {
+        final int indexSize = (int) Math.min(_maxRecords, 2L * _offsets.length);
+        final int[] offsets = new int[indexSize];
+        final int[] lengths = new int[indexSize];
+        final long[] timestamps = new long[indexSize];
+        final Level[] levels = new Level[indexSize];
+        final String[] loggers = new String[indexSize];
+        for (long id = _firstId; id < _nextId; id++)
+        {
+            final int oldSlot = slot(id);
+            final int newSlot = (int) ((id - 1) % indexSize);
+            offsets[newSlot] = _offsets[oldSlot];
+            lengths[newSlot] = _lengths[oldSlot];
+            timestamps[newSlot] = _timestamps[oldSlot];
+            levels[newSlot] = _levels[oldSlot];
+            loggers[newSlot] = _loggers[oldSlot];
+        }
+        _offsets = offsets;
+        _lengths = lengths;
+        _timestamps = timestamps;
+        _levels = levels;
+        _loggers = loggers;
+    }
+
+    private void growData(final int required)
+    {
+        final int capacity = (int) Math.min(_maxDataCapacity, Math.max((long) required, 2L * _data.capacity()));
+        final ByteBuffer data = ByteBuffer.allocate(capacity);
+        _data.position(0);
+        _data.limit(_writePosition);
+        data.put(_data);
+        _data = data;
+    }
+
+    private boolean overlapsOldest(final int position, final int length)
+    {
+        final int slot = slot(_firstId);
+        final int oldestOffset = _offsets[slot];
+        return oldestOffset < position + length && oldestOffset + _lengths[slot] > position;
+    }
+
+    private void evictOldest()
+    {
+        final int slot = slot(_firstId);
+        _loggers[slot] = null;
+        _levels[slot] = null;
+        _firstId++;
+    }
+
+    private int slot(final long id)
+    {
+        return (int) ((id - 1) % _offsets.length);
+    }
+
+    private static boolean isLoggerOrDescendant(final String logger, final String loggerName)
+    {
+        return logger != null
+               && logger.startsWith(loggerName)
+               && (logger.length() == loggerName.length() || logger.charAt(loggerName.length()) == '.');
+    }
+
+    private static byte[] encode(final String value)
+    {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
+}
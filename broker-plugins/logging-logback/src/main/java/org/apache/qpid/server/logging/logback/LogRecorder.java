@@ -19,8 +19,9 @@ package org.apache.qpid.server.logging.logback;
 
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 
-import ch.qos.logback.core.helpers.CyclicBuffer;
+import ch.qos.logback.classic.Level;
 
 public class LogRecorder implements Iterable<LogRecord>
 {
@@ -35,8 +36,22 @@ public class LogRecorder implements Iterable<LogRecord>
     @Override
     public Iterator<LogRecord> iterator()
     {
-        final CyclicBuffer<LogRecord> buffer = _eventAppender.getBuffer();
-        return buffer != null ?  buffer.asList().iterator() : Collections.<LogRecord>emptyIterator();
+        return findLogRecords(0L, null, null, 0L, Integer.MAX_VALUE).iterator();
+    }
+
+    /**
+     * Finds the recorded records following the given record id and matching the given criteria.
+     */
+    public List<LogRecord> findLogRecords(final long lastLogId,
+                                          final Level minimumLevel,
+                                          final String loggerName,
+                                          final long fromTimestamp,
+                                          final int limit)
+    {
+        final LogRecordBuffer buffer = _eventAppender.getBuffer();
+        return buffer != null
+                ? buffer.find(lastLogId, minimumLevel, loggerName, fromTimestamp, limit)
+                : Collections.<LogRecord>emptyList();
     }
 
 }
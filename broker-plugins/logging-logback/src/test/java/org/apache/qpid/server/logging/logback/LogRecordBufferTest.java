@@ -0,0 +1,160 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.logging.logback;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class LogRecordBufferTest extends QpidTestCase
+{
+    public void testRecordsRetrievedSinceId()
+    {
+        LogRecordBuffer buffer = new LogRecordBuffer(10, 1024);
+        for (int i = 0; i < 3; i++)
+        {
+            assertEquals("Unexpected id", i + 1, buffer.add(createEvent(i, Level.INFO, "a.b", "message" + i)));
+        }
+
+        List<LogRecord> records = buffer.find(1L, null, null, Long.MIN_VALUE, Integer.MAX_VALUE);
+        assertEquals("Unexpected number of records", 2, records.size());
+        LogRecord record = records.get(0);
+        assertEquals(2L, record.getId());
+        assertEquals(1L, record.getTimestamp());
+        assertEquals("INFO", record.getLevel());
+        assertEquals("a.b", record.getLogger());
+        assertEquals("message1", record.getMessage());
+        assertEquals("thread", record.getThreadName());
+        assertEquals(3L, records.get(1).getId());
+    }
+
+    public void testOldestRecordsEvictedWhenMaxRecordsReached()
+    {
+        LogRecordBuffer buffer = new LogRecordBuffer(2048, 1024 * 1024);
+        for (int i = 0; i < 2050; i++)
+        {
+            buffer.add(createEvent(i, Level.INFO, "a", "message" + i));
+        }
+
+        assertEquals("Unexpected size", 2048, buffer.size());
+        List<LogRecord> records = buffer.find(0L, null, null, Long.MIN_VALUE, Integer.MAX_VALUE);
+        assertEquals("Unexpected number of records", 2048, records.size());
+        assertEquals(3L, records.get(0).getId());
+        assertEquals("message2", records.get(0).getMessage());
+        assertEquals("message2049", records.get(2047).getMessage());
+    }
+
+    public void testOldestRecordsEvictedWhenDataCapacityReached()
+    {
+        // each record takes 8 bytes of header, 6 of thread name and 8 of message
+        LogRecordBuffer buffer = new LogRecordBuffer(100, 100);
+        for (int i = 0; i < 10; i++)
+        {
+            buffer.add(createEvent(i, Level.INFO, "a", "message" + i));
+        }
+
+        List<LogRecord> records = buffer.find(0L, null, null, Long.MIN_VALUE, Integer.MAX_VALUE);
+        assertEquals("Unexpected number of records", 4, records.size());
+        for (int i = 0; i < records.size(); i++)
+        {
+            assertEquals("message" + (i + 6), records.get(i).getMessage());
+        }
+    }
+
+    public void testRecordsOverwrittenAfterWrappingTwiceEvicted()
+    {
+        // records of 80, 15, 30 and 75 bytes: the third wraps leaving the second at the end of the buffer, the
+        // fourth wraps again over the third without overlapping the second
+        LogRecordBuffer buffer = new LogRecordBuffer(100, 100);
+        buffer.add(createEvent(0, Level.INFO, "a", createMessage(66)));
+        buffer.add(createEvent(1, Level.INFO, "a", createMessage(1)));
+        buffer.add(createEvent(2, Level.INFO, "a", createMessage(16)));
+        buffer.add(createEvent(3, Level.INFO, "a", createMessage(61)));
+
+        assertEquals("Unexpected size", 1, buffer.size());
+        List<LogRecord> records = buffer.find(2L, null, null, Long.MIN_VALUE, Integer.MAX_VALUE);
+        assertEquals("Unexpected number of records", 1, records.size());
+        assertEquals("Overwritten record found", 4L, records.get(0).getId());
+        assertEquals(createMessage(61), records.get(0).getMessage());
+    }
+
+    public void testOversizedMessageTruncated()
+    {
+        LogRecordBuffer buffer = new LogRecordBuffer(10, 20);
+        buffer.add(createEvent(0, Level.INFO, "a", "0123456789"));
+
+        List<LogRecord> records = buffer.find(0L, null, null, Long.MIN_VALUE, Integer.MAX_VALUE);
+        assertEquals("Unexpected number of records", 1, records.size());
+        assertEquals("012345", records.get(0).getMessage());
+    }
+
+    public void testFilters()
+    {
+        LogRecordBuffer buffer = new LogRecordBuffer(10, 1024);
+        buffer.add(createEvent(0, Level.WARN, "a.b", "message0"));
+        buffer.add(createEvent(1, Level.DEBUG, "a.b.c", "message1"));
+        buffer.add(createEvent(2, Level.ERROR, "a.bc", "message2"));
+        buffer.add(createEvent(3, Level.INFO, "a", "message3"));
+
+        assertMessages(buffer.find(0L, Level.INFO, null, Long.MIN_VALUE, Integer.MAX_VALUE),
+                       "message0", "message2", "message3");
+        assertMessages(buffer.find(0L, null, "a.b", Long.MIN_VALUE, Integer.MAX_VALUE),
+                       "message0", "message1");
+        assertMessages(buffer.find(0L, null, null, 2L, Integer.MAX_VALUE),
+                       "message2", "message3");
+        assertMessages(buffer.find(0L, null, "a", Long.MIN_VALUE, 2),
+                       "message0", "message1");
+    }
+
+    private void assertMessages(final List<LogRecord> records, final String... expectedMessages)
+    {
+        assertEquals("Unexpected number of records", expectedMessages.length, records.size());
+        for (int i = 0; i < expectedMessages.length; i++)
+        {
+            assertEquals("Unexpected record", expectedMessages[i], records.get(i).getMessage());
+        }
+    }
+
+    private String createMessage(final int length)
+    {
+        final char[] message = new char[length];
+        Arrays.fill(message, 'x');
+        return new String(message);
+    }
+
+    private ILoggingEvent createEvent(final long timestamp, final Level level, final String logger, final String message)
+    {
+        ILoggingEvent event = mock(ILoggingEvent.class);
+        when(event.getTimeStamp()).thenReturn(timestamp);
+        when(event.getLevel()).thenReturn(level);
+        when(event.getLoggerName()).thenReturn(logger);
+        when(event.getFormattedMessage()).thenReturn(message);
+        when(event.getThreadName()).thenReturn("thread");
+        return event;
+    }
+}
@@ -20,12 +20,15 @@
  */
 package org.apache.qpid.server.management.plugin.servlet.query;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
+import java.util.PriorityQueue;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -80,16 +83,28 @@ public final class ConfiguredObjectQuery
         int offset = toInt(offsetClause, DEFAULT_OFFSET);
 
         HeadersAndValueExpressions headersAndValueExpressions = parseSelectClause(selectClause);
-
-        List<ConfiguredObject<?>> filteredObjects = whereClause == null ? objects : filterObjects(objects, whereClause);
-        List<ConfiguredObject<?>> orderedObjects = orderByClause == null ? filteredObjects : orderObjects(filteredObjects,
-                                                                                                          orderByClause,
-                                                                                                          headersAndValueExpressions.getValueExpressions());
-        List<ConfiguredObject<?>> limitedOrderedObjects = applyLimitAndOffset(orderedObjects, limit, offset);
+        BooleanExpression<ConfiguredObject> whereExpression = whereClause == null ? null : parseWhereClause(whereClause);
+        OrderByComparator orderByComparator = orderByClause == null
+                ? null
+                : new OrderByComparator(parseOrderByClause(orderByClause),
+                                        headersAndValueExpressions.getValueExpressions());
+
+        WindowSelector selector = orderByComparator == null
+                ? new UnorderedWindowSelector(limit, offset)
+                : new OrderedWindowSelector(orderByComparator, limit, offset);
+        int totalNumberOfRows = 0;
+        for (ConfiguredObject<?> object : objects)
+        {
+            if (whereExpression == null || matches(whereExpression, object))
+            {
+                selector.add(object, totalNumberOfRows++);
+            }
+        }
 
         _headers = headersAndValueExpressions.getHeaders();
-        _results = evaluateResults(limitedOrderedObjects, headersAndValueExpressions.getValueExpressions());
-        _totalNumberOfRows = filteredObjects.size();
+        _results = evaluateResults(selector.getSelectedObjects(totalNumberOfRows),
+                                   headersAndValueExpressions.getValueExpressions());
+        _totalNumberOfRows = totalNumberOfRows;
     }
 
     public List<List<Object>> getResults()
@@ -172,46 +187,213 @@ public final class ConfiguredObjectQuery
                 };
     }
 
-    private List<ConfiguredObject<?>> filterObjects(final List<ConfiguredObject<?>> objects, final String whereClause)
+    private BooleanExpression<ConfiguredObject> parseWhereClause(final String whereClause)
     {
-        List<ConfiguredObject<?>> filteredObjects = new ArrayList<>();
         ConfiguredObjectFilterParser parser = new ConfiguredObjectFilterParser();
         parser.setConfiguredObjectExpressionFactory(_expressionFactory);
         try
         {
-            final BooleanExpression<ConfiguredObject> expression =
-                    parser.parseWhere(whereClause);
+            return parser.parseWhere(whereClause);
+        }
+        catch (ParseException | TokenMgrError e)
+        {
+            throw new SelectorParsingException("Unable to parse where clause", e);
+        }
+    }
+
+    private boolean matches(final BooleanExpression<ConfiguredObject> expression, final ConfiguredObject<?> object)
+    {
+        try
+        {
+            return expression.matches(object);
+        }
+        catch (RuntimeException e)
+        {
+            throw new EvaluationException("Error while evaluating object against where clause", e);
+        }
+    }
+
+    private static int[] getWindow(final int size, final int limit, final int offset)
+    {
+        int firstIndex = offset < 0 ? Math.max(0, size + offset) : Math.min(size, offset);
+        int lastIndex = limit < 0 ? size : (int) Math.min(size, (long) firstIndex + limit);
+        return new int[]{firstIndex, lastIndex};
+    }
+
+    /**
+     * Number of leading rows which need to be retained to satisfy a non-negative offset, or -1 if all of them are
+     * needed.
+     */
+    private static int getRetainedRows(final int limit, final int offset)
+    {
+        if (limit < 0)
+        {
+            return -1;
+        }
+        long rows = (long) offset + limit;
+        return rows > Integer.MAX_VALUE ? -1 : (int) rows;
+    }
+
+    /**
+     * Retains only the objects which can fall within the limit/offset window as the matching objects are seen,
+     * so that the size of the selection is bounded by the window rather than by the number of objects queried.
+     */
+    private interface WindowSelector
+    {
+        void add(ConfiguredObject<?> object, int sequence);
 
+        List<ConfiguredObject<?>> getSelectedObjects(int totalNumberOfRows);
+    }
+
+    private static final class UnorderedWindowSelector implements WindowSelector
+    {
+        private final int _limit;
+        private final int _offset;
+        private final ArrayDeque<ConfiguredObject<?>> _selected = new ArrayDeque<>();
 
-            for (ConfiguredObject<?> object : objects)
+        UnorderedWindowSelector(final int limit, final int offset)
+        {
+            _limit = limit;
+            _offset = offset;
+        }
+
+        @Override
+        public void add(final ConfiguredObject<?> object, final int sequence)
+        {
+            if (_offset < 0)
             {
-                try
+                // the window is relative to the end, so only the last -offset objects can fall within it
+                _selected.addLast(object);
+                if (_selected.size() > -_offset)
                 {
-                    if (expression.matches(object))
-                    {
-                        filteredObjects.add(object);
-                    }
+                    _selected.removeFirst();
                 }
-                catch (RuntimeException e)
+            }
+            else if (sequence >= _offset && (_limit < 0 || sequence - _offset < _limit))
+            {
+                _selected.addLast(object);
+            }
+        }
+
+        @Override
+        public List<ConfiguredObject<?>> getSelectedObjects(final int totalNumberOfRows)
+        {
+            List<ConfiguredObject<?>> selected = new ArrayList<>(_selected);
+            if (_offset < 0)
+            {
+                int[] window = getWindow(totalNumberOfRows, _limit, _offset);
+                int skipped = totalNumberOfRows - selected.size();
+                return selected.subList(window[0] - skipped, window[1] - skipped);
+            }
+            return selected;
+        }
+    }
+
+    private static final class OrderedWindowSelector implements WindowSelector
+    {
+        private final OrderByComparator _comparator;
+        private final int _limit;
+        private final int _offset;
+        private final int _capacity;
+        private final Comparator<SortableObject> _retentionOrder;
+        private final Collection<SortableObject> _selected;
+
+        OrderedWindowSelector(final OrderByComparator comparator, final int limit, final int offset)
+        {
+            _comparator = comparator;
+            _limit = limit;
+            _offset = offset;
+            if (offset < 0)
+            {
+                // keep the -offset greatest objects
+                _capacity = -offset;
+                _retentionOrder = comparator.reversed();
+            }
+            else
+            {
+                // keep the offset + limit least objects
+                _capacity = getRetainedRows(limit, offset);
+                _retentionOrder = comparator;
+            }
+
+            if (_capacity < 0)
+            {
+                _selected = new ArrayList<>();
+            }
+            else
+            {
+                // head of the heap is the retained object which would be evicted first
+                _selected = new PriorityQueue<>(Math.max(1, Math.min(_capacity, 1024)), _retentionOrder.reversed());
+            }
+        }
+
+        @Override
+        public void add(final ConfiguredObject<?> object, final int sequence)
+        {
+            if (_capacity == 0)
+            {
+                return;
+            }
+
+            SortableObject sortableObject = _comparator.toSortableObject(object, sequence);
+            if (_capacity < 0 || _selected.size() < _capacity)
+            {
+                _selected.add(sortableObject);
+            }
+            else
+            {
+                PriorityQueue<SortableObject> heap = (PriorityQueue<SortableObject>) _selected;
+                if (_retentionOrder.compare(sortableObject, heap.peek()) < 0)
                 {
-                    throw new EvaluationException("Error while evaluating object against where clause", e);
+                    heap.poll();
+                    heap.add(sortableObject);
                 }
             }
+        }
+
+        @Override
+        public List<ConfiguredObject<?>> getSelectedObjects(final int totalNumberOfRows)
+        {
+            List<SortableObject> sorted = new ArrayList<>(_selected);
+            Collections.sort(sorted, _comparator);
+
+            int[] window = getWindow(totalNumberOfRows, _limit, _offset);
+            int skipped = _offset < 0 ? totalNumberOfRows - sorted.size() : 0;
+            List<ConfiguredObject<?>> selected = new ArrayList<>(Math.max(0, window[1] - window[0]));
+            for (SortableObject sortableObject : sorted.subList(window[0] - skipped, window[1] - skipped))
+            {
+                selected.add(sortableObject.getObject());
+            }
+            return selected;
+        }
+    }
 
+    private static final class SortableObject
+    {
+        private final ConfiguredObject<?> _object;
+        private final Object[] _sortKeys;
+        private final int _sequence;
+
+        private SortableObject(final ConfiguredObject<?> object, final Object[] sortKeys, final int sequence)
+        {
+            _object = object;
+            _sortKeys = sortKeys;
+            _sequence = sequence;
         }
-        catch (ParseException | TokenMgrError e)
+
+        ConfiguredObject<?> getObject()
         {
-            throw new SelectorParsingException("Unable to parse where clause", e);
+            return _object;
         }
-        return filteredObjects;
     }
 
-    private List<List<Object>> evaluateResults(final List<ConfiguredObject<?>> filteredObjects, List<Expression> valueExpressions)
+    private List<List<Object>> evaluateResults(final List<ConfiguredObject<?>> objects,
+                                               final List<Expression> valueExpressions)
     {
-        List<List<Object>> values = new ArrayList<>();
-        for (ConfiguredObject<?> object : filteredObjects)
+        List<List<Object>> values = new ArrayList<>(objects.size());
+        for (ConfiguredObject<?> object : objects)
         {
-            List<Object> objectVals = new ArrayList<>();
+            List<Object> objectVals = new ArrayList<>(valueExpressions.size());
             for (Expression<ConfiguredObject<?>> evaluator : valueExpressions)
             {
                 Object value;
@@ -231,17 +413,7 @@ public final class ConfiguredObjectQuery
         return values;
     }
 
-    private List<ConfiguredObject<?>> applyLimitAndOffset(final List<ConfiguredObject<?>> orderedObjects, final int limit, int offset)
-    {
-        int size = orderedObjects.size();
-        int firstIndex = offset < 0 ? Math.max(0, size + offset) : Math.min(size, offset);
-        int lastIndex = limit < 0 ? size : Math.min(size, firstIndex + limit);
-
-        return orderedObjects.subList(firstIndex, lastIndex);
-    }
-
-
-    class OrderByComparator implements Comparator<Object>
+    static class OrderByComparator implements Comparator<SortableObject>
     {
         private final List<OrderByExpression> _orderByExpressions;
 
@@ -269,8 +441,21 @@ public final class ConfiguredObjectQuery
             }
         }
 
+        /**
+         * Evaluates the orderBy expressions once for the given object, rather than on every comparison.
+         */
+        SortableObject toSortableObject(final ConfiguredObject<?> object, final int sequence)
+        {
+            Object[] sortKeys = new Object[_orderByExpressions.size()];
+            for (int i = 0; i < sortKeys.length; i++)
+            {
+                sortKeys[i] = _orderByExpressions.get(i).evaluate(object);
+            }
+            return new SortableObject(object, sortKeys, sequence);
+        }
+
         @Override
-        public int compare(final Object o1, final Object o2)
+        public int compare(final SortableObject o1, final SortableObject o2)
         {
             int index = 0;
             int comparisonResult = 0;
@@ -278,8 +463,8 @@ public final class ConfiguredObjectQuery
             {
                 try
                 {
-                    Comparable left = (Comparable) orderByExpression.evaluate(o1);
-                    Comparable right = (Comparable) orderByExpression.evaluate(o2);
+                    Comparable left = (Comparable) o1._sortKeys[index];
+                    Comparable right = (Comparable) o2._sortKeys[index];
                     if (left == null && right != null)
                     {
                         comparisonResult = -1;
@@ -308,22 +493,11 @@ public final class ConfiguredObjectQuery
                     throw new EvaluationException(String.format("The orderBy expression at position '%d' is unsupported", index), e);
                 }
             }
-            return comparisonResult;
+            // objects which compare equal retain the order in which they were queried
+            return Integer.compare(o1._sequence, o2._sequence);
         }
     }
 
-    private List<ConfiguredObject<?>> orderObjects(final List<ConfiguredObject<?>> unorderedResults,
-                                                   String orderByClause,
-                                                   final List<Expression> valueExpressions)
-    {
-        List<OrderByExpression> orderByExpressions = parseOrderByClause(orderByClause);
-        List<ConfiguredObject<?>> orderedObjects = new ArrayList<>(unorderedResults.size());
-        orderedObjects.addAll(unorderedResults);
-        Comparator<Object> comparator = new OrderByComparator(orderByExpressions, valueExpressions);
-        Collections.sort(orderedObjects, comparator);
-        return orderedObjects;
-    }
-
     private List<OrderByExpression> parseOrderByClause(final String orderByClause)
     {
         final List<OrderByExpression> orderByExpressions;
@@ -68,6 +68,9 @@ public abstract class AbstractServlet extends HttpServlet
     public static final int SC_UNPROCESSABLE_ENTITY = 422;
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractServlet.class);
     public static final String CONTENT_DISPOSITION = "Content-Disposition";
+    /** Configured once and shared by all servlets; an ObjectMapper is thread safe after configuration */
+    private static final ObjectMapper RESPONSE_OBJECT_MAPPER =
+            ConfiguredObjectJacksonModule.newObjectMapper(false).enable(SerializationFeature.INDENT_OUTPUT);
 
     private transient Broker<?> _broker;
     private transient HttpManagementConfiguration _managementConfiguration;
@@ -246,9 +249,7 @@ public abstract class AbstractServlet extends HttpServlet
     private void writeObjectToResponse(Object object, HttpServletRequest request,  HttpServletResponse response) throws IOException
     {
         OutputStream stream = getOutputStream(request, response);
-        ObjectMapper mapper = ConfiguredObjectJacksonModule.newObjectMapper(false);
-        mapper.configure(SerializationFeature.INDENT_OUTPUT, true);
-        mapper.writeValue(stream, object);
+        RESPONSE_OBJECT_MAPPER.writeValue(stream, object);
     }
 
     protected void sendCachingHeadersOnResponse(HttpServletResponse response)
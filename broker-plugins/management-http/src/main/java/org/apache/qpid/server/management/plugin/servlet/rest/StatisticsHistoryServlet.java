@@ -0,0 +1,262 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.management.plugin.servlet.rest;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.qpid.server.model.Broker;
+import org.apache.qpid.server.model.ConfiguredObject;
+import org.apache.qpid.server.model.StatisticType;
+import org.apache.qpid.server.stats.StatisticsHistory;
+
+/**
+ * Serves the sampled statistics history of all objects of a category in a single request.
+ * <p>
+ * Supported parameters are <code>category</code> (mandatory), <code>statistic</code> (repeatable, defaults to all
+ * sampled statistics), <code>resolution</code> (<code>second</code> or <code>minute</code>), <code>period</code>
+ * (in seconds), <code>percentile</code> (repeatable) and <code>samples</code> (set to false to return only the
+ * derived values).
+ */
+public class StatisticsHistoryServlet extends AbstractServlet
+{
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected void doGet(final HttpServletRequest request,
+                         final HttpServletResponse response,
+                         final ConfiguredObject<?> managedObject) throws IOException, ServletException
+    {
+        final StatisticsHistory history = getBroker().getStatisticsHistory();
+        if (history == null)
+        {
+            sendJsonErrorResponse(request, response, HttpServletResponse.SC_NOT_FOUND,
+                                  String.format("Statistics history is not enabled. Set context variable '%s' to enable it.",
+                                                Broker.BROKER_STATISTICS_HISTORY_ENABLED));
+            return;
+        }
+
+        final String category = request.getParameter("category");
+        if (category == null || "".equals(category))
+        {
+            sendJsonErrorResponse(request, response, SC_UNPROCESSABLE_ENTITY, "Parameter 'category' is mandatory");
+            return;
+        }
+
+        final StatisticsHistory.Resolution resolution;
+        final long since;
+        final double[] percentiles;
+        try
+        {
+            resolution = getResolution(request.getParameter("resolution"));
+            since = getSince(request.getParameter("period"));
+            percentiles = getPercentiles(request.getParameterValues("percentile"));
+        }
+        catch (IllegalArgumentException e)
+        {
+            sendJsonErrorResponse(request, response, SC_UNPROCESSABLE_ENTITY, e.getMessage());
+            return;
+        }
+
+        final String[] requestedStatistics = request.getParameterValues("statistic");
+        final Set<String> statistics =
+                requestedStatistics == null ? null : new HashSet<>(Arrays.asList(requestedStatistics));
+        final boolean includeSamples = !"false".equalsIgnoreCase(request.getParameter("samples"));
+
+        final List<Map<String, Object>> results = new ArrayList<>();
+        for (StatisticsHistory.ObjectHistory objectHistory : history.getHistories())
+        {
+            final ConfiguredObject<?> object = objectHistory.getConfiguredObject();
+            if (object.getCategoryClass().getSimpleName().equalsIgnoreCase(category)
+                && isInScope(object, managedObject))
+            {
+                final Map<String, Object> statisticsData = new LinkedHashMap<>();
+                for (String name : objectHistory.getStatisticNames())
+                {
+                    if (statistics == null || statistics.contains(name))
+                    {
+                        statisticsData.put(name, toMap(objectHistory, name, resolution, since, percentiles,
+                                                       includeSamples));
+                    }
+                }
+
+                final Map<String, Object> result = new LinkedHashMap<>();
+                result.put(ConfiguredObject.ID, object.getId());
+                result.put(ConfiguredObject.NAME, object.getName());
+                result.put("path", getPath(object, managedObject));
+                result.put("statistics", statisticsData);
+                results.add(result);
+            }
+        }
+
+        sendJsonResponse(results, request, response);
+    }
+
+    private Map<String, Object> toMap(final StatisticsHistory.ObjectHistory objectHistory,
+                                      final String name,
+                                      final StatisticsHistory.Resolution resolution,
+                                      final long since,
+                                      final double[] percentiles,
+                                      final boolean includeSamples)
+    {
+        final StatisticsHistory.Samples samples = objectHistory.getSamples(name, resolution, since);
+        final StatisticType type = objectHistory.getStatisticType(name);
+
+        final Map<String, Object> data = new LinkedHashMap<>();
+        data.put("statisticType", type);
+        data.put("resolution", resolution);
+        if (includeSamples)
+        {
+            data.put("timestamps", samples.getTimestamps());
+            data.put("values", samples.getValues());
+        }
+
+        final double[] distribution;
+        if (type == StatisticType.CUMULATIVE)
+        {
+            data.put("rate", toJsonNumber(samples.getRatePerSecond()));
+            distribution = samples.getIntervalRates();
+        }
+        else
+        {
+            distribution = samples.getValuesAsDoubles();
+        }
+
+        if (percentiles.length > 0)
+        {
+            final Map<String, Object> percentileValues = new LinkedHashMap<>();
+            for (double percentile : percentiles)
+            {
+                percentileValues.put("p" + BigDecimal.valueOf(percentile).stripTrailingZeros().toPlainString(),
+                                     toJsonNumber(StatisticsHistory.Samples.percentile(distribution, percentile)));
+            }
+            data.put("percentiles", percentileValues);
+        }
+        return data;
+    }
+
+    private Double toJsonNumber(final double value)
+    {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    private boolean isInScope(final ConfiguredObject<?> object, final ConfiguredObject<?> managedObject)
+    {
+        if (managedObject instanceof Broker)
+        {
+            return true;
+        }
+        ConfiguredObject<?> current = object;
+        while (current != null)
+        {
+            if (current == managedObject)
+            {
+                return true;
+            }
+            current = current.getParent();
+        }
+        return false;
+    }
+
+    private List<String> getPath(final ConfiguredObject<?> object, final ConfiguredObject<?> managedObject)
+    {
+        final LinkedList<String> path = new LinkedList<>();
+        ConfiguredObject<?> current = object;
+        while (current != null && current != managedObject && !(current instanceof Broker))
+        {
+            path.addFirst(current.getName());
+            current = current.getParent();
+        }
+        return Collections.unmodifiableList(path);
+    }
+
+    private StatisticsHistory.Resolution getResolution(final String value)
+    {
+        if (value == null)
+        {
+            return StatisticsHistory.Resolution.SECOND;
+        }
+        try
+        {
+            return StatisticsHistory.Resolution.valueOf(value.toUpperCase());
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new IllegalArgumentException(String.format("Unsupported resolution '%s'. Supported resolutions are %s",
+                                                             value,
+                                                             Arrays.toString(StatisticsHistory.Resolution.values())));
+        }
+    }
+
+    private long getSince(final String period)
+    {
+        if (period == null)
+        {
+            return Long.MIN_VALUE;
+        }
+        try
+        {
+            return System.currentTimeMillis() - Long.parseLong(period) * 1000L;
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IllegalArgumentException(String.format("Period '%s' is not a number of seconds", period));
+        }
+    }
+
+    private double[] getPercentiles(final String[] values)
+    {
+        if (values == null)
+        {
+            return new double[0];
+        }
+        final double[] percentiles = new double[values.length];
+        for (int i = 0; i < values.length; i++)
+        {
+            try
+            {
+                percentiles[i] = Double.parseDouble(values[i]);
+            }
+            catch (NumberFormatException e)
+            {
+                throw new IllegalArgumentException(String.format("Percentile '%s' is not a number", values[i]));
+            }
+            if (percentiles[i] < 0d || percentiles[i] > 100d)
+            {
+                throw new IllegalArgumentException(String.format("Percentile '%s' is not between 0 and 100", values[i]));
+            }
+        }
+        return percentiles;
+    }
+}
@@ -672,6 +672,68 @@ public class ConfiguredObjectQueryTest extends QpidTestCase
         assertQueryResults(new Object[][]{{"test-0"},{"test-1"},{"test-2"}}, _query.getResults());
     }
 
+    public void testLimitAndOffsetWithOrderBy() throws Exception
+    {
+        final int numberOfTestObjects = 10;
+        for (int i = 0; i < numberOfTestObjects; i++)
+        {
+            // insert out of order, with pairs of duplicate values
+            final int foo = (i * 7) % numberOfTestObjects / 2;
+            final String name = "test-" + i;
+            ConfiguredObject object = createCO(new HashMap<String, Object>()
+            {{
+                put("foo", foo);
+                put("name", name);
+            }});
+            _objects.add(object);
+        }
+
+        _query = new ConfiguredObjectQuery(_objects, "foo,name", null, "foo", "3", "0");
+        assertQueryResults(new Object[][]{{0, "test-0"}, {0, "test-3"}, {1, "test-6"}}, _query.getResults());
+        assertEquals("Unexpected total", numberOfTestObjects, _query.getTotalNumberOfRows());
+
+        _query = new ConfiguredObjectQuery(_objects, "foo,name", null, "foo DESC", "3", "2");
+        assertQueryResults(new Object[][]{{3, "test-1"}, {3, "test-8"}, {2, "test-2"}}, _query.getResults());
+
+        _query = new ConfiguredObjectQuery(_objects, "foo,name", null, "foo", "-1", "-3");
+        assertQueryResults(new Object[][]{{3, "test-8"}, {4, "test-4"}, {4, "test-7"}}, _query.getResults());
+
+        _query = new ConfiguredObjectQuery(_objects, "foo,name", null, "foo", "1", "-3");
+        assertQueryResults(new Object[][]{{3, "test-8"}}, _query.getResults());
+
+        _query = new ConfiguredObjectQuery(_objects, "foo,name", "foo > 2", "foo", "2", "1");
+        assertQueryResults(new Object[][]{{3, "test-8"}, {4, "test-4"}}, _query.getResults());
+        assertEquals("Unexpected total", 4, _query.getTotalNumberOfRows());
+    }
+
+    public void testLimitAndOffsetWithoutOrderBy() throws Exception
+    {
+        final int numberOfTestObjects = 5;
+        for (int i = 0; i < numberOfTestObjects; i++)
+        {
+            final String name = "test-" + i;
+            ConfiguredObject object = createCO(new HashMap<String, Object>()
+            {{
+                put("name", name);
+            }});
+            _objects.add(object);
+        }
+
+        _query = new ConfiguredObjectQuery(_objects, "name", null, null, "2", "1");
+        assertQueryResults(new Object[][]{{"test-1"}, {"test-2"}}, _query.getResults());
+
+        _query = new ConfiguredObjectQuery(_objects, "name", null, null, "1", "-2");
+        assertQueryResults(new Object[][]{{"test-3"}}, _query.getResults());
+
+        _query = new ConfiguredObjectQuery(_objects, "name", null, null, "-1", "-7");
+        assertQueryResults(new Object[][]{{"test-0"}, {"test-1"}, {"test-2"}, {"test-3"}, {"test-4"}},
+                           _query.getResults());
+
+        _query = new ConfiguredObjectQuery(_objects, "name", null, null, "3", "4");
+        assertQueryResults(new Object[][]{{"test-4"}}, _query.getResults());
+        assertEquals("Unexpected total", numberOfTestObjects, _query.getTotalNumberOfRows());
+    }
+
     private void assertQueryResults(final Object[][] expectedAttributes,
                                     final List<List<Object>> results)
     {
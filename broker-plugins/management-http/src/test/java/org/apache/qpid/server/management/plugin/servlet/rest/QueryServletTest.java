@@ -0,0 +1,151 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.management.plugin.servlet.rest;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.apache.qpid.server.model.ConfiguredObject;
+import org.apache.qpid.server.model.Model;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class QueryServletTest extends QpidTestCase
+{
+    private final List<ConfiguredObject<?>> _objects = new ArrayList<>();
+    private TestQueryServlet _servlet;
+    private HttpServletRequest _request;
+    private HttpServletResponse _response;
+    private ConfiguredObject<?> _parent;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        _parent = mock(ConfiguredObject.class);
+        _servlet = new TestQueryServlet();
+        _request = mock(HttpServletRequest.class);
+        _response = mock(HttpServletResponse.class);
+
+        _objects.add(createObject("obj1", 1));
+        _objects.add(createObject("obj2", 2));
+    }
+
+    public void testQuery() throws Exception
+    {
+        when(_request.getParameter("select")).thenReturn("name");
+        when(_request.getParameter("orderBy")).thenReturn("value DESC");
+
+        _servlet.doGet(_request, _response, _parent);
+
+        verify(_response).setStatus(HttpServletResponse.SC_OK);
+        final Map<String, Object> result = _servlet.getResponseBody();
+        assertEquals("Unexpected headers", Collections.singletonList("name"), result.get("headers"));
+        assertEquals("Unexpected results",
+                     Arrays.asList(Collections.singletonList("obj2"), Collections.singletonList("obj1")),
+                     result.get("results"));
+        assertEquals("Unexpected total", 2, result.get("total"));
+    }
+
+    public void testQueryFailingEvaluation() throws Exception
+    {
+        final ConfiguredObject<?> failingObject = createObject("obj3", 3);
+        when(failingObject.getAttribute("value")).thenThrow(new IllegalStateException("Test evaluation failure"));
+        _objects.add(failingObject);
+        when(_request.getParameter("select")).thenReturn("name");
+        when(_request.getParameter("where")).thenReturn("value > 0");
+
+        _servlet.doGet(_request, _response, _parent);
+
+        verify(_response).setStatus(AbstractServlet.SC_UNPROCESSABLE_ENTITY);
+        final Map<String, Object> result = _servlet.getResponseBody();
+        assertNotNull("Error message expected", result.get("errorMessage"));
+        assertNull("Unexpected results", result.get("results"));
+    }
+
+    private ConfiguredObject<?> createObject(final String name, final int value)
+    {
+        final ConfiguredObject<?> object = mock(ConfiguredObject.class);
+        when(object.getAttributeNames()).thenReturn(Arrays.asList(ConfiguredObject.NAME, "value"));
+        when(object.getAttribute(ConfiguredObject.NAME)).thenReturn(name);
+        when(object.getAttribute("value")).thenReturn(value);
+        return object;
+    }
+
+    private class TestQueryServlet extends QueryServlet<ConfiguredObject<?>>
+    {
+        private final ByteArrayOutputStream _output = new ByteArrayOutputStream();
+
+        @Override
+        protected ConfiguredObject<?> getParent(final HttpServletRequest request,
+                                                final ConfiguredObject<?> managedObject)
+        {
+            return managedObject;
+        }
+
+        @Override
+        protected Class<? extends ConfiguredObject> getSupportedCategory(final String categoryName,
+                                                                         final Model brokerModel)
+        {
+            return ConfiguredObject.class;
+        }
+
+        @Override
+        protected String getRequestedCategory(final HttpServletRequest request,
+                                              final ConfiguredObject<?> managedObject)
+        {
+            return "object";
+        }
+
+        @Override
+        protected List<ConfiguredObject<?>> getAllObjects(final ConfiguredObject<?> parent,
+                                                          final Class<? extends ConfiguredObject> category,
+                                                          final HttpServletRequest request)
+        {
+            return _objects;
+        }
+
+        @Override
+        protected OutputStream getOutputStream(final HttpServletRequest request, final HttpServletResponse response)
+        {
+            return _output;
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> getResponseBody() throws Exception
+        {
+            return new ObjectMapper().readValue(_output.toByteArray(), Map.class);
+        }
+    }
+}
@@ -27,13 +27,11 @@ import java.nio.ByteBuffer;
 import java.security.Principal;
 import java.security.cert.Certificate;
 import java.security.cert.X509Certificate;
-import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -57,8 +55,9 @@ import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.WebSocketPolicy;
 import org.eclipse.jetty.websocket.api.annotations.OnWebSocketClose;
 import org.eclipse.jetty.websocket.api.annotations.OnWebSocketConnect;
-import org.eclipse.jetty.websocket.api.annotations.OnWebSocketMessage;
+import org.eclipse.jetty.websocket.api.annotations.OnWebSocketFrame;
 import org.eclipse.jetty.websocket.api.annotations.WebSocket;
+import org.eclipse.jetty.websocket.api.extensions.Frame;
 import org.eclipse.jetty.websocket.server.WebSocketHandler;
 import org.eclipse.jetty.websocket.servlet.ServletUpgradeRequest;
 import org.eclipse.jetty.websocket.servlet.WebSocketServletFactory;
@@ -364,6 +363,7 @@ class WebSocketProvider implements AcceptingTransport
         private volatile MultiVersionProtocolEngine _protocolEngine;
         private volatile ConnectionWrapper _connectionWrapper;
         private volatile boolean _unexpectedByteBufferSizeReported;
+        private volatile boolean _textMessageReceived;
 
         AmqpWebSocket()
         {
@@ -390,14 +390,47 @@ class WebSocketProvider implements AcceptingTransport
                 }
             }
             _protocolEngine.setNetworkConnection(_connectionWrapper);
-            _protocolEngine.setWorkListener(object -> _server.getThreadPool().execute(() -> _connectionWrapper.doWork()));
+            _protocolEngine.setWorkListener(object -> _server.getThreadPool().execute(() ->
+            {
+                _connectionWrapper.doWork();
+                processUnprocessedInput();
+            }));
             _activeConnections.add(_connectionWrapper);
             _idleTimeoutChecker.wakeup();
 
         }
 
-        @OnWebSocketMessage @SuppressWarnings("unused")
-        public void onWebSocketBinary(Session sess, final byte[] payload, int offset, final int len)
+        /**
+         * Consumes the frames as they arrive, rather than having Jetty aggregate each message into a byte array, so
+         * that the payloads are copied only into the network buffer.
+         */
+        @OnWebSocketFrame @SuppressWarnings("unused")
+        public void onWebSocketFrame(final Session sess, final Frame frame)
+        {
+            switch (frame.getType())
+            {
+                case BINARY:
+                    _textMessageReceived = false;
+                    // fall through
+                case CONTINUATION:
+                    if (!_textMessageReceived && frame.hasPayload())
+                    {
+                        onWebSocketBinary(frame.getPayload());
+                    }
+                    break;
+                case TEXT:
+                    // AMQP frames MUST be sent as binary data payloads of WebSocket messages.
+                    LOGGER.info("Unexpected websocket text message received, closing connection");
+                    _textMessageReceived = true;
+                    sess.close();
+                    break;
+                default:
+                    // control frames are handled by Jetty
+                    break;
+            }
+        }
+
+        private void onWebSocketBinary(final ByteBuffer payload)
         {
             synchronized (_connectionWrapper)
             {
@@ -405,27 +438,29 @@ class WebSocketProvider implements AcceptingTransport
                 try
                 {
                     _protocolEngine.setIOThread(Thread.currentThread());
+                    _connectionWrapper.updateTransportBlockedForWriting();
                     Iterator<Runnable> iter = _protocolEngine.processPendingIterator();
                     while(iter.hasNext())
                     {
                         iter.next().run();
                     }
 
-                    int lastRead;
-                    int remaining = len;
+                    final ByteBuffer data = payload.slice();
+                    final int len = data.remaining();
                     do
                     {
-                        int chunkLen = Math.min(remaining, _netInputBuffer.remaining());
-                        _netInputBuffer.put(payload, offset, chunkLen);
-                        remaining -= chunkLen;
-                        offset += chunkLen;
+                        int chunkLen = Math.min(data.remaining(), _netInputBuffer.remaining());
+                        ByteBuffer chunk = data.duplicate();
+                        chunk.limit(chunk.position() + chunkLen);
+                        _netInputBuffer.put(chunk);
+                        data.position(data.position() + chunkLen);
 
                         _netInputBuffer.flip();
                         _protocolEngine.received(_netInputBuffer);
                         _connectionWrapper.doWrite();
                         restoreApplicationBufferForWrite();
                     }
-                    while(remaining > 0);
+                    while(data.hasRemaining());
 
                     if (LOGGER.isDebugEnabled())
                     {
@@ -440,6 +475,32 @@ class WebSocketProvider implements AcceptingTransport
             _idleTimeoutChecker.wakeup();
         }
 
+        /**
+         * Offers the engine again the input it left unread, once it is able to process it without further data from
+         * the peer.
+         */
+        private void processUnprocessedInput()
+        {
+            synchronized (_connectionWrapper)
+            {
+                if (_protocolEngine.hasUnprocessedInput())
+                {
+                    try
+                    {
+                        _protocolEngine.setIOThread(Thread.currentThread());
+                        _netInputBuffer.flip();
+                        _protocolEngine.received(_netInputBuffer);
+                        _connectionWrapper.doWrite();
+                        restoreApplicationBufferForWrite();
+                    }
+                    finally
+                    {
+                        _protocolEngine.setIOThread(null);
+                    }
+                }
+            }
+        }
+
         private void restoreApplicationBufferForWrite()
         {
             QpidByteBuffer oldNetInputBuffer = _netInputBuffer;
@@ -484,14 +545,6 @@ class WebSocketProvider implements AcceptingTransport
                 _unexpectedByteBufferSizeReported = true;
             }
         }
-        
-        /** AMQP frames MUST be sent as binary data payloads of WebSocket messages.*/
-        @OnWebSocketMessage @SuppressWarnings("unused")
-        public void onWebSocketText(Session sess, String text)
-        {
-            LOGGER.info("Unexpected websocket text message received, closing connection");
-            sess.close();
-        }
 
         @OnWebSocketClose @SuppressWarnings("unused")
         public void onWebSocketClose(final int statusCode, final String reason)
@@ -511,10 +564,10 @@ class WebSocketProvider implements AcceptingTransport
         private final Session _connection;
         private final SocketAddress _localAddress;
         private final SocketAddress _remoteAddress;
-        private final ConcurrentLinkedQueue<QpidByteBuffer> _buffers = new ConcurrentLinkedQueue<>();
         private final MultiVersionProtocolEngine _protocolEngine;
         private final ThreadPool _threadPool;
         private final Runnable _tickJob;
+        private final WebSocketSender _sender;
 
         private Certificate _certificate;
         private long _maxWriteIdleMillis;
@@ -531,6 +584,7 @@ class WebSocketProvider implements AcceptingTransport
             _remoteAddress = remoteAddress;
             _protocolEngine = protocolEngine;
             _threadPool = threadPool;
+            _sender = new WebSocketSender(connection, protocolEngine, _broker.getNetworkBufferSize());
             _tickJob = new Runnable()
                         {
                             @Override
@@ -559,17 +613,13 @@ class WebSocketProvider implements AcceptingTransport
         @Override
         public boolean isDirectBufferPreferred()
         {
-            return false;
+            return true;
         }
 
         @Override
         public void send(final QpidByteBuffer msg)
         {
-            if (msg.remaining() > 0)
-            {
-                _buffers.add(msg.duplicate());
-            }
-            msg.position(msg.limit());
+            _sender.send(msg);
         }
 
         @Override
@@ -667,43 +717,12 @@ class WebSocketProvider implements AcceptingTransport
 
         public synchronized void doWrite()
         {
-            int size = 0;
-            List<QpidByteBuffer> toBeWritten = new ArrayList<>(_buffers.size());
-            QpidByteBuffer buf;
-            while((buf = _buffers.poll())!= null)
-            {
-                // TODO: For efficiency perhaps only coalesce sequential small buffers and let large buffers
-                // go alone in a binary message.  This would likely avoid the memory copies of large transfer payloads
-                size += buf.remaining();
-                toBeWritten.add(buf);
-            }
-
-            byte[] data = new byte[size];
-            int offset = 0;
+            _sender.write();
+        }
 
-            for(QpidByteBuffer tmp : toBeWritten)
-            {
-                int remaining = tmp.remaining();
-                tmp.get(data, offset, remaining);
-                tmp.dispose();
-                offset += remaining;
-            }
-            if(size > 0)
-            {
-                try
-                {
-                    _connection.getRemote().sendBytes(ByteBuffer.wrap(data));
-                    if (LOGGER.isDebugEnabled())
-                    {
-                        LOGGER.debug("Written {} byte(s)", data.length);
-                    }
-                }
-                catch (IOException e)
-                {
-                    LOGGER.info("Exception on write: {}", e.getMessage());
-                    close();
-                }
-            }
+        void updateTransportBlockedForWriting()
+        {
+            _sender.updateTransportBlockedForWriting();
         }
 
         public synchronized void doWork()
@@ -712,6 +731,7 @@ class WebSocketProvider implements AcceptingTransport
             try
             {
                 _protocolEngine.setIOThread(Thread.currentThread());
+                updateTransportBlockedForWriting();
 
                 Iterator<Runnable> iter = _protocolEngine.processPendingIterator();
                 while(iter.hasNext())
@@ -0,0 +1,181 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.transport.websocket;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.qpid.server.bytebuffer.QpidByteBuffer;
+import org.apache.qpid.server.transport.ProtocolEngine;
+
+/**
+ * Writes the outgoing data of a WebSocket connection using Jetty's asynchronous send, without copying it into an
+ * intermediate array.  Small buffers are coalesced into a pooled direct buffer so as not to send a message per frame
+ * header.  Each buffer is disposed once Jetty reports its write complete.
+ * <p>
+ * As the send does not block, the bytes not yet acknowledged by Jetty are counted.  Above
+ * {@link #MAX_PENDING_WRITE_BUFFERS} network buffers the transport is reported to the protocol engine as blocked for
+ * writing, and the engine is notified of work once the backlog has drained below that again.
+ */
+class WebSocketSender
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(WebSocketSender.class);
+
+    /** Outgoing buffers smaller than this are coalesced with their neighbours rather than sent as a message alone */
+    static final int COALESCING_THRESHOLD = 4096;
+    /** Number of network buffers worth of unacknowledged outgoing data above which the connection stops writing */
+    static final int MAX_PENDING_WRITE_BUFFERS = 4;
+
+    private final Session _session;
+    private final ProtocolEngine _protocolEngine;
+    private final int _networkBufferSize;
+    private final long _maxPendingWriteBytes;
+    private final ConcurrentLinkedQueue<QpidByteBuffer> _buffers = new ConcurrentLinkedQueue<>();
+    private final AtomicLong _pendingWriteBytes = new AtomicLong();
+
+    WebSocketSender(final Session session, final ProtocolEngine protocolEngine, final int networkBufferSize)
+    {
+        _session = session;
+        _protocolEngine = protocolEngine;
+        _networkBufferSize = networkBufferSize;
+        _maxPendingWriteBytes = (long) MAX_PENDING_WRITE_BUFFERS * networkBufferSize;
+    }
+
+    void send(final QpidByteBuffer msg)
+    {
+        if (msg.remaining() > 0)
+        {
+            _buffers.add(msg.duplicate());
+        }
+        msg.position(msg.limit());
+    }
+
+    /**
+     * Sends the buffers queued by {@link #send(QpidByteBuffer)}.  Calls must not be made concurrently.
+     */
+    void write()
+    {
+        final int coalescingThreshold = Math.min(COALESCING_THRESHOLD, _networkBufferSize);
+        QpidByteBuffer coalesced = null;
+        QpidByteBuffer buf;
+        while((buf = _buffers.poll())!= null)
+        {
+            if (buf.remaining() >= coalescingThreshold)
+            {
+                coalesced = sendCoalesced(coalesced);
+                sendAsync(buf);
+            }
+            else
+            {
+                if (coalesced != null && coalesced.remaining() < buf.remaining())
+                {
+                    coalesced = sendCoalesced(coalesced);
+                }
+                if (coalesced == null)
+                {
+                    coalesced = QpidByteBuffer.allocateDirect(_networkBufferSize);
+                }
+                coalesced.put(buf);
+                buf.dispose();
+            }
+        }
+        sendCoalesced(coalesced);
+        updateTransportBlockedForWriting();
+    }
+
+    void updateTransportBlockedForWriting()
+    {
+        _protocolEngine.setTransportBlockedForWriting(_pendingWriteBytes.get() > _maxPendingWriteBytes);
+    }
+
+    long getPendingWriteBytes()
+    {
+        return _pendingWriteBytes.get();
+    }
+
+    private QpidByteBuffer sendCoalesced(final QpidByteBuffer coalesced)
+    {
+        if (coalesced != null)
+        {
+            coalesced.flip();
+            if (coalesced.hasRemaining())
+            {
+                sendAsync(coalesced);
+            }
+            else
+            {
+                coalesced.dispose();
+            }
+        }
+        return null;
+    }
+
+    private void sendAsync(final QpidByteBuffer buf)
+    {
+        final int size = buf.remaining();
+        _pendingWriteBytes.addAndGet(size);
+        try
+        {
+            _session.getRemote().sendBytes(buf.asByteBufferView(), new WriteCallback()
+            {
+                @Override
+                public void writeFailed(final Throwable x)
+                {
+                    written(buf, size);
+                    LOGGER.info("Exception on write: {}", x.getMessage());
+                    _session.close();
+                }
+
+                @Override
+                public void writeSuccess()
+                {
+                    written(buf, size);
+                    if (LOGGER.isDebugEnabled())
+                    {
+                        LOGGER.debug("Written {} byte(s)", size);
+                    }
+                }
+            });
+        }
+        catch (RuntimeException e)
+        {
+            written(buf, size);
+            LOGGER.info("Exception on write: {}", e.getMessage());
+            _session.close();
+        }
+    }
+
+    private void written(final QpidByteBuffer buf, final int size)
+    {
+        buf.dispose();
+        final long pending = _pendingWriteBytes.addAndGet(-size);
+        if (pending <= _maxPendingWriteBytes && pending + size > _maxPendingWriteBytes)
+        {
+            // the connection may have stopped writing, let it resume
+            _protocolEngine.notifyWork();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.transport.websocket;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.mockito.InOrder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import org.apache.qpid.server.bytebuffer.QpidByteBuffer;
+import org.apache.qpid.server.transport.ProtocolEngine;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class WebSocketSenderTest extends QpidTestCase
+{
+    private static final int NETWORK_BUFFER_SIZE = 1024;
+
+    private Session _session;
+    private RemoteEndpoint _remote;
+    private ProtocolEngine _protocolEngine;
+    private WebSocketSender _sender;
+    private final List<Integer> _sentSizes = new ArrayList<>();
+    private final List<WriteCallback> _callbacks = new ArrayList<>();
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        _session = mock(Session.class);
+        _remote = mock(RemoteEndpoint.class);
+        when(_session.getRemote()).thenReturn(_remote);
+        doAnswer(new Answer<Void>()
+        {
+            @Override
+            public Void answer(final InvocationOnMock invocation) throws Throwable
+            {
+                _sentSizes.add(((ByteBuffer) invocation.getArguments()[0]).remaining());
+                _callbacks.add((WriteCallback) invocation.getArguments()[1]);
+                return null;
+            }
+        }).when(_remote).sendBytes(any(ByteBuffer.class), any(WriteCallback.class));
+        _protocolEngine = mock(ProtocolEngine.class);
+        _sender = new WebSocketSender(_session, _protocolEngine, NETWORK_BUFFER_SIZE);
+    }
+
+    public void testSmallBuffersCoalesced()
+    {
+        _sender.send(QpidByteBuffer.wrap(new byte[10]));
+        _sender.send(QpidByteBuffer.wrap(new byte[20]));
+        _sender.send(QpidByteBuffer.wrap(new byte[NETWORK_BUFFER_SIZE]));
+        _sender.send(QpidByteBuffer.wrap(new byte[30]));
+        _sender.write();
+
+        assertEquals("Unexpected messages sent", asList(30, NETWORK_BUFFER_SIZE, 30), _sentSizes);
+        assertEquals(NETWORK_BUFFER_SIZE + 60, _sender.getPendingWriteBytes());
+
+        for (WriteCallback callback : _callbacks)
+        {
+            callback.writeSuccess();
+        }
+        assertEquals(0, _sender.getPendingWriteBytes());
+        verify(_session, never()).close();
+    }
+
+    public void testTransportBlockedWhilstPendingWritesExceedLimitAndResumedWhenDrained()
+    {
+        for (int i = 0; i <= WebSocketSender.MAX_PENDING_WRITE_BUFFERS; i++)
+        {
+            _sender.send(QpidByteBuffer.wrap(new byte[NETWORK_BUFFER_SIZE]));
+        }
+        _sender.write();
+
+        assertEquals(WebSocketSender.MAX_PENDING_WRITE_BUFFERS + 1, _callbacks.size());
+        verify(_protocolEngine).setTransportBlockedForWriting(true);
+
+        _callbacks.get(0).writeSuccess();
+        verify(_protocolEngine).notifyWork();
+
+        _sender.updateTransportBlockedForWriting();
+
+        final InOrder inOrder = inOrder(_protocolEngine);
+        inOrder.verify(_protocolEngine).setTransportBlockedForWriting(true);
+        inOrder.verify(_protocolEngine).notifyWork();
+        inOrder.verify(_protocolEngine).setTransportBlockedForWriting(false);
+
+        for (WriteCallback callback : _callbacks.subList(1, _callbacks.size()))
+        {
+            callback.writeSuccess();
+        }
+        assertEquals(0, _sender.getPendingWriteBytes());
+        verify(_protocolEngine).notifyWork();
+    }
+
+    public void testWriteFailureClosesSession()
+    {
+        for (int i = 0; i <= WebSocketSender.MAX_PENDING_WRITE_BUFFERS; i++)
+        {
+            _sender.send(QpidByteBuffer.wrap(new byte[NETWORK_BUFFER_SIZE]));
+        }
+        _sender.write();
+        verify(_protocolEngine).setTransportBlockedForWriting(true);
+
+        _callbacks.get(0).writeFailed(new IOException("Test write failure"));
+
+        verify(_session).close();
+        verify(_protocolEngine).notifyWork();
+        assertEquals((long) WebSocketSender.MAX_PENDING_WRITE_BUFFERS * NETWORK_BUFFER_SIZE,
+                     _sender.getPendingWriteBytes());
+    }
+
+    public void testSendFailureClosesSession()
+    {
+        doThrow(new IllegalStateException("Test send failure")).when(_remote)
+                .sendBytes(any(ByteBuffer.class), any(WriteCallback.class));
+
+        _sender.send(QpidByteBuffer.wrap(new byte[NETWORK_BUFFER_SIZE]));
+        _sender.write();
+
+        verify(_session).close();
+        assertEquals(0, _sender.getPendingWriteBytes());
+        verify(_protocolEngine).setTransportBlockedForWriting(false);
+    }
+
+    private static List<Integer> asList(final int... sizes)
+    {
+        final List<Integer> list = new ArrayList<>();
+        for (int size : sizes)
+        {
+            list.add(size);
+        }
+        return list;
+    }
+}
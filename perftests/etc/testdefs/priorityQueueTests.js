@@ -0,0 +1,103 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+/*
+ * Compares the throughput of priority queues with 10 and 256 priority levels, each consumed by competing
+ * consumers.  Messages are published with JMS priorities 0-9, so on the 256 level queue most levels are empty.
+ */
+
+var ACKNOWLEDGE_MODE_AUTO_ACKNOWLEDGE = 1;
+var DELIVERY_MODE_TRANSIENT = 1;
+
+var messageSize = 1024;
+var maximumDuration = 10000;
+var numberOfConsumers = 10;
+
+function createPriorityQueueTest(name, priorities)
+{
+    var destination = "testQueue_priority_" + priorities;
+    var test = {
+        "_name": name,
+        "_queues": [{
+            "_name": destination,
+            "_durable": false,
+            "_attributes": {
+                "x-qpid-priorities": priorities
+            }
+        }],
+        "_clients": []
+    };
+
+    test._clients.push({
+        "_name": "producingClient",
+        "_messageProviders": [{
+            "_name": "priorityProvider",
+            "_messageProperties": {
+                "priority": {"@def": "list", "_items": [0, 1, 2, 3, 4, 5, 6, 7, 8, 9], "_cyclic": true}
+            }
+        }],
+        "_connections": [{
+            "_name": "producingConnection",
+            "_factory": "connectionfactory",
+            "_sessions": [{
+                "_sessionName": "producingSession",
+                "_acknowledgeMode": ACKNOWLEDGE_MODE_AUTO_ACKNOWLEDGE,
+                "_producers": [{
+                    "_name": "Producer",
+                    "_destinationName": destination,
+                    "_messageSize": messageSize,
+                    "_deliveryMode": DELIVERY_MODE_TRANSIENT,
+                    "_messageProviderName": "priorityProvider",
+                    "_maximumDuration": maximumDuration
+                }]
+            }]
+        }]
+    });
+
+    for (var i = 0; i < numberOfConsumers; i++)
+    {
+        test._clients.push({
+            "_name": "consumingClient_" + i,
+            "_connections": [{
+                "_name": "consumingConnection_" + i,
+                "_factory": "connectionfactory_noprefetch",
+                "_sessions": [{
+                    "_sessionName": "consumingSession_" + i,
+                    "_acknowledgeMode": ACKNOWLEDGE_MODE_AUTO_ACKNOWLEDGE,
+                    "_consumers": [{
+                        "_name": "Consumer_" + i,
+                        "_destinationName": destination,
+                        "_maximumDuration": maximumDuration
+                    }]
+                }]
+            }]
+        });
+    }
+
+    return test;
+}
+
+var jsonObject = {
+    _tests: [
+        createPriorityQueueTest("priority_queue_10_levels", 10),
+        createPriorityQueueTest("priority_queue_256_levels", 256)
+    ]
+};